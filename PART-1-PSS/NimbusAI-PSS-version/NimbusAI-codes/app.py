@@ -6,8 +6,10 @@ import uuid
 import json
 import subprocess
 import logging
+import atexit
 from werkzeug.utils import secure_filename
 import time
+from java_worker import JavaWorker
 
 start = time.time()
 
@@ -20,6 +22,13 @@ app = Flask(__name__)
 app.config['UPLOAD_FOLDER'] = os.path.join(os.path.dirname(os.path.abspath(__file__)), 'uploads')
 app.config['MAX_CONTENT_LENGTH'] = 16 * 1024 * 1024  # 16 MB max file size
 app.config['JAVA_BIN'] = 'java'  # Update this to your Java path if needed
+# Run jobs on a resident Java server instead of starting a new JVM for every upload
+app.config['JAVA_SERVER'] = os.environ.get('NIMBUS_JAVA_SERVER', '1') != '0'
+app.config['JAVA_CLASSPATH'] = os.pathsep.join([
+    os.path.join('build', 'lib', 'NimbusAI-PSS.jar'),
+    os.path.join('build', 'lib', 'jfreechart-1.5.3.jar'),
+    os.path.join('build', 'lib', 'jcommon-1.0.23.jar'),
+])
 app.config['TEMP_DIR'] = os.path.join(os.path.dirname(os.path.abspath(__file__)), 'temp')
 app.config['VISUALIZATIONS_DIR'] = os.path.join(os.path.dirname(os.path.abspath(__file__)), 
                                                'static', 'visualizations')
@@ -34,6 +43,10 @@ os.makedirs(app.config['VISUALIZATIONS_DIR'], exist_ok=True)
 # Global data store for user sessions
 sessions = {}
 
+# Resident Java server, started on the first upload
+java_worker = JavaWorker(app.config['JAVA_BIN'], app.config['JAVA_CLASSPATH'])
+atexit.register(java_worker.close)
+
 # Helper functions
 def allowed_file(filename):
     return '.' in filename and filename.rsplit('.', 1)[1].lower() == 'csv'
@@ -47,30 +60,14 @@ def process_csv_with_java(file_path, session_id):
     
     # Run the Java application
     try:
-        cmd = [
-                app.config['JAVA_BIN'],
-                    '-cp',
-                os.pathsep.join([
-                    os.path.join('build', 'lib', 'NimbusAI-PSS.jar'),
-                    os.path.join('build', 'lib', 'jfreechart-1.5.3.jar'),
-                    os.path.join('build', 'lib', 'jcommon-1.0.23.jar'),
-                ]),
-            'Main',
-            file_path,
-            output_dir,
-            output_data
-        ]
-        
-        logger.info(f"Running Java command: {' '.join(cmd)}")
-        
-        # Execute the Java application
-        result = subprocess.run(cmd, capture_output=True, text=True)
+        args = [file_path, output_dir, output_data]
+        returncode, stdout, stderr = run_java_main(args)
         
-        if result.returncode != 0:
-            logger.error(f"Java process failed: {result.stderr}")
-            return None, None, result.stderr
+        if returncode != 0:
+            logger.error(f"Java process failed: {stderr}")
+            return None, None, stderr
         
-        logger.info(f"Java process output: {result.stdout}")
+        logger.info(f"Java process output: {stdout}")
         
         # Read the processed data
         processed_data = None
@@ -91,6 +88,21 @@ def process_csv_with_java(file_path, session_id):
         logger.error(f"Error processing CSV with Java: {str(e)}")
         return None, None, str(e)
 
+def run_java_main(args):
+    """Run the Java Main class with the given arguments, returning (returncode, stdout, stderr).
+    Jobs go to the resident Java server when it is enabled; if it cannot be used, a new
+    JVM is started for the job as before."""
+    if app.config['JAVA_SERVER']:
+        try:
+            return java_worker.run(args)
+        except (OSError, RuntimeError, ValueError) as e:
+            logger.warning(f"Java server unavailable, starting a new JVM instead: {str(e)}")
+    
+    cmd = [app.config['JAVA_BIN'], '-cp', app.config['JAVA_CLASSPATH'], 'Main'] + args
+    logger.info(f"Running Java command: {' '.join(cmd)}")
+    result = subprocess.run(cmd, capture_output=True, text=True)
+    return result.returncode, result.stdout, result.stderr
+
 def analyze_csv(file_path):
     """Perform basic analysis on the CSV file"""
     try:
@@ -0,0 +1,84 @@
+"""Compare the latency of processing a CSV file with a new JVM per job (the old
+subprocess model) and with the resident Java PSS server.
+
+Usage: python benchmark_java_worker.py <input_csv> [runs] [--classpath CP] [--concurrent N]
+"""
+import argparse
+import os
+import shutil
+import statistics
+import subprocess
+import tempfile
+import time
+from concurrent.futures import ThreadPoolExecutor
+
+from java_worker import JavaWorker
+
+DEFAULT_CLASSPATH = os.pathsep.join([
+    os.path.join('build', 'lib', 'NimbusAI-PSS.jar'),
+    os.path.join('build', 'lib', 'jfreechart-1.5.3.jar'),
+    os.path.join('build', 'lib', 'jcommon-1.0.23.jar'),
+])
+
+
+def job_args(input_csv, work_dir, job):
+    output_dir = os.path.join(work_dir, f"job{job}")
+    return [input_csv, output_dir, os.path.join(output_dir, 'processed.csv')]
+
+
+def time_jobs(run_job, runs, concurrent):
+    """Run the jobs, returning the latency of each one in milliseconds and the wall time."""
+    def timed(job):
+        start = time.perf_counter()
+        returncode = run_job(job)
+        if returncode != 0:
+            raise RuntimeError(f"Job {job} failed with status {returncode}")
+        return (time.perf_counter() - start) * 1000
+
+    start = time.perf_counter()
+    with ThreadPoolExecutor(concurrent) as pool:
+        latencies = list(pool.map(timed, range(runs)))
+    return latencies, (time.perf_counter() - start) * 1000
+
+
+def report(name, latencies, wall_millis):
+    ordered = sorted(latencies)
+    p95 = ordered[min(len(ordered) - 1, int(0.95 * len(ordered)))]
+    print(f"{name:<22} median {statistics.median(latencies):8.1f} ms   p95 {p95:8.1f} ms   "
+          f"total {wall_millis:9.1f} ms")
+
+
+def main():
+    parser = argparse.ArgumentParser(description=__doc__.split('\n\n')[0])
+    parser.add_argument('input_csv')
+    parser.add_argument('runs', type=int, nargs='?', default=10)
+    parser.add_argument('--classpath', default=DEFAULT_CLASSPATH)
+    parser.add_argument('--java', default='java')
+    parser.add_argument('--concurrent', type=int, default=1, help='jobs in flight at once')
+    options = parser.parse_args()
+
+    input_csv = os.path.abspath(options.input_csv)
+    work_dir = tempfile.mkdtemp(prefix='pss-benchmark-')
+    try:
+        def subprocess_job(job):
+            cmd = [options.java, '-cp', options.classpath, 'Main'] + job_args(input_csv, work_dir, job)
+            return subprocess.run(cmd, capture_output=True, text=True).returncode
+
+        worker = JavaWorker(options.java, options.classpath, jobs=options.concurrent)
+        start = time.perf_counter()
+        worker.start()
+        print(f"Server startup and warm-up: {(time.perf_counter() - start) * 1000:.0f} ms (once)")
+
+        def worker_job(job):
+            return worker.run(job_args(input_csv, work_dir, job))[0]
+
+        print(f"{options.runs} jobs on {os.path.basename(input_csv)}, {options.concurrent} at a time")
+        report('new JVM per job', *time_jobs(subprocess_job, options.runs, options.concurrent))
+        report('resident server', *time_jobs(worker_job, options.runs, options.concurrent))
+        worker.close()
+    finally:
+        shutil.rmtree(work_dir, ignore_errors=True)
+
+
+if __name__ == '__main__':
+    main()
@@ -0,0 +1,194 @@
+/**
+ * BilateralFilter - The weights of bilateral smoothing for one window.
+ * Each neighbour is weighted by a Gaussian of its distance from the centre (the
+ * spatial weight) times a Gaussian of its difference in value (the range weight).
+ * The spatial weights depend only on the offset, so they are computed once per
+ * window. The range weights are read from a table of the unit Gaussian, sampled
+ * finely enough that linear interpolation is accurate to about 5e-7, instead of
+ * calling Math.exp for every pair of points.
+ *
+ * For large windows the filter can also be approximated in time independent of
+ * the window (the piecewise-linear method of Durand and Dorsey): the range weights
+ * are taken relative to a few fixed value levels instead of each centre value, which
+ * turns the filter into ordinary convolutions, one pair per level. Each point then
+ * interpolates between the results of the two levels either side of its value.
+ */
+public class BilateralFilter {
+
+    // Table of exp(-t^2 / 2) for t from 0 to TABLE_LIMIT in steps of 1 / TABLE_RESOLUTION;
+    // beyond the limit the weight is below 1e-13 and is taken as zero
+    private static final int TABLE_RESOLUTION = 512;
+    private static final int TABLE_LIMIT = 8;
+    private static final double[] RANGE_TABLE = new double[TABLE_LIMIT * TABLE_RESOLUTION + 2];
+
+    static {
+        for (int i = 0; i < RANGE_TABLE.length; i++) {
+            double t = (double) i / TABLE_RESOLUTION;
+            RANGE_TABLE[i] = Math.exp(-t * t / 2);
+        }
+    }
+
+    // Value levels of the approximation per valueSigma, and the most levels used for one pass
+    private static final int LEVELS_PER_SIGMA = 2;
+    private static final int MAX_LEVELS = 64;
+
+    private final int halfWindow;
+    private final double[] spatialWeights;   // spatialWeights[j - i + halfWindow] for point j around point i
+    private final double valueScale;         // 1 / valueSigma
+    private final double valueSigma;
+
+    /**
+     * Constructor for BilateralFilter.
+     *
+     * @param halfWindow Number of points on each side of the centre
+     * @param spatialSigma Controls spatial weight decay
+     * @param valueSigma Controls value similarity weight
+     */
+    public BilateralFilter(int halfWindow, double spatialSigma, double valueSigma) {
+        this.halfWindow = halfWindow;
+        this.spatialWeights = new double[2 * halfWindow + 1];
+        for (int k = 0; k < spatialWeights.length; k++) {
+            double distance = k - halfWindow;
+            spatialWeights[k] = Math.exp(-(distance * distance) / (2 * spatialSigma * spatialSigma));
+        }
+        this.valueSigma = valueSigma;
+        this.valueScale = 1 / valueSigma;
+    }
+
+    /**
+     * Apply one pass of bilateral smoothing to part of a series. Points outside the
+     * range are read but not written, so disjoint ranges can be smoothed concurrently.
+     *
+     * @param data Values to smooth
+     * @param result Array to receive the smoothed values (must not be data)
+     * @param n Number of values
+     * @param from First point to smooth
+     * @param to One past the last point to smooth
+     */
+    public void applyRange(double[] data, double[] result, int n, int from, int to) {
+        for (int i = from; i < to; i++) {
+            double centerY = data[i];
+
+            // For points at the edges, use smaller windows
+            int start = Math.max(0, i - halfWindow);
+            int end = Math.min(n - 1, i + halfWindow);
+
+            double sum = 0;
+            double totalWeight = 0;
+            for (int j = start; j <= end; j++) {
+                double y = data[j];
+                double weight = spatialWeights[j - i + halfWindow] * rangeWeight(Math.abs(centerY - y) * valueScale);
+                sum += y * weight;
+                totalWeight += weight;
+            }
+
+            result[i] = (totalWeight > 0) ? sum / totalWeight : centerY;
+        }
+    }
+
+    /**
+     * Apply one pass of the approximate bilateral filter. The cost is a pair of
+     * convolutions with the spatial kernel for each value level, where there are two
+     * levels per valueSigma across the range of the data, up to 64 in all (with more
+     * levels the spacing grows and the result gets coarser).
+     *
+     * @param data Values to smooth
+     * @param result Array to receive the smoothed values (must not be data)
+     * @param n Number of values
+     * @param parallel Runs the convolutions and per-point loops
+     */
+    public void applyApproximate(double[] data, double[] result, int n, ParallelRanges parallel) {
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            min = Math.min(min, data[i]);
+            max = Math.max(max, data[i]);
+        }
+        if (!(max > min) || !(valueSigma > 0)) {
+            // Constant data or no range weights to approximate: use the direct filter
+            parallel.forEach(n, spatialWeights.length, (from, to) -> applyRange(data, result, n, from, to));
+            return;
+        }
+
+        double spacing = valueSigma / LEVELS_PER_SIGMA;
+        int levels = (int) Math.ceil((max - min) / spacing) + 1;
+        if (levels > MAX_LEVELS) {
+            levels = MAX_LEVELS;
+            spacing = (max - min) / (levels - 1);
+        }
+
+        double[] weights = new double[n];
+        double[] weightedY = new double[n];
+        double[] numerator = new double[n];
+        double[] denominator = new double[n];
+        double[] previous = new double[n];
+        double[] current = new double[n];
+
+        int lastLevel = levels - 1;
+        double below = min;
+        for (int level = 0; level < levels; level++) {
+            double value = (level == lastLevel) ? max : min + level * spacing;
+            double lower = below;
+
+            // Range weights relative to this level, then spread over the spatial window
+            parallel.forEach(n, 1, (from, to) -> {
+                for (int j = from; j < to; j++) {
+                    weights[j] = rangeWeight(Math.abs(data[j] - value) * valueScale);
+                    weightedY[j] = weights[j] * data[j];
+                }
+            });
+            convolve(weightedY, numerator, n, parallel);
+            convolve(weights, denominator, n, parallel);
+
+            // Filtered value as if every centre point had this level's value, and the
+            // interpolation for the points whose value lies between the last level and this one
+            double[] last = previous;
+            double[] next = current;
+            boolean first = level == 0;
+            parallel.forEach(n, 1, (from, to) -> {
+                for (int i = from; i < to; i++) {
+                    next[i] = (denominator[i] > 0) ? numerator[i] / denominator[i] : value;
+                    if (!first && data[i] >= lower && data[i] <= value) {
+                        double t = (data[i] - lower) / (value - lower);
+                        result[i] = (1 - t) * last[i] + t * next[i];
+                    }
+                }
+            });
+
+            previous = next;
+            current = last;
+            below = value;
+        }
+    }
+
+    // Convolve with the spatial weights, counting points outside the series as zero
+    private void convolve(double[] data, double[] result, int n, ParallelRanges parallel) {
+        int width = spatialWeights.length;
+        if (width >= Smoother.FFT_KERNEL_THRESHOLD && n >= width) {
+            FFTConvolution.convolve(data, result, n, spatialWeights, parallel);
+            return;
+        }
+        parallel.forEach(n, width, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                int start = Math.max(0, i - halfWindow);
+                int end = Math.min(n - 1, i + halfWindow);
+                double sum = 0;
+                for (int j = start; j <= end; j++) {
+                    sum += data[j] * spatialWeights[j - i + halfWindow];
+                }
+                result[i] = sum;
+            }
+        });
+    }
+
+    // exp(-t^2 / 2) for t >= 0 by linear interpolation in the table
+    private static double rangeWeight(double t) {
+        double position = t * TABLE_RESOLUTION;
+        if (!(position < TABLE_LIMIT * TABLE_RESOLUTION)) {
+            return 0;
+        }
+        int index = (int) position;
+        double fraction = position - index;
+        return RANGE_TABLE[index] + fraction * (RANGE_TABLE[index + 1] - RANGE_TABLE[index]);
+    }
+}
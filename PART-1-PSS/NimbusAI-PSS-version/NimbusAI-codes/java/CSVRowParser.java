@@ -0,0 +1,430 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * CSVRowParser - Turns raw CSV lines into x/y data points.
+ * Lines are parsed directly from bytes: fields are located by scanning for commas
+ * and numbers are parsed in place, so no String is created for an ordinary row.
+ *
+ * Column selection follows the header heuristics of the original Main.readCSV.
+ * If the selected columns never yield a row, the first numeric column of every
+ * line is used instead, with the row index as x. That fallback is tracked during
+ * the same pass, so the file never has to be read twice.
+ */
+public class CSVRowParser {
+
+    // Powers of ten that are exactly representable as doubles
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    // Largest number of significant digits that always fits exactly in a double
+    private static final int MAX_FAST_DIGITS = 15;
+
+    // Letters that can appear in a Java number but not in a plain decimal one
+    // (NaN, Infinity, hex literals and type suffixes)
+    private static final String SPECIAL_NUMBER_CHARS = "NaIinfityxXpPdDfF";
+
+    private final PointSink sink;
+    private int xIndex = 0;
+    private int yIndex = 1;
+    private long rowCount = 0;
+
+    // First numeric column of each line, kept only until the selected columns yield a row
+    private DataSeries lenientRows = new DataSeries();
+
+    // Scratch state for the number parser, to avoid returning a boxed value
+    private double parsedValue;
+
+    // Set when this parser only sees one range of a file (see parsePartialFile)
+    private boolean partial = false;
+    private int[] indexedRows = new int[0];
+    private int indexedRowCount = 0;
+
+    // Lines skipped since the last drainWarnings()
+    private final List<String> warnings = new ArrayList<>();
+
+    /**
+     * Constructor for CSVRowParser.
+     *
+     * @param sink Receives each parsed data point
+     */
+    public CSVRowParser(PointSink sink) {
+        this.sink = sink;
+    }
+
+    /**
+     * Prepare the parser to handle one range of a file that is split between several
+     * parsers. Row numbers are then only known relative to the start of the range, so
+     * rows whose x fell back to the row index are recorded for renumbering, and finish()
+     * must not be called: the caller decides whether the lenient fallback applies to the
+     * whole file.
+     */
+    public void parsePartialFile() {
+        partial = true;
+    }
+
+    /**
+     * Determine which columns to use from the header line.
+     *
+     * @param line The header line
+     */
+    public void parseHeader(String line) {
+        String[] headers = line.split(",");
+        for (int i = 0; i < headers.length; i++) {
+            String header = headers[i].trim().toLowerCase();
+            if (header.contains("time") || header.contains("date") || header.contains("x")) {
+                xIndex = i;
+            } else if (header.contains("value") || header.contains("y") ||
+                       header.contains("data") || header.contains("measure")) {
+                yIndex = i;
+            }
+        }
+    }
+
+    /**
+     * Parse one data line. The line must not include its terminator.
+     *
+     * @param buffer Buffer holding the line
+     * @param start Index of the first byte of the line
+     * @param end Index one past the last byte of the line
+     */
+    public void parseLine(ByteBuffer buffer, int start, int end) {
+        int xStart = -1, xEnd = -1, yStart = -1, yEnd = -1;
+        boolean lenientFound = (lenientRows == null);
+        double lenientValue = 0;
+
+        // Number of fields as String.split(",") would count them: trailing empty fields are dropped
+        int fieldCount = 0;
+        int field = 0;
+        int fieldStart = start;
+        boolean sawComma = false;
+
+        for (int pos = start; pos <= end; pos++) {
+            if (pos < end && buffer.get(pos) != ',') {
+                continue;
+            }
+
+            if (pos < end) {
+                sawComma = true;
+            }
+            if (pos > fieldStart) {
+                fieldCount = field + 1;
+            }
+            if (field == xIndex) {
+                xStart = fieldStart;
+                xEnd = pos;
+            }
+            if (field == yIndex) {
+                yStart = fieldStart;
+                yEnd = pos;
+            }
+            if (!lenientFound && parseNumber(buffer, fieldStart, pos)) {
+                lenientFound = true;
+                lenientValue = parsedValue;
+            }
+
+            field++;
+            fieldStart = pos + 1;
+        }
+        if (!sawComma) {
+            fieldCount = 1;
+        }
+
+        if (lenientRows != null && lenientFound) {
+            lenientRows.add(lenientRows.size(), lenientValue);
+        }
+
+        if (fieldCount > Math.max(xIndex, yIndex)) {
+            if (!parseNumber(buffer, yStart, yEnd)) {
+                // Skip lines that can't be parsed
+                warnings.add("Warning: Skipping line: " + decode(buffer, start, end));
+                return;
+            }
+            double y = parsedValue;
+
+            // If x cannot be parsed, use the row index as the x value
+            if (parseNumber(buffer, xStart, xEnd)) {
+                emit(parsedValue, y);
+            } else {
+                if (partial) {
+                    recordIndexedRow();
+                }
+                emit(rowCount, y);
+            }
+        }
+    }
+
+    /**
+     * Parse every field of a data line as a number, for reading all columns at once.
+     * The line must not include its terminator.
+     *
+     * @param buffer Buffer holding the line
+     * @param start Index of the first byte of the line
+     * @param end Index one past the last byte of the line
+     * @param values Array to receive the value of each field; fields that are missing
+     *               or not numbers are set to NaN, and fields beyond its length are ignored
+     * @return Number of fields that are numbers (other than NaN)
+     */
+    public int parseFields(ByteBuffer buffer, int start, int end, double[] values) {
+        Arrays.fill(values, Double.NaN);
+        int numbers = 0;
+        int field = 0;
+        int fieldStart = start;
+        for (int pos = start; pos <= end && field < values.length; pos++) {
+            if (pos < end && buffer.get(pos) != ',') {
+                continue;
+            }
+            if (parseNumber(buffer, fieldStart, pos) && !Double.isNaN(parsedValue)) {
+                values[field] = parsedValue;
+                numbers++;
+            }
+            field++;
+            fieldStart = pos + 1;
+        }
+        return numbers;
+    }
+
+    /**
+     * Get the column chosen for the x-values by the header heuristics.
+     *
+     * @return Index of the x column (0 if no header names one)
+     */
+    public int getXColumn() {
+        return xIndex;
+    }
+
+    /**
+     * Finish parsing. If the selected columns never produced a row, the buffered
+     * first-numeric-column values are emitted instead.
+     */
+    public void finish() {
+        if (rowCount == 0 && lenientRows != null) {
+            DataSeries fallback = lenientRows;
+            lenientRows = null;
+            for (int i = 0; i < fallback.size(); i++) {
+                emit(fallback.getX(i), fallback.getY(i));
+            }
+        }
+        lenientRows = null;
+    }
+
+    /**
+     * Get the number of data points emitted so far.
+     *
+     * @return Number of rows
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Get the rows, counted from the start of the range, whose x-value is the
+     * row index because the x column could not be parsed. Only recorded after
+     * parsePartialFile().
+     *
+     * @return Row numbers in ascending order
+     */
+    public int[] getIndexedRows() {
+        return Arrays.copyOf(indexedRows, indexedRowCount);
+    }
+
+    /**
+     * Get the warnings for the lines skipped so far. The parser does not print them,
+     * so the caller can report them wherever its output goes.
+     *
+     * @return Warnings in the order the lines were parsed
+     */
+    public List<String> getWarnings() {
+        return warnings;
+    }
+
+    /**
+     * Pass the warnings for the lines skipped so far to a consumer and forget them,
+     * so a long stream does not hold every warning in memory.
+     *
+     * @param consumer Receives each warning in the order the lines were parsed
+     */
+    public void drainWarnings(Consumer<String> consumer) {
+        for (String warning : warnings) {
+            consumer.accept(warning);
+        }
+        warnings.clear();
+    }
+
+    /**
+     * Get the first-numeric-column values that finish() would fall back to.
+     *
+     * @return The buffered values with range-relative row indices as x,
+     *         or null if the selected columns have produced a row
+     */
+    public DataSeries getLenientRows() {
+        return lenientRows;
+    }
+
+    private void recordIndexedRow() {
+        if (indexedRowCount == indexedRows.length) {
+            indexedRows = Arrays.copyOf(indexedRows, Math.max(16, indexedRowCount * 2));
+        }
+        indexedRows[indexedRowCount++] = (int) rowCount;
+    }
+
+    private void emit(double x, double y) {
+        rowCount++;
+        // Once a row is found the lenient fallback can never be used
+        lenientRows = null;
+        sink.accept(x, y);
+    }
+
+    /**
+     * Parse a field as a double without creating a String.
+     * Leading and trailing whitespace is ignored, as with String.trim().
+     * Plain decimal numbers with at most 15 significant digits and a small exponent
+     * are converted exactly (the result is correctly rounded, so it matches
+     * Double.parseDouble); anything else that could still be a valid Java number
+     * is handed to Double.parseDouble.
+     *
+     * @param buffer Buffer holding the field
+     * @param start Index of the first byte of the field
+     * @param end Index one past the last byte of the field
+     * @return true if the field is a number, with the value left in parsedValue
+     */
+    private boolean parseNumber(ByteBuffer buffer, int start, int end) {
+        // Trim whitespace
+        while (start < end && (buffer.get(start) & 0xff) <= ' ') start++;
+        while (end > start && (buffer.get(end - 1) & 0xff) <= ' ') end--;
+        if (start >= end) {
+            return false;
+        }
+
+        int pos = start;
+        boolean negative = false;
+        byte b = buffer.get(pos);
+        if (b == '-' || b == '+') {
+            negative = (b == '-');
+            pos++;
+        }
+
+        long mantissa = 0;
+        int significantDigits = 0;
+        int digits = 0;
+        int exponent = 0;
+
+        // Integer part
+        while (pos < end && (b = buffer.get(pos)) >= '0' && b <= '9') {
+            if (significantDigits > 0 || b != '0') {
+                mantissa = mantissa * 10 + (b - '0');
+                significantDigits++;
+            }
+            digits++;
+            pos++;
+        }
+
+        // Fractional part
+        if (pos < end && buffer.get(pos) == '.') {
+            pos++;
+            while (pos < end && (b = buffer.get(pos)) >= '0' && b <= '9') {
+                if (significantDigits > 0 || b != '0') {
+                    mantissa = mantissa * 10 + (b - '0');
+                    significantDigits++;
+                }
+                exponent--;
+                digits++;
+                pos++;
+            }
+        }
+
+        // Exponent part
+        if (digits > 0 && pos < end && ((b = buffer.get(pos)) == 'e' || b == 'E')) {
+            pos++;
+            boolean negativeExponent = false;
+            if (pos < end && ((b = buffer.get(pos)) == '-' || b == '+')) {
+                negativeExponent = (b == '-');
+                pos++;
+            }
+            int exponentDigits = 0;
+            int explicitExponent = 0;
+            while (pos < end && (b = buffer.get(pos)) >= '0' && b <= '9') {
+                if (explicitExponent < 10000) {
+                    explicitExponent = explicitExponent * 10 + (b - '0');
+                }
+                exponentDigits++;
+                pos++;
+            }
+            if (exponentDigits == 0) {
+                return parseSpecial(buffer, start, end);
+            }
+            exponent += negativeExponent ? -explicitExponent : explicitExponent;
+        }
+
+        if (digits == 0 || pos != end) {
+            return parseSpecial(buffer, start, end);
+        }
+
+        if (significantDigits > MAX_FAST_DIGITS) {
+            return parseExact(buffer, start, end);
+        }
+
+        double value = mantissa;
+        if (mantissa != 0) {
+            if (exponent < 0 && exponent >= -22) {
+                value = value / POWERS_OF_TEN[-exponent];
+            } else if (exponent > 0 && exponent <= 22) {
+                value = value * POWERS_OF_TEN[exponent];
+            } else if (exponent != 0) {
+                return parseExact(buffer, start, end);
+            }
+        }
+
+        parsedValue = negative ? -value : value;
+        return true;
+    }
+
+    /**
+     * Handle a field that is not a plain decimal number. The fast parser accepts every
+     * plain decimal Java number, so the field can only still be valid if it uses one of
+     * the special forms; fields without any of those letters are rejected without
+     * building a String or throwing an exception.
+     */
+    private boolean parseSpecial(ByteBuffer buffer, int start, int end) {
+        boolean special = false;
+        for (int pos = start; pos < end; pos++) {
+            byte b = buffer.get(pos);
+            if (SPECIAL_NUMBER_CHARS.indexOf(b) >= 0) {
+                special = true;
+            } else if (!((b >= '0' && b <= '9') || (b >= 'a' && b <= 'f') || (b >= 'A' && b <= 'F')
+                         || b == '.' || b == '-' || b == '+')) {
+                return false;
+            }
+        }
+        return special && parseExact(buffer, start, end);
+    }
+
+    /**
+     * Parse a field with Double.parseDouble, for numbers outside the fast path.
+     */
+    private boolean parseExact(ByteBuffer buffer, int start, int end) {
+        try {
+            parsedValue = Double.parseDouble(decode(buffer, start, end));
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Decode part of a buffer as a UTF-8 String.
+     */
+    static String decode(ByteBuffer buffer, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(start + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
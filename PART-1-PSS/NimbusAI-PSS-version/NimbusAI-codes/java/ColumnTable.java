@@ -0,0 +1,112 @@
+/**
+ * ColumnTable - Every numeric column of a CSV file, sharing one column of x-values.
+ * The values are held column by column in primitive arrays. A cell that was empty or
+ * not a number is held as NaN, and the series of a column leaves those rows out, as
+ * the single-column reader skips lines whose y-value cannot be parsed.
+ */
+public class ColumnTable {
+
+    private final String[] names;
+    private final double[] x;
+    private final double[][] columns;
+    private final int rows;
+
+    /**
+     * Constructor that wraps existing arrays without copying them.
+     *
+     * @param names Header name of each column
+     * @param x x-value of each row
+     * @param columns Values of each column, one array per column, NaN where missing
+     * @param rows Number of rows in use in each array
+     */
+    public ColumnTable(String[] names, double[] x, double[][] columns, int rows) {
+        this.names = names;
+        this.x = x;
+        this.columns = columns;
+        this.rows = rows;
+    }
+
+    /**
+     * Get the number of rows.
+     *
+     * @return Number of rows
+     */
+    public int getRowCount() {
+        return rows;
+    }
+
+    /**
+     * Get the number of numeric columns, not counting the x column.
+     *
+     * @return Number of columns
+     */
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    /**
+     * Get the header name of a column.
+     *
+     * @param column Index of the column
+     * @return The name, trimmed
+     */
+    public String getName(int column) {
+        return names[column];
+    }
+
+    /**
+     * Get the x-value of a row.
+     *
+     * @param row Index of the row
+     * @return The x-value
+     */
+    public double getX(int row) {
+        return x[row];
+    }
+
+    /**
+     * Check whether a cell holds a number.
+     *
+     * @param column Index of the column
+     * @param row Index of the row
+     * @return true if the cell has a value
+     */
+    public boolean hasValue(int column, int row) {
+        return !Double.isNaN(columns[column][row]);
+    }
+
+    /**
+     * Get the value of a cell.
+     *
+     * @param column Index of the column
+     * @param row Index of the row
+     * @return The value, or NaN if the cell is empty or not a number
+     */
+    public double getValue(int column, int row) {
+        return columns[column][row];
+    }
+
+    /**
+     * Get one column as a data series of the rows that have a value, in file order.
+     *
+     * @param column Index of the column
+     * @return A new series
+     */
+    public DataSeries getSeries(int column) {
+        double[] values = columns[column];
+        int count = 0;
+        for (int row = 0; row < rows; row++) {
+            if (!Double.isNaN(values[row])) {
+                count++;
+            }
+        }
+
+        DataSeries series = new DataSeries(count);
+        for (int row = 0; row < rows; row++) {
+            if (!Double.isNaN(values[row])) {
+                series.add(x[row], values[row]);
+            }
+        }
+        return series;
+    }
+}
@@ -0,0 +1,217 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * DataSeries class to represent a whole series of data points in columnar form.
+ * The x and y values are held in two parallel primitive arrays, so a series of
+ * n points costs two double[] allocations instead of n DataPoint objects.
+ * Salter, Smoother and Plotter accept a DataSeries wherever they accept a
+ * List of DataPoint objects.
+ */
+public class DataSeries {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private double[] x;
+    private double[] y;
+    private int size;
+
+    /**
+     * Constructor for an empty DataSeries with a default capacity.
+     */
+    public DataSeries() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor for an empty DataSeries.
+     *
+     * @param capacity Number of points that can be held before the arrays grow
+     */
+    public DataSeries(int capacity) {
+        capacity = Math.max(1, capacity);
+        this.x = new double[capacity];
+        this.y = new double[capacity];
+        this.size = 0;
+    }
+
+    /**
+     * Constructor that wraps existing arrays without copying them.
+     *
+     * @param x The x-values
+     * @param y The y-values (must be the same length as x)
+     */
+    public DataSeries(double[] x, double[] y) {
+        if (x.length != y.length) {
+            throw new IllegalArgumentException("x and y must have the same length");
+        }
+        this.x = x;
+        this.y = y;
+        this.size = x.length;
+    }
+
+    /**
+     * Create a DataSeries holding the values of a list of data points.
+     *
+     * @param data List of data points
+     * @return A new DataSeries with the same values
+     */
+    public static DataSeries fromPoints(List<DataPoint> data) {
+        DataSeries series = new DataSeries(data.size());
+        for (DataPoint point : data) {
+            series.add(point.getX(), point.getY());
+        }
+        return series;
+    }
+
+    /**
+     * Convert this series to a list of data points.
+     *
+     * @return A new list of DataPoint objects with the same values
+     */
+    public List<DataPoint> toPoints() {
+        List<DataPoint> points = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            points.add(new DataPoint(x[i], y[i]));
+        }
+        return points;
+    }
+
+    /**
+     * Append a point to the end of the series.
+     *
+     * @param xValue The x-value
+     * @param yValue The y-value
+     */
+    public void add(double xValue, double yValue) {
+        if (size == x.length) {
+            ensureCapacity(size + (size >> 1) + 1);
+        }
+        x[size] = xValue;
+        y[size] = yValue;
+        size++;
+    }
+
+    /**
+     * Get the number of points in the series.
+     *
+     * @return The number of points
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Check whether the series has no points.
+     *
+     * @return true if the series is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Get the x-value of a point.
+     *
+     * @param index Index of the point
+     * @return The x-value
+     */
+    public double getX(int index) {
+        checkIndex(index);
+        return x[index];
+    }
+
+    /**
+     * Get the y-value of a point.
+     *
+     * @param index Index of the point
+     * @return The y-value
+     */
+    public double getY(int index) {
+        checkIndex(index);
+        return y[index];
+    }
+
+    /**
+     * Set the y-value of a point.
+     *
+     * @param index Index of the point
+     * @param yValue The new y-value
+     */
+    public void setY(int index, double yValue) {
+        checkIndex(index);
+        y[index] = yValue;
+    }
+
+    /**
+     * Get the backing array of x-values. Only the first size() entries are valid,
+     * and the array may be replaced when the series grows.
+     *
+     * @return The backing x array
+     */
+    public double[] xValues() {
+        return x;
+    }
+
+    /**
+     * Get the backing array of y-values. Only the first size() entries are valid,
+     * and the array may be replaced when the series grows.
+     *
+     * @return The backing y array
+     */
+    public double[] yValues() {
+        return y;
+    }
+
+    /**
+     * Make sure the backing arrays can hold at least the given number of points.
+     *
+     * @param capacity Required capacity
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity > x.length) {
+            x = Arrays.copyOf(x, capacity);
+            y = Arrays.copyOf(y, capacity);
+        }
+    }
+
+    /**
+     * Prepare this series to receive the output of a stage run over another series.
+     * The size is set to match the source and the x-values are copied across;
+     * the y-values are left for the stage to write.
+     *
+     * @param source The series the stage reads from
+     * @return This series
+     */
+    public DataSeries resetFrom(DataSeries source) {
+        ensureCapacity(source.size);
+        if (source != this) {
+            System.arraycopy(source.x, 0, x, 0, source.size);
+        }
+        size = source.size;
+        return this;
+    }
+
+    /**
+     * Remove all points from the series, keeping the allocated arrays.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Create a copy of this series.
+     *
+     * @return A new DataSeries with the same values
+     */
+    public DataSeries copy() {
+        return new DataSeries(Arrays.copyOf(x, size), Arrays.copyOf(y, size));
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+import java.util.Arrays;
+
+/**
+ * FFTConvolution - Convolution of a series with a long kernel using the FFT.
+ * The series is cut into blocks that are transformed, multiplied by the kernel's
+ * spectrum and transformed back, and the overlapping tails of neighbouring blocks
+ * are added together (overlap-add). This costs O(n log k) instead of the O(n * k)
+ * of a direct convolution, which pays off once the kernel has more than a few dozen
+ * taps. Two real blocks are packed into the real and imaginary parts of one complex
+ * transform, since the kernel is real.
+ */
+public class FFTConvolution {
+
+    /**
+     * Convolve a series with a centred kernel, treating points outside the series as zero:
+     * result[i] = sum over j of data[i + j - h] * kernel[j], where h = kernel.length / 2.
+     *
+     * @param data Values to convolve
+     * @param result Array to receive the convolved values (must not be data)
+     * @param n Number of values
+     * @param kernel The kernel (odd length)
+     */
+    public static void convolve(double[] data, double[] result, int n, double[] kernel) {
+        convolve(data, result, n, kernel, new ParallelRanges(1));
+    }
+
+    /**
+     * Convolve a series with a centred kernel, transforming groups of blocks in parallel.
+     * Each group keeps the tail that overlaps the next group apart and it is added in
+     * afterwards, so every value is summed exactly as in the sequential case.
+     *
+     * @param data Values to convolve
+     * @param result Array to receive the convolved values (must not be data)
+     * @param n Number of values
+     * @param kernel The kernel (odd length)
+     * @param parallel Runs the groups of blocks
+     */
+    public static void convolve(double[] data, double[] result, int n, double[] kernel,
+                                ParallelRanges parallel) {
+        int k = kernel.length;
+        int half = k / 2;
+
+        // Transform size: a power of two with room for a block of about the kernel's length
+        int size = Integer.highestOneBit(Math.max(2, 4 * k - 1) - 1) << 1;
+        int block = size - k + 1;
+        int[] bitReversed = bitReversalTable(size);
+        double[] cos = new double[size / 2];
+        double[] sin = new double[size / 2];
+        for (int i = 0; i < size / 2; i++) {
+            cos[i] = Math.cos(2 * Math.PI * i / size);
+            sin[i] = Math.sin(2 * Math.PI * i / size);
+        }
+
+        // Spectrum of the zero-padded kernel, reversed so that the transform's convolution
+        // gives the sum above (a correlation) for kernels that are not symmetric
+        double[] kernelRe = new double[size];
+        double[] kernelIm = new double[size];
+        for (int j = 0; j < k; j++) {
+            kernelRe[j] = kernel[k - 1 - j];
+        }
+        transform(kernelRe, kernelIm, bitReversed, cos, sin, false);
+
+        Arrays.fill(result, 0, n, 0);
+
+        // Pairs of blocks share a transform; tails[p] holds the part of the output of the
+        // pairs before p that overlaps pair p, when a group of pairs ends there
+        int pairs = (n + 2 * block - 1) / (2 * block);
+        double[][] tails = new double[pairs][];
+        int work = size * Integer.numberOfTrailingZeros(size);
+
+        parallel.forEach(pairs, work, (fromPair, toPair) -> {
+            double[] re = new double[size];
+            double[] im = new double[size];
+            int limit = (toPair < pairs) ? toPair * 2 * block - half : n;
+            double[] tail = (toPair < pairs) ? new double[k - 1] : null;
+
+            for (int pair = fromPair; pair < toPair; pair++) {
+                int start = pair * 2 * block;
+                int second = start + block;
+                int firstLength = Math.min(block, n - start);
+                int secondLength = Math.max(0, Math.min(block, n - second));
+
+                // Pack two blocks into one complex signal
+                Arrays.fill(re, 0);
+                Arrays.fill(im, 0);
+                System.arraycopy(data, start, re, 0, firstLength);
+                if (secondLength > 0) {
+                    System.arraycopy(data, second, im, 0, secondLength);
+                }
+
+                transform(re, im, bitReversed, cos, sin, false);
+                for (int i = 0; i < size; i++) {
+                    double r = re[i] * kernelRe[i] - im[i] * kernelIm[i];
+                    im[i] = re[i] * kernelIm[i] + im[i] * kernelRe[i];
+                    re[i] = r;
+                }
+                transform(re, im, bitReversed, cos, sin, true);
+
+                // Add each block's full convolution into the result, shifted to centre the kernel
+                addBlock(re, firstLength + k - 1, start - half, result, limit, tail);
+                if (secondLength > 0) {
+                    addBlock(im, secondLength + k - 1, second - half, result, limit, tail);
+                }
+            }
+            if (tail != null) {
+                tails[toPair] = tail;
+            }
+        });
+
+        for (int pair = 1; pair < pairs; pair++) {
+            if (tails[pair] != null) {
+                int offset = pair * 2 * block - half;
+                int length = Math.min(k - 1, n - offset);
+                for (int t = 0; t < length; t++) {
+                    result[offset + t] = tails[pair][t] + result[offset + t];
+                }
+            }
+        }
+    }
+
+    // Add values[0..length) into result starting at position offset. Positions from limit
+    // onwards go into tail instead (indexed from limit), and negative positions are dropped.
+    private static void addBlock(double[] values, int length, int offset, double[] result,
+                                 int limit, double[] tail) {
+        int from = Math.max(0, -offset);
+        int to = Math.min(length, limit - offset);
+        for (int t = from; t < to; t++) {
+            result[offset + t] += values[t];
+        }
+        if (tail != null) {
+            for (int t = Math.max(from, limit - offset); t < length; t++) {
+                tail[offset + t - limit] += values[t];
+            }
+        }
+    }
+
+    // Table mapping each index to its bit-reversed index
+    private static int[] bitReversalTable(int size) {
+        int bits = Integer.numberOfTrailingZeros(size);
+        int[] table = new int[size];
+        for (int i = 0; i < size; i++) {
+            table[i] = Integer.reverse(i) >>> (32 - bits);
+        }
+        return table;
+    }
+
+    // In-place iterative radix-2 FFT; the inverse transform includes the 1/size scaling
+    private static void transform(double[] re, double[] im, int[] bitReversed,
+                                  double[] cos, double[] sin, boolean inverse) {
+        int size = re.length;
+        for (int i = 0; i < size; i++) {
+            int j = bitReversed[i];
+            if (j > i) {
+                double t = re[i];
+                re[i] = re[j];
+                re[j] = t;
+                t = im[i];
+                im[i] = im[j];
+                im[j] = t;
+            }
+        }
+
+        double sign = inverse ? 1 : -1;
+        for (int length = 2; length <= size; length <<= 1) {
+            int halfLength = length / 2;
+            int step = size / length;
+            for (int start = 0; start < size; start += length) {
+                for (int j = 0; j < halfLength; j++) {
+                    double wr = cos[j * step];
+                    double wi = sign * sin[j * step];
+                    int a = start + j;
+                    int b = a + halfLength;
+                    double tr = re[b] * wr - im[b] * wi;
+                    double ti = re[b] * wi + im[b] * wr;
+                    re[b] = re[a] - tr;
+                    im[b] = im[a] - ti;
+                    re[a] += tr;
+                    im[a] += ti;
+                }
+            }
+        }
+
+        if (inverse) {
+            for (int i = 0; i < size; i++) {
+                re[i] /= size;
+                im[i] /= size;
+            }
+        }
+    }
+}
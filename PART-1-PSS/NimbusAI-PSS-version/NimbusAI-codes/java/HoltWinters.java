@@ -0,0 +1,371 @@
+/**
+ * HoltWinters - Exponential smoothing with optional trend (Holt) and additive
+ * seasonal (Holt-Winters) components.
+ *
+ * The model keeps a level, a slope and one seasonal offset per position in the
+ * season, and updates them from each point in turn:
+ *   level  = alpha * (y - season) + (1 - alpha) * (level + slope)
+ *   slope  = beta * (level change) + (1 - beta) * slope
+ *   season = gamma * (y - level) + (1 - gamma) * season
+ * The smoothed value of a point is its updated level plus its seasonal offset.
+ * Points are assumed to be equally spaced, with the period given in points.
+ *
+ * The parameters can be fitted to a series by minimising the sum of squared
+ * one-step-ahead forecast errors. Each evaluation is a single pass over the data
+ * without allocation, and a Nelder-Mead search needs a few hundred of them.
+ */
+public class HoltWinters {
+
+    // Fitted parameters are kept strictly inside (0, 1)
+    private static final double MIN_PARAMETER = 1e-4;
+    private static final double MAX_PARAMETER = 1 - 1e-4;
+
+    // Nelder-Mead search limits
+    private static final int MAX_EVALUATIONS_PER_PARAMETER = 150;
+    private static final double TOLERANCE = 1e-10;
+
+    private final double alpha;
+    private final double beta;
+    private final double gamma;
+    private final boolean trend;
+    private final int period;
+
+    private HoltWinters(double alpha, double beta, double gamma, boolean trend, int period) {
+        this.alpha = alpha;
+        this.beta = beta;
+        this.gamma = gamma;
+        this.trend = trend;
+        this.period = (period >= 2) ? period : 0;
+    }
+
+    /**
+     * Create a model with a level only (simple exponential smoothing).
+     *
+     * @param alpha Level smoothing factor (0 < alpha < 1)
+     * @return The model
+     */
+    public static HoltWinters simple(double alpha) {
+        return new HoltWinters(alpha, 0, 0, false, 0);
+    }
+
+    /**
+     * Create a model with a level and a trend (Holt's linear method).
+     *
+     * @param alpha Level smoothing factor (0 < alpha < 1)
+     * @param beta Trend smoothing factor (0 < beta < 1)
+     * @return The model
+     */
+    public static HoltWinters holt(double alpha, double beta) {
+        return new HoltWinters(alpha, beta, 0, true, 0);
+    }
+
+    /**
+     * Create a model with a level, a trend and an additive season (Holt-Winters).
+     *
+     * @param alpha Level smoothing factor (0 < alpha < 1)
+     * @param beta Trend smoothing factor (0 < beta < 1)
+     * @param gamma Seasonal smoothing factor (0 < gamma < 1)
+     * @param period Length of the season in points (at least 2)
+     * @return The model
+     */
+    public static HoltWinters seasonal(double alpha, double beta, double gamma, int period) {
+        return new HoltWinters(alpha, beta, gamma, true, period);
+    }
+
+    /**
+     * Fit a model to a series by minimising the one-step-ahead squared forecast error.
+     * A season is only fitted if the series covers at least two full periods.
+     *
+     * @param y The values to fit
+     * @param n Number of values
+     * @param trend Whether the model has a trend
+     * @param period Length of the season in points, or 0 for no season
+     * @return The fitted model
+     */
+    public static HoltWinters fit(double[] y, int n, boolean trend, int period) {
+        if (period < 2 || n < 2 * period) {
+            period = 0;
+        }
+        boolean seasonal = period > 0;
+        int dimensions = 1 + (trend ? 1 : 0) + (seasonal ? 1 : 0);
+
+        // Search over logit(parameter) so every point of the simplex is a valid model
+        double[] start = {0.3, 0.1, 0.1};
+        double[][] simplex = new double[dimensions + 1][dimensions];
+        double[] values = new double[dimensions + 1];
+        for (int v = 0; v <= dimensions; v++) {
+            for (int d = 0; d < dimensions; d++) {
+                simplex[v][d] = logit(start[d]) + ((v == d + 1) ? 1.0 : 0.0);
+            }
+        }
+
+        Objective objective = new Objective(y, n, trend, period);
+        for (int v = 0; v <= dimensions; v++) {
+            values[v] = objective.evaluate(simplex[v]);
+        }
+        int evaluations = dimensions + 1;
+        int maxEvaluations = MAX_EVALUATIONS_PER_PARAMETER * dimensions;
+
+        double[] centroid = new double[dimensions];
+        double[] reflected = new double[dimensions];
+        double[] trial = new double[dimensions];
+        while (evaluations < maxEvaluations) {
+            sortSimplex(simplex, values);
+            int worst = dimensions;
+            if (values[worst] - values[0] <= TOLERANCE * (Math.abs(values[0]) + TOLERANCE)) {
+                break;
+            }
+
+            for (int d = 0; d < dimensions; d++) {
+                double sum = 0;
+                for (int v = 0; v < worst; v++) {
+                    sum += simplex[v][d];
+                }
+                centroid[d] = sum / dimensions;
+            }
+
+            // Reflect the worst vertex through the centroid of the others
+            for (int d = 0; d < dimensions; d++) {
+                reflected[d] = centroid[d] + (centroid[d] - simplex[worst][d]);
+            }
+            double reflectedValue = objective.evaluate(reflected);
+            evaluations++;
+
+            if (reflectedValue < values[0]) {
+                // Try going further in the same direction
+                for (int d = 0; d < dimensions; d++) {
+                    trial[d] = centroid[d] + 2 * (centroid[d] - simplex[worst][d]);
+                }
+                double expandedValue = objective.evaluate(trial);
+                evaluations++;
+                if (expandedValue < reflectedValue) {
+                    replace(simplex, values, worst, trial, expandedValue);
+                } else {
+                    replace(simplex, values, worst, reflected, reflectedValue);
+                }
+            } else if (reflectedValue < values[worst - 1]) {
+                replace(simplex, values, worst, reflected, reflectedValue);
+            } else {
+                // Contract towards the better of the worst vertex and its reflection
+                boolean outside = reflectedValue < values[worst];
+                for (int d = 0; d < dimensions; d++) {
+                    double from = outside ? reflected[d] : simplex[worst][d];
+                    trial[d] = centroid[d] + 0.5 * (from - centroid[d]);
+                }
+                double contractedValue = objective.evaluate(trial);
+                evaluations++;
+                if (contractedValue < Math.min(reflectedValue, values[worst])) {
+                    replace(simplex, values, worst, trial, contractedValue);
+                } else {
+                    // Shrink every vertex towards the best one
+                    for (int v = 1; v <= dimensions; v++) {
+                        for (int d = 0; d < dimensions; d++) {
+                            simplex[v][d] = simplex[0][d] + 0.5 * (simplex[v][d] - simplex[0][d]);
+                        }
+                        values[v] = objective.evaluate(simplex[v]);
+                    }
+                    evaluations += dimensions;
+                }
+            }
+        }
+        sortSimplex(simplex, values);
+
+        double[] best = simplex[0];
+        double fittedAlpha = parameter(best[0]);
+        double fittedBeta = trend ? parameter(best[1]) : 0;
+        double fittedGamma = seasonal ? parameter(best[dimensions - 1]) : 0;
+        return new HoltWinters(fittedAlpha, fittedBeta, fittedGamma, trend, period);
+    }
+
+    /**
+     * Get the level smoothing factor.
+     *
+     * @return alpha
+     */
+    public double getAlpha() {
+        return alpha;
+    }
+
+    /**
+     * Get the trend smoothing factor.
+     *
+     * @return beta, or 0 if the model has no trend
+     */
+    public double getBeta() {
+        return trend ? beta : 0;
+    }
+
+    /**
+     * Get the seasonal smoothing factor.
+     *
+     * @return gamma, or 0 if the model has no season
+     */
+    public double getGamma() {
+        return (period > 0) ? gamma : 0;
+    }
+
+    /**
+     * Get the length of the season.
+     *
+     * @return The period in points, or 0 if the model has no season
+     */
+    public int getPeriod() {
+        return period;
+    }
+
+    /**
+     * Smooth a series with the model. The result may be the same array as the input.
+     * A season is only used if the series covers at least two full periods.
+     *
+     * @param y The values to smooth
+     * @param result Array to receive the smoothed values
+     * @param n Number of values
+     * @return Sum of squared one-step-ahead forecast errors
+     */
+    public double smooth(double[] y, double[] result, int n) {
+        int p = (n >= 2 * period) ? period : 0;
+        return run(y, result, n, alpha, trend ? beta : 0, gamma, trend, p, new double[p]);
+    }
+
+    /**
+     * Get the sum of squared one-step-ahead forecast errors of the model on a series.
+     *
+     * @param y The values
+     * @param n Number of values
+     * @return Sum of squared errors
+     */
+    public double sumSquaredErrors(double[] y, int n) {
+        int p = (n >= 2 * period) ? period : 0;
+        return run(y, null, n, alpha, trend ? beta : 0, gamma, trend, p, new double[p]);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("HoltWinters(alpha=%.4f, beta=%.4f, gamma=%.4f, period=%d)",
+                             getAlpha(), getBeta(), getGamma(), period);
+    }
+
+    // One pass of the model over the series, writing the smoothed values if result is not null.
+    // season is scratch space for the seasonal offsets (length period). Returns the forecast SSE.
+    private static double run(double[] y, double[] result, int n, double alpha, double beta,
+                              double gamma, boolean trend, int period, double[] season) {
+        if (n == 0) {
+            return 0;
+        }
+
+        // Initial state, as of just before the first point
+        double level;
+        double slope = 0;
+        if (period > 0) {
+            // Level and slope from the means of the first two seasons, offsets from the first
+            double first = mean(y, 0, period);
+            if (trend) {
+                slope = (mean(y, period, 2 * period) - first) / period;
+            }
+            for (int i = 0; i < period; i++) {
+                season[i] = y[i] - (first + slope * (i - (period - 1) / 2.0));
+            }
+            level = first - slope * (period + 1) / 2.0;
+        } else {
+            if (trend && n > 1) {
+                slope = y[1] - y[0];
+            }
+            level = y[0] - slope;
+        }
+
+        double sse = 0;
+        for (int t = 0; t < n; t++) {
+            int k = (period > 0) ? t % period : 0;
+            double offset = (period > 0) ? season[k] : 0;
+            double value = y[t];
+
+            double error = value - (level + slope + offset);
+            sse += error * error;
+
+            double newLevel = alpha * (value - offset) + (1 - alpha) * (level + slope);
+            if (trend) {
+                slope = beta * (newLevel - level) + (1 - beta) * slope;
+            }
+            if (period > 0) {
+                offset = gamma * (value - newLevel) + (1 - gamma) * offset;
+                season[k] = offset;
+            }
+            level = newLevel;
+
+            if (result != null) {
+                result[t] = level + offset;
+            }
+        }
+        return sse;
+    }
+
+    // Mean of y[from..to)
+    private static double mean(double[] y, int from, int to) {
+        double sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += y[i];
+        }
+        return sum / (to - from);
+    }
+
+    // Map an unbounded search coordinate to a parameter in (0, 1)
+    private static double parameter(double u) {
+        double p = 1 / (1 + Math.exp(-u));
+        return Math.max(MIN_PARAMETER, Math.min(MAX_PARAMETER, p));
+    }
+
+    // Inverse of parameter()
+    private static double logit(double p) {
+        return Math.log(p / (1 - p));
+    }
+
+    // Sort the simplex vertices by ascending objective value (insertion sort; at most 4 vertices)
+    private static void sortSimplex(double[][] simplex, double[] values) {
+        for (int i = 1; i < values.length; i++) {
+            double[] vertex = simplex[i];
+            double value = values[i];
+            int j = i - 1;
+            while (j >= 0 && values[j] > value) {
+                simplex[j + 1] = simplex[j];
+                values[j + 1] = values[j];
+                j--;
+            }
+            simplex[j + 1] = vertex;
+            values[j + 1] = value;
+        }
+    }
+
+    // Replace a vertex of the simplex with a copy of a new point
+    private static void replace(double[][] simplex, double[] values, int vertex, double[] point, double value) {
+        System.arraycopy(point, 0, simplex[vertex], 0, point.length);
+        values[vertex] = value;
+    }
+
+    /**
+     * Objective - The forecast SSE as a function of the search coordinates, reusing
+     * one seasonal scratch array for every evaluation.
+     */
+    private static class Objective {
+        private final double[] y;
+        private final int n;
+        private final boolean trend;
+        private final int period;
+        private final double[] season;
+
+        Objective(double[] y, int n, boolean trend, int period) {
+            this.y = y;
+            this.n = n;
+            this.trend = trend;
+            this.period = period;
+            this.season = new double[period];
+        }
+
+        double evaluate(double[] u) {
+            double a = parameter(u[0]);
+            double b = trend ? parameter(u[1]) : 0;
+            double g = (period > 0) ? parameter(u[u.length - 1]) : 0;
+            double sse = run(y, null, n, a, b, g, trend, period, season);
+            return Double.isNaN(sse) ? Double.POSITIVE_INFINITY : sse;
+        }
+    }
+}
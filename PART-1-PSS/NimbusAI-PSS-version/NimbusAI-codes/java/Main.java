@@ -1,34 +1,114 @@
-import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.util.List;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Main - The main application that orchestrates the data processing pipeline.
  * Process: Load CSV -> Plot -> Salt -> Smooth -> Graph
  */
 public class Main {
+    
+    // Maximum number of points drawn per series in streaming mode
+    private static final int MAX_PLOT_POINTS = 10000;
+    
+    // Largest absolute value, times 1e6, that appendFixed formats without String.format
+    private static final double MAX_FAST_FIXED = 4e12;
+    
+    // Smoothers by parallelism, shared by every run in this JVM. A Smoother holds no
+    // per-run state, so concurrent runs can use the same instance.
+    private static final Map<Integer, Smoother> SMOOTHERS = new ConcurrentHashMap<>();
+    
+    private final PrintStream out;
+    private final PrintStream err;
+    
+    private Main(PrintStream out, PrintStream err) {
+        this.out = out;
+        this.err = err;
+    }
+    
     /**
      * Main method to run the application.
      * 
+     * @param args Command line arguments, as for run()
+     */
+    public static void main(String[] args) {
+        int status = run(args, System.out, System.err);
+        if (status != 0) {
+            System.exit(status);
+        }
+    }
+    
+    /**
+     * Run the application in this JVM, writing progress and errors to the given streams
+     * instead of the console. Several runs may be in progress at once.
+     * 
      * @param args Command line arguments:
      *            args[0] - Input CSV file path
      *            args[1] - Output directory for visualizations
      *            args[2] - Output processed data CSV path
+     *            --streaming - Process the file in bounded memory (optional)
+     *            --threads N - Number of threads used for smoothing (optional, default 1)
+     *            --tune METHOD - Smooth with solter, moving-average, exponential, gaussian,
+     *                            savitzky-golay, loess or auto, choosing its parameter by GCV (optional)
+     *            --all-columns - Process every numeric column into one wide CSV (optional)
+     * @param out Receives progress messages
+     * @param err Receives errors
+     * @return 0 on success, 1 on failure
      */
-    public static void main(String[] args) {
-        if (args.length < 3) {
-            System.err.println("Usage: java -jar NimbusAI-PSS.jar <input_csv> <output_dir> <output_data>");
-            System.exit(1);
+    public static int run(String[] args, PrintStream out, PrintStream err) {
+        return new Main(out, err).execute(args);
+    }
+    
+    // Parse the arguments and run the pipeline they select
+    private int execute(String[] args) {
+        List<String> positional = new ArrayList<>();
+        boolean streaming = false;
+        boolean allColumns = false;
+        int threads = 1;
+        SmoothingTuner.Method tuneMethod = null;
+        boolean validTune = true;
+        
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--streaming":
+                    streaming = true;
+                    break;
+                case "--all-columns":
+                    allColumns = true;
+                    break;
+                case "--threads":
+                    threads = (i + 1 < args.length) ? parseThreads(args[++i]) : 0;
+                    break;
+                case "--tune":
+                    tuneMethod = (i + 1 < args.length) ? parseMethod(args[++i]) : null;
+                    validTune = tuneMethod != null;
+                    break;
+                default:
+                    positional.add(args[i]);
+            }
         }
         
-        String inputFilePath = args[0];
-        String outputDir = args[1];
-        String outputDataPath = args[2];
+        if (positional.size() < 3 || threads < 1 || !validTune 
+                || (streaming && (tuneMethod != null || allColumns))) {
+            err.println("Usage: java -jar NimbusAI-PSS.jar <input_csv> <output_dir> <output_data> "
+                               + "[--streaming | [--tune METHOD] [--all-columns]] [--threads N]");
+            return 1;
+        }
+        
+        String inputFilePath = positional.get(0);
+        String outputDir = positional.get(1);
+        String outputDataPath = positional.get(2);
         
         try {
             // Ensure output directory exists
@@ -43,50 +123,99 @@ public class Main {
             String smoothedPlotPath = outputDir + "/smoothed_plot.png";
             String finalPlotPath = outputDir + "/final_plot.png";
             
+            if (streaming) {
+                return processStreaming(inputFilePath, outputDataPath, initialPlotPath, 
+                                        saltedPlotPath, smoothedPlotPath, finalPlotPath);
+            }
+            
+            if (allColumns) {
+                return processAllColumns(inputFilePath, outputDir, outputDataPath, threads, tuneMethod);
+            }
+            
             // Step 1: Read CSV data
-            System.out.println("Reading CSV data...");
-            List<DataPoint> originalData = readCSV(inputFilePath);
+            out.println("Reading CSV data...");
+            DataSeries originalData = readCSV(inputFilePath);
             
             if (originalData.isEmpty()) {
-                System.err.println("No data found in the CSV file.");
-                System.exit(1);
+                err.println("No data found in the CSV file.");
+                return 1;
             }
             
             // Step 2: Initial Plotting
-            System.out.println("Creating initial plot...");
+            out.println("Creating initial plot...");
             Plotter plotter = new Plotter();
             plotter.createSingleSeriesPlot(originalData, "Original Data", initialPlotPath);
             
             // Step 3: Apply Salting
-            System.out.println("Applying salting procedure...");
+            out.println("Applying salting procedure...");
             Salter salter = new Salter();
-            List<DataPoint> saltedData = salter.applySalting(originalData);
+            DataSeries saltedData = salter.applySalting(originalData, new DataSeries(originalData.size()));
             plotter.createSingleSeriesPlot(saltedData, "Salted Data", saltedPlotPath);
             
             // Step 4: Apply Smoothing
-            System.out.println("Applying smoothing algorithm...");
-            Smoother smoother = new Smoother();
-            List<DataPoint> smoothedData = smoother.applySmoothing(saltedData);
+            out.println("Applying smoothing algorithm...");
+            Smoother smoother = smoother(threads);
+            DataSeries smoothedData = smooth(smoother, saltedData, tuneMethod, "Tuned smoothing: ");
             plotter.createSingleSeriesPlot(smoothedData, "Smoothed Data", smoothedPlotPath);
             
             // Step 5: Create final graph with all data series
-            System.out.println("Creating final visualization...");
+            out.println("Creating final visualization...");
             plotter.createMultiSeriesPlot(originalData, saltedData, smoothedData, finalPlotPath);
             
             // Save processed data
             saveProcessedData(outputDataPath, originalData, saltedData, smoothedData);
             
-            System.out.println("Processing completed successfully.");
-            System.out.println("Initial plot: " + initialPlotPath);
-            System.out.println("Salted plot: " + saltedPlotPath);
-            System.out.println("Smoothed plot: " + smoothedPlotPath);
-            System.out.println("Final plot: " + finalPlotPath);
-            System.out.println("Processed data: " + outputDataPath);
+            out.println("Processing completed successfully.");
+            out.println("Initial plot: " + initialPlotPath);
+            out.println("Salted plot: " + saltedPlotPath);
+            out.println("Smoothed plot: " + smoothedPlotPath);
+            out.println("Final plot: " + finalPlotPath);
+            out.println("Processed data: " + outputDataPath);
+            return 0;
             
         } catch (Exception e) {
-            System.err.println("Error processing data: " + e.getMessage());
-            e.printStackTrace();
-            System.exit(1);
+            err.println("Error processing data: " + e.getMessage());
+            e.printStackTrace(err);
+            return 1;
+        }
+    }
+    
+    // The shared Smoother with the given parallelism. The parallelism is capped at the number
+    // of processors, which is all the shared pool can run at once, so a long-running server
+    // caches at most that many Smoothers whatever values clients send
+    private static Smoother smoother(int threads) {
+        int parallelism = Math.min(threads, Runtime.getRuntime().availableProcessors());
+        return SMOOTHERS.computeIfAbsent(parallelism, Smoother::new);
+    }
+    
+    // Parse the value of --threads, returning 0 if it is not a number
+    private static int parseThreads(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+    
+    // Smooth with the default Solter parameters, or with a method whose parameter is
+    // chosen by GCV if one was given, printing the choice after the label
+    private DataSeries smooth(Smoother smoother, DataSeries data, SmoothingTuner.Method tuneMethod, 
+                                     String label) {
+        if (tuneMethod == null) {
+            return smoother.applySmoothing(data, new DataSeries(data.size()));
+        }
+        SmoothingTuner.Result tuned = smoother.runTunedSmoothing(data, tuneMethod, SmoothingTuner.Criterion.GCV, 
+                                                                 new DataSeries(data.size()));
+        out.println(label + tuned);
+        return tuned.getOutput();
+    }
+    
+    // Parse the value of --tune, returning null if it is not a method name
+    private static SmoothingTuner.Method parseMethod(String value) {
+        try {
+            return SmoothingTuner.Method.valueOf(value.toUpperCase().replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            return null;
         }
     }
     
@@ -94,80 +223,280 @@ public class Main {
      * Read data from a CSV file.
      * 
      * @param filePath Path to the CSV file
-     * @return List of DataPoint objects
+     * @return Series of data points
      * @throws IOException If an I/O error occurs
      */
-    private static List<DataPoint> readCSV(String filePath) throws IOException {
-        List<DataPoint> dataPoints = new ArrayList<>();
-        String line;
-        boolean firstLine = true;
-        int xIndex = 0;
-        int yIndex = 1;
-        
-        try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
-            while ((line = br.readLine()) != null) {
-                if (firstLine) {
-                    // Try to determine which columns to use
-                    String[] headers = line.split(",");
-                    for (int i = 0; i < headers.length; i++) {
-                        String header = headers[i].trim().toLowerCase();
-                        if (header.contains("time") || header.contains("date") || header.contains("x")) {
-                            xIndex = i;
-                        } else if (header.contains("value") || header.contains("y") || 
-                                   header.contains("data") || header.contains("measure")) {
-                            yIndex = i;
-                        }
-                    }
-                    firstLine = false;
-                    continue;
-                }
-                
-                try {
-                    String[] values = line.split(",");
-                    if (values.length > Math.max(xIndex, yIndex)) {
-                        // Try to parse as double first
-                        try {
-                            double x = Double.parseDouble(values[xIndex].trim());
-                            double y = Double.parseDouble(values[yIndex].trim());
-                            dataPoints.add(new DataPoint(x, y));
-                        } catch (NumberFormatException e) {
-                            // If parsing fails, use index as x value
-                            double y = Double.parseDouble(values[yIndex].trim());
-                            dataPoints.add(new DataPoint(dataPoints.size(), y));
-                        }
-                    }
-                } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
-                    // Skip lines that can't be parsed
-                    System.err.println("Warning: Skipping line: " + line);
-                }
+    private DataSeries readCSV(String filePath) throws IOException {
+        MappedCSVReader reader = new MappedCSVReader();
+        DataSeries dataPoints = reader.read(filePath);
+        for (String warning : reader.getWarnings()) {
+            err.println(warning);
+        }
+        reportThroughput("Read", reader.getRowsRead(), reader.getElapsedMillis(), reader.getRowsPerSecond());
+        return dataPoints;
+    }
+    
+    /**
+     * Run the whole pipeline in bounded memory.
+     * The file is streamed twice: the first pass gathers the statistics the salting
+     * procedure needs, the second salts, smooths and writes each row as it is read.
+     * The processed data matches the in-memory pipeline exactly; the plots are drawn
+     * from every k-th point so that at most MAX_PLOT_POINTS points are kept per series.
+     * 
+     * @param inputFilePath Path to the input CSV
+     * @param outputDataPath Path to save the processed data CSV
+     * @param initialPlotPath Path to save the initial plot
+     * @param saltedPlotPath Path to save the salted plot
+     * @param smoothedPlotPath Path to save the smoothed plot
+     * @param finalPlotPath Path to save the final plot
+     * @return 0 on success, 1 if the file has no data
+     * @throws IOException If an I/O error occurs
+     */
+    private int processStreaming(String inputFilePath, String outputDataPath,
+                                         String initialPlotPath, String saltedPlotPath,
+                                         String smoothedPlotPath, String finalPlotPath) throws IOException {
+        StreamingCSVReader reader = new StreamingCSVReader();
+        
+        // Pass 1: gather the data characteristics used by the salting procedure
+        out.println("Profiling CSV data...");
+        Salter.Profile profile = new Salter.Profile();
+        // Skipped lines are reported on this pass only, as the second pass skips the same ones
+        reader.read(inputFilePath, profile, err::println);
+        reportThroughput("Profiled", reader.getRowsRead(), reader.getElapsedMillis(), reader.getRowsPerSecond());
+        
+        int n = profile.size();
+        if (n == 0) {
+            err.println("No data found in the CSV file.");
+            return 1;
+        }
+        
+        // Pass 2: salt, smooth and write each row as it streams through
+        out.println("Applying salting and smoothing (streaming)...");
+        int plotStride = Math.max(1, (n + MAX_PLOT_POINTS - 1) / MAX_PLOT_POINTS);
+        Salter salter = new Salter();
+        Smoother smoother = smoother(1);
+        
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(outputDataPath))) {
+            writer.write("x,original_y,salted_y,smoothed_y\n");
+            
+            StreamingOutput output = new StreamingOutput(writer, plotStride, n);
+            StreamingSmoother smoothing = smoother.createStreamingSmoother(n, output.smoothedSink());
+            output.setLatency(smoothing.getLatency());
+            PointSink salting = salter.createStreamingStage(profile, output.saltedSink(smoothing));
+            
+            reader.read(inputFilePath, output.originalSink(salting));
+            smoothing.finish();
+            reportThroughput("Processed", reader.getRowsRead(), reader.getElapsedMillis(), reader.getRowsPerSecond());
+            
+            // Step 5: Plot the sampled series
+            out.println("Creating plots...");
+            Plotter plotter = new Plotter();
+            plotter.createSingleSeriesPlot(output.originalPlot, "Original Data", initialPlotPath);
+            plotter.createSingleSeriesPlot(output.saltedPlot, "Salted Data", saltedPlotPath);
+            plotter.createSingleSeriesPlot(output.smoothedPlot, "Smoothed Data", smoothedPlotPath);
+            plotter.createMultiSeriesPlot(output.originalPlot, output.saltedPlot, 
+                                          output.smoothedPlot, finalPlotPath);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        
+        out.println("Processing completed successfully.");
+        out.println("Initial plot: " + initialPlotPath);
+        out.println("Salted plot: " + saltedPlotPath);
+        out.println("Smoothed plot: " + smoothedPlotPath);
+        out.println("Final plot: " + finalPlotPath);
+        out.println("Processed data: " + outputDataPath);
+        return 0;
+    }
+    
+    /**
+     * Run the pipeline on every numeric column of a file. The file is read once, and each
+     * column is salted and smoothed as a series of its own, with the same results as a
+     * single-column run on that column. Columns are processed in parallel, and each one's
+     * plots go in a subdirectory of the output directory named after the column. The
+     * processed data is one wide CSV with the x-values followed by the original, salted
+     * and smoothed values of every column; cells that were not numbers are left empty.
+     * 
+     * @param inputFilePath Path to the input CSV
+     * @param outputDir Directory for the per-column plot directories
+     * @param outputDataPath Path to save the processed data CSV
+     * @param threads Number of threads
+     * @param tuneMethod Method to tune for each column, or null for the default smoothing
+     * @return 0 on success, 1 if the file has no numeric columns
+     * @throws IOException If an I/O error occurs
+     */
+    private int processAllColumns(String inputFilePath, String outputDir, String outputDataPath,
+                                          int threads, SmoothingTuner.Method tuneMethod) throws IOException {
+        out.println("Reading CSV columns...");
+        MappedCSVReader reader = new MappedCSVReader();
+        ColumnTable table = reader.readColumns(inputFilePath);
+        reportThroughput("Read", reader.getRowsRead(), reader.getElapsedMillis(), reader.getRowsPerSecond());
+        
+        int columns = table.getColumnCount();
+        if (columns == 0) {
+            err.println("No numeric columns found in the CSV file.");
+            return 1;
+        }
+        
+        // Threads go to the columns first; any left over split each column's smoothing
+        out.println("Applying salting and smoothing to " + columns + " columns...");
+        Smoother smoother = smoother(Math.max(1, threads / columns));
+        String[] directories = columnDirectories(table);
+        DataSeries[] salted = new DataSeries[columns];
+        DataSeries[] smoothed = new DataSeries[columns];
+        
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, columns));
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int c = 0; c < columns; c++) {
+                int column = c;
+                futures.add(executor.submit(() -> {
+                    processColumn(table, column, smoother, tuneMethod, outputDir + "/" + directories[column],
+                                  salted, smoothed);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while processing columns", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Failed to process column", e.getCause());
+        } finally {
+            executor.shutdownNow();
         }
         
-        // If no data was read, try a more lenient approach - use any numeric column
-        if (dataPoints.isEmpty()) {
-            try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
-                firstLine = true;
-                while ((line = br.readLine()) != null) {
-                    if (firstLine) {
-                        firstLine = false;
-                        continue;
-                    }
-                    
-                    String[] values = line.split(",");
-                    for (int i = 0; i < values.length; i++) {
-                        try {
-                            double value = Double.parseDouble(values[i].trim());
-                            dataPoints.add(new DataPoint(dataPoints.size(), value));
-                            break;  // Use the first numeric column we find
-                        } catch (NumberFormatException e) {
-                            // Not a number, try next column
-                        }
+        saveColumnData(outputDataPath, table, salted, smoothed);
+        
+        out.println("Processing completed successfully.");
+        out.println("Plots: " + outputDir + "/<column>/");
+        out.println("Processed data: " + outputDataPath);
+        return 0;
+    }
+    
+    // Salt, smooth and plot one column, storing its salted and smoothed series
+    private void processColumn(ColumnTable table, int column, Smoother smoother, 
+                                      SmoothingTuner.Method tuneMethod, String plotDir,
+                                      DataSeries[] salted, DataSeries[] smoothed) throws IOException {
+        DataSeries original = table.getSeries(column);
+        new File(plotDir).mkdirs();
+        
+        // Each column gets its own Salter, so it is salted exactly as in a single-column run
+        Salter salter = new Salter();
+        salted[column] = salter.applySalting(original, new DataSeries(original.size()));
+        smoothed[column] = smooth(smoother, salted[column], tuneMethod, table.getName(column) + ": ");
+        
+        Plotter plotter = new Plotter();
+        plotter.createSingleSeriesPlot(original, "Original Data", plotDir + "/initial_plot.png");
+        plotter.createSingleSeriesPlot(salted[column], "Salted Data", plotDir + "/salted_plot.png");
+        plotter.createSingleSeriesPlot(smoothed[column], "Smoothed Data", plotDir + "/smoothed_plot.png");
+        plotter.createMultiSeriesPlot(original, salted[column], smoothed[column], plotDir + "/final_plot.png");
+    }
+    
+    // Directory name for each column: its header with unsafe characters replaced,
+    // made unique by appending the column number where needed
+    private static String[] columnDirectories(ColumnTable table) {
+        String[] directories = new String[table.getColumnCount()];
+        List<String> used = new ArrayList<>();
+        for (int c = 0; c < directories.length; c++) {
+            String name = table.getName(c).replaceAll("[^A-Za-z0-9_.-]", "_");
+            if (name.isEmpty() || name.startsWith(".")) {
+                name = "column" + (c + 1) + name;
+            }
+            if (used.contains(name.toLowerCase())) {
+                name = name + "_" + (c + 1);
+            }
+            used.add(name.toLowerCase());
+            directories[c] = name;
+        }
+        return directories;
+    }
+    
+    /**
+     * Save every column's processed data to one wide CSV file.
+     * 
+     * @param filePath Path to save the CSV
+     * @param table The original columns
+     * @param salted Salted series of each column, holding only the rows that have a value
+     * @param smoothed Smoothed series of each column, holding only the rows that have a value
+     * @throws IOException If an I/O error occurs
+     */
+    private static void saveColumnData(String filePath, ColumnTable table, 
+                                       DataSeries[] salted, DataSeries[] smoothed) throws IOException {
+        int columns = table.getColumnCount();
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
+            StringBuilder line = new StringBuilder("x");
+            for (int c = 0; c < columns; c++) {
+                String name = table.getName(c);
+                line.append(',').append(name).append("_original")
+                    .append(',').append(name).append("_salted")
+                    .append(',').append(name).append("_smoothed");
+            }
+            writer.write(line.append('\n').toString());
+            
+            // Position of the next row of each column's series
+            int[] next = new int[columns];
+            for (int row = 0; row < table.getRowCount(); row++) {
+                line.setLength(0);
+                appendFixed(line, table.getX(row));
+                for (int c = 0; c < columns; c++) {
+                    if (table.hasValue(c, row)) {
+                        int i = next[c]++;
+                        line.append(',');
+                        appendFixed(line, table.getValue(c, row));
+                        line.append(',');
+                        appendFixed(line, salted[c].getY(i));
+                        line.append(',');
+                        appendFixed(line, smoothed[c].getY(i));
+                    } else {
+                        line.append(",,,");
                     }
                 }
+                writer.write(line.append('\n').toString());
             }
         }
+    }
+    
+    // Append a value exactly as String.format("%.6f") would. Ordinary values are rounded
+    // directly; values close to a rounding tie, very large values, NaN and infinity are
+    // left to String.format, which is much slower
+    private static void appendFixed(StringBuilder sb, double value) {
+        double scaled = Math.abs(value) * 1e6;
+        double whole = Math.floor(scaled);
+        double fraction = scaled - whole;
+        if (!(scaled < MAX_FAST_FIXED) || Math.abs(fraction - 0.5) < 1e-3) {
+            sb.append(String.format("%.6f", value));
+            return;
+        }
         
-        return dataPoints;
+        long units = (long) whole + ((fraction > 0.5) ? 1 : 0);
+        if (Double.doubleToRawLongBits(value) < 0) {
+            sb.append('-');
+        }
+        sb.append(units / 1000000).append('.');
+        String decimals = Long.toString(units % 1000000);
+        for (int i = decimals.length(); i < 6; i++) {
+            sb.append('0');
+        }
+        sb.append(decimals);
+    }
+    
+    /**
+     * Print the row count and throughput of the last read.
+     * 
+     * @param action Verb describing what was done with the rows
+     * @param rows Number of rows
+     * @param millis Time taken in milliseconds
+     * @param rowsPerSecond Throughput
+     */
+    private void reportThroughput(String action, long rows, double millis, double rowsPerSecond) {
+        out.println(String.format("%s %d rows in %.1f ms (%.0f rows/sec)", action, 
+                           rows, millis, rowsPerSecond));
     }
     
     /**
@@ -180,25 +509,89 @@ public class Main {
      * @throws IOException If an I/O error occurs
      */
     private static void saveProcessedData(String filePath, 
-                                        List<DataPoint> originalData,
-                                        List<DataPoint> saltedData,
-                                        List<DataPoint> smoothedData) throws IOException {
+                                        DataSeries originalData,
+                                        DataSeries saltedData,
+                                        DataSeries smoothedData) throws IOException {
         try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
             // Write header
             writer.write("x,original_y,salted_y,smoothed_y\n");
             
             // Write data points
             for (int i = 0; i < originalData.size(); i++) {
-                double x = originalData.get(i).getX();
-                double originalY = originalData.get(i).getY();
-                double saltedY = (i < saltedData.size()) ? saltedData.get(i).getY() : 0;
-                double smoothedY = (i < smoothedData.size()) ? smoothedData.get(i).getY() : 0;
+                double x = originalData.getX(i);
+                double originalY = originalData.getY(i);
+                double saltedY = (i < saltedData.size()) ? saltedData.getY(i) : 0;
+                double smoothedY = (i < smoothedData.size()) ? smoothedData.getY(i) : 0;
                 
                 writer.write(String.format("%.6f,%.6f,%.6f,%.6f\n", x, originalY, saltedY, smoothedY));
             }
         }
     }
+    
+    /**
+     * StreamingOutput - Collects the three stages of a streamed row and writes the row
+     * once its smoothed value is available. The smoother lags the input by a fixed
+     * number of points, so only that many original/salted values are buffered.
+     */
+    private static class StreamingOutput {
+        private final BufferedWriter writer;
+        private final int plotStride;
+        private double[] originalRing = new double[1];
+        private double[] saltedRing = new double[1];
+        private long originalCount = 0;
+        private long saltedCount = 0;
+        private long smoothedCount = 0;
+        
+        final DataSeries originalPlot;
+        final DataSeries saltedPlot;
+        final DataSeries smoothedPlot;
+        
+        StreamingOutput(BufferedWriter writer, int plotStride, int n) {
+            this.writer = writer;
+            this.plotStride = plotStride;
+            int plotPoints = n / plotStride + 1;
+            this.originalPlot = new DataSeries(plotPoints);
+            this.saltedPlot = new DataSeries(plotPoints);
+            this.smoothedPlot = new DataSeries(plotPoints);
+        }
+        
+        void setLatency(int latency) {
+            originalRing = new double[latency + 1];
+            saltedRing = new double[latency + 1];
+        }
+        
+        PointSink originalSink(PointSink next) {
+            return (x, y) -> {
+                originalRing[(int) (originalCount % originalRing.length)] = y;
+                if (originalCount++ % plotStride == 0) {
+                    originalPlot.add(x, y);
+                }
+                next.accept(x, y);
+            };
+        }
+        
+        PointSink saltedSink(PointSink next) {
+            return (x, y) -> {
+                saltedRing[(int) (saltedCount % saltedRing.length)] = y;
+                if (saltedCount++ % plotStride == 0) {
+                    saltedPlot.add(x, y);
+                }
+                next.accept(x, y);
+            };
+        }
+        
+        PointSink smoothedSink() {
+            return (x, y) -> {
+                int slot = (int) (smoothedCount % originalRing.length);
+                if (smoothedCount++ % plotStride == 0) {
+                    smoothedPlot.add(x, y);
+                }
+                try {
+                    writer.write(String.format("%.6f,%.6f,%.6f,%.6f\n", x, originalRing[slot], saltedRing[slot], y));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            };
+        }
+    }
 }
-
-
-
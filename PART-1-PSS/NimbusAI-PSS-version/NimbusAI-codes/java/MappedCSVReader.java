@@ -0,0 +1,480 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * MappedCSVReader - Reads a whole CSV file through a memory-mapped FileChannel.
+ * Lines are found by scanning the mapped bytes for terminators and each row is
+ * parsed in place by a CSVRowParser, so the file is never copied into a Java
+ * buffer or decoded into Strings.
+ *
+ * Large files are split at line boundaries into ranges that are parsed in parallel,
+ * one range per task. The ranges are then joined in file order and rows that took
+ * their x-value from the row index are renumbered, so the result is the same as
+ * reading the file sequentially with StreamingCSVReader.
+ *
+ * readColumns() reads every numeric column of the file in the same way, into a
+ * ColumnTable, so a wide file can be processed column by column from one read.
+ */
+public class MappedCSVReader {
+
+    // Ranges smaller than this are not worth a task of their own (1 MB)
+    private static final long MIN_RANGE_SIZE = 1024 * 1024;
+
+    // Largest range mapped at once; a MappedByteBuffer is indexed by int (1 GB)
+    private static final long MAX_RANGE_SIZE = 1024 * 1024 * 1024;
+
+    // Number of bytes read at a time while looking for a line boundary
+    private static final int SCAN_SIZE = 8 * 1024;
+
+    private final int threads;
+    private long rowsRead = 0;
+    private long elapsedNanos = 0;
+    private List<String> warnings = new ArrayList<>();
+
+    /**
+     * Constructor that uses one thread per available processor.
+     */
+    public MappedCSVReader() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor with a specified number of threads.
+     *
+     * @param threads Maximum number of ranges parsed at the same time
+     */
+    public MappedCSVReader(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Read a CSV file into a DataSeries.
+     *
+     * @param filePath Path to the CSV file
+     * @return Series of data points in file order
+     * @throws IOException If an I/O error occurs
+     */
+    public DataSeries read(String filePath) throws IOException {
+        long startTime = System.nanoTime();
+        warnings = new ArrayList<>();
+        DataSeries result;
+
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+
+            // The header is the first line
+            long dataStart = nextLineStart(channel, 0, fileSize);
+            String header = readHeader(channel, dataStart);
+            List<Long> bounds = splitRanges(channel, dataStart, fileSize);
+
+            List<RangeResult> ranges = new ArrayList<>();
+            for (int i = 0; i + 1 < bounds.size(); i++) {
+                ranges.add(new RangeResult(header, bounds.get(i), bounds.get(i + 1)));
+            }
+            parseRanges(channel, ranges);
+            result = join(ranges);
+        }
+
+        rowsRead = result.size();
+        elapsedNanos = System.nanoTime() - startTime;
+        return result;
+    }
+
+    /**
+     * Read every numeric column of a CSV file. The x column is chosen by the same header
+     * heuristics as read() (a file with a single column has none, and uses the row index).
+     * Every other column that holds at least one number becomes a column of the table.
+     * Lines without a number outside the x column are skipped, and rows whose x is not a
+     * number take their row index as x. Large files are parsed in parallel, as in read().
+     *
+     * @param filePath Path to the CSV file
+     * @return The numeric columns, with their rows in file order
+     * @throws IOException If an I/O error occurs
+     */
+    public ColumnTable readColumns(String filePath) throws IOException {
+        long startTime = System.nanoTime();
+        warnings = new ArrayList<>();
+        ColumnTable result;
+
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+
+            long dataStart = nextLineStart(channel, 0, fileSize);
+            String header = readHeader(channel, dataStart);
+            String[] names = header.split(",", -1);
+            CSVRowParser headerParser = new CSVRowParser((x, y) -> { });
+            headerParser.parseHeader(header);
+            int xColumn = (names.length > 1) ? headerParser.getXColumn() : -1;
+            List<Long> bounds = splitRanges(channel, dataStart, fileSize);
+
+            List<ColumnRange> ranges = new ArrayList<>();
+            for (int i = 0; i + 1 < bounds.size(); i++) {
+                ranges.add(new ColumnRange(names.length, xColumn, bounds.get(i), bounds.get(i + 1)));
+            }
+            parseRanges(channel, ranges);
+            result = joinColumns(names, xColumn, ranges);
+        }
+
+        rowsRead = result.getRowCount();
+        elapsedNanos = System.nanoTime() - startTime;
+        return result;
+    }
+
+    /**
+     * Get the number of data points read by the last call to read.
+     *
+     * @return Number of rows
+     */
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    /**
+     * Get the warnings for the lines skipped by the last call to read, which are not
+     * printed by the reader.
+     *
+     * @return Warnings in file order
+     */
+    public List<String> getWarnings() {
+        return warnings;
+    }
+
+    /**
+     * Get the throughput of the last call to read.
+     *
+     * @return Rows per second
+     */
+    public double getRowsPerSecond() {
+        return elapsedNanos > 0 ? rowsRead * 1e9 / elapsedNanos : 0;
+    }
+
+    /**
+     * Get the duration of the last call to read.
+     *
+     * @return Elapsed time in milliseconds
+     */
+    public double getElapsedMillis() {
+        return elapsedNanos / 1e6;
+    }
+
+    /**
+     * Decode the header line, which runs from the start of the file to dataStart.
+     */
+    private String readHeader(FileChannel channel, long dataStart) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) dataStart);
+        while (buffer.hasRemaining() && channel.read(buffer, buffer.position()) != -1) {
+            // Keep reading until the whole header is in the buffer
+        }
+        int end = buffer.position();
+        // Strip the terminator (\n, \r\n or \r)
+        if (end > 0 && buffer.get(end - 1) == '\n') {
+            end--;
+        }
+        if (end > 0 && buffer.get(end - 1) == '\r') {
+            end--;
+        }
+        return new String(buffer.array(), 0, end, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Split the data part of the file into ranges that each start at the beginning
+     * of a line, one range per thread but never smaller than MIN_RANGE_SIZE or
+     * larger than MAX_RANGE_SIZE.
+     *
+     * @return Offsets of the range boundaries, starting with dataStart and ending with fileSize
+     */
+    private List<Long> splitRanges(FileChannel channel, long dataStart, long fileSize) throws IOException {
+        long dataSize = fileSize - dataStart;
+        long rangeCount = Math.min(threads, Math.max(1, dataSize / MIN_RANGE_SIZE));
+        rangeCount = Math.max(rangeCount, (dataSize + MAX_RANGE_SIZE - 1) / MAX_RANGE_SIZE);
+
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(dataStart);
+        for (long i = 1; i < rangeCount; i++) {
+            long target = dataStart + dataSize * i / rangeCount;
+            long bound = nextLineStart(channel, Math.max(target, bounds.get(bounds.size() - 1)), fileSize);
+            if (bound > bounds.get(bounds.size() - 1) && bound < fileSize) {
+                bounds.add(bound);
+            }
+        }
+        bounds.add(fileSize);
+        return bounds;
+    }
+
+    /**
+     * Find where the line containing the given offset ends, i.e. the offset of the
+     * next line. A line ends with \n, \r\n or \r, as with BufferedReader.readLine().
+     */
+    private long nextLineStart(FileChannel channel, long offset, long fileSize) throws IOException {
+        ByteBuffer scan = ByteBuffer.allocate(SCAN_SIZE);
+        long pos = offset;
+        while (pos < fileSize) {
+            scan.clear();
+            int bytesRead = channel.read(scan, pos);
+            if (bytesRead <= 0) {
+                break;
+            }
+            for (int i = 0; i < bytesRead; i++) {
+                byte b = scan.get(i);
+                if (b == '\n') {
+                    return pos + i + 1;
+                }
+                if (b == '\r') {
+                    // Include the \n of a \r\n pair, which may be in the next block
+                    if (i + 1 < bytesRead) {
+                        return scan.get(i + 1) == '\n' ? pos + i + 2 : pos + i + 1;
+                    }
+                    ByteBuffer next = ByteBuffer.allocate(1);
+                    boolean lineFeed = channel.read(next, pos + i + 1) == 1 && next.get(0) == '\n';
+                    return lineFeed ? pos + i + 2 : pos + i + 1;
+                }
+            }
+            pos += bytesRead;
+        }
+        return fileSize;
+    }
+
+    /**
+     * Parse every range, in parallel if there is more than one.
+     */
+    private void parseRanges(FileChannel channel, List<? extends Range> ranges) throws IOException {
+        if (ranges.size() == 1) {
+            ranges.get(0).parse(channel);
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, ranges.size()));
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Range range : ranges) {
+                futures.add(executor.submit(() -> {
+                    range.parse(channel);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading CSV", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Failed to read CSV", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Join the parsed ranges in file order. Row-index x-values are shifted by the
+     * number of rows in the earlier ranges. If no range produced a row, the
+     * first-numeric-column fallback is applied to the whole file instead.
+     */
+    private DataSeries join(List<RangeResult> ranges) {
+        long totalRows = 0;
+        for (RangeResult range : ranges) {
+            totalRows += range.rows.size();
+            warnings.addAll(range.parser.getWarnings());
+        }
+
+        DataSeries result;
+        if (totalRows == 0) {
+            result = new DataSeries();
+            for (RangeResult range : ranges) {
+                DataSeries lenient = range.parser.getLenientRows();
+                for (int i = 0; i < lenient.size(); i++) {
+                    result.add(result.size(), lenient.getY(i));
+                }
+            }
+            return result;
+        }
+
+        result = new DataSeries((int) totalRows);
+        for (RangeResult range : ranges) {
+            int offset = result.size();
+            DataSeries rows = range.rows;
+            for (int i = 0; i < rows.size(); i++) {
+                result.add(rows.getX(i), rows.getY(i));
+            }
+            if (offset > 0) {
+                double[] x = result.xValues();
+                for (int row : range.parser.getIndexedRows()) {
+                    x[offset + row] += offset;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Join the column ranges in file order, keeping the columns that hold a number.
+     * Rows without a number in the x column are given their row index as x.
+     */
+    private ColumnTable joinColumns(String[] names, int xColumn, List<ColumnRange> ranges) {
+        int rows = 0;
+        for (ColumnRange range : ranges) {
+            rows += range.rows;
+        }
+
+        List<Integer> numeric = new ArrayList<>();
+        for (int c = 0; c < names.length; c++) {
+            if (c != xColumn && hasNumber(ranges, c)) {
+                numeric.add(c);
+            }
+        }
+
+        double[] x = new double[rows];
+        double[][] columns = new double[numeric.size()][rows];
+        String[] columnNames = new String[numeric.size()];
+        for (int k = 0; k < columnNames.length; k++) {
+            columnNames[k] = names[numeric.get(k)].trim();
+        }
+
+        int offset = 0;
+        for (ColumnRange range : ranges) {
+            for (int row = 0; row < range.rows; row++) {
+                double value = range.x[row];
+                x[offset + row] = Double.isNaN(value) ? offset + row : value;
+            }
+            for (int k = 0; k < columnNames.length; k++) {
+                System.arraycopy(range.columns[numeric.get(k)], 0, columns[k], offset, range.rows);
+            }
+            offset += range.rows;
+        }
+        return new ColumnTable(columnNames, x, columns, rows);
+    }
+
+    // Whether any range has a number in a column
+    private static boolean hasNumber(List<ColumnRange> ranges, int column) {
+        for (ColumnRange range : ranges) {
+            double[] values = range.columns[column];
+            for (int row = 0; row < range.rows; row++) {
+                if (!Double.isNaN(values[row])) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Range - One range of the file, parsed line by line.
+     */
+    private abstract static class Range {
+        private final long start;
+        private final long end;
+
+        Range(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        // Parse one line of the range, without its terminator
+        abstract void parseLine(ByteBuffer buffer, int lineStart, int lineEnd);
+
+        // Parse every line in the range; the range ends at a line boundary or the end of the file
+        void parse(FileChannel channel) throws IOException {
+            int length = (int) (end - start);
+            if (length == 0) {
+                return;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+
+            int lineStart = 0;
+            for (int pos = 0; pos < length; pos++) {
+                byte b = buffer.get(pos);
+                if (b != '\n' && b != '\r') {
+                    continue;
+                }
+                parseLine(buffer, lineStart, pos);
+                if (b == '\r' && pos + 1 < length && buffer.get(pos + 1) == '\n') {
+                    pos++;
+                }
+                lineStart = pos + 1;
+            }
+
+            // The last line of the file may not have a terminator
+            if (lineStart < length) {
+                parseLine(buffer, lineStart, length);
+            }
+        }
+    }
+
+    /**
+     * RangeResult - One range of the file and the rows parsed from it.
+     */
+    private static class RangeResult extends Range {
+        private final DataSeries rows = new DataSeries();
+        private final CSVRowParser parser = new CSVRowParser(rows::add);
+
+        RangeResult(String header, long start, long end) {
+            super(start, end);
+            parser.parseHeader(header);
+            parser.parsePartialFile();
+        }
+
+        @Override
+        void parseLine(ByteBuffer buffer, int lineStart, int lineEnd) {
+            parser.parseLine(buffer, lineStart, lineEnd);
+        }
+    }
+
+    /**
+     * ColumnRange - One range of the file and the values of every column in it.
+     */
+    private static class ColumnRange extends Range {
+        private static final int INITIAL_CAPACITY = 16;
+
+        private final CSVRowParser parser = new CSVRowParser((x, y) -> { });
+        private final int xColumn;
+        private final double[] fields;
+        private double[] x = new double[INITIAL_CAPACITY];
+        private final double[][] columns;
+        private int rows = 0;
+
+        ColumnRange(int fieldCount, int xColumn, long start, long end) {
+            super(start, end);
+            this.xColumn = xColumn;
+            this.fields = new double[fieldCount];
+            this.columns = new double[fieldCount][INITIAL_CAPACITY];
+        }
+
+        @Override
+        void parseLine(ByteBuffer buffer, int lineStart, int lineEnd) {
+            int numbers = parser.parseFields(buffer, lineStart, lineEnd, fields);
+            boolean hasX = xColumn >= 0 && !Double.isNaN(fields[xColumn]);
+            if (numbers == (hasX ? 1 : 0)) {
+                // No values on this line
+                return;
+            }
+
+            if (rows == x.length) {
+                int capacity = rows * 2;
+                x = Arrays.copyOf(x, capacity);
+                for (int c = 0; c < columns.length; c++) {
+                    columns[c] = Arrays.copyOf(columns[c], capacity);
+                }
+            }
+            x[rows] = hasX ? fields[xColumn] : Double.NaN;
+            for (int c = 0; c < columns.length; c++) {
+                columns[c][rows] = fields[c];
+            }
+            rows++;
+        }
+    }
+}
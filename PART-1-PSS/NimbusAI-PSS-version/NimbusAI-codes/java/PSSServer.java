@@ -0,0 +1,337 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PSSServer - Keeps the PSS pipeline resident in one JVM and runs jobs sent to it
+ * over a local socket. A job costs only its own processing, instead of also paying
+ * for JVM startup, JFreeChart class loading and JIT compilation as a new
+ * `java Main` process does for every file. The server warms up by running the
+ * pipeline on a small generated series before it accepts jobs.
+ *
+ * The protocol is line based (UTF-8, fields separated by tabs), one job per connection:
+ *   request:   RUN, then the arguments Main would take, e.g. RUN in.csv out_dir out.csv
+ *              (or PING, answered by PONG)
+ *   response:  OUT and a line of the job's progress output, as it is printed
+ *              ERR and a line of the job's error output, as it is printed
+ *              EXIT, the exit status Main would return and the job time in milliseconds
+ * Jobs run concurrently on a fixed number of worker threads; a job that arrives when
+ * every worker is busy and the queue is full gets an ERR line and EXIT 1 at once.
+ * The server only listens on the loopback interface.
+ *
+ * Usage: java -cp build:lib/* PSSServer [--port N] [--jobs N] [--queue N]
+ *                                      [--no-warmup] [--exit-on-stdin-close]
+ * Once ready it prints "LISTENING port" on standard output; with --port 0 (the
+ * default) the port is chosen by the system.
+ */
+public class PSSServer {
+
+    // Jobs that may wait for a worker before new ones are turned away
+    private static final int DEFAULT_QUEUE_SIZE = 64;
+
+    // Time a client has to send its request line once connected
+    private static final int REQUEST_TIMEOUT_MILLIS = 10000;
+
+    // Size and number of the pipeline runs used to warm up the JVM
+    private static final int WARMUP_POINTS = 2000;
+    private static final int WARMUP_RUNS = 3;
+
+    private final ServerSocket serverSocket;
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Constructor that binds the server to a loopback port.
+     *
+     * @param port Port to listen on, or 0 for any free port
+     * @param jobs Number of jobs run at the same time
+     * @param queueSize Number of jobs that may wait for a worker
+     * @throws IOException If the port cannot be bound
+     */
+    public PSSServer(int port, int jobs, int queueSize) throws IOException {
+        this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        this.executor = new ThreadPoolExecutor(jobs, jobs, 0, TimeUnit.MILLISECONDS,
+                                               new ArrayBlockingQueue<>(Math.max(1, queueSize)));
+    }
+
+    /**
+     * Get the port the server listens on.
+     *
+     * @return The port
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Accept connections and run their jobs until the server is closed.
+     *
+     * @throws IOException If accepting a connection fails other than by closing
+     */
+    public void serve() throws IOException {
+        while (!serverSocket.isClosed()) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (SocketException e) {
+                if (serverSocket.isClosed()) {
+                    return;
+                }
+                throw e;
+            }
+
+            try {
+                executor.execute(() -> handle(socket));
+            } catch (RejectedExecutionException e) {
+                reject(socket);
+            }
+        }
+    }
+
+    /**
+     * Stop accepting connections and let the jobs already accepted finish.
+     *
+     * @throws IOException If closing the socket fails
+     */
+    public void close() throws IOException {
+        serverSocket.close();
+        executor.shutdown();
+    }
+
+    /**
+     * Run the pipeline a few times on a generated series, so the classes it uses are
+     * loaded and its loops compiled before the first real job.
+     *
+     * @throws IOException If the temporary files cannot be written
+     */
+    public static void warmUp() throws IOException {
+        File directory = File.createTempFile("pss-warmup", "");
+        directory.delete();
+        directory.mkdirs();
+        File input = new File(directory, "warmup.csv");
+
+        Random random = new Random(42);
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(input))) {
+            writer.write("time,value\n");
+            for (int i = 0; i < WARMUP_POINTS; i++) {
+                writer.write(i + "," + (Math.sin(i / 50.0) + random.nextGaussian() * 0.2) + "\n");
+            }
+        }
+
+        PrintStream discard = new PrintStream(OutputStream.nullOutputStream());
+        String[] args = {input.getPath(), directory.getPath(), new File(directory, "processed.csv").getPath()};
+        for (int run = 0; run < WARMUP_RUNS; run++) {
+            Main.run(args, discard, discard);
+        }
+
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    // Read one request from a connection, run it and stream back its output
+    private void handle(Socket socket) {
+        try (Socket connection = socket) {
+            connection.setSoTimeout(REQUEST_TIMEOUT_MILLIS);
+            BufferedReader reader = new BufferedReader(
+                new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8));
+            Writer writer = new BufferedWriter(
+                new OutputStreamWriter(connection.getOutputStream(), StandardCharsets.UTF_8));
+
+            String request = reader.readLine();
+            if (request == null) {
+                return;
+            }
+            String[] fields = request.split("\t", -1);
+            if (fields[0].equals("PING")) {
+                writer.write("PONG\n");
+                writer.flush();
+                return;
+            }
+            if (!fields[0].equals("RUN")) {
+                writer.write("ERR\tUnknown request: " + fields[0] + "\nEXIT\t1\t0\n");
+                writer.flush();
+                return;
+            }
+
+            FramedOutputStream out = new FramedOutputStream(writer, "OUT");
+            FramedOutputStream err = new FramedOutputStream(writer, "ERR");
+            long start = System.nanoTime();
+            int status;
+            try (PrintStream outStream = new PrintStream(out, true, StandardCharsets.UTF_8);
+                 PrintStream errStream = new PrintStream(err, true, StandardCharsets.UTF_8)) {
+                status = Main.run(Arrays.copyOfRange(fields, 1, fields.length), outStream, errStream);
+                out.finish();
+                err.finish();
+            }
+            double millis = (System.nanoTime() - start) / 1e6;
+
+            synchronized (writer) {
+                writer.write(String.format("EXIT\t%d\t%.1f\n", status, millis));
+                writer.flush();
+            }
+        } catch (IOException e) {
+            // The client went away; the job's files are still written
+        }
+    }
+
+    // Turn a connection away because every worker is busy and the queue is full
+    private static void reject(Socket socket) {
+        try (Socket connection = socket) {
+            OutputStream out = connection.getOutputStream();
+            out.write("ERR\tServer busy, try again later\nEXIT\t1\t0\n".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+        } catch (IOException e) {
+            // Nothing more can be done for this client
+        }
+    }
+
+    /**
+     * Start the server.
+     *
+     * @param args Command line arguments:
+     *            --port N - Port to listen on (optional, default 0 for any free port)
+     *            --jobs N - Number of jobs run at the same time (optional, default one per processor)
+     *            --queue N - Number of jobs that may wait for a worker (optional, default 64)
+     *            --no-warmup - Accept jobs without warming up first (optional)
+     *            --exit-on-stdin-close - Stop when standard input is closed, e.g. because the
+     *                                    process that started the server has exited (optional)
+     */
+    public static void main(String[] args) {
+        int port = 0;
+        int jobs = Runtime.getRuntime().availableProcessors();
+        int queueSize = DEFAULT_QUEUE_SIZE;
+        boolean warmUp = true;
+        boolean exitOnStdinClose = false;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--port":
+                        port = Integer.parseInt(args[++i]);
+                        break;
+                    case "--jobs":
+                        jobs = Integer.parseInt(args[++i]);
+                        break;
+                    case "--queue":
+                        queueSize = Integer.parseInt(args[++i]);
+                        break;
+                    case "--no-warmup":
+                        warmUp = false;
+                        break;
+                    case "--exit-on-stdin-close":
+                        exitOnStdinClose = true;
+                        break;
+                    default:
+                        throw new IllegalArgumentException(args[i]);
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Usage: java PSSServer [--port N] [--jobs N] [--queue N] "
+                               + "[--no-warmup] [--exit-on-stdin-close]");
+            System.exit(1);
+        }
+
+        // Plots are drawn off screen
+        System.setProperty("java.awt.headless", "true");
+
+        try {
+            if (warmUp) {
+                warmUp();
+            }
+            PSSServer server = new PSSServer(port, Math.max(1, jobs), queueSize);
+
+            if (exitOnStdinClose) {
+                Thread watcher = new Thread(() -> {
+                    try {
+                        while (System.in.read() != -1) {
+                            // Wait for end of input
+                        }
+                    } catch (IOException e) {
+                        // Treat a broken stdin as closed
+                    }
+                    System.exit(0);
+                });
+                watcher.setDaemon(true);
+                watcher.start();
+            }
+
+            System.out.println("LISTENING " + server.getPort());
+            System.out.flush();
+            server.serve();
+        } catch (IOException e) {
+            System.err.println("Server error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * FramedOutputStream - Sends each line written to it to the client as one
+     * tagged line of the response. Lines from the job's output and error streams
+     * share the connection, so whole lines are written under the writer's lock.
+     */
+    private static class FramedOutputStream extends OutputStream {
+        private final Writer writer;
+        private final String tag;
+        private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+
+        FramedOutputStream(Writer writer, String tag) {
+            this.writer = writer;
+            this.tag = tag;
+        }
+
+        @Override
+        public synchronized void write(int b) throws IOException {
+            if (b == '\n') {
+                emit();
+            } else {
+                line.write(b);
+            }
+        }
+
+        @Override
+        public synchronized void write(byte[] bytes, int offset, int length) throws IOException {
+            for (int i = offset; i < offset + length; i++) {
+                write(bytes[i]);
+            }
+        }
+
+        // Send any final line that was not terminated
+        synchronized void finish() throws IOException {
+            if (line.size() > 0) {
+                emit();
+            }
+        }
+
+        private void emit() throws IOException {
+            String text = line.toString(StandardCharsets.UTF_8);
+            line.reset();
+            if (text.endsWith("\r")) {
+                text = text.substring(0, text.length() - 1);
+            }
+            synchronized (writer) {
+                writer.write(tag + "\t" + text + "\n");
+                writer.flush();
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ParallelRanges - Runs a loop over the indices of a series on a ForkJoinPool.
+ * The index range is cut into chunks, which up to parallelism tasks take in turn
+ * until none are left. The tasks run on one pool shared by every instance, sized to
+ * the number of processors, so an instance holds no threads of its own and never
+ * needs to be shut down. It is meant for loops in which every
+ * output point depends only on the input: each chunk reads the neighbouring input
+ * it needs (its halo) straight from the shared input array and writes its own part
+ * of the output, so the result is exactly that of the sequential loop.
+ */
+public class ParallelRanges {
+
+    // Amount of work (in units of the loop's per-index cost) below which a range is not split
+    private static final long MIN_TASK_WORK = 1 << 16;
+
+    // Chunks per worker thread, so that chunks of uneven cost still balance
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final int parallelism;
+
+    /**
+     * Constructor for ParallelRanges.
+     *
+     * @param parallelism Largest number of chunks computed at once (1 runs every loop
+     *                    on the calling thread)
+     */
+    public ParallelRanges(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Get the number of worker threads.
+     *
+     * @return The parallelism
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Run a loop over the indices 0 to n - 1, split into chunks that may run in parallel.
+     * Returns once every chunk has finished; an exception thrown by a chunk is rethrown.
+     *
+     * @param n Number of indices
+     * @param workPerIndex Rough cost of one index (e.g. the kernel length), used to size chunks
+     * @param task The loop body for one chunk of indices
+     */
+    public void forEach(int n, int workPerIndex, RangeTask task) {
+        long minChunk = MIN_TASK_WORK / Math.max(1, workPerIndex);
+        int chunk = (int) Math.max(Math.max(1, minChunk),
+                                   ((long) n + parallelism * CHUNKS_PER_THREAD - 1) / (parallelism * CHUNKS_PER_THREAD));
+
+        if (parallelism == 1 || n <= chunk) {
+            task.apply(0, n);
+            return;
+        }
+        int chunks = (int) (((long) n + chunk - 1) / chunk);
+        SharedPool.POOL.invoke(new ChunkAction(task, n, chunk, chunks, Math.min(parallelism, chunks),
+                                               new AtomicInteger()));
+    }
+
+    /**
+     * RangeTask - The body of a loop for one chunk of indices.
+     */
+    public interface RangeTask {
+        /**
+         * Compute the loop for a chunk of indices.
+         *
+         * @param from First index of the chunk
+         * @param to One past the last index of the chunk
+         */
+        void apply(int from, int to);
+    }
+
+    // The pool every instance runs on, created when a loop first runs in parallel. Its
+    // worker threads are daemons and retire when idle.
+    private static class SharedPool {
+        static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    // Takes chunks in turn until none are left; the first task forks the others
+    private static class ChunkAction extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final RangeTask task;
+        private final int n;
+        private final int chunk;
+        private final int chunks;
+        private final int workers;
+        private final AtomicInteger next;
+
+        ChunkAction(RangeTask task, int n, int chunk, int chunks, int workers, AtomicInteger next) {
+            this.task = task;
+            this.n = n;
+            this.chunk = chunk;
+            this.chunks = chunks;
+            this.workers = workers;
+            this.next = next;
+        }
+
+        @Override
+        protected void compute() {
+            ChunkAction[] helpers = new ChunkAction[workers - 1];
+            for (int i = 0; i < helpers.length; i++) {
+                helpers[i] = new ChunkAction(task, n, chunk, chunks, 1, next);
+                helpers[i].fork();
+            }
+
+            try {
+                int c;
+                while ((c = next.getAndIncrement()) < chunks) {
+                    int from = c * chunk;
+                    task.apply(from, (int) Math.min(n, (long) from + chunk));
+                }
+            } catch (RuntimeException | Error e) {
+                // Stop the other tasks taking chunks, and wait for them so none is still
+                // writing when the exception reaches the caller
+                next.set(chunks);
+                for (ChunkAction helper : helpers) {
+                    helper.quietlyJoin();
+                }
+                throw e;
+            }
+
+            for (ChunkAction helper : helpers) {
+                helper.join();
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
 import java.awt.BasicStroke;
 import java.awt.Color;
@@ -12,6 +13,8 @@ import org.jfree.chart.plot.PlotOrientation;
 import org.jfree.chart.plot.XYPlot;
 import org.jfree.chart.renderer.xy.XYLineAndShapeRenderer;
 import org.jfree.chart.title.TextTitle;
+import org.jfree.data.xy.DefaultXYDataset;
+import org.jfree.data.xy.XYDataset;
 import org.jfree.data.xy.XYSeries;
 import org.jfree.data.xy.XYSeriesCollection;
 
@@ -44,6 +47,34 @@ public class Plotter {
         XYSeriesCollection dataset = new XYSeriesCollection();
         dataset.addSeries(series);
         
+        createSingleSeriesPlot(dataset, seriesName, outputPath);
+    }
+    
+    /**
+     * Creates a plot with a single data series from a columnar DataSeries.
+     * The x and y arrays are handed to JFreeChart directly when the x-values
+     * are already in order, so no per-point objects are created.
+     * 
+     * @param data Series of data points
+     * @param seriesName Name of the data series
+     * @param outputPath Path to save the plot image
+     * @throws IOException If an I/O error occurs
+     */
+    public void createSingleSeriesPlot(DataSeries data, String seriesName, 
+                                      String outputPath) throws IOException {
+        createSingleSeriesPlot(createDataset(seriesName, data), seriesName, outputPath);
+    }
+    
+    /**
+     * Render and save a single-series plot for an already built dataset.
+     * 
+     * @param dataset Dataset holding one series
+     * @param seriesName Name of the data series
+     * @param outputPath Path to save the plot image
+     * @throws IOException If an I/O error occurs
+     */
+    private void createSingleSeriesPlot(XYDataset dataset, String seriesName, 
+                                       String outputPath) throws IOException {
         // Create the chart
         JFreeChart chart = ChartFactory.createXYLineChart(
             seriesName + " Visualization",        // Title
@@ -121,6 +152,42 @@ public class Plotter {
         dataset.addSeries(saltedSeries);
         dataset.addSeries(smoothedSeries);
         
+        createMultiSeriesPlot(dataset, outputPath);
+    }
+    
+    /**
+     * Creates a plot with multiple columnar data series (original, salted, and smoothed).
+     * 
+     * @param originalData Original data series
+     * @param saltedData Salted data series
+     * @param smoothedData Smoothed data series
+     * @param outputPath Path to save the plot image
+     * @throws IOException If an I/O error occurs
+     */
+    public void createMultiSeriesPlot(DataSeries originalData, 
+                                     DataSeries saltedData,
+                                     DataSeries smoothedData,
+                                     String outputPath) throws IOException {
+        if (isSortedByX(originalData) && isSortedByX(saltedData) && isSortedByX(smoothedData)) {
+            DefaultXYDataset dataset = new DefaultXYDataset();
+            dataset.addSeries("Original Data", toSeriesArray(originalData));
+            dataset.addSeries("Salted Data", toSeriesArray(saltedData));
+            dataset.addSeries("Smoothed Data", toSeriesArray(smoothedData));
+            createMultiSeriesPlot(dataset, outputPath);
+        } else {
+            createMultiSeriesPlot(originalData.toPoints(), saltedData.toPoints(), 
+                                  smoothedData.toPoints(), outputPath);
+        }
+    }
+    
+    /**
+     * Render and save the three-series pipeline plot for an already built dataset.
+     * 
+     * @param dataset Dataset holding the original, salted and smoothed series
+     * @param outputPath Path to save the plot image
+     * @throws IOException If an I/O error occurs
+     */
+    private void createMultiSeriesPlot(XYDataset dataset, String outputPath) throws IOException {
         // Create the chart
         JFreeChart chart = ChartFactory.createXYLineChart(
             "Complete Data Processing Pipeline",  // Title
@@ -161,6 +228,62 @@ public class Plotter {
         saveChart(chart, outputPath);
     }
     
+    /**
+     * Build a single-series dataset from a DataSeries.
+     * XYSeries keeps its items sorted by x, so the primitive dataset is only used
+     * when the x-values are already in order; otherwise the sorting path is kept.
+     * 
+     * @param seriesName Name of the data series
+     * @param data Series of data points
+     * @return Dataset holding the series
+     */
+    private XYDataset createDataset(String seriesName, DataSeries data) {
+        if (isSortedByX(data)) {
+            DefaultXYDataset dataset = new DefaultXYDataset();
+            dataset.addSeries(seriesName, toSeriesArray(data));
+            return dataset;
+        }
+        
+        XYSeries series = new XYSeries(seriesName);
+        for (int i = 0; i < data.size(); i++) {
+            series.add(data.getX(i), data.getY(i));
+        }
+        return new XYSeriesCollection(series);
+    }
+    
+    /**
+     * Get the {x, y} array pair JFreeChart expects, trimmed to the series size.
+     * 
+     * @param data Series of data points
+     * @return Two-row array of x and y values
+     */
+    private double[][] toSeriesArray(DataSeries data) {
+        int n = data.size();
+        double[] x = data.xValues();
+        double[] y = data.yValues();
+        if (x.length != n) {
+            x = Arrays.copyOf(x, n);
+            y = Arrays.copyOf(y, n);
+        }
+        return new double[][] {x, y};
+    }
+    
+    /**
+     * Check whether the x-values of a series are in non-decreasing order.
+     * 
+     * @param data Series of data points
+     * @return true if the series is sorted by x
+     */
+    private boolean isSortedByX(DataSeries data) {
+        double[] x = data.xValues();
+        for (int i = 1; i < data.size(); i++) {
+            if (x[i] < x[i - 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
     /**
      * Apply common customizations to a chart.
      * 
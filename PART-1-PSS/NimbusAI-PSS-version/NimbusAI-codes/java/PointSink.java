@@ -0,0 +1,14 @@
+/**
+ * PointSink - Receives data points one at a time, in order.
+ * Used to chain the streaming reader, salter and smoother without
+ * materialising the whole series in memory.
+ */
+public interface PointSink {
+    /**
+     * Accept the next data point.
+     *
+     * @param x The x-value
+     * @param y The y-value
+     */
+    void accept(double x, double y);
+}
@@ -44,215 +44,274 @@ public class Salter {
             return new ArrayList<>();
         }
         
-        // Copy the original data
-        List<DataPoint> saltedData = new ArrayList<>(data.size());
-        for (DataPoint point : data) {
-            saltedData.add(point.copy());
-        }
-        
-        // Calculate data range for scaling the salt
-        double min = Double.MAX_VALUE;
-        double max = Double.MIN_VALUE;
-        
-        for (DataPoint point : data) {
-            double y = point.getY();
-            if (y < min) min = y;
-            if (y > max) max = y;
-        }
-        
-        double range = max - min;
-        double saltAmount = range * saltFactor;
-        
-        // Apply different salting methods based on data characteristics
-        if (detectTrend(data)) {
-            applySaltingToTrend(saltedData, saltAmount);
-        } else if (detectCycles(data)) {
-            applySaltingToCycles(saltedData, saltAmount);
-        } else {
-            applySaltingRandom(saltedData, saltAmount);
-        }
-        
-        return saltedData;
+        DataSeries series = DataSeries.fromPoints(data);
+        return applySalting(series, saltFactor, new DataSeries(series.size())).toPoints();
     }
     
     /**
-     * Apply salting designed to enhance trend visibility.
+     * Apply the salting procedure to a data series, writing into a caller-supplied series.
      * 
-     * @param data List of data points to modify
-     * @param saltAmount Amount of salt to apply
+     * @param data Series of original data points
+     * @param out Series to receive the salted data (may be the same instance as data)
+     * @return The output series
      */
-    private void applySaltingToTrend(List<DataPoint> data, double saltAmount) {
-        // For trend data, we apply a systematic pattern that enhances the trend
-        // This includes some amplification of the overall slope
-        
+    public DataSeries applySalting(DataSeries data, DataSeries out) {
+        return applySalting(data, DEFAULT_SALT_FACTOR, out);
+    }
+    
+    /**
+     * Apply the salting procedure to a data series with a specified salt factor,
+     * writing into a caller-supplied series.
+     * 
+     * @param data Series of original data points
+     * @param saltFactor Salt intensity (as a percentage of data range)
+     * @param out Series to receive the salted data (may be the same instance as data)
+     * @return The output series
+     */
+    public DataSeries applySalting(DataSeries data, double saltFactor, DataSeries out) {
         int n = data.size();
         
-        // Find the average slope
-        double avgSlope = 0;
-        for (int i = 1; i < n; i++) {
-            avgSlope += (data.get(i).getY() - data.get(i-1).getY()) / 
-                       (data.get(i).getX() - data.get(i-1).getX());
+        // Copy the original data
+        out.resetFrom(data);
+        if (n == 0) {
+            return out;
+        }
+        if (out.yValues() != data.yValues()) {
+            System.arraycopy(data.yValues(), 0, out.yValues(), 0, n);
         }
-        avgSlope /= (n - 1);
+        double[] x = out.xValues();
+        double[] y = out.yValues();
         
-        // Apply salting with trend enhancement
+        // Gather the data characteristics the salting method depends on
+        Profile profile = new Profile();
         for (int i = 0; i < n; i++) {
-            DataPoint point = data.get(i);
-            double normalizedPosition = (double) i / (n - 1);  // 0 to 1
-            
-            // Calculate salt: random component + trend enhancement
-            double randomComponent = (random.nextDouble() * 2 - 1) * saltAmount;
-            double trendComponent = avgSlope * normalizedPosition * saltAmount * 0.5;
-            
-            double saltedY = point.getY() + randomComponent + trendComponent;
-            point.setY(saltedY);
+            profile.accept(x[i], y[i]);
         }
+        
+        SaltingStage stage = new SaltingStage(profile, saltFactor, null);
+        for (int i = 0; i < n; i++) {
+            y[i] = stage.salt(y[i]);
+        }
+        
+        return out;
     }
     
     /**
-     * Apply salting designed to enhance cycle visibility.
+     * Create a streaming salting stage. The profile must already have seen every
+     * point of the series, so streaming callers read their input twice: once into
+     * the profile and once through the returned stage. The stage salts points in
+     * the order they arrive and produces the same values as applySalting.
      * 
-     * @param data List of data points to modify
-     * @param saltAmount Amount of salt to apply
+     * @param profile Profile built from the complete series
+     * @param saltFactor Salt intensity (as a percentage of data range)
+     * @param downstream Receives each salted point
+     * @return Sink that salts each point it is given
      */
-    private void applySaltingToCycles(List<DataPoint> data, double saltAmount) {
-        // For cyclic data, we apply a periodic component to enhance the cycles
-        
-        int n = data.size();
-        double estimatedPeriod = estimatePeriod(data);
-        
-        for (int i = 0; i < n; i++) {
-            DataPoint point = data.get(i);
-            
-            // Calculate salt: random component + cyclic enhancement
-            double randomComponent = (random.nextDouble() * 2 - 1) * saltAmount * 0.5;
-            double cyclicComponent = Math.sin(2 * Math.PI * i / estimatedPeriod) * saltAmount * 0.5;
-            
-            double saltedY = point.getY() + randomComponent + cyclicComponent;
-            point.setY(saltedY);
-        }
+    public PointSink createStreamingStage(Profile profile, double saltFactor, PointSink downstream) {
+        return new SaltingStage(profile, saltFactor, downstream);
     }
     
     /**
-     * Apply random salting to the data.
+     * Create a streaming salting stage with the default salt factor.
      * 
-     * @param data List of data points to modify
-     * @param saltAmount Amount of salt to apply
+     * @param profile Profile built from the complete series
+     * @param downstream Receives each salted point
+     * @return Sink that salts each point it is given
      */
-    private void applySaltingRandom(List<DataPoint> data, double saltAmount) {
-        // For general data, we apply controlled random variations
-        
-        for (DataPoint point : data) {
-            // Generate random salt: -saltAmount to +saltAmount
-            double salt = (random.nextDouble() * 2 - 1) * saltAmount;
-            
-            // Apply salt to the y-value
-            double saltedY = point.getY() + salt;
-            point.setY(saltedY);
-        }
+    public PointSink createStreamingStage(Profile profile, PointSink downstream) {
+        return createStreamingStage(profile, DEFAULT_SALT_FACTOR, downstream);
     }
     
     /**
-     * Detect if the data has a significant trend.
-     * 
-     * @param data List of data points to analyze
-     * @return true if a trend is detected, false otherwise
+     * Profile - Accumulates, one point at a time, everything the salting procedure
+     * needs to know about a series: its range, whether it trends or cycles,
+     * its average slope and its estimated period.
      */
-    private boolean detectTrend(List<DataPoint> data) {
-        if (data.size() < 3) {
-            return false;
+    public static class Profile implements PointSink {
+        private int count = 0;
+        private double min = Double.MAX_VALUE;
+        private double max = Double.MIN_VALUE;
+        private double lastX;
+        private double lastY;
+        
+        // Slope statistics for trend detection
+        private int positiveSlopes = 0;
+        private int negativeSlopes = 0;
+        private double slopeSum = 0;
+        
+        // Sign changes of the first derivative for cycle detection
+        private boolean lastPositive = false;
+        private int signChanges = 0;
+        private int firstChange = -1;
+        private int lastChange = -1;
+        
+        @Override
+        public void accept(double x, double y) {
+            if (y < min) min = y;
+            if (y > max) max = y;
+            
+            if (count > 0) {
+                int i = count;
+                double slope = y - lastY;
+                if (slope > 0) positiveSlopes++;
+                else if (slope < 0) negativeSlopes++;
+                slopeSum += slope / (x - lastX);
+                
+                boolean positive = slope > 0;
+                if (i == 1) {
+                    lastPositive = positive;
+                } else if (positive != lastPositive) {
+                    if (firstChange < 0) {
+                        firstChange = i;
+                    }
+                    lastChange = i;
+                    signChanges++;
+                    lastPositive = positive;
+                }
+            }
+            
+            lastX = x;
+            lastY = y;
+            count++;
         }
         
-        // Simple trend detection: check if the slope is consistently positive or negative
-        int positiveSlopes = 0;
-        int negativeSlopes = 0;
+        /**
+         * Get the number of points seen.
+         * 
+         * @return Number of points
+         */
+        public int size() {
+            return count;
+        }
         
-        for (int i = 1; i < data.size(); i++) {
-            double slope = data.get(i).getY() - data.get(i-1).getY();
-            if (slope > 0) positiveSlopes++;
-            else if (slope < 0) negativeSlopes++;
+        /**
+         * Get the range of y-values seen.
+         * 
+         * @return max - min
+         */
+        public double getRange() {
+            return max - min;
         }
         
-        int totalComparisons = data.size() - 1;
-        double positiveRatio = (double) positiveSlopes / totalComparisons;
-        double negativeRatio = (double) negativeSlopes / totalComparisons;
+        /**
+         * Detect if the data has a significant trend.
+         * 
+         * @return true if a trend is detected, false otherwise
+         */
+        public boolean hasTrend() {
+            if (count < 3) {
+                return false;
+            }
+            
+            // Simple trend detection: check if the slope is consistently positive or negative
+            int totalComparisons = count - 1;
+            double positiveRatio = (double) positiveSlopes / totalComparisons;
+            double negativeRatio = (double) negativeSlopes / totalComparisons;
+            
+            // If 70% of slopes are in the same direction, consider it a trend
+            return positiveRatio > 0.7 || negativeRatio > 0.7;
+        }
         
-        // If 70% of slopes are in the same direction, consider it a trend
-        return positiveRatio > 0.7 || negativeRatio > 0.7;
-    }
-    
-    /**
-     * Detect if the data has cyclical patterns.
-     * 
-     * @param data List of data points to analyze
-     * @return true if cycles are detected, false otherwise
-     */
-    private boolean detectCycles(List<DataPoint> data) {
-        if (data.size() < 10) {
-            return false;
+        /**
+         * Detect if the data has cyclical patterns.
+         * 
+         * @return true if cycles are detected, false otherwise
+         */
+        public boolean hasCycles() {
+            if (count < 10) {
+                return false;
+            }
+            
+            // If we have at least 3 sign changes in the first derivative, consider it cyclical
+            return signChanges >= 3;
         }
         
-        // Simple cycle detection: look for sign changes in the first derivative
-        int signChanges = 0;
-        boolean lastPositive = false;
-        boolean firstPoint = true;
+        /**
+         * Get the average slope between consecutive points.
+         * 
+         * @return Average slope
+         */
+        public double getAverageSlope() {
+            return slopeSum / (count - 1);
+        }
         
-        for (int i = 1; i < data.size(); i++) {
-            double slope = data.get(i).getY() - data.get(i-1).getY();
-            boolean positive = slope > 0;
+        /**
+         * Estimate the period of cyclical data.
+         * 
+         * @return Estimated period length
+         */
+        public double estimatePeriod() {
+            if (count < 4) {
+                return count;  // Default to data size if too few points
+            }
             
-            if (firstPoint) {
-                lastPositive = positive;
-                firstPoint = false;
-            } else if (positive != lastPositive) {
-                signChanges++;
-                lastPositive = positive;
+            // Calculate average distance between change points
+            if (signChanges < 2) {
+                return count / 2.0;  // Default to half data size if not enough change points
             }
+            
+            // The gaps between consecutive change points telescope to last - first
+            double totalDistance = lastChange - firstChange;
+            
+            return (totalDistance / (signChanges - 1)) * 2;  // Multiply by 2 for full cycle
         }
-        
-        // If we have at least 3 sign changes, consider it cyclical
-        return signChanges >= 3;
     }
     
     /**
-     * Estimate the period of cyclical data.
-     * 
-     * @param data List of data points
-     * @return Estimated period length
+     * SaltingStage - Salts points one at a time using a completed profile.
+     * The salting method is chosen once from the profile; each call then
+     * consumes random numbers in the same order as the batch procedure.
      */
-    private double estimatePeriod(List<DataPoint> data) {
-        if (data.size() < 4) {
-            return data.size();  // Default to data size if too few points
-        }
+    private class SaltingStage implements PointSink {
+        private final int n;
+        private final double saltAmount;
+        private final boolean trend;
+        private final boolean cycles;
+        private final double avgSlope;
+        private final double estimatedPeriod;
+        private final PointSink downstream;
+        private int index = 0;
         
-        // Look for sign changes in slope to estimate period
-        List<Integer> changePoints = new ArrayList<>();
-        boolean lastPositive = false;
-        boolean firstPoint = true;
-        
-        for (int i = 1; i < data.size(); i++) {
-            double slope = data.get(i).getY() - data.get(i-1).getY();
-            boolean positive = slope > 0;
-            
-            if (firstPoint) {
-                lastPositive = positive;
-                firstPoint = false;
-            } else if (positive != lastPositive) {
-                changePoints.add(i);
-                lastPositive = positive;
-            }
+        SaltingStage(Profile profile, double saltFactor, PointSink downstream) {
+            this.n = profile.size();
+            this.saltAmount = profile.getRange() * saltFactor;
+            this.trend = profile.hasTrend();
+            this.cycles = !trend && profile.hasCycles();
+            this.avgSlope = trend ? profile.getAverageSlope() : 0;
+            this.estimatedPeriod = cycles ? profile.estimatePeriod() : 0;
+            this.downstream = downstream;
         }
         
-        // Calculate average distance between change points
-        if (changePoints.size() < 2) {
-            return data.size() / 2.0;  // Default to half data size if not enough change points
+        @Override
+        public void accept(double x, double y) {
+            downstream.accept(x, salt(y));
         }
         
-        double totalDistance = 0;
-        for (int i = 1; i < changePoints.size(); i++) {
-            totalDistance += changePoints.get(i) - changePoints.get(i-1);
+        /**
+         * Salt the next y-value in the series.
+         * 
+         * @param y The original y-value
+         * @return The salted y-value
+         */
+        double salt(double y) {
+            int i = index++;
+            
+            if (trend) {
+                // For trend data, we apply a systematic pattern that enhances the trend
+                double normalizedPosition = (double) i / (n - 1);  // 0 to 1
+                double randomComponent = (random.nextDouble() * 2 - 1) * saltAmount;
+                double trendComponent = avgSlope * normalizedPosition * saltAmount * 0.5;
+                return y + randomComponent + trendComponent;
+            } else if (cycles) {
+                // For cyclic data, we apply a periodic component to enhance the cycles
+                double randomComponent = (random.nextDouble() * 2 - 1) * saltAmount * 0.5;
+                double cyclicComponent = Math.sin(2 * Math.PI * i / estimatedPeriod) * saltAmount * 0.5;
+                return y + randomComponent + cyclicComponent;
+            } else {
+                // For general data, we apply controlled random variations: -saltAmount to +saltAmount
+                double salt = (random.nextDouble() * 2 - 1) * saltAmount;
+                return y + salt;
+            }
         }
-        
-        return (totalDistance / (changePoints.size() - 1)) * 2;  // Multiply by 2 for full cycle
     }
-}
\ No newline at end of file
+}
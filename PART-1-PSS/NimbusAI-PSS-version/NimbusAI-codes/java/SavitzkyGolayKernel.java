@@ -0,0 +1,195 @@
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SavitzkyGolayKernel - Convolution coefficients of a Savitzky-Golay filter.
+ * A least-squares polynomial fit over a window of equally spaced points is linear
+ * in the y-values, so the fitted value (or derivative) at any position in the window
+ * is a fixed weighted sum of the window's points. The weights are found once per
+ * (window size, order, derivative) from a QR factorisation of the window's
+ * Vandermonde matrix and cached; filtering is then a plain convolution.
+ *
+ * Interior points use the fit centred on them. The first and last halfWindow points
+ * use the fit over the first or last full window, evaluated at their own position,
+ * so the edges are smoothed by the same polynomial model instead of a shorter average.
+ */
+public class SavitzkyGolayKernel {
+
+    // Kernels are cheap to rebuild, so the cache is simply cleared when it gets large
+    private static final int MAX_CACHED_KERNELS = 64;
+    private static final Map<String, SavitzkyGolayKernel> CACHE = new ConcurrentHashMap<>();
+
+    private final int windowSize;
+    private final int halfWindow;
+
+    // coefficients[p][j] is the weight of window point j for the fit evaluated at window position p
+    private final double[][] coefficients;
+
+    private SavitzkyGolayKernel(int windowSize, int order, int derivative) {
+        this.windowSize = windowSize;
+        this.halfWindow = windowSize / 2;
+        int terms = order + 1;
+
+        // Positions scaled to [-1, 1] keep the Vandermonde matrix well conditioned
+        double scale = Math.max(1, halfWindow);
+        double[][] q = new double[terms][windowSize];
+        for (int j = 0; j < windowSize; j++) {
+            double t = (j - halfWindow) / scale;
+            double power = 1;
+            for (int k = 0; k < terms; k++) {
+                q[k][j] = power;
+                power *= t;
+            }
+        }
+
+        // Modified Gram-Schmidt with one reorthogonalisation pass: A = QR
+        double[][] r = new double[terms][terms];
+        for (int k = 0; k < terms; k++) {
+            for (int pass = 0; pass < 2; pass++) {
+                for (int i = 0; i < k; i++) {
+                    double dot = 0;
+                    for (int j = 0; j < windowSize; j++) {
+                        dot += q[i][j] * q[k][j];
+                    }
+                    for (int j = 0; j < windowSize; j++) {
+                        q[k][j] -= dot * q[i][j];
+                    }
+                    r[i][k] += dot;
+                }
+            }
+            double norm = 0;
+            for (int j = 0; j < windowSize; j++) {
+                norm += q[k][j] * q[k][j];
+            }
+            norm = Math.sqrt(norm);
+            for (int j = 0; j < windowSize; j++) {
+                q[k][j] /= norm;
+            }
+            r[k][k] = norm;
+        }
+
+        // Least-squares solution operator R^-1 Q^T, by back substitution:
+        // fit[k][j] is the contribution of point j to the polynomial coefficient of t^k
+        double[][] fit = new double[terms][windowSize];
+        for (int j = 0; j < windowSize; j++) {
+            for (int k = terms - 1; k >= 0; k--) {
+                double value = q[k][j];
+                for (int i = k + 1; i < terms; i++) {
+                    value -= r[k][i] * fit[i][j];
+                }
+                fit[k][j] = value / r[k][k];
+            }
+        }
+
+        // Differentiate the fitted polynomial and evaluate it at every window position
+        double derivativeScale = Math.pow(scale, -derivative);
+        coefficients = new double[windowSize][windowSize];
+        for (int p = 0; p < windowSize; p++) {
+            double t = (p - halfWindow) / scale;
+            for (int k = derivative; k < terms; k++) {
+                // d^s/dt^s t^k = k!/(k-s)! t^(k-s)
+                double factor = derivativeScale * Math.pow(t, k - derivative);
+                for (int f = k - derivative + 1; f <= k; f++) {
+                    factor *= f;
+                }
+                for (int j = 0; j < windowSize; j++) {
+                    coefficients[p][j] += factor * fit[k][j];
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the kernel for a window, creating it if it is not cached.
+     *
+     * @param windowSize Number of points in the window (odd)
+     * @param order Order of the fitted polynomial (less than windowSize)
+     * @param derivative Derivative to evaluate (0 for smoothing), in units of the point spacing
+     * @return The shared kernel
+     */
+    public static SavitzkyGolayKernel get(int windowSize, int order, int derivative) {
+        if (windowSize % 2 == 0 || order < 0 || order >= windowSize || derivative < 0) {
+            throw new IllegalArgumentException("Invalid Savitzky-Golay parameters: window " + windowSize
+                                               + ", order " + order + ", derivative " + derivative);
+        }
+
+        String key = windowSize + "," + order + "," + derivative;
+        SavitzkyGolayKernel kernel = CACHE.get(key);
+        if (kernel == null) {
+            if (CACHE.size() >= MAX_CACHED_KERNELS) {
+                CACHE.clear();
+            }
+            kernel = new SavitzkyGolayKernel(windowSize, order, derivative);
+            CACHE.put(key, kernel);
+        }
+        return kernel;
+    }
+
+    /**
+     * Get the number of points in the window.
+     *
+     * @return The window size
+     */
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    /**
+     * Get the convolution coefficients for the fit evaluated at one window position.
+     *
+     * @param position Window position (0 to windowSize - 1; windowSize / 2 is the centre)
+     * @return The coefficients, one per window point (must not be modified)
+     */
+    public double[] coefficients(int position) {
+        return coefficients[position];
+    }
+
+    /**
+     * Apply the filter to a series.
+     *
+     * @param data Values to filter
+     * @param result Array to receive the filtered values (must not be data)
+     * @param n Number of values (at least windowSize)
+     */
+    public void apply(double[] data, double[] result, int n) {
+        applyRange(data, 0, result, 0, n, 0, n);
+    }
+
+    /**
+     * Apply the filter to part of a series. Point k of the series is read from
+     * data[k - dataOffset] and filtered point i is written to result[i - resultOffset].
+     *
+     * @param data Values to filter
+     * @param dataOffset Index of the series point held in data[0]
+     * @param result Array to receive the filtered values (must not be data)
+     * @param resultOffset Index of the series point held in result[0]
+     * @param n Number of values in the series (at least windowSize)
+     * @param from First point to filter
+     * @param to One past the last point to filter
+     */
+    public void applyRange(double[] data, int dataOffset, double[] result, int resultOffset,
+                           int n, int from, int to) {
+        int lastStart = n - windowSize;
+        for (int i = from; i < to; i++) {
+            if (i < halfWindow) {
+                // Leading edge: fit over the first window, evaluated at the point's position
+                result[i - resultOffset] = convolve(data, -dataOffset, coefficients[i]);
+            } else if (i >= n - halfWindow) {
+                // Trailing edge: fit over the last window
+                result[i - resultOffset] = convolve(data, lastStart - dataOffset, coefficients[i - lastStart]);
+            } else {
+                // Interior points: fit centred on the point
+                result[i - resultOffset] = convolve(data, i - halfWindow - dataOffset, coefficients[halfWindow]);
+            }
+        }
+    }
+
+    // Weighted sum of the window starting at start
+    private static double convolve(double[] data, int start, double[] weights) {
+        double sum = 0;
+        for (int j = 0; j < weights.length; j++) {
+            sum += data[start + j] * weights[j];
+        }
+        return sum;
+    }
+}
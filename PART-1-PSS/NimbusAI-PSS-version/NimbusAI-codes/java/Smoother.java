@@ -1,4 +1,3 @@
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Arrays;
 
@@ -11,9 +10,46 @@ public class Smoother {
     
     // Constants for the Solter smoothing algorithm
     private static final int DEFAULT_WINDOW_SIZE = 5;
-    private static final double ALPHA = 0.3;  // Controls distance weight decay
-    private static final double BETA = 0.7;   // Controls overall smoothing intensity
-    private static final int DEFAULT_ITERATIONS = 3; // Number of smoothing passes
+    static final double ALPHA = 0.3;  // Controls distance weight decay
+    static final double BETA = 0.7;   // Controls overall smoothing intensity
+    static final int DEFAULT_ITERATIONS = 3; // Number of smoothing passes
+    
+    // Kernel length from which convolutions are done by FFT instead of directly
+    static final int FFT_KERNEL_THRESHOLD = 65;
+    
+    // Smallest sigma the recursive Gaussian approximation is accurate for
+    private static final double MIN_RECURSIVE_SIGMA = 2.0;
+    
+    // Runs the loops in which each output point depends only on the input
+    private final ParallelRanges parallel;
+    
+    /**
+     * Constructor for a Smoother that runs on the calling thread.
+     */
+    public Smoother() {
+        this(1);
+    }
+    
+    /**
+     * Constructor for a Smoother that splits the Solter, bilateral, Gaussian and LOESS
+     * smoothers across the ForkJoinPool shared by every ParallelRanges. Every output point
+     * is computed exactly as in the sequential case, so the results do not depend on the
+     * parallelism.
+     * 
+     * @param parallelism Largest number of threads used at once (1 to run on the calling thread)
+     */
+    public Smoother(int parallelism) {
+        this.parallel = new ParallelRanges(parallelism);
+    }
+    
+    /**
+     * Get the number of worker threads used by the point-independent smoothers.
+     * 
+     * @return The parallelism
+     */
+    public int getParallelism() {
+        return parallel.getParallelism();
+    }
     
     /**
      * Apply the Solter smoothing algorithm to a list of data points.
@@ -52,85 +88,84 @@ public class Smoother {
      */
     public List<DataPoint> applySmoothing(List<DataPoint> data, int windowSize, 
                                          double alpha, double beta, int iterations) {
-        List<DataPoint> smoothedData = new ArrayList<>(data);
-        
-        for (int iter = 0; iter < iterations; iter++) {
-            smoothedData = applySinglePassSmoothing(smoothedData, windowSize, alpha, beta);
-        }
-        
-        return smoothedData;
+        DataSeries series = DataSeries.fromPoints(data);
+        return applySmoothing(series, windowSize, alpha, beta, iterations, 
+                              new DataSeries(series.size())).toPoints();
+    }
+    
+    /**
+     * Apply the Solter smoothing algorithm to a data series with the default parameters,
+     * writing into a caller-supplied series.
+     * 
+     * @param data Series of data points to smooth
+     * @param out Series to receive the smoothed data (may be the same instance as data)
+     * @return The output series
+     */
+    public DataSeries applySmoothing(DataSeries data, DataSeries out) {
+        return applySmoothing(data, DEFAULT_WINDOW_SIZE, ALPHA, BETA, DEFAULT_ITERATIONS, out);
+    }
+    
+    /**
+     * Create a streaming version of the default Solter smoothing for a series of known length.
+     * Points pushed into the returned smoother come out with the same values
+     * applySmoothing(data) would produce.
+     *
+     * @param n Number of points in the series
+     * @param downstream Receives each smoothed point
+     * @return The streaming smoother
+     */
+    public StreamingSmoother createStreamingSmoother(int n, PointSink downstream) {
+        return StreamingSmoother.solter(Math.min(DEFAULT_WINDOW_SIZE, n), ALPHA, BETA,
+                                        DEFAULT_ITERATIONS, downstream);
+    }
+
+    /**
+     * Apply the Solter smoothing algorithm to a data series with custom parameters and
+     * multiple iterations, writing into a caller-supplied series.
+     * 
+     * @param data Series of data points to smooth
+     * @param windowSize Size of the sliding window (odd number recommended)
+     * @param alpha Controls how quickly the weight decreases with distance
+     * @param beta Controls the overall smoothing intensity
+     * @param iterations Number of times to apply the smoothing algorithm
+     * @param out Series to receive the smoothed data (may be the same instance as data)
+     * @return The output series
+     */
+    public DataSeries applySmoothing(DataSeries data, int windowSize, double alpha, 
+                                     double beta, int iterations, DataSeries out) {
+        int n = data.size();
+        double[] source = prepareOutput(data, out);
+        runPasses(source, out.yValues(), n, iterations, 
+                  (in, result) -> applySinglePassSmoothing(in, result, n, windowSize, alpha, beta));
+        return out;
     }
     
     /**
      * Apply a single pass of the Solter smoothing algorithm.
      * This is the core smoothing function used by the multi-pass version.
      * 
-     * @param data List of data points to smooth
+     * @param data The y-values to smooth
+     * @param result Array to receive the smoothed y-values
+     * @param n Number of points
      * @param windowSize Size of the sliding window
      * @param alpha Controls weight decay with distance
      * @param beta Controls smoothing intensity
-     * @return List of smoothed data points
      */
-    private List<DataPoint> applySinglePassSmoothing(List<DataPoint> data, int windowSize, 
-                                                  double alpha, double beta) {
-        List<DataPoint> smoothedData = new ArrayList<>();
-        int n = data.size();
-        
+    private void applySinglePassSmoothing(double[] data, double[] result, int n, 
+                                          int windowSize, double alpha, double beta) {
         if (n <= 1) {
-            // If there's 0 or 1 point, just return a copy of the input
-            for (DataPoint point : data) {
-                smoothedData.add(point.copy());
-            }
-            return smoothedData;
+            // If there's 0 or 1 point, just copy the input
+            System.arraycopy(data, 0, result, 0, n);
+            return;
         }
         
         // Ensure window size is valid
         windowSize = Math.min(windowSize, n);
         int halfWindow = windowSize / 2;
         
-        // Apply Solter smoothing to each point
-        for (int i = 0; i < n; i++) {
-            DataPoint originalPoint = data.get(i);
-            double x = originalPoint.getX();
-            double originalY = originalPoint.getY();
-            double smoothedY;
-            
-            // For points at the edges, use smaller windows
-            int start = Math.max(0, i - halfWindow);
-            int end = Math.min(n - 1, i + halfWindow);
-            
-            // Apply the Solter smoothing algorithm
-            if (start == end) {
-                smoothedY = originalY;  // Only one point, no smoothing
-            } else {
-                double sum = 0;
-                double totalWeight = 0;
-                
-                for (int j = start; j <= end; j++) {
-                    double y = data.get(j).getY();
-                    double distance = Math.abs(i - j);
-                    
-                    // Enhanced weight calculation with higher distance penalty for smoother results
-                    double weight = Math.exp(-distance * alpha) * beta;
-                    
-                    // We increase the central point's weight
-                    if (j == i) {
-                        weight *= 1.5;
-                    }
-                    
-                    sum += y * weight;
-                    totalWeight += weight;
-                }
-                
-                // Calculate weighted average
-                smoothedY = sum / totalWeight;
-            }
-            
-            // Create a new point with the smoothed value
-            smoothedData.add(new DataPoint(x, smoothedY));
-        }
-        
-        return smoothedData;
+        // Apply Solter smoothing to each point, using the weights cached for this window
+        SolterKernel kernel = SolterKernel.get(halfWindow, alpha, beta);
+        parallel.forEach(n, windowSize, (from, to) -> kernel.applyRange(data, result, n, from, to));
     }
     
     /**
@@ -147,59 +182,72 @@ public class Smoother {
     public List<DataPoint> applyAdvancedSmoothing(List<DataPoint> data, int windowSize, 
                                                double spatialSigma, double valueSigma,
                                                int iterations) {
-        List<DataPoint> result = new ArrayList<>(data);
+        DataSeries series = DataSeries.fromPoints(data);
+        return applyAdvancedSmoothing(series, windowSize, spatialSigma, valueSigma, iterations,
+                                      new DataSeries(series.size())).toPoints();
+    }
+    
+    /**
+     * Advanced bilateral smoothing of a data series, writing into a caller-supplied series.
+     * 
+     * @param data Series of data points to smooth
+     * @param windowSize Size of the sliding window
+     * @param spatialSigma Controls spatial weight decay
+     * @param valueSigma Controls value similarity weight
+     * @param iterations Number of iterations to apply
+     * @param out Series to receive the smoothed data (may be the same instance as data)
+     * @return The output series
+     */
+    public DataSeries applyAdvancedSmoothing(DataSeries data, int windowSize, 
+                                             double spatialSigma, double valueSigma,
+                                             int iterations, DataSeries out) {
+        return applyAdvancedSmoothing(data, windowSize, spatialSigma, valueSigma, iterations, false, out);
+    }
+    
+    /**
+     * Advanced bilateral smoothing of a data series, optionally approximated.
+     * The approximation takes the value weights relative to a few fixed levels instead
+     * of each point's own value, which turns each pass into a pair of convolutions per
+     * level (two levels per valueSigma across the data, at most 64). Its cost hardly
+     * depends on the window, so it pays off for windows of a few hundred points.
+     * 
+     * @param data Series of data points to smooth
+     * @param windowSize Size of the sliding window
+     * @param spatialSigma Controls spatial weight decay
+     * @param valueSigma Controls value similarity weight
+     * @param iterations Number of iterations to apply
+     * @param approximate Whether to use the approximation
+     * @param out Series to receive the smoothed data (may be the same instance as data)
+     * @return The output series
+     */
+    public DataSeries applyAdvancedSmoothing(DataSeries data, int windowSize, 
+                                             double spatialSigma, double valueSigma,
+                                             int iterations, boolean approximate, DataSeries out) {
+        int n = data.size();
+        double[] source = prepareOutput(data, out);
         
-        for (int iter = 0; iter < iterations; iter++) {
-            List<DataPoint> currentIteration = new ArrayList<>();
-            int n = result.size();
-            
-            if (n <= 1) {
-                return new ArrayList<>(result);
-            }
-            
-            // Ensure window size is valid
-            windowSize = Math.min(windowSize, n);
-            int halfWindow = windowSize / 2;
-            
-            for (int i = 0; i < n; i++) {
-                DataPoint center = result.get(i);
-                double x = center.getX();
-                double centerY = center.getY();
-                
-                // For points at the edges, use smaller windows
-                int start = Math.max(0, i - halfWindow);
-                int end = Math.min(n - 1, i + halfWindow);
-                
-                double sum = 0;
-                double totalWeight = 0;
-                
-                for (int j = start; j <= end; j++) {
-                    DataPoint neighbor = result.get(j);
-                    double y = neighbor.getY();
-                    
-                    // Calculate spatial weight (distance in index space)
-                    double spatialDist = Math.abs(i - j);
-                    double spatialWeight = Math.exp(-(spatialDist * spatialDist) / (2 * spatialSigma * spatialSigma));
-                    
-                    // Calculate value weight (difference in y values)
-                    double valueDist = Math.abs(centerY - y);
-                    double valueWeight = Math.exp(-(valueDist * valueDist) / (2 * valueSigma * valueSigma));
-                    
-                    // Combine weights
-                    double weight = spatialWeight * valueWeight;
-                    
-                    sum += y * weight;
-                    totalWeight += weight;
-                }
-                
-                double smoothedY = (totalWeight > 0) ? sum / totalWeight : centerY;
-                currentIteration.add(new DataPoint(x, smoothedY));
-            }
-            
-            result = currentIteration;
+        // Ensure window size is valid
+        int window = Math.max(1, Math.min(windowSize, n));
+        BilateralFilter filter = new BilateralFilter(window / 2, spatialSigma, valueSigma);
+        
+        runPasses(source, out.yValues(), n, iterations, 
+                  (in, result) -> applyBilateralPass(filter, in, result, n, window, approximate));
+        return out;
+    }
+    
+    // Helper method for a single pass of bilateral smoothing
+    private void applyBilateralPass(BilateralFilter filter, double[] data, double[] result, int n, 
+                                    int windowSize, boolean approximate) {
+        if (n <= 1) {
+            System.arraycopy(data, 0, result, 0, n);
+            return;
         }
         
-        return result;
+        if (approximate) {
+            filter.applyApproximate(data, result, n, parallel);
+        } else {
+            parallel.forEach(n, windowSize, (from, to) -> filter.applyRange(data, result, n, from, to));
+        }
     }
     
     /**
@@ -223,44 +271,71 @@ public class Smoother {
      * @return List of smoothed data points
      */
     public List<DataPoint> applyMovingAverage(List<DataPoint> data, int windowSize, int iterations) {
-        List<DataPoint> result = new ArrayList<>(data);
+        DataSeries series = DataSeries.fromPoints(data);
+        return applyMovingAverage(series, windowSize, iterations, new DataSeries(series.size())).toPoints();
+    }
+    
+    /**
+     * Apply a Moving Average to a data series, writing into a caller-supplied series.
+     * Each pass keeps a running sum of the window, so it takes O(n) time whatever the
+     * window size.
+     * 
+     * @param data Series of data points to smooth
+     * @param windowSize Size of the sliding window (odd number recommended)
+     * @param iterations Number of times to apply the smoothing
+     * @param out Series to receive the smoothed data (may be the same instance as data)
+     * @return The output series
+     */
+    public DataSeries applyMovingAverage(DataSeries data, int windowSize, int iterations, DataSeries out) {
+        int n = data.size();
+        double[] source = prepareOutput(data, out);
+        runPasses(source, out.yValues(), n, iterations, 
+                  (in, result) -> applyMovingAveragePass(in, result, n, windowSize));
+        return out;
+    }
+    
+    // Helper method for a single pass of the moving average
+    private void applyMovingAveragePass(double[] data, double[] result, int n, int windowSize) {
+        if (n <= 1) {
+            System.arraycopy(data, 0, result, 0, n);
+            return;
+        }
         
-        for (int iter = 0; iter < iterations; iter++) {
-            List<DataPoint> currentPass = new ArrayList<>();
-            int n = result.size();
+        // Ensure window size is valid
+        windowSize = Math.min(windowSize, n);
+        int halfWindow = windowSize / 2;
+        
+        // Running sum of data[windowStart..windowEnd], with a compensation term that
+        // collects the rounding error lost by each addition (Kahan-Babuska summation),
+        // so the sum does not drift however many points slide through the window
+        double sum = 0;
+        double compensation = 0;
+        int windowStart = 0;
+        int windowEnd = -1;
+        
+        // Apply moving average to each point
+        for (int i = 0; i < n; i++) {
+            // For points at the edges, use smaller windows
+            int start = Math.max(0, i - halfWindow);
+            int end = Math.min(n - 1, i + halfWindow);
             
-            if (n <= 1) {
-                return new ArrayList<>(result);
+            // Slide the window: add the points entering on the right, remove those leaving on the left
+            while (windowEnd < end) {
+                double value = data[++windowEnd];
+                double t = sum + value;
+                compensation += (Math.abs(sum) >= Math.abs(value)) ? (sum - t) + value : (value - t) + sum;
+                sum = t;
             }
-            
-            // Ensure window size is valid
-            windowSize = Math.min(windowSize, n);
-            int halfWindow = windowSize / 2;
-            
-            // Apply moving average to each point
-            for (int i = 0; i < n; i++) {
-                DataPoint originalPoint = result.get(i);
-                double x = originalPoint.getX();
-                
-                // For points at the edges, use smaller windows
-                int start = Math.max(0, i - halfWindow);
-                int end = Math.min(n - 1, i + halfWindow);
-                
-                // Calculate simple average
-                double sum = 0;
-                for (int j = start; j <= end; j++) {
-                    sum += result.get(j).getY();
-                }
-                double smoothedY = sum / (end - start + 1);
-                
-                // Create a new point with the smoothed value
-                currentPass.add(new DataPoint(x, smoothedY));
+            while (windowStart < start) {
+                double value = -data[windowStart++];
+                double t = sum + value;
+                compensation += (Math.abs(sum) >= Math.abs(value)) ? (sum - t) + value : (value - t) + sum;
+                sum = t;
             }
             
-            result = currentPass;
+            // Calculate simple average
+            result[i] = (sum + compensation) / (end - start + 1);
         }
-        
-        return result;
     }
     
     /**
@@ -284,39 +359,187 @@ public class Smoother {
      * @return List of smoothed data points
      */
     public List<DataPoint> applyExponentialSmoothing(List<DataPoint> data, double alpha, int iterations) {
-        List<DataPoint> result = new ArrayList<>(data);
+        DataSeries series = DataSeries.fromPoints(data);
+        return applyExponentialSmoothing(series, alpha, iterations, new DataSeries(series.size())).toPoints();
+    }
+    
+    /**
+     * Apply exponential smoothing to a data series, writing into a caller-supplied series.
+     * 
+     * @param data Series of data points to smooth
+     * @param alpha Smoothing factor (0 < alpha < 1)
+     * @param iterations Number of iterations to apply
+     * @param out Series to receive the smoothed data (may be the same instance as data)
+     * @return The output series
+     */
+    public DataSeries applyExponentialSmoothing(DataSeries data, double alpha, int iterations, DataSeries out) {
+        int n = data.size();
+        double[] source = data.yValues();
+        out.resetFrom(data);
+        double[] result = out.yValues();
         
-        for (int iter = 0; iter < iterations; iter++) {
-            List<DataPoint> currentPass = new ArrayList<>();
-            int n = result.size();
-            
-            if (n <= 1) {
-                return new ArrayList<>(result);
+        // Ensure alpha is within valid range
+        double clampedAlpha = Math.max(0.01, Math.min(0.99, alpha));
+        
+        if (iterations <= 0) {
+            if (result != source) {
+                System.arraycopy(source, 0, result, 0, n);
             }
-            
-            // Ensure alpha is within valid range
-            alpha = Math.max(0.01, Math.min(0.99, alpha));
-            
-            // Initialize with first point
-            DataPoint firstPoint = result.get(0);
-            currentPass.add(new DataPoint(firstPoint.getX(), firstPoint.getY()));
-            
-            // Apply exponential smoothing to remaining points
-            for (int i = 1; i < n; i++) {
-                DataPoint currentPoint = result.get(i);
-                double previousSmoothed = currentPass.get(i-1).getY();
-                double currentValue = currentPoint.getY();
-                
-                // Exponential smoothing formula: St = alpha * Yt + (1-alpha) * St-1
-                double smoothedValue = alpha * currentValue + (1 - alpha) * previousSmoothed;
-                
-                currentPass.add(new DataPoint(currentPoint.getX(), smoothedValue));
+            return out;
+        }
+        
+        // Each point only depends on its own input value and the previous output, so every
+        // pass can run in place in the output array without a scratch copy
+        applyExponentialPass(source, result, n, clampedAlpha);
+        for (int iter = 1; iter < iterations; iter++) {
+            applyExponentialPass(result, result, n, clampedAlpha);
+        }
+        return out;
+    }
+    
+    /**
+     * Apply Holt's linear (trend-corrected) exponential smoothing.
+     * The points are treated as equally spaced.
+     * 
+     * @param data List of data points to smooth
+     * @param alpha Level smoothing factor (0 < alpha < 1)
+     * @param beta Trend smoothing factor (0 < beta < 1)
+     * @return List of smoothed data points
+     */
+    public List<DataPoint> applyHoltSmoothing(List<DataPoint> data, double alpha, double beta) {
+        DataSeries series = DataSeries.fromPoints(data);
+        return applyHoltSmoothing(series, alpha, beta, new DataSeries(series.size())).toPoints();
+    }
+    
+    /**
+     * Apply Holt's linear exponential smoothing to a data series, writing into a
+     * caller-supplied series.
+     * 
+     * @param data Series of data points to smooth
+     * @param alpha Level smoothing factor (0 < alpha < 1)
+     * @param beta Trend smoothing factor (0 < beta < 1)
+     * @param out Series to receive the smoothed data (may be the same instance as data)
+     * @return The output series
+     */
+    public DataSeries applyHoltSmoothing(DataSeries data, double alpha, double beta, DataSeries out) {
+        return applyExponentialModel(data, HoltWinters.holt(alpha, beta), out);
+    }
+    
+    /**
+     * Apply Holt-Winters (trend and additive seasonal) exponential smoothing.
+     * The points are treated as equally spaced; the season is only used if the series
+     * covers at least two full periods.
+     * 
+     * @param data List of data points to smooth
+     * @param alpha Level smoothing factor (0 < alpha < 1)
+     * @param beta Trend smoothing factor (0 < beta < 1)
+     * @param gamma Seasonal smoothing factor (0 < gamma < 1)
+     * @param period Length of the season in points
+     * @return List of smoothed data points
+     */
+    public List<DataPoint> applyHoltWintersSmoothing(List<DataPoint> data, double alpha, double beta, 
+                                                     double gamma, int period) {
+        DataSeries series = DataSeries.fromPoints(data);
+        return applyHoltWintersSmoothing(series, alpha, beta, gamma, period, 
+                                         new DataSeries(series.size())).toPoints();
+    }
+    
+    /**
+     * Apply Holt-Winters exponential smoothing to a data series, writing into a
+     * caller-supplied series.
+     * 
+     * @param data Series of data points to smooth
+     * @param alpha Level smoothing factor (0 < alpha < 1)
+     * @param beta Trend smoothing factor (0 < beta < 1)
+     * @param gamma Seasonal smoothing factor (0 < gamma < 1)
+     * @param period Length of the season in points
+     * @param out Series to receive the smoothed data (may be the same instance as data)
+     * @return The output series
+     */
+    public DataSeries applyHoltWintersSmoothing(DataSeries data, double alpha, double beta, double gamma, 
+                                                int period, DataSeries out) {
+        return applyExponentialModel(data, HoltWinters.seasonal(alpha, beta, gamma, period), out);
+    }
+    
+    /**
+     * Exponential smoothing with the model and parameters chosen for the data.
+     * The series is classified the way the salting procedure does: cyclic series get
+     * Holt-Winters smoothing with the estimated period, trending series Holt smoothing,
+     * and the rest simple exponential smoothing. The smoothing factors are then fitted
+     * by minimising the one-step-ahead forecast error, and a season that does not reduce
+     * that error is dropped.
+     * 
+     * @param data List of data points to smooth
+     * @return List of smoothed data points
+     */
+    public List<DataPoint> applyAdaptiveExponentialSmoothing(List<DataPoint> data) {
+        DataSeries series = DataSeries.fromPoints(data);
+        return applyAdaptiveExponentialSmoothing(series, new DataSeries(series.size())).toPoints();
+    }
+    
+    /**
+     * Adaptive exponential smoothing of a data series, writing into a caller-supplied series.
+     * 
+     * @param data Series of data points to smooth
+     * @param out Series to receive the smoothed data (may be the same instance as data)
+     * @return The output series
+     */
+    public DataSeries applyAdaptiveExponentialSmoothing(DataSeries data, DataSeries out) {
+        return applyExponentialModel(data, fitExponentialModel(data), out);
+    }
+    
+    /**
+     * Choose and fit an exponential smoothing model for a data series, as used by
+     * applyAdaptiveExponentialSmoothing.
+     * 
+     * @param data Series of data points
+     * @return The fitted model
+     */
+    public HoltWinters fitExponentialModel(DataSeries data) {
+        int n = data.size();
+        Salter.Profile profile = new Salter.Profile();
+        for (int i = 0; i < n; i++) {
+            profile.accept(data.getX(i), data.getY(i));
+        }
+        
+        int period = profile.hasCycles() ? (int) Math.round(profile.estimatePeriod()) : 0;
+        boolean trend = profile.hasTrend() || period > 0;
+        HoltWinters model = HoltWinters.fit(data.yValues(), n, trend, period);
+        
+        // The period is estimated from slope sign changes, which noise can mislead, so the
+        // season is dropped again if it does not improve the forecasts
+        if (model.getPeriod() > 0) {
+            HoltWinters withoutSeason = HoltWinters.fit(data.yValues(), n, true, 0);
+            if (withoutSeason.sumSquaredErrors(data.yValues(), n) <= model.sumSquaredErrors(data.yValues(), n)) {
+                model = withoutSeason;
             }
-            
-            result = currentPass;
+        }
+        return model;
+    }
+    
+    // Helper method to smooth a series with an exponential smoothing model, in place if out is data
+    private DataSeries applyExponentialModel(DataSeries data, HoltWinters model, DataSeries out) {
+        int n = data.size();
+        double[] source = data.yValues();
+        out.resetFrom(data);
+        model.smooth(source, out.yValues(), n);
+        return out;
+    }
+    
+    // Helper method for a single pass of exponential smoothing (data may be the same array as result)
+    private void applyExponentialPass(double[] data, double[] result, int n, double alpha) {
+        if (n == 0) {
+            return;
         }
         
-        return result;
+        // Initialize with first point
+        result[0] = data[0];
+        
+        // Apply exponential smoothing to remaining points
+        for (int i = 1; i < n; i++) {
+            // Exponential smoothing formula: St = alpha * Yt + (1-alpha) * St-1
+            result[i] = alpha * data[i] + (1 - alpha) * result[i-1];
+        }
     }
     
     /**
@@ -329,38 +552,95 @@ public class Smoother {
      * @return List of smoothed data points
      */
     public List<DataPoint> applySavitzkyGolaySmoothing(List<DataPoint> data, int windowSize, int polynomialOrder) {
-        List<DataPoint> smoothedData = new ArrayList<>();
+        DataSeries series = DataSeries.fromPoints(data);
+        return applySavitzkyGolaySmoothing(series, windowSize, polynomialOrder, 
+                                           new DataSeries(series.size())).toPoints();
+    }
+    
+    /**
+     * Apply Savitzky-Golay filter smoothing to a data series, writing into a caller-supplied series.
+     * 
+     * @param data Series of data points to smooth
+     * @param windowSize Size of the window (must be odd)
+     * @param polynomialOrder Order of the polynomial (typically 2-4)
+     * @param out Series to receive the smoothed data (may be the same instance as data)
+     * @return The output series
+     */
+    public DataSeries applySavitzkyGolaySmoothing(DataSeries data, int windowSize, int polynomialOrder, 
+                                                  DataSeries out) {
+        return applySavitzkyGolayFilter(data, windowSize, polynomialOrder, 0, out);
+    }
+    
+    /**
+     * Estimate a derivative of a data series with a Savitzky-Golay filter.
+     * The points are assumed to be equally spaced in x; the derivative is taken with
+     * respect to x using the average spacing.
+     * 
+     * @param data Series of data points
+     * @param windowSize Size of the window (must be odd)
+     * @param polynomialOrder Order of the polynomial (at least the derivative)
+     * @param derivative Which derivative to estimate (1 for the slope)
+     * @param out Series to receive the derivative (may be the same instance as data)
+     * @return The output series
+     */
+    public DataSeries applySavitzkyGolayDerivative(DataSeries data, int windowSize, int polynomialOrder, 
+                                                   int derivative, DataSeries out) {
         int n = data.size();
+        applySavitzkyGolayFilter(data, windowSize, polynomialOrder, derivative, out);
         
-        if (n <= 1) {
-            return new ArrayList<>(data);
+        double spacing = (n > 1) ? (data.getX(n - 1) - data.getX(0)) / (n - 1) : 0;
+        double[] result = out.yValues();
+        double scale = (spacing != 0) ? Math.pow(spacing, -derivative) : 0;
+        for (int i = 0; i < n; i++) {
+            result[i] *= scale;
         }
+        return out;
+    }
+    
+    // Helper method to run a Savitzky-Golay filter with a cached convolution kernel
+    private DataSeries applySavitzkyGolayFilter(DataSeries data, int windowSize, int polynomialOrder, 
+                                                int derivative, DataSeries out) {
+        int n = data.size();
+        double[] yValues = prepareOutput(data, out);
+        double[] result = out.yValues();
         
-        // Ensure window size is odd
-        if (windowSize % 2 == 0) {
-            windowSize++;
+        if (n == 0) {
+            return out;
         }
         
-        // Ensure window size is valid
-        windowSize = Math.min(windowSize, n);
-        windowSize = Math.max(polynomialOrder + 1, windowSize);
-        int halfWindow = windowSize / 2;
-        
-        // Extract y values
-        double[] yValues = new double[n];
-        for (int i = 0; i < n; i++) {
-            yValues[i] = data.get(i).getY();
+        SavitzkyGolayKernel kernel = savitzkyGolayKernel(n, windowSize, polynomialOrder, derivative);
+        if (kernel == null) {
+            // The derivative of the fitted polynomial vanishes
+            Arrays.fill(result, 0, n, 0);
+            return out;
         }
         
         // Apply smoothing
-        double[] smoothedY = savitzkyGolayFilter(yValues, windowSize, polynomialOrder);
+        kernel.apply(yValues, result, n);
         
-        // Create smoothed data points
-        for (int i = 0; i < n; i++) {
-            smoothedData.add(new DataPoint(data.get(i).getX(), smoothedY[i]));
+        return out;
+    }
+    
+    // Helper method to get the Savitzky-Golay kernel for a series of n points, with the
+    // window made odd, at least 1 and no larger than the series, and the order no larger
+    // than the window allows. Returns null if the derivative is higher than the order.
+    private SavitzkyGolayKernel savitzkyGolayKernel(int n, int windowSize, int polynomialOrder, int derivative) {
+        // Ensure window size is odd, positive and no larger than the series
+        windowSize = Math.max(1, windowSize);
+        if (windowSize % 2 == 0) {
+            windowSize++;
         }
+        if (windowSize > n) {
+            windowSize = (n % 2 == 1) ? n : n - 1;
+        }
+        
+        // The polynomial must be determined by the window
+        polynomialOrder = Math.max(0, Math.min(polynomialOrder, windowSize - 1));
         
-        return smoothedData;
+        if (derivative > polynomialOrder) {
+            return null;
+        }
+        return SavitzkyGolayKernel.get(windowSize, polynomialOrder, derivative);
     }
     
     /**
@@ -373,14 +653,30 @@ public class Smoother {
      * @return List of smoothed data points
      */
     public List<DataPoint> applyGaussianSmoothing(List<DataPoint> data, int windowSize, double sigma) {
-        List<DataPoint> smoothedData = new ArrayList<>();
+        DataSeries series = DataSeries.fromPoints(data);
+        return applyGaussianSmoothing(series, windowSize, sigma, new DataSeries(series.size())).toPoints();
+    }
+    
+    /**
+     * Gaussian smoothing of a data series, writing into a caller-supplied series.
+     * 
+     * @param data Series of data points to smooth
+     * @param windowSize Window size (must be odd)
+     * @param sigma Standard deviation of Gaussian kernel
+     * @param out Series to receive the smoothed data (may be the same instance as data)
+     * @return The output series
+     */
+    public DataSeries applyGaussianSmoothing(DataSeries data, int windowSize, double sigma, DataSeries out) {
         int n = data.size();
+        double[] yValues = prepareOutput(data, out);
         
         if (n <= 1) {
-            return new ArrayList<>(data);
+            System.arraycopy(yValues, 0, out.yValues(), 0, n);
+            return out;
         }
         
-        // Ensure window size is odd
+        // Ensure window size is odd and positive
+        windowSize = Math.max(1, windowSize);
         if (windowSize % 2 == 0) {
             windowSize++;
         }
@@ -388,330 +684,475 @@ public class Smoother {
         // Create Gaussian kernel
         double[] kernel = createGaussianKernel(windowSize, sigma);
         
-        // Extract y values
-        double[] yValues = new double[n];
-        for (int i = 0; i < n; i++) {
-            yValues[i] = data.get(i).getY();
-        }
-        
         // Apply convolution
-        double[] smoothedY = applyConvolution(yValues, kernel);
-        
-        // Create smoothed data points
-        for (int i = 0; i < n; i++) {
-            smoothedData.add(new DataPoint(data.get(i).getX(), smoothedY[i]));
-        }
+        applyConvolution(yValues, out.yValues(), n, kernel);
         
-        return smoothedData;
+        return out;
     }
     
     /**
-     * LOESS smoothing (Locally Estimated Scatterplot Smoothing).
-     * This is similar to Octave's 'smoothdata' function with 'loess' method.
+     * Gaussian smoothing with a recursive filter (Young and van Vliet).
+     * A third-order filter run forwards and then backwards over the series approximates
+     * convolution with a Gaussian, so the cost per point does not depend on sigma.
+     * The impulse response is within a few percent of the true Gaussian's peak, which
+     * suits wide kernels where exactness matters less than speed. Unlike
+     * applyGaussianSmoothing the Gaussian is not cut off at a window; near the edges
+     * the result is renormalised by the filter's response to a mask of ones.
      * 
      * @param data List of data points to smooth
-     * @param span Fraction of data used for local regression (0.1 to 1.0)
-     * @param degree Polynomial degree (1 or 2)
+     * @param sigma Standard deviation of the Gaussian
      * @return List of smoothed data points
      */
-    public List<DataPoint> applyLoessSmoothing(List<DataPoint> data, double span, int degree) {
-        int n = data.size();
-        List<DataPoint> smoothedData = new ArrayList<>();
-        
-        if (n <= 1) {
-            return new ArrayList<>(data);
+    public List<DataPoint> applyRecursiveGaussianSmoothing(List<DataPoint> data, double sigma) {
+        DataSeries series = DataSeries.fromPoints(data);
+        return applyRecursiveGaussianSmoothing(series, sigma, new DataSeries(series.size())).toPoints();
+    }
+    
+    /**
+     * Recursive Gaussian smoothing of a data series, writing into a caller-supplied series.
+     * 
+     * @param data Series of data points to smooth
+     * @param sigma Standard deviation of the Gaussian
+     * @param out Series to receive the smoothed data (may be the same instance as data)
+     * @return The output series
+     */
+    public DataSeries applyRecursiveGaussianSmoothing(DataSeries data, double sigma, DataSeries out) {
+        if (sigma < MIN_RECURSIVE_SIGMA) {
+            // The approximation breaks down for narrow kernels, which are cheap to apply directly
+            return applyGaussianSmoothing(data, 2 * (int) Math.ceil(3 * sigma) + 1, sigma, out);
         }
         
-        // Validate parameters
-        span = Math.max(0.1, Math.min(1.0, span));
-        degree = Math.max(1, Math.min(2, degree));
+        int n = data.size();
+        double[] yValues = prepareOutput(data, out);
+        double[] result = out.yValues();
         
-        // Calculate window size
-        int windowSize = (int) Math.ceil(span * n);
+        // Filter coefficients for this sigma. The published constants are rounded so that the
+        // feedback weights no longer sum exactly as intended, which makes wide filters drift;
+        // 2.8562 and 1.266615 are 2 * 1.4281 and 3 * 0.422205, which restores the identity.
+        double q = (sigma >= 2.5) ? 0.98711 * sigma - 0.96330 
+                                  : 3.97156 - 4.14554 * Math.sqrt(1 - 0.26891 * sigma);
+        double q2 = q * q;
+        double q3 = q2 * q;
+        double b0 = 1.57825 + 2.44413 * q + 1.4281 * q2 + 0.422205 * q3;
+        double b1 = (2.44413 * q + 2.8562 * q2 + 1.266615 * q3) / b0;
+        double b2 = -(1.4281 * q2 + 1.266615 * q3) / b0;
+        double b3 = 0.422205 * q3 / b0;
+        double gain = 1.57825 / b0;
         
-        // Process each point
+        // Points beyond the end count as zero, but the forward pass keeps responding to the
+        // last points for a while; run it on until that response has died away
+        int length = n + (int) Math.ceil(10 * sigma) + 3;
+        double[] signal = new double[length];
+        double[] mask = new double[length];
+        
+        // Forward pass
+        double s1 = 0, s2 = 0, s3 = 0;
+        double m1 = 0, m2 = 0, m3 = 0;
+        for (int i = 0; i < length; i++) {
+            double x = (i < n) ? yValues[i] : 0;
+            double m = (i < n) ? 1 : 0;
+            signal[i] = gain * x + b1 * s1 + b2 * s2 + b3 * s3;
+            mask[i] = gain * m + b1 * m1 + b2 * m2 + b3 * m3;
+            s3 = s2; s2 = s1; s1 = signal[i];
+            m3 = m2; m2 = m1; m1 = mask[i];
+        }
+        
+        // Backward pass
+        s1 = s2 = s3 = 0;
+        m1 = m2 = m3 = 0;
+        for (int i = length - 1; i >= 0; i--) {
+            signal[i] = gain * signal[i] + b1 * s1 + b2 * s2 + b3 * s3;
+            mask[i] = gain * mask[i] + b1 * m1 + b2 * m2 + b3 * m3;
+            s3 = s2; s2 = s1; s1 = signal[i];
+            m3 = m2; m2 = m1; m1 = mask[i];
+        }
+        
+        // Renormalise by the part of the Gaussian that falls inside the series
         for (int i = 0; i < n; i++) {
-            DataPoint point = data.get(i);
-            double x = point.getX();
-            
-            // Calculate weights and fit local polynomial
-            double smoothedY = calculateLoessFit(data, i, windowSize, degree);
-            smoothedData.add(new DataPoint(x, smoothedY));
+            result[i] = signal[i] / mask[i];
         }
         
-        return smoothedData;
+        return out;
     }
     
     /**
-     * Multiple-pass Octave smoothing for extremely smooth results.
-     * Combines multiple Octave-inspired algorithms.
+     * LOESS smoothing (Locally Estimated Scatterplot Smoothing).
+     * This is similar to Octave's 'smoothdata' function with 'loess' method.
      * 
      * @param data List of data points to smooth
-     * @return List of extremely smoothed data points
+     * @param span Fraction of data used for local regression (0.1 to 1.0)
+     * @param degree Polynomial degree (1 or 2)
+     * @return List of smoothed data points
      */
-    public List<DataPoint> applyOctaveSupersmoothingPipeline(List<DataPoint> data) {
-        // Create a multi-stage smoothing pipeline inspired by Octave techniques
-        
-        // Stage 1: Apply Savitzky-Golay filter to remove high-frequency noise
-        List<DataPoint> stage1 = applySavitzkyGolaySmoothing(data, 7, 3);
-        
-        // Stage 2: Apply Gaussian smoothing to further smooth the data
-        List<DataPoint> stage2 = applyGaussianSmoothing(stage1, 11, 2.0);
-        
-        // Stage 3: Apply LOESS smoothing for final refinement
-        List<DataPoint> stage3 = applyLoessSmoothing(stage2, 0.3, 2);
-        
-        // Stage 4: One final pass of Savitzky-Golay to ensure smoothness
-        return applySavitzkyGolaySmoothing(stage3, 9, 3);
+    public List<DataPoint> applyLoessSmoothing(List<DataPoint> data, double span, int degree) {
+        DataSeries series = DataSeries.fromPoints(data);
+        return applyLoessSmoothing(series, span, degree, new DataSeries(series.size())).toPoints();
     }
     
-    // Helper method to create a Gaussian kernel
-    private double[] createGaussianKernel(int size, double sigma) {
-        double[] kernel = new double[size];
-        int center = size / 2;
-        double sum = 0.0;
+    /**
+     * LOESS smoothing of a data series, writing into a caller-supplied series.
+     * 
+     * @param data Series of data points to smooth
+     * @param span Fraction of data used for local regression (0.1 to 1.0)
+     * @param degree Polynomial degree (1 or 2)
+     * @param out Series to receive the smoothed data (may be the same instance as data)
+     * @return The output series
+     */
+    public DataSeries applyLoessSmoothing(DataSeries data, double span, int degree, DataSeries out) {
+        return applyLoessSmoothing(data, span, degree, 0, out);
+    }
+    
+    /**
+     * LOESS smoothing of a data series, optionally evaluated on an interpolation grid.
+     * With vertices > 1 the local regression is only computed at that many evenly spaced
+     * x positions, and the points in between are filled in by cubic Hermite interpolation
+     * of the fitted values and slopes, like R's loess(surface = "interpolate").
+     * 
+     * @param data Series of data points to smooth
+     * @param span Fraction of data used for local regression (0.1 to 1.0)
+     * @param degree Polynomial degree (1 or 2)
+     * @param vertices Number of interpolation vertices, or 0 to fit at every point
+     * @param out Series to receive the smoothed data (may be the same instance as data)
+     * @return The output series
+     */
+    public DataSeries applyLoessSmoothing(DataSeries data, double span, int degree, 
+                                          int vertices, DataSeries out) {
+        int n = data.size();
+        double[] yValues = prepareOutput(data, out);
+        loess(out.xValues(), yValues, out.yValues(), n, span, degree, vertices);
+        return out;
+    }
+    
+    // Helper method for LOESS smoothing of y-values into a separate result array
+    private void loess(double[] xValues, double[] yValues, double[] result, int n, 
+                       double span, int degree, int vertices) {
+        if (n <= 1) {
+            System.arraycopy(yValues, 0, result, 0, n);
+            return;
+        }
         
-        for (int i = 0; i < size; i++) {
-            double x = i - center;
-            kernel[i] = Math.exp(-(x * x) / (2 * sigma * sigma));
-            sum += kernel[i];
+        // Validate parameters
+        span = Math.max(0.1, Math.min(1.0, span));
+        degree = Math.max(1, Math.min(2, degree));
+        
+        // Calculate window size
+        int windowSize = (int) Math.ceil(span * n);
+        
+        // The neighbour search needs ascending x, so unordered data is sorted once up front
+        int[] order = sortedOrder(xValues, n);
+        double[] x = xValues;
+        double[] y = yValues;
+        double[] fitted = result;
+        if (order != null) {
+            x = new double[n];
+            y = new double[n];
+            fitted = new double[n];
+            for (int i = 0; i < n; i++) {
+                x[i] = xValues[order[i]];
+                y[i] = yValues[order[i]];
+            }
         }
         
-        // Normalize the kernel
-        for (int i = 0; i < size; i++) {
-            kernel[i] /= sum;
+        if (vertices > 1 && vertices < n && x[n - 1] > x[0]) {
+            interpolateLoess(x, y, order, fitted, n, windowSize, degree, vertices);
+        } else {
+            fitLoess(x, y, order, fitted, n, windowSize, degree);
         }
         
-        return kernel;
+        if (order != null) {
+            for (int i = 0; i < n; i++) {
+                result[order[i]] = fitted[i];
+            }
+        }
     }
     
-    // Helper method to apply convolution with a kernel
-    private double[] applyConvolution(double[] data, double[] kernel) {
-        int n = data.length;
-        int kSize = kernel.length;
-        int halfK = kSize / 2;
-        double[] result = new double[n];
-        
-        for (int i = 0; i < n; i++) {
-            double sum = 0;
-            double weightSum = 0;
-            
-            for (int j = -halfK; j <= halfK; j++) {
-                int idx = i + j;
-                if (idx >= 0 && idx < n) {
-                    double weight = kernel[j + halfK];
-                    sum += data[idx] * weight;
-                    weightSum += weight;
-                }
+    // Fit the local polynomial at every point; each chunk slides its own fitter from the start
+    private void fitLoess(double[] x, double[] y, int[] order, double[] result, int n, 
+                          int windowSize, int degree) {
+        parallel.forEach(n, windowSize, (from, to) -> {
+            LoessFitter fitter = new LoessFitter(x, y, order, n, windowSize, degree);
+            for (int i = from; i < to; i++) {
+                result[i] = fitter.fit(x[i])[0];
             }
-            
-            result[i] = sum / weightSum;
-        }
-        
-        return result;
+        });
     }
     
-    // Helper method for Savitzky-Golay filter
-    private double[] savitzkyGolayFilter(double[] y, int windowSize, int polynomialOrder) {
-        int n = y.length;
-        double[] result = new double[n];
-        int halfWindow = windowSize / 2;
+    // Leverage of each point in its own local linear LOESS fit (the diagonal of the hat
+    // matrix), with the same span handling and neighbour search as loess()
+    double[] loessLeverage(DataSeries data, double span) {
+        int n = data.size();
+        double[] leverage = new double[n];
+        if (n <= 1) {
+            Arrays.fill(leverage, 1);
+            return leverage;
+        }
         
-        // Apply simple moving average for border points
-        for (int i = 0; i < halfWindow; i++) {
-            double sum = 0;
-            int count = 0;
-            for (int j = 0; j <= i + halfWindow; j++) {
-                sum += y[j];
-                count++;
+        span = Math.max(0.1, Math.min(1.0, span));
+        int windowSize = (int) Math.ceil(span * n);
+        
+        double[] xValues = data.xValues();
+        int[] order = sortedOrder(xValues, n);
+        double[] x = xValues;
+        if (order != null) {
+            x = new double[n];
+            for (int i = 0; i < n; i++) {
+                x[i] = xValues[order[i]];
             }
-            result[i] = sum / count;
         }
         
-        for (int i = n - halfWindow; i < n; i++) {
-            double sum = 0;
-            int count = 0;
-            for (int j = i - halfWindow; j < n; j++) {
-                sum += y[j];
-                count++;
+        // The leverage only depends on x, so the fitter is given no y-values
+        double[] sortedX = x;
+        double[] sortedLeverage = (order != null) ? new double[n] : leverage;
+        parallel.forEach(n, windowSize, (from, to) -> {
+            LoessFitter fitter = new LoessFitter(sortedX, null, order, n, windowSize, 1);
+            for (int i = from; i < to; i++) {
+                sortedLeverage[i] = fitter.leverageAt(sortedX[i]);
             }
-            result[i] = sum / count;
-        }
+        });
         
-        // Main S-G filter calculation for central points
-        for (int i = halfWindow; i < n - halfWindow; i++) {
-            // Extract local window
-            double[] xLocal = new double[windowSize];
-            double[] yLocal = new double[windowSize];
-            
-            for (int j = 0; j < windowSize; j++) {
-                int idx = i - halfWindow + j;
-                xLocal[j] = idx - i; // centered x values
-                yLocal[j] = y[idx];
+        if (order != null) {
+            for (int i = 0; i < n; i++) {
+                leverage[order[i]] = sortedLeverage[i];
             }
-            
-            // Fit polynomial using least squares
-            double[] coeffs = polynomialFit(xLocal, yLocal, polynomialOrder);
-            
-            // Evaluate at center point (x = 0)
-            result[i] = evaluatePolynomial(coeffs, 0);
         }
-        
-        return result;
+        return leverage;
     }
     
-    // Helper method to fit polynomial using least squares
-    private double[] polynomialFit(double[] x, double[] y, int order) {
-        int n = x.length;
-        int terms = order + 1;
+    // Fit at evenly spaced vertices and fill in each point by cubic Hermite interpolation
+    private void interpolateLoess(double[] x, double[] y, int[] order, double[] result, int n, 
+                                  int windowSize, int degree, int vertices) {
+        double first = x[0];
+        double last = x[n - 1];
+        double[] vertexX = new double[vertices];
+        double[] vertexY = new double[vertices];
+        double[] vertexSlope = new double[vertices];
         
-        // Simple implementation for order 2 (most common for S-G)
-        if (order == 2 && n >= 5) {
-            // For quadratic fit, we can use simplified formulas
-            double sumX = 0, sumY = 0, sumXX = 0, sumXY = 0, sumXXX = 0, sumXXXX = 0, sumXXY = 0;
-            
-            for (int i = 0; i < n; i++) {
-                double xi = x[i];
-                double yi = y[i];
-                double xiSq = xi * xi;
-                
-                sumX += xi;
-                sumY += yi;
-                sumXX += xiSq;
-                sumXY += xi * yi;
-                sumXXX += xiSq * xi;
-                sumXXXX += xiSq * xiSq;
-                sumXXY += xiSq * yi;
+        parallel.forEach(vertices, windowSize, (from, to) -> {
+            LoessFitter fitter = new LoessFitter(x, y, order, n, windowSize, degree);
+            for (int v = from; v < to; v++) {
+                vertexX[v] = (v == vertices - 1) ? last : first + (last - first) * v / (vertices - 1);
+                double[] coeffs = fitter.fit(vertexX[v]);
+                vertexY[v] = coeffs[0];
+                vertexSlope[v] = coeffs.length > 1 ? coeffs[1] : 0;
             }
-            
-            // Solve normal equations for quadratic
-            double denominator = n * (sumXX * sumXXXX - sumXXX * sumXXX) - 
-                                 sumX * (sumX * sumXXXX - sumXXX * sumXX) +
-                                 sumXX * (sumX * sumXXX - sumXX * sumXX);
-            
-            if (Math.abs(denominator) < 1e-10) {
-                // Fallback to linear fit if system is near-singular
-                return new double[] {sumY / n, 0, 0};
+        });
+        
+        parallel.forEach(n, 1, (from, to) -> {
+            int v = 0;
+            for (int i = from; i < to; i++) {
+                while (v < vertices - 2 && x[i] > vertexX[v + 1]) {
+                    v++;
+                }
+                double h = vertexX[v + 1] - vertexX[v];
+                double t = (x[i] - vertexX[v]) / h;
+                double t2 = t * t;
+                double t3 = t2 * t;
+                result[i] = (2 * t3 - 3 * t2 + 1) * vertexY[v]
+                          + (t3 - 2 * t2 + t) * h * vertexSlope[v]
+                          + (-2 * t3 + 3 * t2) * vertexY[v + 1]
+                          + (t3 - t2) * h * vertexSlope[v + 1];
             }
-            
-            double a = (sumXXY * (n * sumXXXX - sumXX * sumXX) - 
-                        sumY * (sumXX * sumXXXX - sumXXX * sumXXX) + 
-                        sumXY * (sumXX * sumXXX - sumX * sumXXXX)) / denominator;
-                        
-            double b = (n * (sumXY * sumXXXX - sumXXY * sumXXX) - 
-                        sumX * (sumY * sumXXXX - sumXXY * sumXX) + 
-                        sumXX * (sumY * sumXXX - sumXY * sumXX)) / denominator;
-                        
-            double c = (n * (sumXX * sumXXY - sumXY * sumXXX) - 
-                        sumX * (sumX * sumXXY - sumXY * sumXX) + 
-                        sumY * (sumX * sumXXX - sumXX * sumXX)) / denominator;
-            
-            return new double[] {c, b, a};
+        });
+    }
+    
+    // Helper method returning the indices that sort x ascending, or null if it is already sorted
+    private int[] sortedOrder(double[] x, int n) {
+        boolean sorted = true;
+        for (int i = 1; i < n && sorted; i++) {
+            sorted = x[i - 1] <= x[i];
+        }
+        if (sorted) {
+            return null;
         }
         
-        // Simple implementation for order 1 (linear fit)
-        if (order == 1 || order == 0) {
-            double sumX = 0, sumY = 0, sumXX = 0, sumXY = 0;
-            
-            for (int i = 0; i < n; i++) {
-                sumX += x[i];
-                sumY += y[i];
-                sumXX += x[i] * x[i];
-                sumXY += x[i] * y[i];
-            }
-            
-            if (order == 0 || Math.abs(n * sumXX - sumX * sumX) < 1e-10) {
-                // Constant fit (order 0) or degenerate case
-                return new double[] {sumY / n};
-            }
-            
-            // Linear fit coefficients
-            double slope = (n * sumXY - sumX * sumY) / (n * sumXX - sumX * sumX);
-            double intercept = (sumY - slope * sumX) / n;
-            
-            return new double[] {intercept, slope};
+        Integer[] indices = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            indices[i] = i;
         }
+        Arrays.sort(indices, (a, b) -> Double.compare(x[a], x[b]));
         
-        // Fallback to moving average for higher orders
-        double avg = 0;
+        int[] order = new int[n];
         for (int i = 0; i < n; i++) {
-            avg += y[i];
+            order[i] = indices[i];
         }
-        avg /= n;
+        return order;
+    }
+    
+    /**
+     * Smooth a data series with a method whose parameter (window, sigma, alpha or span)
+     * is chosen by generalized cross-validation, writing into a caller-supplied series.
+     * 
+     * @param data Series of data points to smooth
+     * @param method The method to tune, or AUTO to try every method
+     * @param out Series to receive the smoothed data (may be the same instance as data)
+     * @return The output series
+     */
+    public DataSeries applyTunedSmoothing(DataSeries data, SmoothingTuner.Method method, DataSeries out) {
+        return runTunedSmoothing(data, method, SmoothingTuner.Criterion.GCV, out).getOutput();
+    }
+    
+    /**
+     * Smooth a data series with a method whose parameter is chosen by cross-validation,
+     * reporting the chosen parameter and the score of every candidate. Each candidate is
+     * scored from one smoothing pass and the diagonal of the smoother's hat matrix, and
+     * the candidates are scored in parallel.
+     * 
+     * @param data Series of data points to smooth
+     * @param method The method to tune, or AUTO to try every method
+     * @param criterion GCV or leave-one-out
+     * @param out Series to receive the smoothed data (may be the same instance as data)
+     * @return The chosen method and parameter, the candidate scores and the output series
+     */
+    public SmoothingTuner.Result runTunedSmoothing(DataSeries data, SmoothingTuner.Method method, 
+                                                   SmoothingTuner.Criterion criterion, DataSeries out) {
+        return new SmoothingTuner(this, parallel).tune(data, method, criterion, out);
+    }
+    
+    /**
+     * Multiple-pass Octave smoothing for extremely smooth results.
+     * Combines multiple Octave-inspired algorithms.
+     * 
+     * @param data List of data points to smooth
+     * @return List of extremely smoothed data points
+     */
+    public List<DataPoint> applyOctaveSupersmoothingPipeline(List<DataPoint> data) {
+        DataSeries series = DataSeries.fromPoints(data);
+        return applyOctaveSupersmoothingPipeline(series, new DataSeries(series.size())).toPoints();
+    }
+    
+    /**
+     * Multiple-pass Octave smoothing of a data series, writing into a caller-supplied series.
+     * 
+     * @param data Series of data points to smooth
+     * @param out Series to receive the smoothed data (may be the same instance as data)
+     * @return The output series
+     */
+    public DataSeries applyOctaveSupersmoothingPipeline(DataSeries data, DataSeries out) {
+        return runOctaveSupersmoothingPipeline(data, out).getOutput();
+    }
+    
+    /**
+     * Multiple-pass Octave smoothing of a data series, reporting the time taken by each stage.
+     * The stages run over a single pair of buffers, and the leading Savitzky-Golay and
+     * Gaussian stages are fused into one convolution.
+     * 
+     * @param data Series of data points to smooth
+     * @param out Series to receive the smoothed data (may be the same instance as data)
+     * @return The output series and per-stage timings
+     */
+    public SmoothingPipeline.Result runOctaveSupersmoothingPipeline(DataSeries data, DataSeries out) {
+        // Create a multi-stage smoothing pipeline inspired by Octave techniques
+        SmoothingPipeline pipeline = new SmoothingPipeline()
+            // Stage 1: Apply Savitzky-Golay filter to remove high-frequency noise
+            .add(new SavitzkyGolayStage(7, 3))
+            // Stage 2: Apply Gaussian smoothing to further smooth the data
+            .add(new GaussianStage(11, 2.0))
+            // Stage 3: Apply LOESS smoothing for final refinement
+            .add(new LoessStage(0.3, 2))
+            // Stage 4: One final pass of Savitzky-Golay to ensure smoothness
+            .add(new SavitzkyGolayStage(9, 3));
         
-        return new double[] {avg};
+        return pipeline.run(data, out);
     }
     
-    // Helper method to evaluate polynomial
-    private double evaluatePolynomial(double[] coeffs, double x) {
-        double result = 0;
-        for (int i = 0; i < coeffs.length; i++) {
-            result += coeffs[i] * Math.pow(x, i);
-        }
-        return result;
+    // Functional interface for one smoothing pass from a source array into a result array
+    private interface SmoothingPass {
+        void apply(double[] data, double[] result);
     }
     
-    // Helper method for LOESS calculation
-    private double calculateLoessFit(List<DataPoint> data, int centerIdx, int windowSize, int degree) {
+    // Helper method to size the output series and return the y-values a stage should read.
+    // If the output shares its y array with the input, a copy of the input is returned so
+    // the stage never reads values it has already overwritten.
+    private double[] prepareOutput(DataSeries data, DataSeries out) {
         int n = data.size();
-        DataPoint centerPoint = data.get(centerIdx);
-        double centerX = centerPoint.getX();
+        double[] source = data.yValues();
+        out.resetFrom(data);
+        if (out.yValues() == source) {
+            source = Arrays.copyOf(source, n);
+        }
+        return source;
+    }
+    
+    // Helper method to run several smoothing passes, ping-ponging between the output
+    // array and one scratch array so that the final pass lands in the output array
+    private void runPasses(double[] source, double[] output, int n, int iterations, SmoothingPass pass) {
+        if (iterations <= 0) {
+            System.arraycopy(source, 0, output, 0, n);
+            return;
+        }
         
-        // Collect points in window
-        List<DataPoint> windowPoints = new ArrayList<>();
-        List<Double> distances = new ArrayList<>();
-        double maxDistance = 0;
+        double[] scratch = (iterations > 1) ? new double[n] : null;
+        double[] in = source;
+        double[] result = (iterations % 2 == 1) ? output : scratch;
         
-        for (int i = 0; i < n; i++) {
-            DataPoint point = data.get(i);
-            double distance = Math.abs(point.getX() - centerX);
-            
-            windowPoints.add(point);
-            distances.add(distance);
-            maxDistance = Math.max(maxDistance, distance);
+        for (int iter = 0; iter < iterations; iter++) {
+            pass.apply(in, result);
+            in = result;
+            result = (result == output) ? scratch : output;
         }
+    }
+    
+    // Helper method to create a normalised Gaussian kernel; shared with the streaming smoother
+    static double[] createGaussianKernel(int size, double sigma) {
+        double[] kernel = new double[size];
+        int center = size / 2;
+        double sum = 0.0;
         
-        // Sort points by distance
-        List<Integer> indices = new ArrayList<>();
-        for (int i = 0; i < n; i++) {
-            indices.add(i);
+        for (int i = 0; i < size; i++) {
+            double x = i - center;
+            kernel[i] = Math.exp(-(x * x) / (2 * sigma * sigma));
+            sum += kernel[i];
         }
         
-        // Sort indices by distance
-        indices.sort((a, b) -> Double.compare(distances.get(a), distances.get(b)));
-        
-        // Keep only the closest windowSize points
-        int actualSize = Math.min(windowSize, n);
-        List<DataPoint> closestPoints = new ArrayList<>();
-        List<Double> weights = new ArrayList<>();
-        
-        for (int i = 0; i < actualSize; i++) {
-            int idx = indices.get(i);
-            closestPoints.add(windowPoints.get(idx));
-            
-            // Tri-cubic weight function
-            double normalizedDist = distances.get(idx) / (maxDistance > 0 ? maxDistance : 1);
-            double weight = Math.pow(1 - Math.pow(normalizedDist, 3), 3);
-            weights.add(weight);
+        // Normalize the kernel
+        for (int i = 0; i < size; i++) {
+            kernel[i] /= sum;
         }
         
-        // Extract x and y arrays
-        double[] xValues = new double[actualSize];
-        double[] yValues = new double[actualSize];
-        double[] weightValues = new double[actualSize];
+        return kernel;
+    }
+    
+    // Helper method to apply convolution with a kernel. Near the edges the kernel is
+    // clipped and renormalised by the weights that remain inside the series.
+    private void applyConvolution(double[] data, double[] result, int n, double[] kernel) {
+        int kSize = kernel.length;
+        int halfK = kSize / 2;
         
-        for (int i = 0; i < actualSize; i++) {
-            DataPoint point = closestPoints.get(i);
-            xValues[i] = point.getX() - centerX; // Center x values
-            yValues[i] = point.getY();
-            weightValues[i] = weights.get(i);
+        if (kSize >= FFT_KERNEL_THRESHOLD && n >= kSize) {
+            // Long kernels: convolve with zeros outside the series by FFT, then divide by
+            // the convolution of a ones-mask, which is a difference of kernel prefix sums
+            FFTConvolution.convolve(data, result, n, kernel, parallel);
+            double[] prefix = new double[kSize + 1];
+            for (int j = 0; j < kSize; j++) {
+                prefix[j + 1] = prefix[j] + kernel[j];
+            }
+            parallel.forEach(n, 1, (from, to) -> {
+                for (int i = from; i < to; i++) {
+                    int first = Math.max(0, halfK - i);
+                    int last = Math.min(kSize, n - i + halfK);
+                    result[i] /= prefix[last] - prefix[first];
+                }
+            });
+            return;
         }
         
-        // Weighted least squares polynomial fit
-        double[] coeffs = polynomialFitWeighted(xValues, yValues, weightValues, degree);
-        
-        // Evaluate polynomial at x = 0 (the center point)
-        return evaluatePolynomial(coeffs, 0);
+        parallel.forEach(n, kSize, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                double sum = 0;
+                double weightSum = 0;
+                
+                for (int j = -halfK; j <= halfK; j++) {
+                    int idx = i + j;
+                    if (idx >= 0 && idx < n) {
+                        double weight = kernel[j + halfK];
+                        sum += data[idx] * weight;
+                        weightSum += weight;
+                    }
+                }
+                
+                result[i] = sum / weightSum;
+            }
+        });
     }
     
     // Helper method for weighted polynomial fit
@@ -800,4 +1241,305 @@ public class Smoother {
         // Should not reach here
         return new double[] {0};
     }
-}
\ No newline at end of file
+    
+    /**
+     * SavitzkyGolayStage - Savitzky-Golay smoothing as a linear pipeline stage.
+     */
+    private class SavitzkyGolayStage implements SmoothingPipeline.LinearStage {
+        private final int windowSize;
+        private final int polynomialOrder;
+        
+        SavitzkyGolayStage(int windowSize, int polynomialOrder) {
+            this.windowSize = windowSize;
+            this.polynomialOrder = polynomialOrder;
+        }
+        
+        @Override
+        public String getName() {
+            return "Savitzky-Golay(" + windowSize + ", " + polynomialOrder + ")";
+        }
+        
+        @Override
+        public int getHalfWidth(int n) {
+            return kernel(n).getWindowSize() / 2;
+        }
+        
+        @Override
+        public double[] getInteriorKernel(int n) {
+            return kernel(n).coefficients(getHalfWidth(n));
+        }
+        
+        @Override
+        public void applyRange(double[] src, int srcOffset, double[] dst, int dstOffset, int n, int from, int to) {
+            kernel(n).applyRange(src, srcOffset, dst, dstOffset, n, from, to);
+        }
+        
+        private SavitzkyGolayKernel kernel(int n) {
+            return savitzkyGolayKernel(n, windowSize, polynomialOrder, 0);
+        }
+    }
+    
+    /**
+     * GaussianStage - Gaussian smoothing as a linear pipeline stage.
+     * Near the edges the kernel is clipped and renormalised, as in applyGaussianSmoothing.
+     */
+    private class GaussianStage implements SmoothingPipeline.LinearStage {
+        private final int windowSize;
+        private final double sigma;
+        private final double[] kernel;
+        private final double[] interiorKernel;
+        
+        GaussianStage(int windowSize, double sigma) {
+            // Ensure window size is odd and positive
+            windowSize = Math.max(1, windowSize);
+            this.windowSize = (windowSize % 2 == 0) ? windowSize + 1 : windowSize;
+            this.sigma = sigma;
+            this.kernel = createGaussianKernel(this.windowSize, sigma);
+            
+            double weightSum = 0;
+            for (double weight : kernel) {
+                weightSum += weight;
+            }
+            this.interiorKernel = new double[kernel.length];
+            for (int k = 0; k < kernel.length; k++) {
+                interiorKernel[k] = kernel[k] / weightSum;
+            }
+        }
+        
+        @Override
+        public String getName() {
+            return "Gaussian(" + windowSize + ", " + sigma + ")";
+        }
+        
+        @Override
+        public int getHalfWidth(int n) {
+            return windowSize / 2;
+        }
+        
+        @Override
+        public double[] getInteriorKernel(int n) {
+            return interiorKernel;
+        }
+        
+        @Override
+        public void applyRange(double[] src, int srcOffset, double[] dst, int dstOffset, int n, int from, int to) {
+            int halfK = windowSize / 2;
+            for (int i = from; i < to; i++) {
+                double sum = 0;
+                double weightSum = 0;
+                int start = Math.max(0, i - halfK);
+                int end = Math.min(n - 1, i + halfK);
+                for (int idx = start; idx <= end; idx++) {
+                    double weight = kernel[idx - i + halfK];
+                    sum += src[idx - srcOffset] * weight;
+                    weightSum += weight;
+                }
+                dst[i - dstOffset] = sum / weightSum;
+            }
+        }
+    }
+    
+    /**
+     * LoessStage - LOESS smoothing as a pipeline stage.
+     */
+    private class LoessStage implements SmoothingPipeline.Stage {
+        private final double span;
+        private final int degree;
+        
+        LoessStage(double span, int degree) {
+            this.span = span;
+            this.degree = degree;
+        }
+        
+        @Override
+        public String getName() {
+            return "LOESS(" + span + ", " + degree + ")";
+        }
+        
+        @Override
+        public void apply(double[] x, double[] src, double[] dst, int n) {
+            loess(x, src, dst, n, span, degree, 0);
+        }
+    }
+    
+    /**
+     * LoessFitter - Fits the local LOESS polynomial around any x position.
+     * The x-values must be in ascending order, so the nearest neighbours of a position
+     * always form a contiguous run of points. The run is found with two pointers that
+     * only move forwards when positions are fitted in ascending order, so a full pass
+     * costs O(n * windowSize) rather than a sort of all n points for every position.
+     * Points as far away as the furthest neighbour are chosen by their index in the
+     * unsorted series, as a stable sort of the original points by distance would.
+     */
+    private class LoessFitter {
+        private final double[] x;
+        private final double[] y;
+        private final int[] order;
+        private final int n;
+        private final int degree;
+        
+        // First index of the current run of nearest neighbours
+        private int windowStart = 0;
+        
+        // Scratch arrays for the local fit, reused for every position
+        private final double[] localX;
+        private final double[] localY;
+        private final double[] localWeights;
+        
+        // Tied points at the edge of the run, keyed by original index then sorted index
+        private long[] ties = new long[16];
+        
+        /**
+         * Constructor for LoessFitter.
+         * 
+         * @param x The x-values, in ascending order
+         * @param y The y-values in the same order as x, or null if the fitter is only
+         *          used for leverages
+         * @param order Original index of each sorted point, or null if the series was sorted
+         * @param n Number of points
+         * @param windowSize Number of neighbours in each local fit
+         * @param degree Polynomial degree
+         */
+        LoessFitter(double[] x, double[] y, int[] order, int n, int windowSize, int degree) {
+            this.x = x;
+            this.y = y;
+            this.order = order;
+            this.n = n;
+            this.degree = degree;
+            int actualSize = Math.min(windowSize, n);
+            this.localX = new double[actualSize];
+            this.localY = new double[actualSize];
+            this.localWeights = new double[actualSize];
+        }
+        
+        /**
+         * Fit the local polynomial centred on a position.
+         * Positions should be passed in ascending order; an earlier position
+         * restarts the neighbour search.
+         * 
+         * @param centerX The position to fit around
+         * @return Polynomial coefficients in (x - centerX), constant term first
+         */
+        double[] fit(double centerX) {
+            selectNeighbours(centerX);
+            
+            // Weighted least squares polynomial fit
+            return polynomialFitWeighted(localX, localY, localWeights, degree);
+        }
+        
+        // Fill the scratch arrays with the nearest neighbours of a position and their weights
+        private void selectNeighbours(double centerX) {
+            int size = localX.length;
+            if (windowStart > 0 && centerX < x[windowStart]) {
+                windowStart = 0;
+            }
+            
+            // Slide the run right while the next point is strictly closer than its first point.
+            // Written without Math.abs so that a run of equal x-values left of the centre is
+            // passed over; the test then only ever changes from true to false as the run moves.
+            while (windowStart + size < n &&
+                   x[windowStart + size] - centerX < centerX - x[windowStart]) {
+                windowStart++;
+            }
+            
+            // The run holds the right number of points, but which of the points as far away
+            // as its furthest one are used depends on the tie-break. Those points lie in a
+            // group at each edge of the run (x - centerX == -d and == d), possibly reaching
+            // outside it, and everything between the groups is strictly closer.
+            int last = windowStart + size - 1;
+            double d = Math.max(Math.abs(x[windowStart] - centerX), Math.abs(x[last] - centerX));
+            int leftStart = windowStart;
+            while (leftStart > 0 && centerX - x[leftStart - 1] == d) {
+                leftStart--;
+            }
+            int leftEnd = windowStart;
+            while (leftEnd < n && centerX - x[leftEnd] == d) {
+                leftEnd++;
+            }
+            int rightStart = last + 1;
+            int rightEnd = last + 1;
+            if (d > 0) {
+                while (rightStart > leftEnd && x[rightStart - 1] - centerX == d) {
+                    rightStart--;
+                }
+                while (rightEnd < n && x[rightEnd] - centerX == d) {
+                    rightEnd++;
+                }
+            }
+            
+            // Keep the tied points with the lowest original indices
+            int tieCount = (leftEnd - leftStart) + (rightEnd - rightStart);
+            if (ties.length < tieCount) {
+                ties = new long[Math.max(tieCount, ties.length * 2)];
+            }
+            int t = 0;
+            for (int idx = leftStart; idx < leftEnd; idx++) {
+                ties[t++] = tieKey(idx);
+            }
+            for (int idx = rightStart; idx < rightEnd; idx++) {
+                ties[t++] = tieKey(idx);
+            }
+            if (order != null) {
+                Arrays.sort(ties, 0, tieCount);
+            }
+            
+            // Distances are scaled by the furthest point in the whole series
+            double maxDistance = Math.max(Math.abs(centerX - x[0]), Math.abs(x[n - 1] - centerX));
+            double scale = maxDistance > 0 ? maxDistance : 1;
+            
+            int i = 0;
+            for (int idx = leftEnd; idx < rightStart; idx++) {
+                addNeighbour(i++, idx, centerX, scale);
+            }
+            for (t = 0; i < size; t++) {
+                addNeighbour(i++, (int) ties[t], centerX, scale);
+            }
+        }
+        
+        // Sort key of a tied point: its original index, then its index in the sorted series
+        private long tieKey(int idx) {
+            return order == null ? idx : ((long) order[idx] << 32) | idx;
+        }
+        
+        private void addNeighbour(int i, int idx, double centerX, double scale) {
+            double offset = x[idx] - centerX;
+            
+            // Tri-cubic weight function
+            double normalizedDist = Math.abs(offset) / scale;
+            double cube = 1 - normalizedDist * normalizedDist * normalizedDist;
+            
+            localX[i] = offset; // Center x values
+            localY[i] = (y != null) ? y[idx] : 0;
+            localWeights[i] = cube * cube * cube;
+        }
+        
+        /**
+         * Get the weight a point at a position has in the local linear fit there (its
+         * hat-matrix diagonal). Only the neighbours and their weights are found; no
+         * polynomial is solved. The centre point has offset 0 and weight 1, so this is
+         * the intercept's entry in the inverse normal matrix. Positions should be passed
+         * in ascending order, as with fit().
+         * 
+         * @param centerX The position of the point
+         * @return The leverage of the point
+         */
+        double leverageAt(double centerX) {
+            selectNeighbours(centerX);
+            
+            double sumW = 0, sumX = 0, sumXX = 0;
+            for (int i = 0; i < localX.length; i++) {
+                double w = localWeights[i];
+                sumW += w;
+                sumX += localX[i] * w;
+                sumXX += localX[i] * localX[i] * w;
+            }
+            
+            // As in polynomialFitWeighted, a degenerate window is fitted by its weighted average
+            double det = sumW * sumXX - sumX * sumX;
+            if (localX.length <= 1 || Math.abs(det) < 1e-10) {
+                return sumW > 0 ? 1 / sumW : 1;
+            }
+            return sumXX / det;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * SmootherBenchmark - Compares the cached-kernel Solter smoothing pass with the
+ * original implementation, which evaluated Math.exp for every pair of points.
+ *
+ * Usage: java -cp build SmootherBenchmark [points] [repetitions]
+ */
+public class SmootherBenchmark {
+
+    private static final int[] WINDOW_SIZES = {5, 11, 21, 51, 101, 201, 501};
+    private static final double ALPHA = 0.3;
+    private static final double BETA = 0.7;
+
+    /**
+     * Run the benchmark and print a table of timings.
+     *
+     * @param args Command line arguments:
+     *            args[0] - Number of points in the series (optional, default 100000)
+     *            args[1] - Timed repetitions per window size (optional, default 5)
+     */
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        int repetitions = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        // Random walk with noise, like a typical input series
+        Random random = new Random(42);
+        DataSeries data = new DataSeries(n);
+        double value = 0;
+        for (int i = 0; i < n; i++) {
+            value += random.nextGaussian();
+            data.add(i, value + random.nextGaussian() * 5);
+        }
+
+        Smoother smoother = new Smoother();
+        DataSeries out = new DataSeries(n);
+        double[] reference = new double[n];
+
+        System.out.println(String.format("Solter smoothing, single pass, %d points, median of %d runs", n, repetitions));
+        System.out.println(String.format("%8s %14s %14s %9s %s", "window", "original (ms)", "cached (ms)", "speedup", "identical"));
+
+        for (int windowSize : WINDOW_SIZES) {
+            double[] originalTimes = new double[repetitions];
+            double[] cachedTimes = new double[repetitions];
+
+            // Warm up both versions so the JIT has compiled them before timing
+            for (int i = 0; i < 3; i++) {
+                originalSinglePass(data.yValues(), reference, n, windowSize, ALPHA, BETA);
+                smoother.applySmoothing(data, windowSize, ALPHA, BETA, 1, out);
+            }
+
+            for (int r = 0; r < repetitions; r++) {
+                long start = System.nanoTime();
+                originalSinglePass(data.yValues(), reference, n, windowSize, ALPHA, BETA);
+                originalTimes[r] = (System.nanoTime() - start) / 1e6;
+
+                start = System.nanoTime();
+                smoother.applySmoothing(data, windowSize, ALPHA, BETA, 1, out);
+                cachedTimes[r] = (System.nanoTime() - start) / 1e6;
+            }
+
+            boolean identical = Arrays.equals(reference, Arrays.copyOf(out.yValues(), n));
+            double original = median(originalTimes);
+            double cached = median(cachedTimes);
+            System.out.println(String.format("%8d %14.2f %14.2f %8.1fx %s", windowSize, original, cached,
+                                             original / cached, identical ? "yes" : "NO"));
+        }
+    }
+
+    // The Solter pass as it was before the kernel was cached
+    private static void originalSinglePass(double[] data, double[] result, int n,
+                                           int windowSize, double alpha, double beta) {
+        windowSize = Math.min(windowSize, n);
+        int halfWindow = windowSize / 2;
+
+        for (int i = 0; i < n; i++) {
+            int start = Math.max(0, i - halfWindow);
+            int end = Math.min(n - 1, i + halfWindow);
+
+            if (start == end) {
+                result[i] = data[i];
+                continue;
+            }
+
+            double sum = 0;
+            double totalWeight = 0;
+            for (int j = start; j <= end; j++) {
+                double weight = Math.exp(-Math.abs(i - j) * alpha) * beta;
+                if (j == i) {
+                    weight *= 1.5;
+                }
+                sum += data[j] * weight;
+                totalWeight += weight;
+            }
+            result[i] = sum / totalWeight;
+        }
+    }
+
+    // Median of a set of timings
+    private static double median(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
@@ -0,0 +1,183 @@
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * SmootherCheck - Compares the optimised smoothers with direct reference
+ * implementations on inputs that exercise their edge cases, and prints one
+ * line per check. Exits with status 1 if any check fails.
+ *
+ * Usage: java -cp build SmootherCheck
+ */
+public class SmootherCheck {
+
+    private static final double TOLERANCE = 1e-9;
+
+    private static boolean failed = false;
+
+    /**
+     * Run every check.
+     *
+     * @param args Command line arguments (unused)
+     */
+    public static void main(String[] args) {
+        checkLoessUnsortedDuplicates();
+        checkFFTAsymmetricKernel();
+        checkStreamingSmallWindows();
+
+        if (failed) {
+            System.exit(1);
+        }
+    }
+
+    // LOESS on unsorted x with repeated values, where the choice between equally distant
+    // neighbours decides the fit, against a stable sort of every point by distance
+    private static void checkLoessUnsortedDuplicates() {
+        Random random = new Random(7);
+        double worst = 0;
+        for (int trial = 0; trial < 200; trial++) {
+            int n = 5 + random.nextInt(80);
+            DataSeries data = new DataSeries(n);
+            for (int i = 0; i < n; i++) {
+                data.add(random.nextInt(n / 2 + 1) * 0.5, random.nextGaussian());
+            }
+            double span = 0.1 + random.nextDouble() * 0.9;
+
+            double[] expected = referenceLoess(data, span);
+            for (int threads : new int[] {1, 4}) {
+                DataSeries out = new Smoother(threads).applyLoessSmoothing(data, span, 1, new DataSeries(n));
+                worst = Math.max(worst, maxDifference(expected, out.yValues(), n));
+            }
+        }
+        report("LOESS, unsorted x with duplicates", worst);
+    }
+
+    // Local linear LOESS as it was first written: every point is sorted by distance
+    // from the centre, keeping the original order of equally distant points
+    private static double[] referenceLoess(DataSeries data, double span) {
+        int n = data.size();
+        int windowSize = Math.min(n, (int) Math.ceil(span * n));
+        double[] result = new double[n];
+
+        for (int c = 0; c < n; c++) {
+            double centerX = data.getX(c);
+            Integer[] indices = new Integer[n];
+            double maxDistance = 0;
+            for (int i = 0; i < n; i++) {
+                indices[i] = i;
+                maxDistance = Math.max(maxDistance, Math.abs(data.getX(i) - centerX));
+            }
+            Arrays.sort(indices, (a, b) -> Double.compare(Math.abs(data.getX(a) - centerX),
+                                                          Math.abs(data.getX(b) - centerX)));
+
+            double sumW = 0, sumX = 0, sumY = 0, sumXX = 0, sumXY = 0;
+            for (int k = 0; k < windowSize; k++) {
+                int i = indices[k];
+                double offset = data.getX(i) - centerX;
+                double cube = 1 - Math.pow(Math.abs(offset) / (maxDistance > 0 ? maxDistance : 1), 3);
+                double w = cube * cube * cube;
+                sumW += w;
+                sumX += offset * w;
+                sumY += data.getY(i) * w;
+                sumXX += offset * offset * w;
+                sumXY += offset * data.getY(i) * w;
+            }
+
+            double det = sumW * sumXX - sumX * sumX;
+            if (windowSize <= 1 || Math.abs(det) < 1e-10) {
+                result[c] = sumW > 0 ? sumY / sumW : 0;
+            } else {
+                double slope = (sumW * sumXY - sumX * sumY) / det;
+                result[c] = (sumY - slope * sumX) / sumW;
+            }
+        }
+        return result;
+    }
+
+    // FFT convolution with a kernel that is not symmetric, sequentially and in parallel,
+    // against the direct sum result[i] = sum over j of data[i + j - h] * kernel[j]
+    private static void checkFFTAsymmetricKernel() {
+        Random random = new Random(11);
+        double worst = 0;
+        for (int k : new int[] {1, 5, 65, 129}) {
+            for (int n : new int[] {k, 1000, 20000}) {
+                double[] data = new double[n];
+                for (int i = 0; i < n; i++) {
+                    data[i] = random.nextGaussian();
+                }
+                double[] kernel = new double[k];
+                for (int j = 0; j < k; j++) {
+                    kernel[j] = random.nextDouble() + j;
+                }
+
+                int h = k / 2;
+                double[] expected = new double[n];
+                for (int i = 0; i < n; i++) {
+                    for (int j = 0; j < k; j++) {
+                        int idx = i + j - h;
+                        if (idx >= 0 && idx < n) {
+                            expected[i] += data[idx] * kernel[j];
+                        }
+                    }
+                }
+
+                double[] result = new double[n];
+                FFTConvolution.convolve(data, result, n, kernel);
+                worst = Math.max(worst, maxDifference(expected, result, n) / k);
+                FFTConvolution.convolve(data, result, n, kernel, new ParallelRanges(4));
+                worst = Math.max(worst, maxDifference(expected, result, n) / k);
+            }
+        }
+        report("FFT convolution, asymmetric kernel", worst);
+    }
+
+    // Streaming Gaussian and Savitzky-Golay smoothing against the batch methods for
+    // windows of zero, negative and small sizes, which both clamp to at least 1
+    private static void checkStreamingSmallWindows() {
+        Random random = new Random(3);
+        int n = 50;
+        DataSeries data = new DataSeries(n);
+        for (int i = 0; i < n; i++) {
+            data.add(i, random.nextGaussian());
+        }
+
+        Smoother smoother = new Smoother();
+        double worst = 0;
+        for (int w = -4; w <= 7; w++) {
+            int windowSize = w;
+            DataSeries expected = smoother.applyGaussianSmoothing(data, windowSize, 2.0, new DataSeries(n));
+            worst = Math.max(worst, maxDifference(expected.yValues(),
+                    stream(data, sink -> StreamingSmoother.gaussian(windowSize, 2.0, sink)), n));
+
+            expected = smoother.applySavitzkyGolaySmoothing(data, windowSize, 2, new DataSeries(n));
+            worst = Math.max(worst, maxDifference(expected.yValues(),
+                    stream(data, sink -> StreamingSmoother.savitzkyGolay(windowSize, 2, sink)), n));
+        }
+        report("Streaming vs batch, small windows", worst);
+    }
+
+    // Push a series through a streaming smoother and collect its output
+    private static double[] stream(DataSeries data, Function<PointSink, StreamingSmoother> factory) {
+        DataSeries out = new DataSeries(data.size());
+        StreamingSmoother smoother = factory.apply(out::add);
+        for (int i = 0; i < data.size(); i++) {
+            smoother.accept(data.getX(i), data.getY(i));
+        }
+        smoother.finish();
+        return out.yValues();
+    }
+
+    private static double maxDifference(double[] expected, double[] actual, int n) {
+        double worst = 0;
+        for (int i = 0; i < n; i++) {
+            worst = Math.max(worst, Math.abs(expected[i] - actual[i]));
+        }
+        return worst;
+    }
+
+    private static void report(String name, double difference) {
+        boolean ok = difference <= TOLERANCE;
+        failed |= !ok;
+        System.out.println(String.format("%-40s %s (max difference %.2e)", name, ok ? "ok" : "FAILED", difference));
+    }
+}
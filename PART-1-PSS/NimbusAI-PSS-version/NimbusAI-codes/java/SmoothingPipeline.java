@@ -0,0 +1,326 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * SmoothingPipeline - Runs a sequence of smoothing stages over one pair of buffers.
+ * Each stage reads the previous stage's output array and writes into the other one,
+ * so a pipeline of any length allocates a single scratch array and writes the output
+ * series once, instead of building a new series between stages.
+ *
+ * Adjacent linear stages (convolutions) are fused before running: away from the
+ * edges, two convolutions in a row equal one convolution with the convolved kernel,
+ * so they cost a single pass. The few points near each edge, where the stages clip or
+ * shift their windows, are still computed stage by stage so the result is unchanged.
+ */
+public class SmoothingPipeline {
+
+    private final List<Stage> stages = new ArrayList<>();
+    private final boolean fuse;
+
+    /**
+     * Constructor for a pipeline that fuses adjacent linear stages.
+     */
+    public SmoothingPipeline() {
+        this(true);
+    }
+
+    /**
+     * Constructor for SmoothingPipeline.
+     *
+     * @param fuse Whether adjacent linear stages are fused into one pass
+     */
+    public SmoothingPipeline(boolean fuse) {
+        this.fuse = fuse;
+    }
+
+    /**
+     * Append a stage to the pipeline.
+     *
+     * @param stage The stage to run after the current last stage
+     * @return This pipeline
+     */
+    public SmoothingPipeline add(Stage stage) {
+        stages.add(stage);
+        return this;
+    }
+
+    /**
+     * Run every stage over a data series, writing into a caller-supplied series.
+     *
+     * @param data Series of data points to smooth
+     * @param out Series to receive the smoothed data (may be the same instance as data)
+     * @return The output series and the time taken by each stage
+     */
+    public Result run(DataSeries data, DataSeries out) {
+        int n = data.size();
+        double[] source = data.yValues();
+        out.resetFrom(data);
+        if (out.yValues() == source) {
+            source = Arrays.copyOf(source, n);
+        }
+        double[] x = out.xValues();
+        double[] output = out.yValues();
+
+        List<Stage> steps = fuse ? fuseLinearStages(stages) : stages;
+        List<String> names = new ArrayList<>();
+        double[] millis = new double[steps.size()];
+
+        if (steps.isEmpty() || n == 0) {
+            System.arraycopy(source, 0, output, 0, n);
+            return new Result(out, names, millis);
+        }
+
+        // Ping-pong between the output and one scratch array so the last stage lands in the output
+        double[] scratch = (steps.size() > 1) ? new double[n] : null;
+        double[] in = source;
+        double[] result = (steps.size() % 2 == 1) ? output : scratch;
+
+        for (int s = 0; s < steps.size(); s++) {
+            Stage stage = steps.get(s);
+            long start = System.nanoTime();
+            stage.apply(x, in, result, n);
+            millis[s] = (System.nanoTime() - start) / 1e6;
+            names.add(stage.getName());
+
+            in = result;
+            result = (result == output) ? scratch : output;
+        }
+
+        return new Result(out, names, millis);
+    }
+
+    // Replace every run of adjacent linear stages with one fused stage
+    private static List<Stage> fuseLinearStages(List<Stage> stages) {
+        List<Stage> fused = new ArrayList<>();
+        for (Stage stage : stages) {
+            int last = fused.size() - 1;
+            if (last >= 0 && fused.get(last) instanceof LinearStage && stage instanceof LinearStage) {
+                fused.set(last, new FusedStage((LinearStage) fused.get(last), (LinearStage) stage));
+            } else {
+                fused.add(stage);
+            }
+        }
+        return fused;
+    }
+
+    /**
+     * Stage - One smoothing step of a pipeline.
+     */
+    public interface Stage {
+        /**
+         * Get a short description of the stage for timing reports.
+         *
+         * @return The stage name
+         */
+        String getName();
+
+        /**
+         * Smooth a whole series.
+         *
+         * @param x The x-values
+         * @param src The y-values to smooth
+         * @param dst Array to receive the smoothed y-values (never the same array as src)
+         * @param n Number of points
+         */
+        void apply(double[] x, double[] src, double[] dst, int n);
+    }
+
+    /**
+     * LinearStage - A stage whose output at each point is a fixed weighted sum of the
+     * input. Output i may only depend on the 2h+1 input points centred on i, where h is
+     * the half width, with the window shifted inwards (or clipped) at the edges of the
+     * series. Away from the edges the weights must be the same for every point.
+     */
+    public interface LinearStage extends Stage {
+        /**
+         * Get the half width of the stage's window for a series of n points.
+         *
+         * @param n Number of points
+         * @return The half width h
+         */
+        int getHalfWidth(int n);
+
+        /**
+         * Get the weights used for points whose window lies inside the series.
+         *
+         * @param n Number of points
+         * @return The 2h+1 weights, for input points i-h to i+h
+         */
+        double[] getInteriorKernel(int n);
+
+        /**
+         * Compute part of the output. Input point k is read from src[k - srcOffset]
+         * and output point i is written to dst[i - dstOffset].
+         *
+         * @param src The input values
+         * @param srcOffset Index of the series point held in src[0]
+         * @param dst Array to receive the output values
+         * @param dstOffset Index of the series point held in dst[0]
+         * @param n Number of points in the series
+         * @param from First output point to compute
+         * @param to One past the last output point to compute
+         */
+        void applyRange(double[] src, int srcOffset, double[] dst, int dstOffset, int n, int from, int to);
+
+        @Override
+        default void apply(double[] x, double[] src, double[] dst, int n) {
+            applyRange(src, 0, dst, 0, n, 0, n);
+        }
+    }
+
+    /**
+     * FusedStage - Two linear stages run as one. Interior points use the convolution
+     * of the two kernels; edge points run the stages one after the other over just
+     * the input they need.
+     */
+    private static class FusedStage implements LinearStage {
+        private final LinearStage first;
+        private final LinearStage second;
+        private int kernelSeriesLength = -1;  // Series length the cached kernel was built for
+        private double[] kernel;
+        private double[] edgeBuffer = new double[0];
+
+        FusedStage(LinearStage first, LinearStage second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public String getName() {
+            return first.getName() + " + " + second.getName();
+        }
+
+        @Override
+        public int getHalfWidth(int n) {
+            return first.getHalfWidth(n) + second.getHalfWidth(n);
+        }
+
+        @Override
+        public double[] getInteriorKernel(int n) {
+            if (kernelSeriesLength != n) {
+                double[] a = first.getInteriorKernel(n);
+                double[] b = second.getInteriorKernel(n);
+                kernel = new double[a.length + b.length - 1];
+                for (int i = 0; i < a.length; i++) {
+                    for (int j = 0; j < b.length; j++) {
+                        kernel[i + j] += a[i] * b[j];
+                    }
+                }
+                kernelSeriesLength = n;
+            }
+            return kernel;
+        }
+
+        @Override
+        public void applyRange(double[] src, int srcOffset, double[] dst, int dstOffset, int n, int from, int to) {
+            int h = getHalfWidth(n);
+            int interiorFrom = Math.max(from, h);
+            int interiorTo = Math.min(to, n - h);
+
+            if (interiorFrom >= interiorTo) {
+                // No interior points in the range
+                applyStagewise(src, srcOffset, dst, dstOffset, n, from, to);
+                return;
+            }
+
+            applyStagewise(src, srcOffset, dst, dstOffset, n, from, interiorFrom);
+
+            double[] weights = getInteriorKernel(n);
+            for (int i = interiorFrom; i < interiorTo; i++) {
+                int start = i - h - srcOffset;
+                double sum = 0;
+                for (int k = 0; k < weights.length; k++) {
+                    sum += src[start + k] * weights[k];
+                }
+                dst[i - dstOffset] = sum;
+            }
+
+            applyStagewise(src, srcOffset, dst, dstOffset, n, interiorTo, to);
+        }
+
+        // Run the first stage over the points the second stage reads, then the second stage
+        private void applyStagewise(double[] src, int srcOffset, double[] dst, int dstOffset, int n, int from, int to) {
+            if (from >= to) {
+                return;
+            }
+            int h = second.getHalfWidth(n);
+            int window = 2 * h + 1;
+            int start = Math.max(0, Math.min(from - h, n - window));
+            int end = Math.min(n, Math.max(to + h, window));
+
+            if (edgeBuffer.length < end - start) {
+                edgeBuffer = new double[end - start];
+            }
+            first.applyRange(src, srcOffset, edgeBuffer, start, n, start, end);
+            second.applyRange(edgeBuffer, start, dst, dstOffset, n, from, to);
+        }
+    }
+
+    /**
+     * Result - The output of a pipeline run and the time each stage took.
+     */
+    public static class Result {
+        private final DataSeries output;
+        private final List<String> stageNames;
+        private final double[] stageMillis;
+
+        Result(DataSeries output, List<String> stageNames, double[] stageMillis) {
+            this.output = output;
+            this.stageNames = Collections.unmodifiableList(stageNames);
+            this.stageMillis = stageMillis;
+        }
+
+        /**
+         * Get the smoothed series.
+         *
+         * @return The output series
+         */
+        public DataSeries getOutput() {
+            return output;
+        }
+
+        /**
+         * Get the names of the stages that were run, after fusion.
+         *
+         * @return Stage names in the order they ran
+         */
+        public List<String> getStageNames() {
+            return stageNames;
+        }
+
+        /**
+         * Get the time taken by one stage.
+         *
+         * @param stage Index of the stage
+         * @return Elapsed time in milliseconds
+         */
+        public double getStageMillis(int stage) {
+            return stageMillis[stage];
+        }
+
+        /**
+         * Get the time taken by all stages.
+         *
+         * @return Elapsed time in milliseconds
+         */
+        public double getTotalMillis() {
+            double total = 0;
+            for (double millis : stageMillis) {
+                total += millis;
+            }
+            return total;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < stageNames.size(); i++) {
+                sb.append(String.format("%s: %.2f ms%n", stageNames.get(i), stageMillis[i]));
+            }
+            sb.append(String.format("Total: %.2f ms", getTotalMillis()));
+            return sb.toString();
+        }
+    }
+}
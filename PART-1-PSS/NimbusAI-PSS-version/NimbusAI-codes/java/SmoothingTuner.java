@@ -0,0 +1,502 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * SmoothingTuner - Chooses the smoothing parameter of a Smoother method (the window,
+ * sigma, alpha or span) by generalized cross-validation (GCV) or leave-one-out
+ * cross-validation.
+ *
+ * Every method tuned here is a linear smoother: the smoothed values are s = S y for a
+ * matrix S that depends on the parameter but not on the y-values. Leaving point i out
+ * and smoothing the rest predicts it with residual (y_i - s_i) / (1 - S_ii), so both
+ * criteria follow from a single smoothing pass and the diagonal of S instead of n refits:
+ *   leave-one-out = mean of ((y_i - s_i) / (1 - S_ii))^2
+ *   GCV           = mean of (y_i - s_i)^2 / (1 - trace(S) / n)^2
+ * For the single-pass kernel smoothers and LOESS the leave-one-out residual is exact;
+ * for the multi-pass Solter smoother it is the usual linear-smoother approximation.
+ *
+ * S_ii is the weight point i has in its own smoothed value. For the convolution
+ * smoothers it is the centre weight of the clipped, renormalised kernel; for several
+ * passes it is taken from the repeated operator, which is the same for every point
+ * away from the edges, so only the edge points are computed separately. The candidate
+ * parameters are scored in parallel with the Smoother's parallelism.
+ */
+public class SmoothingTuner {
+
+    /**
+     * Method - The smoothing methods that can be tuned, and the parameter chosen for each.
+     */
+    public enum Method {
+        SOLTER("Solter", "window"),
+        MOVING_AVERAGE("moving average", "window"),
+        EXPONENTIAL("exponential", "alpha"),
+        GAUSSIAN("Gaussian", "sigma"),
+        SAVITZKY_GOLAY("Savitzky-Golay", "window"),
+        LOESS("LOESS", "span"),
+        /** Tune every method and keep the one with the lowest score */
+        AUTO("auto", "parameter");
+
+        private final String displayName;
+        private final String parameterName;
+
+        Method(String displayName, String parameterName) {
+            this.displayName = displayName;
+            this.parameterName = parameterName;
+        }
+
+        /**
+         * Get the name of the parameter that is tuned.
+         *
+         * @return The parameter name
+         */
+        public String getParameterName() {
+            return parameterName;
+        }
+
+        @Override
+        public String toString() {
+            return displayName;
+        }
+    }
+
+    /**
+     * Criterion - The estimate of prediction error that is minimised.
+     */
+    public enum Criterion {
+        GCV,
+        LEAVE_ONE_OUT
+    }
+
+    // Largest window tried for the moving average and Savitzky-Golay filter
+    private static final int MAX_WINDOW = 1001;
+
+    // Largest Solter window tried; its edge leverages cost O((passes * window)^3)
+    private static final int MAX_SOLTER_WINDOW = 201;
+
+    // Gaussian sigmas tried, from MIN_SIGMA up to n / SIGMA_POINTS_RATIO or MAX_SIGMA
+    private static final double MIN_SIGMA = 0.5;
+    private static final double MAX_SIGMA = 200;
+    private static final int SIGMA_POINTS_RATIO = 6;
+
+    // Ratio between successive windows and sigmas in the grids
+    private static final double GRID_RATIO = 1.25;
+
+    // Polynomial order of the Savitzky-Golay filter and degree of LOESS while tuning
+    private static final int SAVITZKY_GOLAY_ORDER = 3;
+    private static final int LOESS_DEGREE = 1;
+
+    // Series longer than this skip LOESS when every method is tried, as each fit costs O(n^2 * span)
+    private static final int MAX_AUTO_LOESS_POINTS = 20000;
+
+    // Points whose leverage is this close to 1 are fitted exactly and left out of leave-one-out
+    private static final double LEVERAGE_TOLERANCE = 1e-12;
+
+    private final Smoother smoother;
+    private final ParallelRanges parallel;
+
+    /**
+     * Constructor for SmoothingTuner.
+     *
+     * @param smoother Runs the candidate smoothers
+     * @param parallel Scores the candidate parameters
+     */
+    SmoothingTuner(Smoother smoother, ParallelRanges parallel) {
+        this.smoother = smoother;
+        this.parallel = parallel;
+    }
+
+    /**
+     * Choose the parameter of a method for a data series and smooth the series with it.
+     *
+     * @param data Series of data points to smooth
+     * @param method The method to tune, or AUTO to try every method
+     * @param criterion The criterion to minimise
+     * @param out Series to receive the smoothed data (may be the same instance as data)
+     * @return The chosen method, parameter and score, and the output series
+     */
+    public Result tune(DataSeries data, Method method, Criterion criterion, DataSeries out) {
+        // Candidates read data while the result is written to out, so never share its arrays
+        DataSeries input = (out.yValues() == data.yValues()) ? data.copy() : data;
+
+        Result best = null;
+        for (Method candidate : Method.values()) {
+            boolean tried = (method == Method.AUTO)
+                ? candidate != Method.AUTO && (candidate != Method.LOESS || data.size() <= MAX_AUTO_LOESS_POINTS)
+                : candidate == method;
+            if (tried) {
+                Result result = score(input, candidate, criterion);
+                if (best == null || result.getScore() < best.getScore()) {
+                    best = result;
+                }
+            }
+        }
+
+        if (Double.isNaN(best.getParameter())) {
+            // Too few points for any candidate: leave the series unsmoothed
+            out.resetFrom(input);
+            System.arraycopy(input.yValues(), 0, out.yValues(), 0, input.size());
+        } else {
+            smooth(best.getMethod(), best.getParameter(), input, out);
+        }
+        best.output = out;
+        return best;
+    }
+
+    // Score every candidate parameter of one method
+    private Result score(DataSeries data, Method method, Criterion criterion) {
+        int n = data.size();
+        double[] grid = grid(method, n);
+        double[] scores = new double[grid.length];
+
+        parallel.forEach(grid.length, Integer.MAX_VALUE, (from, to) -> {
+            DataSeries smoothed = new DataSeries(n);
+            for (int c = from; c < to; c++) {
+                smooth(method, grid[c], data, smoothed);
+                double[] leverage = leverage(method, grid[c], data);
+                scores[c] = score(data.yValues(), smoothed.yValues(), leverage, n, criterion);
+            }
+        });
+
+        int best = -1;
+        for (int c = 0; c < grid.length; c++) {
+            if (best < 0 || scores[c] < scores[best]) {
+                best = c;
+            }
+        }
+        double parameter = (best >= 0) ? grid[best] : Double.NaN;
+        double bestScore = (best >= 0) ? scores[best] : Double.POSITIVE_INFINITY;
+        return new Result(method, criterion, parameter, bestScore, grid, scores);
+    }
+
+    // Estimate of prediction error from the y-values, smoothed values and hat-matrix diagonal
+    private static double score(double[] y, double[] smoothed, double[] leverage, int n, Criterion criterion) {
+        if (criterion == Criterion.GCV) {
+            double rss = 0;
+            double trace = 0;
+            for (int i = 0; i < n; i++) {
+                double residual = y[i] - smoothed[i];
+                rss += residual * residual;
+                trace += leverage[i];
+            }
+            double denominator = 1 - trace / n;
+            return (denominator > 0) ? rss / n / (denominator * denominator) : Double.POSITIVE_INFINITY;
+        }
+
+        double sum = 0;
+        int counted = 0;
+        for (int i = 0; i < n; i++) {
+            if (leverage[i] < 1 - LEVERAGE_TOLERANCE) {
+                double residual = (y[i] - smoothed[i]) / (1 - leverage[i]);
+                sum += residual * residual;
+                counted++;
+            }
+        }
+        return (counted > 0) ? sum / counted : Double.POSITIVE_INFINITY;
+    }
+
+    // Candidate parameters of a method for a series of n points
+    private static double[] grid(Method method, int n) {
+        List<Double> grid = new ArrayList<>();
+        switch (method) {
+            case SOLTER:
+                addWindows(grid, 3, Math.min(n, MAX_SOLTER_WINDOW));
+                break;
+            case MOVING_AVERAGE:
+                addWindows(grid, 3, Math.min(n, MAX_WINDOW));
+                break;
+            case SAVITZKY_GOLAY:
+                addWindows(grid, SAVITZKY_GOLAY_ORDER + 2, Math.min(n, MAX_WINDOW));
+                break;
+            case GAUSSIAN:
+                double maxSigma = Math.min(MAX_SIGMA, (double) n / SIGMA_POINTS_RATIO);
+                for (double sigma = MIN_SIGMA; sigma <= maxSigma; sigma *= GRID_RATIO) {
+                    grid.add(sigma);
+                }
+                break;
+            case EXPONENTIAL:
+                // alpha from 0.02 to 0.98 in steps of 0.02
+                if (n >= 2) {
+                    for (int k = 1; k < 50; k++) {
+                        grid.add(k / 50.0);
+                    }
+                }
+                break;
+            case LOESS:
+                // span from 0.1 to 1 in steps of 0.05
+                if (n >= 3) {
+                    for (int k = 2; k <= 20; k++) {
+                        grid.add(k / 20.0);
+                    }
+                }
+                break;
+            default:
+                break;
+        }
+
+        double[] values = new double[grid.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = grid.get(i);
+        }
+        return values;
+    }
+
+    // Add odd windows from first up to max, growing roughly geometrically
+    private static void addWindows(List<Double> grid, int first, int max) {
+        int window = (first % 2 == 0) ? first + 1 : first;
+        while (window <= max) {
+            grid.add((double) window);
+            int next = (int) Math.round(window * GRID_RATIO);
+            window = Math.max(window + 2, (next % 2 == 0) ? next + 1 : next);
+        }
+    }
+
+    // Smooth the series with one candidate parameter
+    private void smooth(Method method, double parameter, DataSeries data, DataSeries out) {
+        switch (method) {
+            case SOLTER:
+                smoother.applySmoothing(data, (int) parameter, Smoother.ALPHA, Smoother.BETA,
+                                        Smoother.DEFAULT_ITERATIONS, out);
+                break;
+            case MOVING_AVERAGE:
+                smoother.applyMovingAverage(data, (int) parameter, 1, out);
+                break;
+            case EXPONENTIAL:
+                smoother.applyExponentialSmoothing(data, parameter, 1, out);
+                break;
+            case GAUSSIAN:
+                smoother.applyGaussianSmoothing(data, gaussianWindow(parameter), parameter, out);
+                break;
+            case SAVITZKY_GOLAY:
+                smoother.applySavitzkyGolaySmoothing(data, (int) parameter, SAVITZKY_GOLAY_ORDER, out);
+                break;
+            case LOESS:
+                smoother.applyLoessSmoothing(data, parameter, LOESS_DEGREE, out);
+                break;
+            default:
+                throw new IllegalArgumentException("Cannot smooth with method " + method);
+        }
+    }
+
+    // Diagonal of the smoother matrix for one candidate parameter
+    private double[] leverage(Method method, double parameter, DataSeries data) {
+        int n = data.size();
+        switch (method) {
+            case SOLTER: {
+                int halfWindow = Math.min((int) parameter, n) / 2;
+                SolterKernel solter = SolterKernel.get(halfWindow, Smoother.ALPHA, Smoother.BETA);
+                double[] kernel = new double[2 * halfWindow + 1];
+                for (int k = 0; k < kernel.length; k++) {
+                    kernel[k] = solter.weight(k - halfWindow);
+                }
+                return convolutionLeverage(n, kernel, Smoother.DEFAULT_ITERATIONS);
+            }
+            case MOVING_AVERAGE: {
+                double[] kernel = new double[2 * (Math.min((int) parameter, n) / 2) + 1];
+                Arrays.fill(kernel, 1);
+                return convolutionLeverage(n, kernel, 1);
+            }
+            case EXPONENTIAL: {
+                // Each output is alpha times its own input plus earlier outputs; the first is copied
+                double[] leverage = new double[n];
+                Arrays.fill(leverage, Math.max(0.01, Math.min(0.99, parameter)));
+                leverage[0] = 1;
+                return leverage;
+            }
+            case GAUSSIAN:
+                return convolutionLeverage(n, Smoother.createGaussianKernel(gaussianWindow(parameter), parameter), 1);
+            case SAVITZKY_GOLAY:
+                return savitzkyGolayLeverage(n, (int) parameter);
+            case LOESS:
+                return smoother.loessLeverage(data, parameter);
+            default:
+                throw new IllegalArgumentException("Cannot smooth with method " + method);
+        }
+    }
+
+    // Gaussian window covering three sigmas either side of the centre
+    private static int gaussianWindow(double sigma) {
+        return 2 * (int) Math.ceil(3 * sigma) + 1;
+    }
+
+    // Diagonal of P^passes, where P convolves with a symmetric kernel that is clipped and
+    // renormalised at the edges. The points at least passes * halfWidth from both edges
+    // share one value, and the trailing edge mirrors the leading one.
+    private static double[] convolutionLeverage(int n, double[] kernel, int passes) {
+        double[] leverage = new double[n];
+        int reach = passes * (kernel.length / 2);
+        double interior = Double.NaN;
+        for (int i = 0; i < (n + 1) / 2; i++) {
+            boolean inside = i >= reach && i < n - reach;
+            if (inside && !Double.isNaN(interior)) {
+                leverage[i] = interior;
+            } else {
+                leverage[i] = ownWeight(n, kernel, passes, i);
+                if (inside) {
+                    interior = leverage[i];
+                }
+            }
+            leverage[n - 1 - i] = leverage[i];
+        }
+        return leverage;
+    }
+
+    // Entry (i, i) of P^passes, by applying P repeatedly to the unit vector at i. After
+    // each pass the column only spreads by the kernel's half width, so just that part is kept.
+    private static double ownWeight(int n, double[] kernel, int passes, int i) {
+        int halfWidth = kernel.length / 2;
+        int base = Math.max(0, i - passes * halfWidth);
+        int size = Math.min(n - 1, i + passes * halfWidth) - base + 1;
+        double[] column = new double[size];
+        double[] next = new double[size];
+        column[i - base] = 1;
+
+        int low = i;
+        int high = i;
+        for (int pass = 0; pass < passes; pass++) {
+            int newLow = Math.max(0, low - halfWidth);
+            int newHigh = Math.min(n - 1, high + halfWidth);
+            for (int r = newLow; r <= newHigh; r++) {
+                int start = Math.max(0, r - halfWidth);
+                int end = Math.min(n - 1, r + halfWidth);
+                double total = 0;
+                double sum = 0;
+                for (int j = start; j <= end; j++) {
+                    double weight = kernel[j - r + halfWidth];
+                    total += weight;
+                    if (j >= low && j <= high) {
+                        sum += weight * column[j - base];
+                    }
+                }
+                next[r - base] = sum / total;
+            }
+            double[] swap = column;
+            column = next;
+            next = swap;
+            low = newLow;
+            high = newHigh;
+        }
+        return column[i - base];
+    }
+
+    // Diagonal of the Savitzky-Golay filter: each point's own coefficient in the window
+    // that is fitted for it (the first or last window near the edges)
+    private static double[] savitzkyGolayLeverage(int n, int windowSize) {
+        SavitzkyGolayKernel kernel = SavitzkyGolayKernel.get(windowSize,
+                                                             Math.min(SAVITZKY_GOLAY_ORDER, windowSize - 1), 0);
+        int halfWindow = windowSize / 2;
+        double[] leverage = new double[n];
+        for (int i = 0; i < n; i++) {
+            int position = (i < halfWindow) ? i : (i >= n - halfWindow) ? i - (n - windowSize) : halfWindow;
+            leverage[i] = kernel.coefficients(position)[position];
+        }
+        return leverage;
+    }
+
+    /**
+     * Result - The chosen method and parameter, the score of every candidate, and the
+     * smoothed series.
+     */
+    public static class Result {
+        private final Method method;
+        private final Criterion criterion;
+        private final double parameter;
+        private final double score;
+        private final double[] candidates;
+        private final double[] scores;
+        private DataSeries output;
+
+        Result(Method method, Criterion criterion, double parameter, double score,
+               double[] candidates, double[] scores) {
+            this.method = method;
+            this.criterion = criterion;
+            this.parameter = parameter;
+            this.score = score;
+            this.candidates = candidates;
+            this.scores = scores;
+        }
+
+        /**
+         * Get the smoothed series.
+         *
+         * @return The output series
+         */
+        public DataSeries getOutput() {
+            return output;
+        }
+
+        /**
+         * Get the chosen method.
+         *
+         * @return The method
+         */
+        public Method getMethod() {
+            return method;
+        }
+
+        /**
+         * Get the criterion that was minimised.
+         *
+         * @return The criterion
+         */
+        public Criterion getCriterion() {
+            return criterion;
+        }
+
+        /**
+         * Get the chosen parameter (a window size, sigma, alpha or span, depending on the method).
+         *
+         * @return The parameter, or NaN if the series was too short to smooth
+         */
+        public double getParameter() {
+            return parameter;
+        }
+
+        /**
+         * Get the score of the chosen parameter.
+         *
+         * @return The estimated mean squared prediction error
+         */
+        public double getScore() {
+            return score;
+        }
+
+        /**
+         * Get the number of parameters that were scored for the chosen method.
+         *
+         * @return The number of candidates
+         */
+        public int getCandidateCount() {
+            return candidates.length;
+        }
+
+        /**
+         * Get one of the parameters that were scored for the chosen method.
+         *
+         * @param candidate Index of the candidate
+         * @return The parameter
+         */
+        public double getCandidate(int candidate) {
+            return candidates[candidate];
+        }
+
+        /**
+         * Get the score of one of the candidate parameters.
+         *
+         * @param candidate Index of the candidate
+         * @return The estimated mean squared prediction error
+         */
+        public double getCandidateScore(int candidate) {
+            return scores[candidate];
+        }
+
+        @Override
+        public String toString() {
+            // Windows are whole numbers; the other parameters are fractions
+            String value = (parameter == Math.rint(parameter)) ? String.valueOf((long) parameter)
+                                                              : String.format("%.4g", parameter);
+            return String.format("%s %s=%s (%s %.6g)", method, method.getParameterName(),
+                                 value, criterion, score);
+        }
+    }
+}
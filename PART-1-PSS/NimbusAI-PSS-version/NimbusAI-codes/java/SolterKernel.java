@@ -0,0 +1,152 @@
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SolterKernel - The weights of the Solter smoothing algorithm for one window.
+ * A weight depends only on the distance from the centre, alpha and beta, so the
+ * kernel is computed once and shared by every point, pass and caller that uses
+ * the same parameters.
+ *
+ * Points whose whole window lies inside the series use a plain convolution with
+ * a precomputed total weight; only the points near the edges, where the window
+ * is clipped, renormalise by the weights that remain. Both paths add the terms
+ * in the same order as the original per-point loop, so results are unchanged.
+ */
+public class SolterKernel {
+
+    // Kernels are cheap to rebuild, so the cache is simply cleared when it gets large
+    private static final int MAX_CACHED_KERNELS = 64;
+    private static final Map<String, SolterKernel> CACHE = new ConcurrentHashMap<>();
+
+    private final int halfWindow;
+    private final double[] weights;      // weights[j - i + halfWindow] is the weight of point j for point i
+    private final double totalWeight;    // Sum of all weights, used for interior points
+
+    private SolterKernel(int halfWindow, double alpha, double beta) {
+        this.halfWindow = halfWindow;
+        this.weights = new double[2 * halfWindow + 1];
+        for (int k = 0; k < weights.length; k++) {
+            double distance = Math.abs(k - halfWindow);
+
+            // Enhanced weight calculation with higher distance penalty for smoother results
+            weights[k] = Math.exp(-distance * alpha) * beta;
+        }
+        // We increase the central point's weight
+        weights[halfWindow] *= 1.5;
+
+        double total = 0;
+        for (double weight : weights) {
+            total += weight;
+        }
+        this.totalWeight = total;
+    }
+
+    /**
+     * Get the kernel for a window, creating it if it is not cached.
+     *
+     * @param halfWindow Number of points on each side of the centre
+     * @param alpha Controls how quickly the weight decreases with distance
+     * @param beta Controls the overall smoothing intensity
+     * @return The shared kernel
+     */
+    public static SolterKernel get(int halfWindow, double alpha, double beta) {
+        String key = halfWindow + "," + alpha + "," + beta;
+        SolterKernel kernel = CACHE.get(key);
+        if (kernel == null) {
+            if (CACHE.size() >= MAX_CACHED_KERNELS) {
+                CACHE.clear();
+            }
+            kernel = new SolterKernel(halfWindow, alpha, beta);
+            CACHE.put(key, kernel);
+        }
+        return kernel;
+    }
+
+    /**
+     * Get the number of points on each side of the centre.
+     *
+     * @return The half window
+     */
+    public int getHalfWindow() {
+        return halfWindow;
+    }
+
+    /**
+     * Get the weight of a point at a given offset from the centre.
+     *
+     * @param offset Offset from the centre (-halfWindow to halfWindow)
+     * @return The weight
+     */
+    public double weight(int offset) {
+        return weights[halfWindow + offset];
+    }
+
+    /**
+     * Apply one pass of Solter smoothing with this kernel.
+     *
+     * @param data Values to smooth
+     * @param result Array to receive the smoothed values (must not be data)
+     * @param n Number of values
+     */
+    public void apply(double[] data, double[] result, int n) {
+        applyRange(data, result, n, 0, n);
+    }
+
+    /**
+     * Apply one pass of Solter smoothing to part of a series. Points outside the range
+     * are read but not written, so disjoint ranges can be smoothed concurrently.
+     *
+     * @param data Values to smooth
+     * @param result Array to receive the smoothed values (must not be data)
+     * @param n Number of values
+     * @param from First point to smooth
+     * @param to One past the last point to smooth
+     */
+    public void applyRange(double[] data, double[] result, int n, int from, int to) {
+        if (halfWindow == 0 || n <= 1) {
+            // Only one point in each window, no smoothing
+            System.arraycopy(data, from, result, from, to - from);
+            return;
+        }
+
+        int interiorStart = Math.min(halfWindow, n);
+        int interiorEnd = Math.max(interiorStart, n - halfWindow);
+
+        for (int i = from; i < Math.min(to, interiorStart); i++) {
+            result[i] = smoothEdge(data, i, n);
+        }
+
+        // Interior points: the full kernel fits, so no bounds checks or renormalisation
+        int width = weights.length;
+        for (int i = Math.max(from, interiorStart); i < Math.min(to, interiorEnd); i++) {
+            int offset = i - halfWindow;
+            double sum = 0;
+            for (int k = 0; k < width; k++) {
+                sum += data[offset + k] * weights[k];
+            }
+            result[i] = sum / totalWeight;
+        }
+
+        for (int i = Math.max(from, interiorEnd); i < to; i++) {
+            result[i] = smoothEdge(data, i, n);
+        }
+    }
+
+    // Weighted average of point i over the part of its window inside the series
+    private double smoothEdge(double[] data, int i, int n) {
+        int start = Math.max(0, i - halfWindow);
+        int end = Math.min(n - 1, i + halfWindow);
+        if (start == end) {
+            return data[i];
+        }
+
+        double sum = 0;
+        double total = 0;
+        for (int j = start; j <= end; j++) {
+            double weight = weights[j - i + halfWindow];
+            sum += data[j] * weight;
+            total += weight;
+        }
+        return sum / total;
+    }
+}
@@ -0,0 +1,196 @@
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * StreamingCSVReader - Reads a CSV file in fixed-size chunks and passes each
+ * data point to a PointSink as soon as its line has been parsed.
+ * Only one chunk (plus any line that spans two chunks) is held in memory,
+ * so files larger than the heap can be processed.
+ * Lines may end in \n, \r\n or \r, as with BufferedReader.readLine().
+ */
+public class StreamingCSVReader {
+
+    // Default chunk size (64 KB)
+    private static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+    private final int chunkSize;
+    private long rowsRead = 0;
+    private long elapsedNanos = 0;
+
+    /**
+     * Constructor with the default chunk size.
+     */
+    public StreamingCSVReader() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Constructor with a specified chunk size.
+     *
+     * @param chunkSize Number of bytes read from the file at a time
+     */
+    public StreamingCSVReader(int chunkSize) {
+        this.chunkSize = Math.max(16, chunkSize);
+    }
+
+    /**
+     * Read a CSV file, sending every data point to the sink.
+     *
+     * @param filePath Path to the CSV file
+     * @param sink Receives each data point in file order
+     * @return Number of data points read
+     * @throws IOException If an I/O error occurs
+     */
+    public long read(String filePath, PointSink sink) throws IOException {
+        return read(filePath, sink, warning -> { });
+    }
+
+    /**
+     * Read a CSV file, sending every data point to the sink and a warning for
+     * every skipped line to the warning consumer.
+     *
+     * @param filePath Path to the CSV file
+     * @param sink Receives each data point in file order
+     * @param warnings Receives the warnings, a chunk at a time, in file order
+     * @return Number of data points read
+     * @throws IOException If an I/O error occurs
+     */
+    public long read(String filePath, PointSink sink, Consumer<String> warnings) throws IOException {
+        try (InputStream in = new FileInputStream(filePath)) {
+            return read(in, sink, warnings);
+        }
+    }
+
+    /**
+     * Read CSV data from a stream, sending every data point to the sink.
+     * Skipped lines are not reported.
+     *
+     * @param in Stream of CSV data
+     * @param sink Receives each data point in order
+     * @return Number of data points read
+     * @throws IOException If an I/O error occurs
+     */
+    public long read(InputStream in, PointSink sink) throws IOException {
+        return read(in, sink, warning -> { });
+    }
+
+    /**
+     * Read CSV data from a stream, sending every data point to the sink and a
+     * warning for every skipped line to the warning consumer.
+     *
+     * @param in Stream of CSV data
+     * @param sink Receives each data point in order
+     * @param warnings Receives the warnings, a chunk at a time, in order
+     * @return Number of data points read
+     * @throws IOException If an I/O error occurs
+     */
+    public long read(InputStream in, PointSink sink, Consumer<String> warnings) throws IOException {
+        long startTime = System.nanoTime();
+        CSVRowParser parser = new CSVRowParser(sink);
+
+        byte[] chunk = new byte[chunkSize];
+        ByteBuffer buffer = ByteBuffer.wrap(chunk);
+        int filled = 0;          // Number of valid bytes in the chunk
+        boolean header = true;
+        boolean skipLineFeed = false;
+        int bytesRead;
+
+        while ((bytesRead = in.read(chunk, filled, chunk.length - filled)) != -1) {
+            filled += bytesRead;
+            int lineStart = 0;
+
+            // A \r at the end of the previous chunk may be followed by the \n of a \r\n pair
+            if (skipLineFeed && filled > 0) {
+                if (chunk[0] == '\n') {
+                    lineStart = 1;
+                }
+                skipLineFeed = false;
+            }
+
+            for (int pos = lineStart; pos < filled; pos++) {
+                byte b = chunk[pos];
+                if (b != '\n' && b != '\r') {
+                    continue;
+                }
+
+                if (header) {
+                    parser.parseHeader(new String(chunk, lineStart, pos - lineStart, StandardCharsets.UTF_8));
+                    header = false;
+                } else {
+                    parser.parseLine(buffer, lineStart, pos);
+                }
+
+                if (b == '\r') {
+                    if (pos + 1 < filled) {
+                        if (chunk[pos + 1] == '\n') {
+                            pos++;
+                        }
+                    } else {
+                        skipLineFeed = true;
+                    }
+                }
+                lineStart = pos + 1;
+            }
+
+            // Move the incomplete last line to the front of the chunk
+            int remaining = filled - lineStart;
+            if (remaining == chunk.length) {
+                // A single line fills the whole chunk: grow it
+                chunk = Arrays.copyOf(chunk, chunk.length * 2);
+                buffer = ByteBuffer.wrap(chunk);
+            } else if (lineStart > 0) {
+                System.arraycopy(chunk, lineStart, chunk, 0, remaining);
+            }
+            filled = remaining;
+            parser.drainWarnings(warnings);
+        }
+
+        // The last line may not have a terminator
+        if (filled > 0) {
+            if (header) {
+                parser.parseHeader(new String(chunk, 0, filled, StandardCharsets.UTF_8));
+            } else {
+                parser.parseLine(buffer, 0, filled);
+            }
+        }
+
+        parser.finish();
+        parser.drainWarnings(warnings);
+        rowsRead = parser.getRowCount();
+        elapsedNanos = System.nanoTime() - startTime;
+        return rowsRead;
+    }
+
+    /**
+     * Get the number of data points read by the last call to read.
+     *
+     * @return Number of rows
+     */
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    /**
+     * Get the throughput of the last call to read, including the time spent
+     * in the sink.
+     *
+     * @return Rows per second
+     */
+    public double getRowsPerSecond() {
+        return elapsedNanos > 0 ? rowsRead * 1e9 / elapsedNanos : 0;
+    }
+
+    /**
+     * Get the duration of the last call to read.
+     *
+     * @return Elapsed time in milliseconds
+     */
+    public double getElapsedMillis() {
+        return elapsedNanos / 1e6;
+    }
+}
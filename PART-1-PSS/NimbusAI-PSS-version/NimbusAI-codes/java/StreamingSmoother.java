@@ -0,0 +1,448 @@
+/**
+ * StreamingSmoother - Applies a smoothing algorithm to points as they arrive.
+ * Each pass keeps only a ring buffer of its window, so memory use is bounded by the
+ * window size rather than the series length. A smoothed point is passed downstream
+ * as soon as the right-hand half of its window has arrived; the remaining points at
+ * the end of the series are flushed by finish().
+ *
+ * For a series of n points the output matches the batch Smoother method with the
+ * same parameters, provided the window size passed in is no larger than n (the batch
+ * methods shrink the window to n themselves). The Gaussian smoother matches exactly
+ * for windows shorter than the batch FFT threshold (65 points); for longer windows
+ * the batch method convolves by FFT and the two agree to rounding error.
+ */
+public class StreamingSmoother implements PointSink {
+
+    private final PointSink first;
+    private final Pass[] passes;
+
+    private StreamingSmoother(Pass[] passes, PointSink downstream) {
+        this.passes = passes;
+        this.first = (passes.length > 0) ? passes[0] : downstream;
+    }
+
+    /**
+     * Create a streaming version of the multi-pass Solter smoothing algorithm
+     * (Smoother.applySmoothing).
+     *
+     * @param windowSize Size of the sliding window (odd number recommended)
+     * @param alpha Controls how quickly the weight decreases with distance
+     * @param beta Controls the overall smoothing intensity
+     * @param iterations Number of times to apply the smoothing algorithm
+     * @param downstream Receives each smoothed point
+     * @return The streaming smoother
+     */
+    public static StreamingSmoother solter(int windowSize, double alpha, double beta,
+                                           int iterations, PointSink downstream) {
+        return chain(iterations, downstream, next -> new SolterPass(windowSize, alpha, beta, next));
+    }
+
+    /**
+     * Create a streaming version of the multi-pass moving average
+     * (Smoother.applyMovingAverage). Each point costs O(1) per pass.
+     *
+     * @param windowSize Size of the sliding window (odd number recommended)
+     * @param iterations Number of times to apply the moving average
+     * @param downstream Receives each smoothed point
+     * @return The streaming smoother
+     */
+    public static StreamingSmoother movingAverage(int windowSize, int iterations, PointSink downstream) {
+        return chain(iterations, downstream, next -> new MovingAveragePass(windowSize, next));
+    }
+
+    /**
+     * Create a streaming version of multi-pass exponential smoothing
+     * (Smoother.applyExponentialSmoothing). Points are emitted as soon as they arrive.
+     *
+     * @param alpha Smoothing factor (0 < alpha < 1)
+     * @param iterations Number of iterations to apply
+     * @param downstream Receives each smoothed point
+     * @return The streaming smoother
+     */
+    public static StreamingSmoother exponential(double alpha, int iterations, PointSink downstream) {
+        // Ensure alpha is within valid range
+        double clampedAlpha = Math.max(0.01, Math.min(0.99, alpha));
+        return chain(iterations, downstream, next -> new ExponentialPass(clampedAlpha, next));
+    }
+
+    /**
+     * Create a streaming version of Gaussian smoothing (Smoother.applyGaussianSmoothing).
+     *
+     * @param windowSize Window size (must be odd)
+     * @param sigma Standard deviation of Gaussian kernel
+     * @param downstream Receives each smoothed point
+     * @return The streaming smoother
+     */
+    public static StreamingSmoother gaussian(int windowSize, double sigma, PointSink downstream) {
+        // Ensure window size is odd and positive, as in the batch method
+        windowSize = Math.max(1, windowSize);
+        if (windowSize % 2 == 0) {
+            windowSize++;
+        }
+        return new StreamingSmoother(new Pass[] {new GaussianPass(windowSize, sigma, downstream)}, downstream);
+    }
+
+    /**
+     * Create a streaming version of Savitzky-Golay smoothing
+     * (Smoother.applySavitzkyGolaySmoothing). The first points are emitted once the
+     * first full window has arrived, since they are fitted over that window.
+     *
+     * @param windowSize Size of the window (must be odd)
+     * @param polynomialOrder Order of the polynomial (typically 2-4)
+     * @param downstream Receives each smoothed point
+     * @return The streaming smoother
+     */
+    public static StreamingSmoother savitzkyGolay(int windowSize, int polynomialOrder, PointSink downstream) {
+        // Ensure window size is odd and positive, as in the batch method
+        windowSize = Math.max(1, windowSize);
+        if (windowSize % 2 == 0) {
+            windowSize++;
+        }
+        return new StreamingSmoother(new Pass[] {new SavitzkyGolayPass(windowSize, polynomialOrder, downstream)},
+                                     downstream);
+    }
+
+    // Chain a number of identical passes, the last of which feeds downstream
+    private static StreamingSmoother chain(int iterations, PointSink downstream, PassFactory factory) {
+        Pass[] passes = new Pass[Math.max(0, iterations)];
+        PointSink next = downstream;
+        for (int i = passes.length - 1; i >= 0; i--) {
+            passes[i] = factory.create(next);
+            next = passes[i];
+        }
+        return new StreamingSmoother(passes, downstream);
+    }
+
+    /**
+     * Push the next point into the smoother.
+     *
+     * @param x The x-value
+     * @param y The y-value
+     */
+    @Override
+    public void accept(double x, double y) {
+        first.accept(x, y);
+    }
+
+    /**
+     * Flush the points still waiting for their right-hand window.
+     * Call once after the last point has been pushed.
+     */
+    public void finish() {
+        for (Pass pass : passes) {
+            pass.finish();
+        }
+    }
+
+    /**
+     * Get how many points behind the input the output runs.
+     *
+     * @return Number of points pushed before the first smoothed point is emitted
+     */
+    public int getLatency() {
+        int latency = 0;
+        for (Pass pass : passes) {
+            latency += pass.getLatency();
+        }
+        return latency;
+    }
+
+    // Creates one pass feeding the given sink
+    private interface PassFactory {
+        Pass create(PointSink next);
+    }
+
+    /**
+     * Pass - One smoothing pass, passing its smoothed points on to the next sink.
+     */
+    private abstract static class Pass implements PointSink {
+        protected final PointSink downstream;
+
+        Pass(PointSink downstream) {
+            this.downstream = downstream;
+        }
+
+        // Emit the points still held back; called once after the last point
+        void finish() {
+        }
+
+        // Number of points accepted before the first point is emitted
+        abstract int getLatency();
+    }
+
+    /**
+     * WindowPass - One smoothing pass over a centred window that shrinks at the edges.
+     * Subclasses compute the smoothed value of a point from the buffered window.
+     */
+    private abstract static class WindowPass extends Pass {
+        protected final int halfWindow;
+        private final double[] xRing;
+        private final double[] yRing;
+        private long received = 0;
+        private long emitted = 0;
+
+        WindowPass(int halfWindow, PointSink downstream) {
+            this(halfWindow, 0, downstream);
+        }
+
+        // history is the number of points before the window that must stay buffered
+        WindowPass(int halfWindow, int history, PointSink downstream) {
+            super(downstream);
+            this.halfWindow = halfWindow;
+            this.xRing = new double[2 * halfWindow + 1 + history];
+            this.yRing = new double[2 * halfWindow + 1 + history];
+        }
+
+        @Override
+        public void accept(double x, double y) {
+            int slot = (int) (received % xRing.length);
+            xRing[slot] = x;
+            yRing[slot] = y;
+            received++;
+
+            // Emit every point whose full right-hand window is now available
+            while (emitted + halfWindow < received) {
+                emit(emitted, Math.max(0, emitted - halfWindow), emitted + halfWindow);
+            }
+        }
+
+        @Override
+        void finish() {
+            while (emitted < received) {
+                emit(emitted, Math.max(0, emitted - halfWindow), Math.min(received - 1, emitted + halfWindow));
+            }
+        }
+
+        @Override
+        int getLatency() {
+            return halfWindow;
+        }
+
+        private void emit(long i, long start, long end) {
+            double smoothedY = smooth(i, start, end);
+            emitted++;
+            downstream.accept(xRing[(int) (i % xRing.length)], smoothedY);
+        }
+
+        // Get a buffered y-value by its index in the series
+        protected double y(long index) {
+            return yRing[(int) (index % yRing.length)];
+        }
+
+        // Compute the smoothed value of point i from the window [start, end]
+        protected abstract double smooth(long i, long start, long end);
+    }
+
+    /**
+     * SolterPass - A single pass of the Solter smoothing algorithm.
+     */
+    private static class SolterPass extends WindowPass {
+        private final SolterKernel kernel;
+
+        SolterPass(int windowSize, double alpha, double beta, PointSink downstream) {
+            super(Math.max(1, windowSize) / 2, downstream);
+            kernel = SolterKernel.get(halfWindow, alpha, beta);
+        }
+
+        @Override
+        protected double smooth(long i, long start, long end) {
+            if (start == end) {
+                return y(i);  // Only one point, no smoothing
+            }
+
+            double sum = 0;
+            double totalWeight = 0;
+            for (long j = start; j <= end; j++) {
+                double weight = kernel.weight((int) (j - i));
+                sum += y(j) * weight;
+                totalWeight += weight;
+            }
+            return sum / totalWeight;
+        }
+    }
+
+    /**
+     * MovingAveragePass - A single pass of the moving average, kept as a running sum
+     * with the same compensated additions as the batch method.
+     */
+    private static class MovingAveragePass extends WindowPass {
+        private double sum = 0;
+        private double compensation = 0;
+        private long windowStart = 0;
+        private long windowEnd = -1;
+
+        MovingAveragePass(int windowSize, PointSink downstream) {
+            // The point leaving the window is removed after the window has moved on
+            super(Math.max(1, windowSize) / 2, 1, downstream);
+        }
+
+        @Override
+        protected double smooth(long i, long start, long end) {
+            // Slide the window: add the points entering on the right, remove those leaving on the left
+            while (windowEnd < end) {
+                add(y(++windowEnd));
+            }
+            while (windowStart < start) {
+                add(-y(windowStart++));
+            }
+            return (sum + compensation) / (end - start + 1);
+        }
+
+        // Add a value to the running sum, collecting the rounding error in the compensation
+        private void add(double value) {
+            double t = sum + value;
+            compensation += (Math.abs(sum) >= Math.abs(value)) ? (sum - t) + value : (value - t) + sum;
+            sum = t;
+        }
+    }
+
+    /**
+     * GaussianPass - Gaussian smoothing, with the kernel clipped and renormalised at the edges.
+     */
+    private static class GaussianPass extends WindowPass {
+        private final double[] kernel;
+
+        GaussianPass(int windowSize, double sigma, PointSink downstream) {
+            super(windowSize / 2, downstream);
+            kernel = Smoother.createGaussianKernel(windowSize, sigma);
+        }
+
+        @Override
+        protected double smooth(long i, long start, long end) {
+            if (start == end) {
+                return y(i);  // A single point is passed through, as in the batch method
+            }
+
+            double sum = 0;
+            double weightSum = 0;
+            for (long j = start; j <= end; j++) {
+                double weight = kernel[(int) (j - i) + halfWindow];
+                sum += y(j) * weight;
+                weightSum += weight;
+            }
+            return sum / weightSum;
+        }
+    }
+
+    /**
+     * ExponentialPass - A single pass of exponential smoothing, which needs no window.
+     */
+    private static class ExponentialPass extends Pass {
+        private final double alpha;
+        private boolean started = false;
+        private double smoothed;
+
+        ExponentialPass(double alpha, PointSink downstream) {
+            super(downstream);
+            this.alpha = alpha;
+        }
+
+        @Override
+        public void accept(double x, double y) {
+            // Exponential smoothing formula: St = alpha * Yt + (1-alpha) * St-1
+            smoothed = started ? alpha * y + (1 - alpha) * smoothed : y;
+            started = true;
+            downstream.accept(x, smoothed);
+        }
+
+        @Override
+        int getLatency() {
+            return 0;
+        }
+    }
+
+    /**
+     * SavitzkyGolayPass - Savitzky-Golay smoothing. Like the batch filter, the first and
+     * last half windows are fitted over the first or last full window, so the leading
+     * points wait for the first full window and the trailing points for finish().
+     */
+    private static class SavitzkyGolayPass extends Pass {
+        private final int windowSize;
+        private final int halfWindow;
+        private final int polynomialOrder;
+        private final SavitzkyGolayKernel kernel;
+        private final double[] xRing;
+        private final double[] yRing;
+        private long received = 0;
+        private long emitted = 0;
+
+        SavitzkyGolayPass(int windowSize, int polynomialOrder, PointSink downstream) {
+            super(downstream);
+            this.windowSize = windowSize;
+            this.halfWindow = windowSize / 2;
+            this.polynomialOrder = polynomialOrder;
+            this.kernel = SavitzkyGolayKernel.get(windowSize, Math.max(0, Math.min(polynomialOrder, windowSize - 1)), 0);
+            this.xRing = new double[windowSize];
+            this.yRing = new double[windowSize];
+        }
+
+        @Override
+        public void accept(double x, double y) {
+            int slot = (int) (received % windowSize);
+            xRing[slot] = x;
+            yRing[slot] = y;
+            received++;
+
+            if (received < windowSize) {
+                return;
+            }
+
+            // The window now ends at the newest point, which completes the window of
+            // every point up to halfWindow before it
+            long windowStart = received - windowSize;
+            while (emitted + halfWindow < received) {
+                int position = (int) Math.min(emitted - windowStart, halfWindow);
+                emit(emitted, kernel, windowStart, position);
+            }
+        }
+
+        @Override
+        void finish() {
+            if (received >= windowSize) {
+                // Trailing edge: fit over the last window
+                long windowStart = received - windowSize;
+                while (emitted < received) {
+                    emit(emitted, kernel, windowStart, (int) (emitted - windowStart));
+                }
+                return;
+            }
+
+            if (received == 0) {
+                return;
+            }
+
+            // Fewer points than the window: fit over all of them, with the window shrunk
+            // to the series as the batch filter does
+            int n = (int) received;
+            int shortWindow = (n % 2 == 1) ? n : n - 1;
+            SavitzkyGolayKernel shortKernel = SavitzkyGolayKernel.get(shortWindow,
+                    Math.max(0, Math.min(polynomialOrder, shortWindow - 1)), 0);
+            int shortHalf = shortWindow / 2;
+            for (int i = 0; i < n; i++) {
+                if (i < shortHalf) {
+                    emit(i, shortKernel, 0, i);
+                } else if (i >= n - shortHalf) {
+                    emit(i, shortKernel, n - shortWindow, i - (n - shortWindow));
+                } else {
+                    emit(i, shortKernel, i - shortHalf, shortHalf);
+                }
+            }
+        }
+
+        @Override
+        int getLatency() {
+            return windowSize - 1;
+        }
+
+        // Emit point i as the fit over the window starting at windowStart, evaluated at position
+        private void emit(long i, SavitzkyGolayKernel fitKernel, long windowStart, int position) {
+            double[] weights = fitKernel.coefficients(position);
+            double sum = 0;
+            for (int j = 0; j < weights.length; j++) {
+                sum += yRing[(int) ((windowStart + j) % windowSize)] * weights[j];
+            }
+            emitted++;
+            downstream.accept(xRing[(int) (i % windowSize)], sum);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+"""Client for the resident Java PSS server (java/PSSServer.java).
+
+The server is started once, in the background, and keeps the pipeline loaded and
+warmed up in a single JVM. Each job is sent over a local socket and its output is
+streamed back line by line, so a job no longer pays for JVM startup, JFreeChart
+class loading and JIT warm-up the way a new `java Main` process does.
+"""
+import logging
+import socket
+import subprocess
+import threading
+
+logger = logging.getLogger(__name__)
+
+# Seconds to wait for the server to warm up and report its port
+STARTUP_TIMEOUT = 60
+
+
+class JavaWorker:
+    """Starts the PSS server on first use and runs jobs on it.
+
+    Safe to use from several request threads at once: every job uses its own
+    connection, and the server runs jobs concurrently up to its --jobs limit.
+    """
+
+    def __init__(self, java_bin, classpath, jobs=None, cwd=None):
+        self.java_bin = java_bin
+        self.classpath = classpath
+        self.jobs = jobs
+        self.cwd = cwd
+        self._process = None
+        self._port = None
+        self._lock = threading.Lock()
+
+    def start(self):
+        """Start the server if it is not running, and return its port."""
+        with self._lock:
+            if self._process is not None and self._process.poll() is None:
+                return self._port
+
+            cmd = [self.java_bin, '-cp', self.classpath, 'PSSServer', '--exit-on-stdin-close']
+            if self.jobs:
+                cmd += ['--jobs', str(self.jobs)]
+            logger.info(f"Starting Java PSS server: {' '.join(cmd)}")
+
+            # stdin stays open for the server's lifetime; when this process exits it is
+            # closed and the server shuts itself down
+            process = subprocess.Popen(cmd, cwd=self.cwd, stdin=subprocess.PIPE,
+                                       stdout=subprocess.PIPE, text=True)
+            ready = {}
+
+            def read_port():
+                line = process.stdout.readline()
+                if line.startswith('LISTENING '):
+                    ready['port'] = int(line.split()[1])
+
+            reader = threading.Thread(target=read_port, daemon=True)
+            reader.start()
+            reader.join(STARTUP_TIMEOUT)
+            if 'port' not in ready:
+                process.kill()
+                raise RuntimeError('Java PSS server did not start')
+
+            self._process = process
+            self._port = ready['port']
+            logger.info(f"Java PSS server listening on port {self._port}")
+            return self._port
+
+    def run(self, args):
+        """Run Main with the given arguments on the server.
+
+        Returns (returncode, stdout, stderr) like subprocess.run, with the
+        job's output lines joined by newlines.
+        """
+        for arg in args:
+            if '\t' in arg or '\n' in arg or '\r' in arg:
+                raise ValueError(f"Argument cannot be sent to the Java server: {arg!r}")
+
+        port = self.start()
+        out_lines, err_lines = [], []
+        returncode = None
+        with socket.create_connection(('127.0.0.1', port)) as connection:
+            connection.sendall(('\t'.join(['RUN'] + list(args)) + '\n').encode('utf-8'))
+            with connection.makefile('r', encoding='utf-8', newline='\n') as response:
+                for line in response:
+                    tag, _, rest = line.rstrip('\n').partition('\t')
+                    if tag == 'OUT':
+                        out_lines.append(rest)
+                    elif tag == 'ERR':
+                        err_lines.append(rest)
+                    elif tag == 'EXIT':
+                        status, _, millis = rest.partition('\t')
+                        returncode = int(status)
+                        logger.info(f"Java job finished in {millis} ms")
+                        break
+
+        if returncode is None:
+            err_lines.append('Java PSS server closed the connection before the job finished')
+            returncode = 1
+        return returncode, '\n'.join(out_lines), '\n'.join(err_lines)
+
+    def close(self):
+        """Stop the server."""
+        with self._lock:
+            if self._process is not None and self._process.poll() is None:
+                self._process.stdin.close()
+                try:
+                    self._process.wait(10)
+                except subprocess.TimeoutExpired:
+                    self._process.kill()
+            self._process = None
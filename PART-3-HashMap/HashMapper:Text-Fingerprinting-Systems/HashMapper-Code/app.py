@@ -9,6 +9,9 @@ import logging
 import traceback
 import json
 import sys
+import atexit
+
+from java_service import JavaService, JavaServiceError
 
 # Set up logging
 logging.basicConfig(
@@ -22,8 +25,57 @@ logger = logging.getLogger(__name__)
 
 app = Flask(__name__)
 
+# Run Java requests on the resident HashMapper service rather than a new JVM each
+# (set HASHMAPPER_JAVA_SERVICE=0 to start a JVM per request)
+JAVA_SERVICE = os.environ.get('HASHMAPPER_JAVA_SERVICE', '1') != '0'
+
 # Create Java bridge class for generating fingerprints
 class JavaBridge:
+    def __init__(self, use_service=JAVA_SERVICE):
+        # Include java directory and all JARs in lib
+        self.classpath = os.pathsep.join([os.path.join(os.getcwd(), 'java'), os.path.join('lib', '*')])
+        self.service = JavaService('java', self.classpath) if use_service else None
+        if self.service is not None:
+            atexit.register(self.service.close)
+
+    def _run_java(self, runner_args, service_call, failure="Java process failed"):
+        """
+        Run a request on the resident Java service, or with a new
+        HashMapExperimentRunner process if the service cannot be used
+        """
+        if self.service is not None:
+            try:
+                return service_call()
+            except JavaServiceError as e:
+                raise Exception(f"{failure}: {e}")
+            except (OSError, RuntimeError, ValueError) as e:
+                logger.warning(f"Java service unavailable, starting a new JVM instead: {e}")
+
+        cmd = [
+            "java",
+            "-Djava.awt.headless=true",  # Enable headless mode for server environments
+            "-cp", self.classpath,
+            "HashMapExperimentRunner"  # The main class with main method
+        ] + runner_args
+
+        logger.debug(f"Executing command: {' '.join(cmd)}")
+
+        # Run the Java process
+        result = subprocess.run(
+            cmd,
+            capture_output=True,
+            text=True,
+            timeout=60  # Increase timeout for large inputs
+        )
+
+        logger.debug(f"Java process completed with return code: {result.returncode}")
+        logger.debug(f"stdout: {result.stdout}")
+        logger.debug(f"stderr: {result.stderr}")
+
+        if result.returncode != 0:
+            raise Exception(f"{failure}: {result.stderr}")
+        return False
+
     def generate_fingerprint(self, text, size, hash_function, salt_level, smooth_radius):
         """
         Generate fingerprint using Java code
@@ -54,47 +106,23 @@ class JavaBridge:
             logger.debug(f"Working directory: {os.getcwd()}")
             logger.debug(f"Output files: {raw_output}, {enhanced_output}, {stats_output}")
             
-            # Get the path to the java directory
-            java_dir = os.path.join(os.getcwd(), 'java')
-            logger.debug(f"Java directory: {java_dir}")
-            
-            # Build the command - USING HASHMAP EXPERIMENT RUNNER
-            cmd = [
-                "java",
-                "-Djava.awt.headless=true",  # Enable headless mode for server environments
-                "-cp", f"{java_dir}:lib/*",  # Include java directory and all JARs in lib
-                "HashMapExperimentRunner",  # The main class with main method
-                "--text-file", text_path,
-                "--size", str(size),
-                "--hash-function", hash_function,
-                "--salt-level", str(salt_level),
-                "--smooth-radius", str(smooth_radius),
-                "--raw-output", raw_output,
-                "--enhanced-output", enhanced_output,
-                "--stats-output", stats_output
-            ]
-            
-            # For Windows, use semicolons instead of colons in classpath
-            if os.name == 'nt':
-                cmd[3] = f"{java_dir};lib/*"
-            
-            logger.debug(f"Executing command: {' '.join(cmd)}")
-            
-            # Run the Java process
-            result = subprocess.run(
-                cmd,
-                capture_output=True,
-                text=True,
-                timeout=60  # Increase timeout for large inputs
+            self._run_java(
+                [
+                    "--text-file", text_path,
+                    "--size", str(size),
+                    "--hash-function", hash_function,
+                    "--salt-level", str(salt_level),
+                    "--smooth-radius", str(smooth_radius),
+                    "--raw-output", raw_output,
+                    "--enhanced-output", enhanced_output,
+                    "--stats-output", stats_output
+                ],
+                lambda: self.service.generate_fingerprint(
+                    text_path, size, hash_function, salt_level, smooth_radius,
+                    raw_output, enhanced_output, stats_output
+                )
             )
             
-            logger.debug(f"Java process completed with return code: {result.returncode}")
-            logger.debug(f"stdout: {result.stdout}")
-            logger.debug(f"stderr: {result.stderr}")
-            
-            if result.returncode != 0:
-                raise Exception(f"Java process failed: {result.stderr}")
-            
             # List all files in the temp directory for debugging
             logger.debug(f"Files in temp directory: {os.listdir(temp_dir)}")
             
@@ -175,10 +203,6 @@ class JavaBridge:
             output_file = os.path.join(temp_dir, f"{experiment_type}_output.png")
             logger.debug(f"Output file will be: {output_file}")
             
-            # Get the path to the java directory
-            java_dir = os.path.join(os.getcwd(), 'java')
-            logger.debug(f"Java directory: {java_dir}")
-            
             # Convert camelCase experiment type to snake_case for Java
             java_experiment_type = ""
             if experiment_type == "hashFunction":
@@ -192,33 +216,12 @@ class JavaBridge:
             logger.debug(f"Converted experiment type from '{experiment_type}' to '{java_experiment_type}' for Java")
             
             # Use HashMapExperimentRunner for running experiments
-            experiment_cmd = [
-                "java",
-                "-Djava.awt.headless=true",
-                "-cp", f"{java_dir}:lib/*",
-                "HashMapExperimentRunner",  # The main class with main method
-                "--type", java_experiment_type,
-                "--output", output_file
-            ]
-            
-            # For Windows, use semicolons instead of colons in classpath
-            if os.name == 'nt':
-                experiment_cmd[3] = f"{java_dir};lib/*"
-            
-            logger.debug(f"Running experiment: {' '.join(experiment_cmd)}")
-            exp_result = subprocess.run(
-                experiment_cmd,
-                capture_output=True,
-                text=True,
-                timeout=60
+            cached = self._run_java(
+                ["--type", java_experiment_type, "--output", output_file],
+                lambda: self.service.run_experiment(java_experiment_type, output_file),
+                failure="Experiment failed"
             )
-            
-            logger.debug(f"Experiment process completed with return code: {exp_result.returncode}")
-            logger.debug(f"stdout: {exp_result.stdout}")
-            logger.debug(f"stderr: {exp_result.stderr}")
-            
-            if exp_result.returncode != 0:
-                raise Exception(f"Experiment failed: {exp_result.stderr}")
+            logger.debug(f"Experiment completed (cached: {cached})")
             
             # Handle the special case of collision experiment which creates two output files
             if experiment_type == "collision":
@@ -314,7 +317,9 @@ def index():
             {'type': 'distribution', 'title': 'Bucket Distribution'},
             {'type': 'hashFunction', 'title': 'Hash Function Comparison'},
             {'type': 'comparison', 'title': 'HashMap Comparison'},
-            {'type': 'textFingerprint', 'title': 'Text Fingerprint Analysis'}
+            {'type': 'textFingerprint', 'title': 'Text Fingerprint Analysis'},
+            {'type': 'probing', 'title': 'Chaining vs Probing'},
+            {'type': 'resize', 'title': 'Put Latency While Growing'}
         ]
     }
     
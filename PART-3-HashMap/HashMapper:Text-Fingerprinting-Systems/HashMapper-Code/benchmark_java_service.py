@@ -0,0 +1,105 @@
+"""Compare the latency of HashMapper requests run with a new JVM each (the old
+subprocess model) and on the resident Java service.
+
+Usage: python benchmark_java_service.py [runs] [--classpath CP] [--concurrent N] [--experiment TYPE]
+
+Experiments write their CSV files to the working directory, so run it from a scratch
+directory (with --classpath pointing at the compiled classes) to keep the checked-in
+CSV files unchanged.
+"""
+import argparse
+import os
+import shutil
+import statistics
+import subprocess
+import tempfile
+import time
+from concurrent.futures import ThreadPoolExecutor
+
+from java_service import JavaService
+
+DEFAULT_CLASSPATH = os.pathsep.join([os.path.join(os.getcwd(), 'java'), os.path.join('lib', '*')])
+
+SAMPLE_TEXT = ("Two roads diverged in a yellow wood, And sorry I could not travel both "
+               "And be one traveler, long I stood And looked down one as far as I could "
+               "To where it bent in the undergrowth; ") * 40
+
+
+def fingerprint_args(work_dir, job):
+    text_path = os.path.join(work_dir, 'input.txt')
+    return [text_path, '128', 'Character Sum', '0.05', '2',
+            os.path.join(work_dir, f"raw{job}.png"), os.path.join(work_dir, f"enhanced{job}.png"),
+            os.path.join(work_dir, f"stats{job}.json")]
+
+
+def time_jobs(run_job, runs, concurrent):
+    """Run the jobs, returning the latency of each one in milliseconds and the wall time."""
+    def timed(job):
+        start = time.perf_counter()
+        run_job(job)
+        return (time.perf_counter() - start) * 1000
+
+    start = time.perf_counter()
+    with ThreadPoolExecutor(concurrent) as pool:
+        latencies = list(pool.map(timed, range(runs)))
+    return latencies, (time.perf_counter() - start) * 1000
+
+
+def report(name, latencies, wall_millis):
+    ordered = sorted(latencies)
+    p95 = ordered[min(len(ordered) - 1, int(0.95 * len(ordered)))]
+    print(f"{name:<30} median {statistics.median(latencies):8.1f} ms   p95 {p95:8.1f} ms   "
+          f"total {wall_millis:9.1f} ms")
+
+
+def main():
+    parser = argparse.ArgumentParser(description=__doc__.split('\n\n')[0])
+    parser.add_argument('runs', type=int, nargs='?', default=10)
+    parser.add_argument('--classpath', default=DEFAULT_CLASSPATH)
+    parser.add_argument('--java', default='java')
+    parser.add_argument('--concurrent', type=int, default=1, help='requests in flight at once')
+    parser.add_argument('--experiment', default='distribution', help='experiment type to time')
+    options = parser.parse_args()
+
+    work_dir = tempfile.mkdtemp(prefix='hashmapper-benchmark-')
+    try:
+        with open(os.path.join(work_dir, 'input.txt'), 'w', encoding='utf-8') as text_file:
+            text_file.write(SAMPLE_TEXT)
+
+        def runner(args):
+            cmd = [options.java, '-Djava.awt.headless=true', '-cp', options.classpath,
+                   'HashMapExperimentRunner'] + args
+            subprocess.run(cmd, capture_output=True, check=True)
+
+        def subprocess_fingerprint(job):
+            args = fingerprint_args(work_dir, job)
+            runner(['--text-file', args[0], '--size', args[1], '--hash-function', args[2],
+                    '--salt-level', args[3], '--smooth-radius', args[4], '--raw-output', args[5],
+                    '--enhanced-output', args[6], '--stats-output', args[7]])
+
+        def subprocess_experiment(job):
+            runner(['--type', options.experiment, '--output', os.path.join(work_dir, f"experiment{job}.png")])
+
+        service = JavaService(options.java, options.classpath, jobs=options.concurrent)
+        start = time.perf_counter()
+        service.start()
+        print(f"Service startup and warm-up: {(time.perf_counter() - start) * 1000:.0f} ms (once)")
+
+        def service_fingerprint(job):
+            service.generate_fingerprint(*fingerprint_args(work_dir, job))
+
+        def service_experiment(job):
+            service.run_experiment(options.experiment, os.path.join(work_dir, f"experiment{job}.png"))
+
+        print(f"{options.runs} requests of each kind, {options.concurrent} at a time")
+        report('fingerprint, new JVM each', *time_jobs(subprocess_fingerprint, options.runs, options.concurrent))
+        report('fingerprint, resident service', *time_jobs(service_fingerprint, options.runs, options.concurrent))
+        report(f"{options.experiment}, new JVM each", *time_jobs(subprocess_experiment, options.runs, options.concurrent))
+        report(f"{options.experiment}, resident service", *time_jobs(service_experiment, options.runs, options.concurrent))
+        service.close()
+    finally:
+        shutil.rmtree(work_dir, ignore_errors=True)
+
+
+if __name__ == '__main__':
+    main()
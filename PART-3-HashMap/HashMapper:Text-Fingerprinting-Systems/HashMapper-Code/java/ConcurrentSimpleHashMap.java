@@ -0,0 +1,308 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A thread-safe SimpleHashMap, so several threads can feed one map, e.g. to fingerprint
+ * a large corpus in parallel.
+ *
+ * The buckets are split into stripes, bucket i belonging to stripe i % stripes, and
+ * each stripe has a lock that puts and removes take, so threads writing to buckets of
+ * different stripes do not wait for each other. Lookups take no lock: the entries of
+ * a bucket form a chain whose links never change once published, a put adds a new
+ * entry at the head of its chain and a remove replaces the entries before the removed
+ * one, so a lookup always walks a complete chain. The item and collision counts are
+ * LongAdders, which threads update without contending on one counter.
+ *
+ * As with SimpleHashMap the number of buckets is fixed unless a maximum load factor is
+ * given. Growing takes every stripe lock and builds a new bucket array, while lookups
+ * keep reading the old one. Iterating methods such as keys and getBucketDistribution
+ * see the map as it is while they run, not a snapshot.
+ */
+public class ConcurrentSimpleHashMap<K, V> {
+
+    private static final int DEFAULT_STRIPES = 64;
+
+    // Entries of a chain; only the value changes once an entry is published
+    private static class Entry<K, V> {
+        final int hash;
+        final K key;
+        volatile V value;
+        final Entry<K, V> next;
+
+        Entry(int hash, K key, V value, Entry<K, V> next) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    // First entry of each bucket's chain; null is an empty bucket
+    private volatile AtomicReferenceArray<Entry<K, V>> buckets;
+    private final ReentrantLock[] locks;
+    private final HashFunction hashFunction;
+    private final double maxLoadFactor;
+    private final LongAdder collisions = new LongAdder();
+    private final LongAdder itemCount = new LongAdder();
+
+    /**
+     * Constructor with default size of 16
+     */
+    public ConcurrentSimpleHashMap() {
+        this(16);
+    }
+
+    /**
+     * Constructor with specified size, using the default hash function of SimpleHashMap
+     */
+    public ConcurrentSimpleHashMap(int size) {
+        this(size, HashFunctions.forName(SimpleHashMap.getHashFunctionType()));
+    }
+
+    /**
+     * Constructor with specified size and hash function
+     */
+    public ConcurrentSimpleHashMap(int size, HashFunction hashFunction) {
+        this(size, hashFunction, 0, DEFAULT_STRIPES);
+    }
+
+    /**
+     * Constructor with every option
+     *
+     * @param size Initial number of buckets
+     * @param hashFunction Hash function of the keys
+     * @param maxLoadFactor Items per bucket past which the buckets double, or 0 to keep
+     *                      the number of buckets fixed
+     * @param stripes Number of locks the buckets are split between; at most the number
+     *                of buckets are used
+     */
+    public ConcurrentSimpleHashMap(int size, HashFunction hashFunction, double maxLoadFactor, int stripes) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Size must be positive: " + size);
+        }
+        if (!(maxLoadFactor >= 0)) {
+            throw new IllegalArgumentException("Maximum load factor must be 0 or more: " + maxLoadFactor);
+        }
+        if (stripes < 1) {
+            throw new IllegalArgumentException("Stripes must be positive: " + stripes);
+        }
+        this.hashFunction = Objects.requireNonNull(hashFunction, "hashFunction");
+        this.maxLoadFactor = maxLoadFactor;
+        this.buckets = new AtomicReferenceArray<>(size);
+        this.locks = new ReentrantLock[Math.min(stripes, size)];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Get the hash function of this map
+     */
+    public HashFunction getHashFunction() {
+        return hashFunction;
+    }
+
+    /**
+     * Insert or update a key-value pair
+     */
+    public void put(K key, V value) {
+        int hash = hashFunction.hash(key);
+
+        while (true) {
+            AtomicReferenceArray<Entry<K, V>> table = buckets;
+            int index = Math.floorMod(hash, table.length());
+            ReentrantLock lock = locks[index % locks.length];
+            lock.lock();
+            try {
+                // The map grew while waiting for the lock; the key's bucket has moved
+                if (table != buckets) {
+                    continue;
+                }
+
+                Entry<K, V> head = table.get(index);
+                Entry<K, V> entry = find(head, hash, key);
+                if (entry != null) {
+                    entry.value = value; // Update existing value
+                    return;
+                }
+
+                // New entry - check for collision
+                if (head != null) {
+                    collisions.increment();
+                }
+                table.set(index, new Entry<>(hash, key, value, head));
+                itemCount.increment();
+                break;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        if (maxLoadFactor > 0 && itemCount.sum() > maxLoadFactor * buckets.length()) {
+            grow();
+        }
+    }
+
+    /**
+     * Get a value by key
+     */
+    public V get(K key) {
+        int hash = hashFunction.hash(key);
+        AtomicReferenceArray<Entry<K, V>> table = buckets;
+        Entry<K, V> entry = find(table.get(Math.floorMod(hash, table.length())), hash, key);
+        return entry == null ? null : entry.value;
+    }
+
+    /**
+     * Remove a key-value pair
+     */
+    public boolean remove(K key) {
+        int hash = hashFunction.hash(key);
+
+        while (true) {
+            AtomicReferenceArray<Entry<K, V>> table = buckets;
+            int index = Math.floorMod(hash, table.length());
+            ReentrantLock lock = locks[index % locks.length];
+            lock.lock();
+            try {
+                if (table != buckets) {
+                    continue;
+                }
+
+                Entry<K, V> head = table.get(index);
+                Entry<K, V> removed = find(head, hash, key);
+                if (removed == null) {
+                    return false; // Key not found
+                }
+
+                // Copy the entries before the removed one onto the rest of the chain
+                Entry<K, V> chain = removed.next;
+                for (Entry<K, V> entry = head; entry != removed; entry = entry.next) {
+                    chain = new Entry<>(entry.hash, entry.key, entry.value, chain);
+                }
+                table.set(index, chain);
+                itemCount.decrement();
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Check if key exists
+     */
+    public boolean containsKey(K key) {
+        int hash = hashFunction.hash(key);
+        AtomicReferenceArray<Entry<K, V>> table = buckets;
+        return find(table.get(Math.floorMod(hash, table.length())), hash, key) != null;
+    }
+
+    /**
+     * Get all keys in the map
+     */
+    public List<K> keys() {
+        AtomicReferenceArray<Entry<K, V>> table = buckets;
+        List<K> allKeys = new ArrayList<>();
+
+        for (int i = 0; i < table.length(); i++) {
+            for (Entry<K, V> entry = table.get(i); entry != null; entry = entry.next) {
+                allKeys.add(entry.key);
+            }
+        }
+
+        return allKeys;
+    }
+
+    /**
+     * Get number of items in the map
+     */
+    public int size() {
+        return (int) itemCount.sum();
+    }
+
+    /**
+     * Get number of buckets
+     */
+    public int getBucketCount() {
+        return buckets.length();
+    }
+
+    /**
+     * Get number of collisions that occurred
+     */
+    public int getCollisionCount() {
+        return (int) collisions.sum();
+    }
+
+    /**
+     * Get current load factor
+     */
+    public double getLoadFactor() {
+        return (double) itemCount.sum() / buckets.length();
+    }
+
+    /**
+     * Get distribution of items across buckets
+     */
+    public int[] getBucketDistribution() {
+        AtomicReferenceArray<Entry<K, V>> table = buckets;
+        int[] distribution = new int[table.length()];
+
+        for (int i = 0; i < distribution.length; i++) {
+            for (Entry<K, V> entry = table.get(i); entry != null; entry = entry.next) {
+                distribution[i]++;
+            }
+        }
+
+        return distribution;
+    }
+
+    // Find the entry of a key in a chain, or null if it is not there
+    private static <K, V> Entry<K, V> find(Entry<K, V> head, int hash, Object key) {
+        for (Entry<K, V> entry = head; entry != null; entry = entry.next) {
+            if (entry.hash == hash && Objects.equals(entry.key, key)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Double the buckets, holding every stripe lock so no put or remove runs meanwhile.
+     * The entries are copied, so lookups can keep walking the old chains.
+     */
+    private void grow() {
+        for (ReentrantLock lock : locks) {
+            lock.lock();
+        }
+        try {
+            AtomicReferenceArray<Entry<K, V>> table = buckets;
+            // Another thread may have grown the map first
+            if (itemCount.sum() <= maxLoadFactor * table.length()) {
+                return;
+            }
+
+            int size = (int) Math.min(Integer.MAX_VALUE - 8, 2L * table.length());
+            if (size == table.length()) {
+                return;
+            }
+            AtomicReferenceArray<Entry<K, V>> grown = new AtomicReferenceArray<>(size);
+            for (int i = 0; i < table.length(); i++) {
+                for (Entry<K, V> entry = table.get(i); entry != null; entry = entry.next) {
+                    int index = Math.floorMod(entry.hash, size);
+                    grown.set(index, new Entry<>(entry.hash, entry.key, entry.value, grown.get(index)));
+                }
+            }
+            buckets = grown;
+        } finally {
+            for (ReentrantLock lock : locks) {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+/**
+ * A hash function for the keys of SimpleHashMap and HashMapper.DumbHashMap.
+ *
+ * The map reduces the hash into its range of buckets, so an implementation can return
+ * any int, negative ones included. Implementations keep no state between calls, so one
+ * instance can be shared by any number of maps and threads. HashFunctions has the
+ * deliberately weak functions of the experiments and a few production-grade ones.
+ */
+public interface HashFunction {
+
+    /**
+     * Hash a key; equal keys must get equal hashes
+     */
+    int hash(Object key);
+
+    /**
+     * Hash an int key without boxing it; the same as hash(Integer.valueOf(key))
+     */
+    default int hashInt(int key) {
+        return hash(key);
+    }
+
+    /**
+     * Get the name of the hash function, as the experiments and the web app show it
+     */
+    String getName();
+}
@@ -0,0 +1,457 @@
+/**
+ * The hash functions the maps can use: the five deliberately weak ones the experiments
+ * and fingerprints are built on, and four production-grade ones to compare them with.
+ *
+ * The production-grade functions hash a String as its UTF-16 code units in little-endian
+ * byte order and an Integer as its four little-endian bytes, so they give the published
+ * results for those bytes (with seed 0); the 64-bit wyhash is folded to 32 bits. Other
+ * keys are hashed through their hashCode. None of the functions keep any state.
+ */
+public final class HashFunctions {
+
+    public static final HashFunction STRING_LENGTH = new DumbHashFunction("String Length") {
+        @Override
+        int hashString(String str) {
+            return str.length();
+        }
+    };
+
+    public static final HashFunction FIRST_CHARACTER = new DumbHashFunction("First Character") {
+        @Override
+        int hashString(String str) {
+            return str.charAt(0);
+        }
+    };
+
+    public static final HashFunction FIRST_LAST_CHARACTER = new DumbHashFunction("First + Last Character") {
+        @Override
+        int hashString(String str) {
+            if (str.length() > 1) {
+                return str.charAt(0) + str.charAt(str.length() - 1);
+            }
+            return str.charAt(0);
+        }
+    };
+
+    public static final HashFunction CHARACTER_SUM = new DumbHashFunction("Character Sum") {
+        @Override
+        int hashString(String str) {
+            int sum = 0;
+            for (int i = 0; i < str.length(); i++) {
+                sum += str.charAt(i);
+            }
+            return sum;
+        }
+    };
+
+    public static final HashFunction RANDOM = new DumbHashFunction("Random") {
+        @Override
+        int hashString(String str) {
+            // Pseudo-random but deterministic based on first and last chars
+            if (str.length() > 1) {
+                return (str.charAt(0) * 31) ^ str.charAt(str.length() - 1);
+            }
+            return str.charAt(0);
+        }
+    };
+
+    public static final HashFunction FNV_1A = new Fnv1a();
+    public static final HashFunction MURMUR3 = new Murmur3();
+    public static final HashFunction XXHASH = new XxHash32();
+    public static final HashFunction WYHASH = new WyHash();
+
+    private static final HashFunction[] ALL = {
+            STRING_LENGTH, FIRST_CHARACTER, FIRST_LAST_CHARACTER, CHARACTER_SUM, RANDOM,
+            FNV_1A, MURMUR3, XXHASH, WYHASH
+    };
+
+    private HashFunctions() {
+    }
+
+    /**
+     * Get every hash function, the weak ones first
+     */
+    public static HashFunction[] all() {
+        return ALL.clone();
+    }
+
+    /**
+     * Get a hash function by its name, e.g. "Character Sum" or "Murmur3"
+     *
+     * @throws IllegalArgumentException if no hash function has that name
+     */
+    public static HashFunction forName(String name) {
+        HashFunction hashFunction = forName(name, null);
+        if (hashFunction == null) {
+            throw new IllegalArgumentException("Unknown hash function: " + name);
+        }
+        return hashFunction;
+    }
+
+    /**
+     * Get a hash function by its name, or the fallback if no hash function has that name
+     */
+    public static HashFunction forName(String name, HashFunction fallback) {
+        for (HashFunction hashFunction : ALL) {
+            if (hashFunction.getName().equals(name)) {
+                return hashFunction;
+            }
+        }
+        return fallback;
+    }
+
+    /**
+     * Base of the weak hash functions, which differ only in how they hash strings
+     */
+    private abstract static class DumbHashFunction implements HashFunction {
+
+        private final String name;
+
+        DumbHashFunction(String name) {
+            this.name = name;
+        }
+
+        // Hash a string that is not empty
+        abstract int hashString(String str);
+
+        @Override
+        public int hash(Object key) {
+            if (key == null) {
+                return 0;
+            }
+
+            if (key instanceof String) {
+                String str = (String) key;
+                return str.isEmpty() ? 0 : hashString(str);
+            }
+
+            // For integers, just the value (very poor distribution)
+            if (key instanceof Integer) {
+                return Math.abs((Integer) key);
+            }
+
+            // For other types, just use the first and last character of the string form
+            String keyString = key.toString();
+            if (keyString.isEmpty()) {
+                return 0;
+            }
+            int hash = keyString.charAt(0);
+            if (keyString.length() > 1) {
+                hash += keyString.charAt(keyString.length() - 1);
+            }
+            return Math.abs(hash);
+        }
+
+        @Override
+        public int hashInt(int key) {
+            return Math.abs(key);
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    /**
+     * Base of the production-grade hash functions, which hash the bytes of a key
+     */
+    private abstract static class ByteHashFunction implements HashFunction {
+
+        private final String name;
+
+        ByteHashFunction(String name) {
+            this.name = name;
+        }
+
+        // Hash the UTF-16LE bytes of a string
+        abstract int hashString(String str);
+
+        // Hash the four little-endian bytes of an int
+        @Override
+        public abstract int hashInt(int value);
+
+        @Override
+        public int hash(Object key) {
+            if (key == null) {
+                return 0;
+            }
+            if (key instanceof String) {
+                return hashString((String) key);
+            }
+            if (key instanceof Integer) {
+                return hashInt((Integer) key);
+            }
+            return hashInt(key.hashCode());
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+
+        // Read the four bytes of chars index and index + 1 as a little-endian int
+        static int word(String str, int index) {
+            return str.charAt(index) | (str.charAt(index + 1) << 16);
+        }
+    }
+
+    /**
+     * 32-bit FNV-1a: one xor and one multiply per byte
+     */
+    private static final class Fnv1a extends ByteHashFunction {
+
+        private static final int OFFSET_BASIS = 0x811C9DC5;
+        private static final int PRIME = 0x01000193;
+
+        Fnv1a() {
+            super("FNV-1a");
+        }
+
+        @Override
+        int hashString(String str) {
+            int hash = OFFSET_BASIS;
+            for (int i = 0; i < str.length(); i++) {
+                char c = str.charAt(i);
+                hash = (hash ^ (c & 0xFF)) * PRIME;
+                hash = (hash ^ (c >>> 8)) * PRIME;
+            }
+            return hash;
+        }
+
+        @Override
+        public int hashInt(int value) {
+            int hash = OFFSET_BASIS;
+            for (int shift = 0; shift < 32; shift += 8) {
+                hash = (hash ^ ((value >>> shift) & 0xFF)) * PRIME;
+            }
+            return hash;
+        }
+    }
+
+    /**
+     * MurmurHash3 x86_32: four bytes at a time, then a final avalanche
+     */
+    private static final class Murmur3 extends ByteHashFunction {
+
+        private static final int C1 = 0xCC9E2D51;
+        private static final int C2 = 0x1B873593;
+
+        Murmur3() {
+            super("Murmur3");
+        }
+
+        @Override
+        int hashString(String str) {
+            int length = str.length();
+            int hash = 0;
+            int i = 0;
+            for (; i + 1 < length; i += 2) {
+                hash = mixHash(hash, mixKey(word(str, i)));
+            }
+            if (i < length) {
+                hash ^= mixKey(str.charAt(i));
+            }
+            return finish(hash ^ (2 * length));
+        }
+
+        @Override
+        public int hashInt(int value) {
+            return finish(mixHash(0, mixKey(value)) ^ 4);
+        }
+
+        private static int mixKey(int key) {
+            return Integer.rotateLeft(key * C1, 15) * C2;
+        }
+
+        private static int mixHash(int hash, int key) {
+            return Integer.rotateLeft(hash ^ key, 13) * 5 + 0xE6546B64;
+        }
+
+        private static int finish(int hash) {
+            hash ^= hash >>> 16;
+            hash *= 0x85EBCA6B;
+            hash ^= hash >>> 13;
+            hash *= 0xC2B2AE35;
+            return hash ^ (hash >>> 16);
+        }
+    }
+
+    /**
+     * XXH32: four lanes over 16-byte stripes, then the remaining words and bytes
+     */
+    private static final class XxHash32 extends ByteHashFunction {
+
+        private static final int PRIME1 = 0x9E3779B1;
+        private static final int PRIME2 = 0x85EBCA77;
+        private static final int PRIME3 = 0xC2B2AE3D;
+        private static final int PRIME4 = 0x27D4EB2F;
+        private static final int PRIME5 = 0x165667B1;
+
+        XxHash32() {
+            super("xxHash");
+        }
+
+        @Override
+        int hashString(String str) {
+            int length = str.length();
+            int i = 0;
+            int hash;
+            if (length >= 8) {
+                // A stripe is 16 bytes, eight chars
+                int v1 = PRIME1 + PRIME2;
+                int v2 = PRIME2;
+                int v3 = 0;
+                int v4 = -PRIME1;
+                for (; i + 8 <= length; i += 8) {
+                    v1 = round(v1, word(str, i));
+                    v2 = round(v2, word(str, i + 2));
+                    v3 = round(v3, word(str, i + 4));
+                    v4 = round(v4, word(str, i + 6));
+                }
+                hash = Integer.rotateLeft(v1, 1) + Integer.rotateLeft(v2, 7)
+                        + Integer.rotateLeft(v3, 12) + Integer.rotateLeft(v4, 18);
+            } else {
+                hash = PRIME5;
+            }
+            hash += 2 * length;
+
+            for (; i + 1 < length; i += 2) {
+                hash = Integer.rotateLeft(hash + word(str, i) * PRIME3, 17) * PRIME4;
+            }
+            if (i < length) {
+                char c = str.charAt(i);
+                hash = Integer.rotateLeft(hash + (c & 0xFF) * PRIME5, 11) * PRIME1;
+                hash = Integer.rotateLeft(hash + (c >>> 8) * PRIME5, 11) * PRIME1;
+            }
+            return avalanche(hash);
+        }
+
+        @Override
+        public int hashInt(int value) {
+            return avalanche(Integer.rotateLeft(PRIME5 + 4 + value * PRIME3, 17) * PRIME4);
+        }
+
+        private static int round(int lane, int input) {
+            return Integer.rotateLeft(lane + input * PRIME2, 13) * PRIME1;
+        }
+
+        private static int avalanche(int hash) {
+            hash ^= hash >>> 15;
+            hash *= PRIME2;
+            hash ^= hash >>> 13;
+            hash *= PRIME3;
+            return hash ^ (hash >>> 16);
+        }
+    }
+
+    /**
+     * wyhash (final version 4): 64-bit multiply-and-fold mixing, folded to 32 bits
+     */
+    private static final class WyHash extends ByteHashFunction {
+
+        private static final long SECRET0 = 0xA0761D6478BD642FL;
+        private static final long SECRET1 = 0xE7037ED1A0B428DBL;
+        private static final long SECRET2 = 0x8EBC6AF09C88C6E3L;
+        private static final long SECRET3 = 0x589965CC75374CC3L;
+
+        // The seed after wyhash's first mix of seed 0
+        private static final long SEED = mix(SECRET0, SECRET1);
+
+        WyHash() {
+            super("wyhash");
+        }
+
+        @Override
+        int hashString(String str) {
+            // Offsets and lengths are in bytes; every offset read is even, so each
+            // read starts on a char
+            int length = 2 * str.length();
+            long seed = SEED;
+            long a;
+            long b;
+            if (length <= 16) {
+                if (length >= 4) {
+                    int step = (length >>> 3) << 2;
+                    a = (read4(str, 0) << 32) | read4(str, step);
+                    b = (read4(str, length - 4) << 32) | read4(str, length - 4 - step);
+                } else if (length > 0) {
+                    // One char: wyhash's three-byte read of a two-byte input
+                    long low = str.charAt(0) & 0xFF;
+                    long high = str.charAt(0) >>> 8;
+                    a = (low << 16) | (high << 8) | high;
+                    b = 0;
+                } else {
+                    a = 0;
+                    b = 0;
+                }
+            } else {
+                int offset = 0;
+                int remaining = length;
+                if (remaining > 48) {
+                    long see1 = seed;
+                    long see2 = seed;
+                    do {
+                        seed = mix(read8(str, offset) ^ SECRET1, read8(str, offset + 8) ^ seed);
+                        see1 = mix(read8(str, offset + 16) ^ SECRET2, read8(str, offset + 24) ^ see1);
+                        see2 = mix(read8(str, offset + 32) ^ SECRET3, read8(str, offset + 40) ^ see2);
+                        offset += 48;
+                        remaining -= 48;
+                    } while (remaining > 48);
+                    seed ^= see1 ^ see2;
+                }
+                while (remaining > 16) {
+                    seed = mix(read8(str, offset) ^ SECRET1, read8(str, offset + 8) ^ seed);
+                    offset += 16;
+                    remaining -= 16;
+                }
+                a = read8(str, offset + remaining - 16);
+                b = read8(str, offset + remaining - 8);
+            }
+            return finish(a, b, seed, length);
+        }
+
+        @Override
+        public int hashInt(int value) {
+            long word = value & 0xFFFFFFFFL;
+            long ab = (word << 32) | word;
+            return finish(ab, ab, SEED, 4);
+        }
+
+        private static int finish(long a, long b, long seed, int length) {
+            a ^= SECRET1;
+            b ^= seed;
+            long low = a * b;
+            long high = multiplyHighUnsigned(a, b);
+            long hash = mix(low ^ SECRET0 ^ length, high ^ SECRET1);
+            return (int) (hash ^ (hash >>> 32));
+        }
+
+        // Multiply into 128 bits and fold the halves together with xor
+        private static long mix(long a, long b) {
+            return (a * b) ^ multiplyHighUnsigned(a, b);
+        }
+
+        private static long multiplyHighUnsigned(long a, long b) {
+            return Math.multiplyHigh(a, b) + ((a >> 63) & b) + ((b >> 63) & a);
+        }
+
+        private static long read4(String str, int byteOffset) {
+            return word(str, byteOffset >>> 1) & 0xFFFFFFFFL;
+        }
+
+        private static long read8(String str, int byteOffset) {
+            return read4(str, byteOffset) | (read4(str, byteOffset + 4) << 32);
+        }
+    }
+}
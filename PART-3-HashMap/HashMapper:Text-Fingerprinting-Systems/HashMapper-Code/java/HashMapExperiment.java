@@ -1,14 +1,38 @@
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
 
 /**
  * Class to run experiments with our SimpleHashMap implementation
  */
 public class HashMapExperiment {
 
+    /**
+     * Names of the experiments, as HashMapExperimentRunner's --type takes them
+     */
+    public static final String[] EXPERIMENT_TYPES = {
+            "hash_function", "collision", "lookup", "distribution", "comparison", "text_fingerprint",
+            "probing", "resize"
+    };
+
+    // Experiments whose CSV files this JVM has written since the last clearResults
+    private static final Set<String> completed = ConcurrentHashMap.newKeySet();
+
+    // Results of timed loops, kept so the JIT cannot drop the loops
+    private static volatile int sink;
+
     /**
      * Generate a dataset of random strings
      */
@@ -47,29 +71,26 @@ public class HashMapExperiment {
     }
 
     /**
-     * Run experiments with different hash functions
+     * Run experiments with different hash functions: the weak ones and, to compare them
+     * with, the production-grade ones. Besides the collisions it times hashing a key and
+     * looking one up, as the best of a few passes so the JIT has compiled the loops.
      */
     public static void runHashFunctionExperiment() throws IOException {
-        String[] hashFunctions = {
-                "String Length", "First Character", "First + Last Character",
-                "Character Sum", "Random"
-        };
-
         int dataSize = 10000;
         int mapSize = 128;
+        int timingPasses = 20;
 
         FileWriter writer = new FileWriter("hash_function_comparison.csv");
-        writer.write("HashFunction,Collisions,MaxBucketSize,EmptyBuckets\n");
+        writer.write("HashFunction,Collisions,MaxBucketSize,EmptyBuckets,HashNanos,LookupNanos\n");
 
         // Generate dataset
         List<String> dataset = generateStringDataset(dataSize, 5, 15);
 
-        for (String hashFunction : hashFunctions) {
-            // Set hash function
-            SimpleHashMap.setHashFunctionType(hashFunction);
-
+        // Every map gets its own hash function, so the other experiments keep the
+        // default one even when they run at the same time
+        for (HashFunction hashFunction : HashFunctions.all()) {
             // Create HashMap
-            SimpleHashMap<String, Boolean> map = new SimpleHashMap<>(mapSize);
+            SimpleHashMap<String, Boolean> map = new SimpleHashMap<>(mapSize, hashFunction);
 
             // Insert all data
             for (String item : dataset) {
@@ -88,9 +109,29 @@ public class HashMapExperiment {
                 if (size == 0) emptyBuckets++;
             }
 
+            // Measure hashing and lookup time per key
+            long hashNanos = Long.MAX_VALUE;
+            long lookupNanos = Long.MAX_VALUE;
+            int checksum = 0;
+            for (int pass = 0; pass < timingPasses; pass++) {
+                long startTime = System.nanoTime();
+                for (String key : dataset) {
+                    checksum += hashFunction.hash(key);
+                }
+                long midTime = System.nanoTime();
+                for (String key : dataset) {
+                    if (map.get(key) != null) checksum++;
+                }
+                long endTime = System.nanoTime();
+                hashNanos = Math.min(hashNanos, midTime - startTime);
+                lookupNanos = Math.min(lookupNanos, endTime - midTime);
+            }
+            sink = checksum;
+
             // Write results
-            writer.write(String.format("%s,%d,%d,%d\n",
-                    hashFunction, collisions, maxBucketSize, emptyBuckets));
+            writer.write(String.format("%s,%d,%d,%d,%.2f,%.2f\n",
+                    hashFunction.getName(), collisions, maxBucketSize, emptyBuckets,
+                    (double) hashNanos / dataSize, (double) lookupNanos / dataSize));
         }
 
         writer.close();
@@ -341,16 +382,376 @@ public class HashMapExperiment {
         System.out.println("Text fingerprint experiment completed.");
     }
 
+    /**
+     * Compare chaining (SimpleHashMap) with open addressing (OpenAddressingHashMap and
+     * its primitive specialisations) at up to millions of keys: insertion and lookup
+     * time, and the heap each map takes. Every map uses Murmur3, since a weak hash
+     * function makes both kinds of map quadratic at this size. SimpleHashMap gets one
+     * bucket per key and the open addressing maps are sized not to grow while filled.
+     * The memory is how much the used heap grew while the map was built, so it is only
+     * accurate when no other experiment runs at the same time.
+     */
+    public static void runProbingExperiment() throws IOException {
+        int[] dataSizes = {100000, 500000, 1000000, 2000000};
+        HashFunction hashFunction = HashFunctions.MURMUR3;
+
+        FileWriter writer = new FileWriter("chaining_vs_probing.csv");
+        writer.write("KeyType,Map,DataSize,InsertMs,LookupNanos,BytesPerKey,Collisions,LoadFactor,LongestSearch\n");
+
+        Random random = new Random();
+        for (int dataSize : dataSizes) {
+            int[] intKeys = random.ints().distinct().limit(dataSize).toArray();
+            List<String> stringKeys = generateStringDataset(dataSize, 5, 15);
+            int capacity = dataSize / 3 * 4 + 1;
+
+            // Integer keys: boxed in SimpleHashMap and OpenAddressingHashMap, not in IntIntMap
+            measureProbing(writer, "Integer", "SimpleHashMap", dataSize,
+                    () -> {
+                        SimpleHashMap<Integer, Integer> map = new SimpleHashMap<>(dataSize, hashFunction);
+                        for (int i = 0; i < intKeys.length; i++) {
+                            map.put(intKeys[i], i);
+                        }
+                        return map;
+                    },
+                    map -> {
+                        int found = 0;
+                        for (int key : intKeys) {
+                            if (map.containsKey(key)) found++;
+                        }
+                        return found;
+                    },
+                    SimpleHashMap::getCollisionCount, SimpleHashMap::getLoadFactor,
+                    map -> maxOf(map.getBucketDistribution()));
+
+            measureProbing(writer, "Integer", "OpenAddressingHashMap", dataSize,
+                    () -> {
+                        OpenAddressingHashMap<Integer, Integer> map = new OpenAddressingHashMap<>(capacity, hashFunction);
+                        for (int i = 0; i < intKeys.length; i++) {
+                            map.put(intKeys[i], i);
+                        }
+                        return map;
+                    },
+                    map -> {
+                        int found = 0;
+                        for (int key : intKeys) {
+                            if (map.containsKey(key)) found++;
+                        }
+                        return found;
+                    },
+                    OpenAddressingHashMap::getCollisionCount, OpenAddressingHashMap::getLoadFactor,
+                    map -> map.getBucketDistribution().length);
+
+            measureProbing(writer, "Integer", "IntIntMap", dataSize,
+                    () -> {
+                        IntIntMap map = new IntIntMap(capacity, hashFunction);
+                        for (int i = 0; i < intKeys.length; i++) {
+                            map.put(intKeys[i], i);
+                        }
+                        return map;
+                    },
+                    map -> {
+                        int found = 0;
+                        for (int key : intKeys) {
+                            if (map.containsKey(key)) found++;
+                        }
+                        return found;
+                    },
+                    IntIntMap::getCollisionCount, IntIntMap::getLoadFactor,
+                    map -> map.getBucketDistribution().length);
+
+            // String keys: the values are boxed in SimpleHashMap and OpenAddressingHashMap,
+            // not in ObjectIntMap
+            measureProbing(writer, "String", "SimpleHashMap", dataSize,
+                    () -> {
+                        SimpleHashMap<String, Integer> map = new SimpleHashMap<>(dataSize, hashFunction);
+                        for (int i = 0; i < stringKeys.size(); i++) {
+                            map.put(stringKeys.get(i), i);
+                        }
+                        return map;
+                    },
+                    map -> {
+                        int found = 0;
+                        for (String key : stringKeys) {
+                            if (map.containsKey(key)) found++;
+                        }
+                        return found;
+                    },
+                    SimpleHashMap::getCollisionCount, SimpleHashMap::getLoadFactor,
+                    map -> maxOf(map.getBucketDistribution()));
+
+            measureProbing(writer, "String", "OpenAddressingHashMap", dataSize,
+                    () -> {
+                        OpenAddressingHashMap<String, Integer> map = new OpenAddressingHashMap<>(capacity, hashFunction);
+                        for (int i = 0; i < stringKeys.size(); i++) {
+                            map.put(stringKeys.get(i), i);
+                        }
+                        return map;
+                    },
+                    map -> {
+                        int found = 0;
+                        for (String key : stringKeys) {
+                            if (map.containsKey(key)) found++;
+                        }
+                        return found;
+                    },
+                    OpenAddressingHashMap::getCollisionCount, OpenAddressingHashMap::getLoadFactor,
+                    map -> map.getBucketDistribution().length);
+
+            measureProbing(writer, "String", "ObjectIntMap", dataSize,
+                    () -> {
+                        ObjectIntMap<String> map = new ObjectIntMap<>(capacity, hashFunction);
+                        for (int i = 0; i < stringKeys.size(); i++) {
+                            map.put(stringKeys.get(i), i);
+                        }
+                        return map;
+                    },
+                    map -> {
+                        int found = 0;
+                        for (String key : stringKeys) {
+                            if (map.containsKey(key)) found++;
+                        }
+                        return found;
+                    },
+                    ObjectIntMap::getCollisionCount, ObjectIntMap::getLoadFactor,
+                    map -> map.getBucketDistribution().length);
+        }
+
+        writer.close();
+        System.out.println("Probing experiment completed.");
+    }
+
+    /**
+     * Build one map of the probing experiment and write its row: build time, the best
+     * of three passes looking up every key, the heap it takes and its metrics. The
+     * longest search is the most entries one lookup compares keys with.
+     */
+    private static <M> void measureProbing(FileWriter writer, String keyType, String mapName, int dataSize,
+                                           Supplier<M> build, ToIntFunction<M> lookUpAll,
+                                           ToIntFunction<M> collisions, ToDoubleFunction<M> loadFactor,
+                                           ToIntFunction<M> longestSearch) throws IOException {
+        long usedBefore = usedMemory();
+        long startTime = System.nanoTime();
+        M map = build.get();
+        long insertNanos = System.nanoTime() - startTime;
+        long bytes = usedMemory() - usedBefore;
+
+        long lookupNanos = Long.MAX_VALUE;
+        int found = 0;
+        for (int pass = 0; pass < 3; pass++) {
+            startTime = System.nanoTime();
+            found += lookUpAll.applyAsInt(map);
+            lookupNanos = Math.min(lookupNanos, System.nanoTime() - startTime);
+        }
+        sink = found;
+
+        writer.write(String.format("%s,%s,%d,%.2f,%.2f,%.1f,%d,%.4f,%d\n",
+                keyType, mapName, dataSize, insertNanos / 1_000_000.0, (double) lookupNanos / dataSize,
+                (double) bytes / dataSize, collisions.applyAsInt(map), loadFactor.applyAsDouble(map),
+                longestSearch.applyAsInt(map)));
+    }
+
+    // Heap in use after a garbage collection
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static int maxOf(int[] values) {
+        int max = 0;
+        for (int value : values) {
+            max = Math.max(max, value);
+        }
+        return max;
+    }
+
+    /**
+     * Time every put while a SimpleHashMap fills up and write the latency percentiles,
+     * for fixed buckets and for buckets that double past a load factor of 0.75, with
+     * the entries moved all at once or incrementally. A map only grows a dozen times
+     * in 100,000 puts, below even the 99.99th percentile, so the longest of the puts
+     * that made it grow is written too; the overall maximum is usually a GC pause. The
+     * maps use Murmur3, so the buckets, not the hash function, decide how long a put
+     * takes. The latencies include reading the clock, some tens of nanoseconds.
+     */
+    public static void runResizeExperiment() throws IOException {
+        int dataSize = 100000;
+        int initialSize = 16;
+        String[] modes = {"Fixed", "Full Rehash", "Incremental Rehash"};
+
+        FileWriter writer = new FileWriter("put_latency_percentiles.csv");
+        writer.write("Mode,Puts,P50Nanos,P90Nanos,P99Nanos,P999Nanos,P9999Nanos,GrowingPutMaxNanos,MaxNanos,TotalMs,Buckets\n");
+
+        List<String> dataset = generateStringDataset(dataSize, 5, 15);
+        long[] latencies = new long[dataSize];
+
+        for (String mode : modes) {
+            // A first, smaller fill so the timed one runs compiled code
+            SimpleHashMap<String, Integer> warmUpMap = newResizeMap(mode, initialSize);
+            for (int i = 0; i < dataSize / 10; i++) {
+                warmUpMap.put(dataset.get(i), i);
+            }
+            System.gc();
+
+            SimpleHashMap<String, Integer> map = newResizeMap(mode, initialSize);
+            long growingPutMax = 0;
+            long totalNanos = 0;
+            for (int i = 0; i < dataSize; i++) {
+                int buckets = map.getBucketCount();
+                long startTime = System.nanoTime();
+                map.put(dataset.get(i), i);
+                latencies[i] = System.nanoTime() - startTime;
+                totalNanos += latencies[i];
+                if (map.getBucketCount() != buckets) {
+                    growingPutMax = Math.max(growingPutMax, latencies[i]);
+                }
+            }
+
+            long[] sorted = latencies.clone();
+            Arrays.sort(sorted);
+            writer.write(String.format("%s,%d,%d,%d,%d,%d,%d,%d,%d,%.2f,%d\n",
+                    mode, dataSize, percentile(sorted, 0.5), percentile(sorted, 0.9),
+                    percentile(sorted, 0.99), percentile(sorted, 0.999), percentile(sorted, 0.9999),
+                    growingPutMax, sorted[sorted.length - 1], totalNanos / 1_000_000.0, map.getBucketCount()));
+        }
+
+        writer.close();
+        System.out.println("Resize experiment completed.");
+    }
+
+    private static SimpleHashMap<String, Integer> newResizeMap(String mode, int initialSize) {
+        switch (mode) {
+            case "Full Rehash":
+                return new SimpleHashMap<>(initialSize, HashFunctions.MURMUR3, 0.75, false);
+            case "Incremental Rehash":
+                return new SimpleHashMap<>(initialSize, HashFunctions.MURMUR3, 0.75, true);
+            default:
+                return new SimpleHashMap<>(initialSize, HashFunctions.MURMUR3);
+        }
+    }
+
+    // Nearest-rank percentile of sorted values
+    private static long percentile(long[] sorted, double fraction) {
+        int rank = (int) Math.ceil(fraction * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    /**
+     * Run one experiment, writing its CSV files to the working directory
+     *
+     * @param type One of EXPERIMENT_TYPES
+     */
+    public static void runExperiment(String type) throws IOException {
+        switch (type) {
+            case "hash_function":
+                runHashFunctionExperiment();
+                break;
+            case "collision":
+                runCollisionExperiment();
+                break;
+            case "lookup":
+                runLookupExperiment();
+                break;
+            case "distribution":
+                runDistributionExperiment();
+                break;
+            case "comparison":
+                compareWithJavaHashMap();
+                break;
+            case "text_fingerprint":
+                runTextFingerprintExperiment();
+                break;
+            case "probing":
+                runProbingExperiment();
+                break;
+            case "resize":
+                runResizeExperiment();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown experiment type: " + type);
+        }
+        completed.add(type);
+    }
+
+    /**
+     * Run one experiment unless its CSV files were already written by this JVM
+     *
+     * @param type One of EXPERIMENT_TYPES
+     * @return true if the existing results were kept
+     */
+    public static synchronized boolean ensureExperiment(String type) throws IOException {
+        if (completed.contains(type)) {
+            return true;
+        }
+        runExperiment(type);
+        return false;
+    }
+
+    /**
+     * Forget which experiments have run, so ensureExperiment runs them again
+     */
+    public static void clearResults() {
+        completed.clear();
+    }
+
+    /**
+     * Run every experiment, writing their CSV files to the working directory
+     */
+    public static void runAll() throws IOException {
+        runAll(false);
+    }
+
+    /**
+     * Run every experiment. In parallel mode the independent experiments run at the
+     * same time, one per core; the lookup, comparison and probing timings and the
+     * probing memory figures are then taken while the other experiments compete for
+     * the machine.
+     *
+     * @param parallel Whether to run experiments concurrently
+     */
+    public static void runAll(boolean parallel) throws IOException {
+        if (!parallel) {
+            for (String type : EXPERIMENT_TYPES) {
+                runExperiment(type);
+            }
+            return;
+        }
+
+        int threads = Math.min(EXPERIMENT_TYPES.length, Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (String type : EXPERIMENT_TYPES) {
+                futures.add(executor.submit(() -> {
+                    runExperiment(type);
+                    return null;
+                }));
+            }
+
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof IOException) {
+                        throw (IOException) e.getCause();
+                    }
+                    throw new RuntimeException(e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while running experiments", e);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     public static void main(String[] args) {
         try {
             System.out.println("Starting HashMap experiments...");
 
-            runHashFunctionExperiment();
-            runCollisionExperiment();
-            runLookupExperiment();
-            runDistributionExperiment();
-            compareWithJavaHashMap();
-            runTextFingerprintExperiment();
+            runAll(java.util.Arrays.asList(args).contains("--parallel"));
 
             System.out.println("All experiments completed successfully.");
         } catch (IOException e) {
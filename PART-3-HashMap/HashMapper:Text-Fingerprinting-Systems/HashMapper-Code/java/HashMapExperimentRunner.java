@@ -19,6 +19,7 @@ public class HashMapExperimentRunner {
             String statsOutput = null;
             String experimentType = null;
             String output = null;
+            boolean parallel = false;
 
             for (int i = 0; i < args.length; i++) {
                 switch (args[i]) {
@@ -52,6 +53,9 @@ public class HashMapExperimentRunner {
                     case "--output":
                         output = args[++i];
                         break;
+                    case "--parallel":
+                        parallel = true;
+                        break;
                 }
             }
 
@@ -64,35 +68,27 @@ public class HashMapExperimentRunner {
                 );
                 System.out.println("Text fingerprint generation completed.");
             } else if (experimentType != null && output != null) {
-                // Run experiments
-                System.out.println("Running experiments...");
-                HashMapExperiment.main(args);
+                if (experimentType.equals("all")) {
+                    // Run the whole suite and draw every experiment, each to its own file
+                    System.out.println("Running all experiments" + (parallel ? " in parallel..." : "..."));
+                    HashMapExperiment.runAll(parallel);
 
-                // Generate visualizations
-                System.out.println("Generating visualizations...");
-                switch (experimentType) {
-                    case "hash_function":
-                        HashMapVisualizer.visualizeHashFunctionComparison("hash_function_comparison.csv", output);
-                        break;
-                    case "collision":
-                        HashMapVisualizer.visualizeCollisions("string_collisions.csv", "String Key Collisions", output.replace(".png", "_string.png"));
-                        HashMapVisualizer.visualizeCollisions("integer_collisions.csv", "Integer Key Collisions", output.replace(".png", "_integer.png"));
-                        break;
-                    case "lookup":
-                        HashMapVisualizer.visualizeLookupPerformance("lookup_performance.csv", output);
-                        break;
-                    case "distribution":
-                        HashMapVisualizer.visualizeBucketDistribution("bucket_distribution.csv", output);
-                        break;
-                    case "comparison":
-                        HashMapVisualizer.visualizeHashMapComparison("hashmap_comparison.csv", output);
-                        break;
-                    case "text_fingerprint":
-                        HashMapVisualizer.visualizeTextFingerprintAnalysis("text_fingerprint_analysis.csv", output);
-                        break;
-                    default:
+                    System.out.println("Generating visualizations...");
+                    for (String type : HashMapExperiment.EXPERIMENT_TYPES) {
+                        renderExperiment(type, suiteOutput(output, type));
+                    }
+                } else {
+                    if (experimentOutputs(experimentType, output) == null) {
                         System.err.println("Unknown experiment type: " + experimentType);
                         System.exit(1);
+                    }
+
+                    // Run only the experiment that is drawn
+                    System.out.println("Running " + experimentType + " experiment...");
+                    HashMapExperiment.runExperiment(experimentType);
+
+                    System.out.println("Generating visualizations...");
+                    renderExperiment(experimentType, output);
                 }
                 System.out.println("Visualizations completed.");
             } else {
@@ -107,4 +103,76 @@ public class HashMapExperimentRunner {
             System.exit(1);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Get the image files an experiment's visualization is written to
+     *
+     * @param experimentType The experiment type, e.g. "collision"
+     * @param output The output path given with --output
+     * @return The image paths, or null if the type is unknown
+     */
+    public static String[] experimentOutputs(String experimentType, String output) {
+        switch (experimentType) {
+            case "collision":
+                return new String[] {output.replace(".png", "_string.png"), output.replace(".png", "_integer.png")};
+            case "hash_function":
+            case "lookup":
+            case "distribution":
+            case "comparison":
+            case "text_fingerprint":
+            case "probing":
+            case "resize":
+                return new String[] {output};
+            default:
+                return null;
+        }
+    }
+
+    // Output path of one experiment when the whole suite is drawn: out.png -> out_collision.png
+    private static String suiteOutput(String output, String experimentType) {
+        String base = output.endsWith(".png") ? output.substring(0, output.length() - 4) : output;
+        return base + "_" + experimentType + ".png";
+    }
+
+    /**
+     * Draw the visualization of an experiment from the CSV files in the working directory
+     *
+     * @param experimentType The experiment type, e.g. "collision"
+     * @param output The output path given with --output
+     * @throws IOException if a CSV file cannot be read or an image cannot be written
+     */
+    public static void renderExperiment(String experimentType, String output) throws IOException {
+        String[] outputs = experimentOutputs(experimentType, output);
+        if (outputs == null) {
+            throw new IllegalArgumentException("Unknown experiment type: " + experimentType);
+        }
+
+        switch (experimentType) {
+            case "hash_function":
+                HashMapVisualizer.visualizeHashFunctionComparison("hash_function_comparison.csv", outputs[0]);
+                break;
+            case "collision":
+                HashMapVisualizer.visualizeCollisions("string_collisions.csv", "String Key Collisions", outputs[0]);
+                HashMapVisualizer.visualizeCollisions("integer_collisions.csv", "Integer Key Collisions", outputs[1]);
+                break;
+            case "lookup":
+                HashMapVisualizer.visualizeLookupPerformance("lookup_performance.csv", outputs[0]);
+                break;
+            case "distribution":
+                HashMapVisualizer.visualizeBucketDistribution("bucket_distribution.csv", outputs[0]);
+                break;
+            case "comparison":
+                HashMapVisualizer.visualizeHashMapComparison("hashmap_comparison.csv", outputs[0]);
+                break;
+            case "text_fingerprint":
+                HashMapVisualizer.visualizeTextFingerprintAnalysis("text_fingerprint_analysis.csv", outputs[0]);
+                break;
+            case "probing":
+                HashMapVisualizer.visualizeProbingComparison("chaining_vs_probing.csv", outputs[0]);
+                break;
+            case "resize":
+                HashMapVisualizer.visualizePutLatency("put_latency_percentiles.csv", outputs[0]);
+                break;
+        }
+    }
+}
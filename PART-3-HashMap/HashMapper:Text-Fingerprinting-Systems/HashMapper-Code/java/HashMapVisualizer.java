@@ -16,7 +16,7 @@ public class HashMapVisualizer {
     /**
      * Create a visualization of collision data and save to a file
      */
-    public static void visualizeCollisions(String csvFile, String title, String outputFile) {
+    public static void visualizeCollisions(String csvFile, String title, String outputFile) throws IOException {
         // Read data from CSV file
         java.util.Map<Integer, java.util.Map<Integer, Integer>> collisionData = new java.util.HashMap<>();
         java.util.List<Integer> mapSizes = new java.util.ArrayList<>();
@@ -39,9 +39,6 @@ public class HashMapVisualizer {
 
                 collisionData.computeIfAbsent(dataSize, k -> new java.util.HashMap<>()).put(mapSize, collisions);
             }
-        } catch (IOException e) {
-            System.err.println("Error reading CSV file: " + e.getMessage());
-            System.exit(1);
         }
 
         // Create BufferedImage
@@ -131,18 +128,13 @@ public class HashMapVisualizer {
         g2d.dispose();
 
         // Save image
-        try {
-            ImageIO.write(image, "png", new File(outputFile));
-        } catch (IOException e) {
-            System.err.println("Error saving image: " + e.getMessage());
-            System.exit(1);
-        }
+        ImageIO.write(image, "png", new File(outputFile));
     }
 
     /**
      * Create a visualization of lookup performance and save to a file
      */
-    public static void visualizeLookupPerformance(String csvFile, String outputFile) {
+    public static void visualizeLookupPerformance(String csvFile, String outputFile) throws IOException {
         // Read data from CSV file
         java.util.Map<Integer, java.util.Map<Integer, Double>> lookupData = new java.util.HashMap<>();
         java.util.List<Integer> mapSizes = new java.util.ArrayList<>();
@@ -165,9 +157,6 @@ public class HashMapVisualizer {
 
                 lookupData.computeIfAbsent(dataSize, k -> new java.util.HashMap<>()).put(mapSize, lookupTime);
             }
-        } catch (IOException e) {
-            System.err.println("Error reading CSV file: " + e.getMessage());
-            System.exit(1);
         }
 
         // Create BufferedImage
@@ -257,18 +246,13 @@ public class HashMapVisualizer {
         g2d.dispose();
 
         // Save image
-        try {
-            ImageIO.write(image, "png", new File(outputFile));
-        } catch (IOException e) {
-            System.err.println("Error saving image: " + e.getMessage());
-            System.exit(1);
-        }
+        ImageIO.write(image, "png", new File(outputFile));
     }
 
     /**
      * Create a visualization of bucket distribution and save to a file
      */
-    public static void visualizeBucketDistribution(String csvFile, String outputFile) {
+    public static void visualizeBucketDistribution(String csvFile, String outputFile) throws IOException {
         // Read data from CSV file
         java.util.List<Integer> bucketCounts = new java.util.ArrayList<>();
         try (BufferedReader br = new BufferedReader(new FileReader(csvFile))) {
@@ -278,9 +262,6 @@ public class HashMapVisualizer {
                 int count = Integer.parseInt(values[1]);
                 bucketCounts.add(count);
             }
-        } catch (IOException e) {
-            System.err.println("Error reading CSV file: " + e.getMessage());
-            System.exit(1);
         }
 
         // Create BufferedImage
@@ -343,18 +324,13 @@ public class HashMapVisualizer {
         g2d.dispose();
 
         // Save image
-        try {
-            ImageIO.write(image, "png", new File(outputFile));
-        } catch (IOException e) {
-            System.err.println("Error saving image: " + e.getMessage());
-            System.exit(1);
-        }
+        ImageIO.write(image, "png", new File(outputFile));
     }
 
     /**
      * Create a visualization comparing our HashMap with Java's HashMap and save to a file
      */
-    public static void visualizeHashMapComparison(String csvFile, String outputFile) {
+    public static void visualizeHashMapComparison(String csvFile, String outputFile) throws IOException {
         // Read data from CSV file
         java.util.List<Integer> dataSizes = new java.util.ArrayList<>();
         java.util.List<Double> simpleHashMapTimes = new java.util.ArrayList<>();
@@ -372,9 +348,6 @@ public class HashMapVisualizer {
                 simpleHashMapTimes.add(simpleTime);
                 javaHashMapTimes.add(javaTime);
             }
-        } catch (IOException e) {
-            System.err.println("Error reading CSV file: " + e.getMessage());
-            System.exit(1);
         }
 
         // Create BufferedImage
@@ -442,12 +415,7 @@ public class HashMapVisualizer {
         g2d.dispose();
 
         // Save image
-        try {
-            ImageIO.write(image, "png", new File(outputFile));
-        } catch (IOException e) {
-            System.err.println("Error saving image: " + e.getMessage());
-            System.exit(1);
-        }
+        ImageIO.write(image, "png", new File(outputFile));
     }
 
     private static void drawLine(Graphics2D g2d, java.util.List<Integer> xValues, java.util.List<Double> yValues,
@@ -474,7 +442,7 @@ public class HashMapVisualizer {
     /**
      * Visualize hash function comparison data and save to a file
      */
-    public static void visualizeHashFunctionComparison(String csvFile, String outputFile) {
+    public static void visualizeHashFunctionComparison(String csvFile, String outputFile) throws IOException {
         // Read data from CSV file
         java.util.List<String> hashFunctions = new java.util.ArrayList<>();
         java.util.List<Integer> collisions = new java.util.ArrayList<>();
@@ -490,9 +458,6 @@ public class HashMapVisualizer {
                 maxBucketSizes.add(Integer.parseInt(values[2]));
                 emptyBuckets.add(Integer.parseInt(values[3]));
             }
-        } catch (IOException e) {
-            System.err.println("Error reading CSV file: " + e.getMessage());
-            System.exit(1);
         }
 
         // Create BufferedImage
@@ -578,18 +543,13 @@ public class HashMapVisualizer {
         g2d.dispose();
 
         // Save image
-        try {
-            ImageIO.write(image, "png", new File(outputFile));
-        } catch (IOException e) {
-            System.err.println("Error saving image: " + e.getMessage());
-            System.exit(1);
-        }
+        ImageIO.write(image, "png", new File(outputFile));
     }
 
     /**
      * Visualize text fingerprint analysis and save to a file
      */
-    public static void visualizeTextFingerprintAnalysis(String csvFile, String outputFile) {
+    public static void visualizeTextFingerprintAnalysis(String csvFile, String outputFile) throws IOException {
         // Read data from CSV file
         java.util.List<String> textTypes = new java.util.ArrayList<>();
         java.util.List<Integer> collisions = new java.util.ArrayList<>();
@@ -607,9 +567,6 @@ public class HashMapVisualizer {
                 uniqueWords.add(Integer.parseInt(values[3]));
                 totalWords.add(Integer.parseInt(values[4]));
             }
-        } catch (IOException e) {
-            System.err.println("Error reading CSV file: " + e.getMessage());
-            System.exit(1);
         }
 
         // Create BufferedImage
@@ -691,71 +648,309 @@ public class HashMapVisualizer {
         g2d.dispose();
 
         // Save image
-        try {
-            ImageIO.write(image, "png", new File(outputFile));
-        } catch (IOException e) {
-            System.err.println("Error saving image: " + e.getMessage());
-            System.exit(1);
-        }
+        ImageIO.write(image, "png", new File(outputFile));
     }
 
     /**
-     * Generate text fingerprint and enhanced fingerprint
+     * Visualize the chaining vs probing comparison and save to a file: heap per key on
+     * the left and lookup time per key on the right, one line per map and key type
      */
-    public static void generateTextFingerprint(String textFile, int size, String hashFunction,
-                                               double saltLevel, int smoothRadius,
-                                               String rawOutput, String enhancedOutput, String statsOutput) {
-        try {
-            // Validate input file
-            File file = new File(textFile);
-            if (!file.exists() || !file.isFile()) {
-                throw new IOException("Input file does not exist or is not a regular file: " + textFile);
+    public static void visualizeProbingComparison(String csvFile, String outputFile) throws IOException {
+        // Read data from CSV file, one series per key type and map
+        java.util.List<Integer> dataSizes = new java.util.ArrayList<>();
+        Map<String, java.util.List<Double>> bytesPerKey = new LinkedHashMap<>();
+        Map<String, java.util.List<Double>> lookupNanos = new LinkedHashMap<>();
+
+        try (BufferedReader br = new BufferedReader(new FileReader(csvFile))) {
+            String line = br.readLine();
+            while ((line = br.readLine()) != null) {
+                String[] values = line.split(",");
+                String series = values[1] + " (" + values[0] + ")";
+                int dataSize = Integer.parseInt(values[2]);
+                if (!dataSizes.contains(dataSize)) {
+                    dataSizes.add(dataSize);
+                }
+                lookupNanos.computeIfAbsent(series, k -> new java.util.ArrayList<>()).add(Double.parseDouble(values[4]));
+                bytesPerKey.computeIfAbsent(series, k -> new java.util.ArrayList<>()).add(Double.parseDouble(values[5]));
             }
-            if (file.length() == 0) {
-                throw new IOException("Input file is empty: " + textFile);
+        }
+
+        // Create BufferedImage
+        int width = 1000;
+        int height = 600;
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = image.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.setColor(Color.WHITE);
+        g2d.fillRect(0, 0, width, height);
+
+        Color[] colors = {Color.RED, Color.ORANGE, Color.MAGENTA, Color.BLUE, Color.CYAN, new Color(0, 150, 0)};
+        int panelWidth = width / 2;
+        drawProbingPanel(g2d, dataSizes, bytesPerKey, colors, 0, panelWidth, height, "Heap per Key (bytes)");
+        drawProbingPanel(g2d, dataSizes, lookupNanos, colors, panelWidth, panelWidth, height, "Lookup Time per Key (ns)");
+
+        // Draw legend across the top, three series to a row
+        int index = 0;
+        for (String series : bytesPerKey.keySet()) {
+            int x = 60 + (index % 3) * 300;
+            int y = 20 + (index / 3) * 20;
+            g2d.setColor(colors[index % colors.length]);
+            g2d.fillRect(x, y, 10, 10);
+            g2d.setColor(Color.BLACK);
+            g2d.drawString(series, x + 15, y + 10);
+            index++;
+        }
+
+        g2d.dispose();
+
+        // Save image
+        ImageIO.write(image, "png", new File(outputFile));
+    }
+
+    // Draw one line chart of the probing comparison in a panel of the image
+    private static void drawProbingPanel(Graphics2D g2d, java.util.List<Integer> dataSizes,
+                                         Map<String, java.util.List<Double>> series, Color[] colors,
+                                         int left, int panelWidth, int height, String yAxisTitle) {
+        // The legend is above the panels
+        int padding = 60;
+        int x0 = left + padding;
+        int x1 = left + panelWidth - padding / 2;
+        int y0 = height - padding;
+        int y1 = 2 * padding + 20;
+
+        // Draw axes
+        g2d.setColor(Color.BLACK);
+        g2d.drawLine(x0, y0, x1, y0);
+        g2d.drawLine(x0, y0, x0, y1);
+
+        double maxY = 0;
+        for (java.util.List<Double> values : series.values()) {
+            for (double value : values) {
+                maxY = Math.max(maxY, value);
+            }
+        }
+        if (maxY <= 0) {
+            maxY = 1;
+        }
+        String maxLabel = String.format("%.0f", maxY);
+        g2d.drawString(maxLabel, x0 - 5 - g2d.getFontMetrics().stringWidth(maxLabel), y1 + 5);
+
+        // Draw data points and lines
+        int steps = Math.max(1, dataSizes.size() - 1);
+        int index = 0;
+        for (java.util.List<Double> values : series.values()) {
+            g2d.setColor(colors[index % colors.length]);
+            int prevX = 0;
+            int prevY = 0;
+            for (int i = 0; i < values.size(); i++) {
+                int x = x0 + i * (x1 - x0) / steps;
+                int y = y0 - (int) (Math.max(0, values.get(i)) * (y0 - y1) / maxY);
+                g2d.fillOval(x - 3, y - 3, 6, 6);
+                if (i > 0) {
+                    g2d.drawLine(prevX, prevY, x, y);
+                }
+                prevX = x;
+                prevY = y;
             }
+            index++;
+        }
+
+        // Draw x-axis labels
+        g2d.setColor(Color.BLACK);
+        for (int i = 0; i < dataSizes.size(); i++) {
+            String label = String.valueOf(dataSizes.get(i));
+            int x = x0 + i * (x1 - x0) / steps;
+            g2d.drawString(label, x - g2d.getFontMetrics().stringWidth(label) / 2, y0 + 15);
+        }
 
-            // Check if the file is likely a binary file (e.g., PNG)
-            byte[] firstBytes = Files.readAllBytes(file.toPath());
-            if (firstBytes.length >= 4 && firstBytes[0] == (byte) 0x89 && firstBytes[1] == (byte) 0x50 &&
-                firstBytes[2] == (byte) 0x4E && firstBytes[3] == (byte) 0x47) {
-                throw new IOException("Input file appears to be a PNG image, not a text file: " + textFile);
+        // Draw titles
+        Font font = g2d.getFont();
+        g2d.setFont(new Font("Arial", Font.BOLD, 16));
+        String xAxisTitle = "Data Size";
+        g2d.drawString(xAxisTitle, (x0 + x1) / 2 - g2d.getFontMetrics().stringWidth(xAxisTitle) / 2, height - 10);
+        g2d.drawString(yAxisTitle, x0, y1 - 20);
+        g2d.setFont(font);
+    }
+
+    /**
+     * Visualize the put latency percentiles of the resize experiment and save to a file.
+     * The latencies span several orders of magnitude, so the scale is logarithmic.
+     */
+    public static void visualizePutLatency(String csvFile, String outputFile) throws IOException {
+        // Read data from CSV file
+        java.util.List<String> modes = new java.util.ArrayList<>();
+        java.util.List<long[]> latencies = new java.util.ArrayList<>();
+        String[] percentiles = {"p50", "p90", "p99", "p99.9", "p99.99", "longest growing put", "max"};
+
+        try (BufferedReader br = new BufferedReader(new FileReader(csvFile))) {
+            String line = br.readLine();
+            while ((line = br.readLine()) != null) {
+                String[] values = line.split(",");
+                modes.add(values[0]);
+                long[] modeLatencies = new long[percentiles.length];
+                for (int i = 0; i < percentiles.length; i++) {
+                    modeLatencies[i] = Long.parseLong(values[2 + i]);
+                }
+                latencies.add(modeLatencies);
             }
+        }
+
+        // Create BufferedImage
+        int width = 800;
+        int height = 600;
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = image.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.setColor(Color.WHITE);
+        g2d.fillRect(0, 0, width, height);
 
-            // Read input text with explicit UTF-8 encoding
-            String text;
-            try {
-                text = Files.readString(file.toPath(), StandardCharsets.UTF_8);
-            } catch (MalformedInputException e) {
-                throw new IOException("Input file is not valid UTF-8 encoded text: " + textFile, e);
+        int padding = 70;
+
+        // Draw axes
+        g2d.setColor(Color.BLACK);
+        g2d.drawLine(padding, height - padding, width - padding, height - padding);
+        g2d.drawLine(padding, height - padding, padding, padding);
+
+        // Logarithmic scale from 10 ns, with a decade above the largest latency for the legend
+        long maxLatency = 10;
+        for (long[] modeLatencies : latencies) {
+            for (long latency : modeLatencies) {
+                maxLatency = Math.max(maxLatency, latency);
             }
+        }
+        int decades = (int) Math.ceil(Math.log10(maxLatency));
+        double decadeHeight = (double) (height - 2 * padding) / decades;
+        for (int decade = 0; decade <= decades; decade++) {
+            int y = height - padding - (int) (decade * decadeHeight);
+            String label = formatNanos(Math.pow(10, decade + 1));
+            g2d.setColor(Color.LIGHT_GRAY);
+            g2d.drawLine(padding + 1, y, width - padding, y);
+            g2d.setColor(Color.BLACK);
+            g2d.drawString(label, padding - 5 - g2d.getFontMetrics().stringWidth(label), y + 5);
+        }
 
-            // Set hash function
-            HashMapper.setHashFunction(hashFunction);
-
-            // Generate raw fingerprint
-            BufferedImage rawImage = HashMapper.TextVisualizer.createVisualFingerprint(text, size);
-            ImageIO.write(rawImage, "png", new File(rawOutput));
-
-            // Generate enhanced fingerprint
-            BufferedImage enhancedImage = HashMapper.TextVisualizer.saltAndSmooth(rawImage, saltLevel, smoothRadius);
-            ImageIO.write(enhancedImage, "png", new File(enhancedOutput));
-
-            // Generate stats using TextAnalyzer
-            Map<String, Object> analysis = HashMapper.TextAnalyzer.analyzeText(text, size);
-            String statsJson = String.format(
-                "{\"text_length\":%d,\"hash_function\":\"%s\",\"salt_level\":%.2f,\"smooth_radius\":%d," +
-                "\"total_words\":%d,\"unique_words\":%d,\"collisions\":%d,\"max_collision_level\":%d}",
-                text.length(), hashFunction, saltLevel, smoothRadius,
-                (Integer) analysis.get("totalWords"), (Integer) analysis.get("uniqueWords"),
-                (Integer) analysis.get("collisions"), (Integer) analysis.get("maxCollisionLevel")
-            );
-            try (FileWriter writer = new FileWriter(statsOutput)) {
-                writer.write(statsJson);
+        // Draw bars for each mode
+        Color[] colors = {Color.GREEN, Color.CYAN, Color.BLUE, Color.MAGENTA, Color.ORANGE, Color.RED, Color.DARK_GRAY};
+        int totalModes = Math.max(1, modes.size());
+        int groupWidth = (width - 2 * padding) / totalModes;
+        int barWidth = groupWidth / (percentiles.length + 1);
+
+        for (int i = 0; i < modes.size(); i++) {
+            int x = padding + i * groupWidth + barWidth / 2;
+            long[] modeLatencies = latencies.get(i);
+            for (int p = 0; p < percentiles.length; p++) {
+                double decadesUp = Math.log10(Math.max(10, modeLatencies[p])) - 1;
+                int barHeight = (int) (decadesUp * decadeHeight);
+                g2d.setColor(colors[p]);
+                g2d.fillRect(x + p * barWidth, height - padding - barHeight, barWidth - 2, barHeight);
             }
+
+            g2d.setColor(Color.BLACK);
+            String label = modes.get(i);
+            g2d.drawString(label, padding + i * groupWidth + groupWidth / 2 - g2d.getFontMetrics().stringWidth(label) / 2,
+                    height - padding + 15);
+        }
+
+        // Draw legend
+        for (int p = 0; p < percentiles.length; p++) {
+            g2d.setColor(colors[p]);
+            g2d.fillRect(width - 200, 40 + 20 * p, 10, 10);
+            g2d.setColor(Color.BLACK);
+            g2d.drawString(percentiles[p], width - 180, 50 + 20 * p);
+        }
+
+        // Draw titles
+        g2d.setFont(new Font("Arial", Font.BOLD, 16));
+        String xAxisTitle = "Put Latency While Growing";
+        String yAxisTitle = "Latency (log scale)";
+
+        g2d.drawString(xAxisTitle, width / 2 - g2d.getFontMetrics().stringWidth(xAxisTitle) / 2, height - 10);
+        g2d.translate(15, height / 2 + g2d.getFontMetrics().stringWidth(yAxisTitle) / 2);
+        g2d.rotate(-Math.PI / 2);
+        g2d.drawString(yAxisTitle, 0, 0);
+        g2d.rotate(Math.PI / 2);
+        g2d.translate(-15, -(height / 2 + g2d.getFontMetrics().stringWidth(yAxisTitle) / 2));
+
+        g2d.dispose();
+
+        // Save image
+        ImageIO.write(image, "png", new File(outputFile));
+    }
+
+    private static String formatNanos(double nanos) {
+        if (nanos >= 1e9) return String.format("%.0f s", nanos / 1e9);
+        if (nanos >= 1e6) return String.format("%.0f ms", nanos / 1e6);
+        if (nanos >= 1e3) return String.format("%.0f us", nanos / 1e3);
+        return String.format("%.0f ns", nanos);
+    }
+
+    /**
+     * Generate text fingerprint and enhanced fingerprint
+     */
+    public static void generateTextFingerprint(String textFile, int size, String hashFunction,
+                                               double saltLevel, int smoothRadius,
+                                               String rawOutput, String enhancedOutput, String statsOutput) {
+        try {
+            writeTextFingerprint(textFile, size, hashFunction, saltLevel, smoothRadius,
+                                 rawOutput, enhancedOutput, statsOutput);
         } catch (IOException e) {
             System.err.println("Error generating fingerprint: " + e.getMessage());
             System.exit(1);
         }
     }
+
+    /**
+     * Generate text fingerprint and enhanced fingerprint, reporting failures to the caller.
+     * The hash function applies to this call only, so fingerprints can be generated on
+     * several threads at once.
+     */
+    public static void writeTextFingerprint(String textFile, int size, String hashFunction,
+                                            double saltLevel, int smoothRadius,
+                                            String rawOutput, String enhancedOutput, String statsOutput)
+            throws IOException {
+        // Validate input file
+        File file = new File(textFile);
+        if (!file.exists() || !file.isFile()) {
+            throw new IOException("Input file does not exist or is not a regular file: " + textFile);
+        }
+        if (file.length() == 0) {
+            throw new IOException("Input file is empty: " + textFile);
+        }
+
+        // Check if the file is likely a binary file (e.g., PNG)
+        byte[] firstBytes = Files.readAllBytes(file.toPath());
+        if (firstBytes.length >= 4 && firstBytes[0] == (byte) 0x89 && firstBytes[1] == (byte) 0x50 &&
+            firstBytes[2] == (byte) 0x4E && firstBytes[3] == (byte) 0x47) {
+            throw new IOException("Input file appears to be a PNG image, not a text file: " + textFile);
+        }
+
+        // Read input text with explicit UTF-8 encoding
+        String text;
+        try {
+            text = Files.readString(file.toPath(), StandardCharsets.UTF_8);
+        } catch (MalformedInputException e) {
+            throw new IOException("Input file is not valid UTF-8 encoded text: " + textFile, e);
+        }
+
+        // Generate raw fingerprint
+        BufferedImage rawImage = HashMapper.TextVisualizer.createVisualFingerprint(text, size, hashFunction);
+        ImageIO.write(rawImage, "png", new File(rawOutput));
+
+        // Generate enhanced fingerprint
+        BufferedImage enhancedImage = HashMapper.TextVisualizer.saltAndSmooth(rawImage, saltLevel, smoothRadius);
+        ImageIO.write(enhancedImage, "png", new File(enhancedOutput));
+
+        // Generate stats using TextAnalyzer
+        Map<String, Object> analysis = HashMapper.TextAnalyzer.analyzeText(text, size, hashFunction);
+        String statsJson = String.format(
+            "{\"text_length\":%d,\"hash_function\":\"%s\",\"salt_level\":%.2f,\"smooth_radius\":%d," +
+            "\"total_words\":%d,\"unique_words\":%d,\"collisions\":%d,\"max_collision_level\":%d}",
+            text.length(), hashFunction, saltLevel, smoothRadius,
+            (Integer) analysis.get("totalWords"), (Integer) analysis.get("uniqueWords"),
+            (Integer) analysis.get("collisions"), (Integer) analysis.get("maxCollisionLevel")
+        );
+        try (FileWriter writer = new FileWriter(statsOutput)) {
+            writer.write(statsJson);
+        }
+    }
 }
\ No newline at end of file
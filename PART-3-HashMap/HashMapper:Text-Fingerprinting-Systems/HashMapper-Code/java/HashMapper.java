@@ -43,13 +43,26 @@ public class HashMapper {
 
         private ArrayList<Entry<K, V>>[] buckets;
         private final int size;
+        private final HashFunction hashFunction;
         private int collisions;
         private Map<Integer, Integer> collisionDistribution;
         private int maxCollisionLevel = 0;
 
-        @SuppressWarnings("unchecked")
         public DumbHashMap(int size) {
+            this(size, selectedHashFunction);
+        }
+
+        // A map with its own hash function, unaffected by setHashFunction, so maps
+        // with different hash functions can be used from several threads at once.
+        // Unknown names select "String Length"
+        public DumbHashMap(int size, String hashFunction) {
+            this(size, HashFunctions.forName(hashFunction, HashFunctions.STRING_LENGTH));
+        }
+
+        @SuppressWarnings("unchecked")
+        public DumbHashMap(int size, HashFunction hashFunction) {
             this.size = size;
+            this.hashFunction = Objects.requireNonNull(hashFunction, "hashFunction");
             this.buckets = new ArrayList[size];
             this.collisions = 0;
             this.collisionDistribution = new HashMap<>();
@@ -59,73 +72,9 @@ public class HashMapper {
             }
         }
 
-        // Our intentionally poor hash function
+        // The map's hash function (usually an intentionally poor one), reduced into the range of buckets
         private int dumbHash(K key) {
-            if (key == null) {
-                return 0;
-            }
-
-            // For strings
-            if (key instanceof String) {
-                String str = (String) key;
-                if (str.isEmpty()) {
-                    return 0;
-                }
-
-                // Use different hash functions based on selection
-                switch (selectedHashFunction) {
-                    case "String Length":
-                        return str.length() % size;
-
-                    case "First Character":
-                        return str.charAt(0) % size;
-
-                    case "First + Last Character":
-                        if (str.length() > 1) {
-                            return (str.charAt(0) + str.charAt(str.length() - 1)) % size;
-                        } else {
-                            return str.charAt(0) % size;
-                        }
-
-                    case "Character Sum":
-                        int sum = 0;
-                        for (char c : str.toCharArray()) {
-                            sum += c;
-                        }
-                        return sum % size;
-
-                    case "Random":
-                        // Pseudo-random but deterministic based on first and last chars
-                        if (str.length() > 1) {
-                            return ((str.charAt(0) * 31) ^ str.charAt(str.length() - 1)) % size;
-                        } else {
-                            return str.charAt(0) % size;
-                        }
-
-                    default:
-                        return str.length() % size;
-                }
-            }
-
-            // For integers, just mod with size (very poor distribution)
-            if (key instanceof Integer) {
-                Integer num = (Integer) key;
-                return Math.abs(num) % size;
-            }
-
-            // For other types, use a very basic approach
-            String keyString = key.toString();
-            if (keyString.isEmpty()) {
-                return 0;
-            }
-
-            // Just use first and last character
-            int hash = keyString.charAt(0);
-            if (keyString.length() > 1) {
-                hash += keyString.charAt(keyString.length() - 1);
-            }
-
-            return Math.abs(hash) % size;
+            return Math.floorMod(hashFunction.hash(key), size);
         }
 
         public void put(K key, V value) {
@@ -224,8 +173,13 @@ public class HashMapper {
 
         // Process a text and generate a visual fingerprint
         public static BufferedImage createVisualFingerprint(String text, int size) {
-            DumbHashMap<String, Integer> wordMap = new DumbHashMap<>(size);
-            DumbHashMap<Character, Integer> charMap = new DumbHashMap<>(size);
+            return createVisualFingerprint(text, size, selectedHashFunction);
+        }
+
+        // Generate a visual fingerprint with the given hash function
+        public static BufferedImage createVisualFingerprint(String text, int size, String hashFunction) {
+            DumbHashMap<String, Integer> wordMap = new DumbHashMap<>(size, hashFunction);
+            DumbHashMap<Character, Integer> charMap = new DumbHashMap<>(size, hashFunction);
 
             // Process words
             String[] words = text.split("\\s+");
@@ -355,7 +309,12 @@ public class HashMapper {
 
         // Analyze a text and return statistics
         public static Map<String, Object> analyzeText(String text, int mapSize) {
-            DumbHashMap<String, Integer> wordFreq = new DumbHashMap<>(mapSize);
+            return analyzeText(text, mapSize, selectedHashFunction);
+        }
+
+        // Analyze a text with the given hash function
+        public static Map<String, Object> analyzeText(String text, int mapSize, String hashFunction) {
+            DumbHashMap<String, Integer> wordFreq = new DumbHashMap<>(mapSize, hashFunction);
 
             // Process words and count frequency
             String[] words = text.split("\\s+");
@@ -0,0 +1,340 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Resident service for the web app: keeps the fingerprint and experiment code loaded
+ * in one warm JVM, instead of starting `java HashMapExperimentRunner` for every request.
+ *
+ * The protocol is line based (UTF-8, fields separated by tabs), one request per connection:
+ *   FINGERPRINT text-file size hash-function salt-level smooth-radius raw-output enhanced-output stats-output
+ *   EXPERIMENT type output
+ *   CLEAR      (forget the cached experiment results)
+ *   PING       (answered by PONG)
+ * and the answer is "OK millis" (for EXPERIMENT "OK millis cached|computed") or "ERROR message".
+ *
+ * Experiment images are cached by experiment type: each experiment runs on its first
+ * request and later requests get the same images. Each connection is handled on its own virtual thread
+ * when the JVM has them (Java 21+), otherwise on a pooled thread, and at most --jobs
+ * requests do work at the same time. The service only listens on the loopback interface.
+ *
+ * Usage: java -cp java:lib/* HashMapperServer [--port N] [--jobs N] [--no-warmup] [--exit-on-stdin-close]
+ * Once ready it prints "LISTENING port" on standard output.
+ */
+public class HashMapperServer {
+
+    // Time a client has to send its request line once connected
+    private static final int REQUEST_TIMEOUT_MILLIS = 10000;
+
+    // Number of fingerprints generated to warm up the JVM
+    private static final int WARMUP_RUNS = 5;
+
+    private static final String WARMUP_TEXT =
+            "It was the best of times, it was the worst of times, it was the age of wisdom, " +
+            "it was the age of foolishness, it was the epoch of belief, it was the epoch of incredulity, " +
+            "it was the season of Light, it was the season of Darkness...";
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService executor;
+    private final Semaphore workers;
+
+    // Rendered images of each experiment type, in the order experimentOutputs lists them
+    private final Map<String, byte[][]> experimentCache = new ConcurrentHashMap<>();
+
+    // Experiments write and read fixed CSV files in the working directory, so only
+    // one request at a time may run them
+    private final Object experimentLock = new Object();
+
+    /**
+     * Constructor that binds the service to a loopback port
+     *
+     * @param port Port to listen on, or 0 for any free port
+     * @param jobs Number of requests that do work at the same time
+     */
+    public HashMapperServer(int port, int jobs) throws IOException {
+        this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        this.executor = newConnectionExecutor();
+        this.workers = new Semaphore(Math.max(1, jobs));
+    }
+
+    /**
+     * Get the port the service listens on
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Accept connections and answer their requests until the service is closed
+     */
+    public void serve() throws IOException {
+        while (!serverSocket.isClosed()) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (SocketException e) {
+                if (serverSocket.isClosed()) {
+                    return;
+                }
+                throw e;
+            }
+            executor.execute(() -> handle(socket));
+        }
+    }
+
+    /**
+     * Stop accepting connections and let the requests already accepted finish
+     */
+    public void close() throws IOException {
+        serverSocket.close();
+        executor.shutdown();
+    }
+
+    /**
+     * Generate a few fingerprints of a sample text, so the classes they use are loaded
+     * and their loops compiled before the first real request
+     */
+    public static void warmUp() throws IOException {
+        File directory = Files.createTempDirectory("hashmapper-warmup").toFile();
+        File input = new File(directory, "input.txt");
+        Files.writeString(input.toPath(), WARMUP_TEXT, StandardCharsets.UTF_8);
+
+        String[] hashFunctions = {"String Length", "First Character", "Character Sum"};
+        for (int run = 0; run < WARMUP_RUNS; run++) {
+            HashMapVisualizer.writeTextFingerprint(input.getPath(), 128, hashFunctions[run % hashFunctions.length],
+                    0.05, 2, new File(directory, "raw.png").getPath(),
+                    new File(directory, "enhanced.png").getPath(), new File(directory, "stats.json").getPath());
+        }
+
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    // One virtual thread per connection where available, since most connections wait on
+    // a worker permit or on their client; platform threads otherwise
+    private static ExecutorService newConnectionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    // Read one request from a connection, carry it out and send back the answer
+    private void handle(Socket socket) {
+        try (Socket connection = socket) {
+            connection.setSoTimeout(REQUEST_TIMEOUT_MILLIS);
+            BufferedReader reader = new BufferedReader(
+                new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8));
+            Writer writer = new BufferedWriter(
+                new OutputStreamWriter(connection.getOutputStream(), StandardCharsets.UTF_8));
+
+            String request = reader.readLine();
+            if (request == null) {
+                return;
+            }
+            writer.write(answer(request.split("\t", -1)) + "\n");
+            writer.flush();
+        } catch (IOException e) {
+            // The client went away
+        }
+    }
+
+    // Carry out one request and return its answer line
+    private String answer(String[] fields) {
+        if (fields[0].equals("PING")) {
+            return "PONG";
+        }
+        if (fields[0].equals("CLEAR")) {
+            synchronized (experimentLock) {
+                experimentCache.clear();
+                HashMapExperiment.clearResults();
+            }
+            return "OK\t0.0";
+        }
+
+        long start = System.nanoTime();
+        try {
+            workers.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "ERROR\tInterrupted";
+        }
+        try {
+            switch (fields[0]) {
+                case "FINGERPRINT":
+                    fingerprint(fields);
+                    return "OK\t" + millisSince(start);
+                case "EXPERIMENT":
+                    boolean cached = experiment(fields);
+                    return "OK\t" + millisSince(start) + "\t" + (cached ? "cached" : "computed");
+                default:
+                    return "ERROR\tUnknown request: " + fields[0];
+            }
+        } catch (Exception e) {
+            return "ERROR\t" + String.valueOf(e.getMessage()).replace('\t', ' ').replace('\n', ' ');
+        } finally {
+            workers.release();
+        }
+    }
+
+    // Generate the fingerprint images and stats of a text file
+    private static void fingerprint(String[] fields) throws IOException {
+        if (fields.length != 9) {
+            throw new IllegalArgumentException("FINGERPRINT takes 8 arguments, got " + (fields.length - 1));
+        }
+        HashMapVisualizer.writeTextFingerprint(fields[1], Integer.parseInt(fields[2]), fields[3],
+                Double.parseDouble(fields[4]), Integer.parseInt(fields[5]), fields[6], fields[7], fields[8]);
+    }
+
+    // Write the images of an experiment, returning whether they came from the cache
+    private boolean experiment(String[] fields) throws IOException {
+        if (fields.length != 3) {
+            throw new IllegalArgumentException("EXPERIMENT takes 2 arguments, got " + (fields.length - 1));
+        }
+        String type = fields[1];
+        String[] outputs = HashMapExperimentRunner.experimentOutputs(type, fields[2]);
+        if (outputs == null) {
+            throw new IllegalArgumentException("Unknown experiment type: " + type);
+        }
+
+        byte[][] images = experimentCache.get(type);
+        boolean cached = images != null;
+        if (!cached) {
+            synchronized (experimentLock) {
+                images = experimentCache.get(type);
+                cached = images != null;
+                if (!cached) {
+                    images = renderExperiment(type);
+                    experimentCache.put(type, images);
+                }
+            }
+        }
+
+        for (int i = 0; i < outputs.length; i++) {
+            Files.write(new File(outputs[i]).toPath(), images[i]);
+        }
+        return cached;
+    }
+
+    // Run one experiment if this service has not yet, and draw its images into a
+    // directory of our own; the caller holds experimentLock
+    private byte[][] renderExperiment(String type) throws IOException {
+        HashMapExperiment.ensureExperiment(type);
+
+        File directory = Files.createTempDirectory("hashmapper-experiment").toFile();
+        try {
+            String output = new File(directory, type + ".png").getPath();
+            String[] files = HashMapExperimentRunner.experimentOutputs(type, output);
+            HashMapExperimentRunner.renderExperiment(type, output);
+            byte[][] images = new byte[files.length][];
+            for (int i = 0; i < files.length; i++) {
+                images[i] = Files.readAllBytes(new File(files[i]).toPath());
+            }
+            return images;
+        } finally {
+            for (File file : directory.listFiles()) {
+                file.delete();
+            }
+            directory.delete();
+        }
+    }
+
+    private static String millisSince(long start) {
+        return String.format("%.1f", (System.nanoTime() - start) / 1e6);
+    }
+
+    /**
+     * Start the service
+     *
+     * @param args Command line arguments:
+     *            --port N - Port to listen on (optional, default 0 for any free port)
+     *            --jobs N - Number of requests that do work at the same time (optional, default one per processor)
+     *            --no-warmup - Accept requests without warming up first (optional)
+     *            --exit-on-stdin-close - Stop when standard input is closed, e.g. because the
+     *                                    process that started the service has exited (optional)
+     */
+    public static void main(String[] args) {
+        int port = 0;
+        int jobs = Runtime.getRuntime().availableProcessors();
+        boolean warmUp = true;
+        boolean exitOnStdinClose = false;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--port":
+                        port = Integer.parseInt(args[++i]);
+                        break;
+                    case "--jobs":
+                        jobs = Integer.parseInt(args[++i]);
+                        break;
+                    case "--no-warmup":
+                        warmUp = false;
+                        break;
+                    case "--exit-on-stdin-close":
+                        exitOnStdinClose = true;
+                        break;
+                    default:
+                        throw new IllegalArgumentException(args[i]);
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Usage: java HashMapperServer [--port N] [--jobs N] [--no-warmup] [--exit-on-stdin-close]");
+            System.exit(1);
+        }
+
+        // Images are drawn off screen
+        System.setProperty("java.awt.headless", "true");
+
+        try {
+            if (warmUp) {
+                warmUp();
+            }
+            HashMapperServer server = new HashMapperServer(port, jobs);
+
+            if (exitOnStdinClose) {
+                Thread watcher = new Thread(() -> {
+                    try {
+                        while (System.in.read() != -1) {
+                            // Wait for end of input
+                        }
+                    } catch (IOException e) {
+                        // Treat a broken stdin as closed
+                    }
+                    System.exit(0);
+                });
+                watcher.setDaemon(true);
+                watcher.start();
+            }
+
+            System.out.println("LISTENING " + server.getPort());
+            System.out.flush();
+
+            // Nobody reads standard output after the port, so progress printed by the
+            // experiments goes to standard error with the rest of the log
+            System.setOut(System.err);
+            server.serve();
+        } catch (IOException e) {
+            System.err.println("Server error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
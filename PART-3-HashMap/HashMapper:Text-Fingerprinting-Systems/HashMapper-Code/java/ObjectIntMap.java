@@ -0,0 +1,235 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * OpenAddressingHashMap specialised for int values, e.g. word counts.
+ *
+ * Values are kept in an int array, so they are not boxed. A missing key reads as 0;
+ * use containsKey or getOrDefault to tell it apart from a stored 0.
+ */
+public class ObjectIntMap<K> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int MAX_CAPACITY = 1 << 30;
+    private static final double MAX_LOAD_FACTOR = 0.75;
+
+    private final HashFunction hashFunction;
+    private Object[] keys;
+    private int[] values;
+    // Probe length of the entry in each slot plus one, so 0 marks an empty slot
+    private int[] probes;
+    private int mask;
+    private int growThreshold;
+    private int collisions;
+    private int itemCount;
+
+    /**
+     * Constructor with default capacity of 16
+     */
+    public ObjectIntMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor with specified initial capacity, using Murmur3 as the hash function
+     */
+    public ObjectIntMap(int capacity) {
+        this(capacity, HashFunctions.MURMUR3);
+    }
+
+    /**
+     * Constructor with specified initial capacity and hash function. The capacity is
+     * rounded up to a power of two.
+     */
+    public ObjectIntMap(int capacity, HashFunction hashFunction) {
+        this.hashFunction = Objects.requireNonNull(hashFunction, "hashFunction");
+        allocate(OpenAddressingHashMap.tableSize(capacity));
+    }
+
+    /**
+     * Insert or update a key-value pair
+     */
+    public void put(K key, int value) {
+        int hash = hashFunction.hash(key);
+        int slot = indexOf(key, hash);
+        if (slot >= 0) {
+            values[slot] = value; // Update existing value
+            return;
+        }
+
+        if (itemCount >= growThreshold) {
+            grow();
+        }
+
+        // New entry - a collision if its home slot is taken
+        if (probes[hash & mask] != 0) {
+            collisions++;
+        }
+        insert(key, value, hash);
+        itemCount++;
+    }
+
+    /**
+     * Get a value by key, or 0 if the key is not in the map
+     */
+    public int get(K key) {
+        return getOrDefault(key, 0);
+    }
+
+    /**
+     * Get a value by key, or the default value if the key is not in the map
+     */
+    public int getOrDefault(K key, int defaultValue) {
+        int slot = indexOf(key, hashFunction.hash(key));
+        return slot >= 0 ? values[slot] : defaultValue;
+    }
+
+    /**
+     * Remove a key-value pair
+     */
+    public boolean remove(K key) {
+        int slot = indexOf(key, hashFunction.hash(key));
+        if (slot < 0) {
+            return false; // Key not found
+        }
+
+        // Shift the entries after it back one slot, until one that is in its home slot
+        int next = (slot + 1) & mask;
+        while (probes[next] > 1) {
+            keys[slot] = keys[next];
+            values[slot] = values[next];
+            probes[slot] = probes[next] - 1;
+            slot = next;
+            next = (next + 1) & mask;
+        }
+        keys[slot] = null;
+        probes[slot] = 0;
+        itemCount--;
+        return true;
+    }
+
+    /**
+     * Check if key exists
+     */
+    public boolean containsKey(K key) {
+        return indexOf(key, hashFunction.hash(key)) >= 0;
+    }
+
+    /**
+     * Get all keys in the map
+     */
+    @SuppressWarnings("unchecked")
+    public List<K> keys() {
+        List<K> allKeys = new ArrayList<>(itemCount);
+        for (int slot = 0; slot < probes.length; slot++) {
+            if (probes[slot] != 0) {
+                allKeys.add((K) keys[slot]);
+            }
+        }
+        return allKeys;
+    }
+
+    /**
+     * Get number of items in the map
+     */
+    public int size() {
+        return itemCount;
+    }
+
+    /**
+     * Get number of slots in the table
+     */
+    public int getCapacity() {
+        return probes.length;
+    }
+
+    /**
+     * Get number of insertions whose home slot was already taken
+     */
+    public int getCollisionCount() {
+        return collisions;
+    }
+
+    /**
+     * Get current load factor
+     */
+    public double getLoadFactor() {
+        return (double) itemCount / probes.length;
+    }
+
+    /**
+     * Get the probe length distribution: element i is the number of entries that are
+     * i slots past their home slot, so element 0 counts the entries found at once
+     */
+    public int[] getBucketDistribution() {
+        return OpenAddressingHashMap.probeLengthDistribution(probes);
+    }
+
+    // Find the slot of a key, or -1 if it is not in the map
+    private int indexOf(Object key, int hash) {
+        int slot = hash & mask;
+        for (int probe = 1; ; probe++) {
+            int stored = probes[slot];
+            if (stored < probe) {
+                return -1;
+            }
+            if (stored == probe && Objects.equals(keys[slot], key)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    // Place an entry that is not in the map, displacing entries closer to home
+    private void insert(Object key, int value, int hash) {
+        int slot = hash & mask;
+        int probe = 1;
+        while (probes[slot] != 0) {
+            if (probes[slot] < probe) {
+                Object displacedKey = keys[slot];
+                int displacedValue = values[slot];
+                int displacedProbe = probes[slot];
+                keys[slot] = key;
+                values[slot] = value;
+                probes[slot] = probe;
+                key = displacedKey;
+                value = displacedValue;
+                probe = displacedProbe;
+            }
+            slot = (slot + 1) & mask;
+            probe++;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        probes[slot] = probe;
+    }
+
+    private void grow() {
+        if (probes.length == MAX_CAPACITY) {
+            if (itemCount == MAX_CAPACITY - 1) {
+                throw new IllegalStateException("ObjectIntMap is full");
+            }
+            growThreshold = MAX_CAPACITY - 1;
+            return;
+        }
+
+        Object[] oldKeys = keys;
+        int[] oldValues = values;
+        int[] oldProbes = probes;
+        allocate(oldProbes.length * 2);
+        for (int slot = 0; slot < oldProbes.length; slot++) {
+            if (oldProbes[slot] != 0) {
+                insert(oldKeys[slot], oldValues[slot], hashFunction.hash(oldKeys[slot]));
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new Object[capacity];
+        values = new int[capacity];
+        probes = new int[capacity];
+        mask = capacity - 1;
+        growThreshold = (int) (capacity * MAX_LOAD_FACTOR);
+    }
+}
@@ -5,15 +5,26 @@ import java.util.Objects;
 /**
  * A simple HashMap implementation with a basic hash function.
  * This implementation uses separate chaining for collision resolution.
+ *
+ * By default the number of buckets is fixed, which the collision experiments rely on.
+ * A map created with a maximum load factor instead doubles its buckets when it gets
+ * fuller than that. The entries are then moved to the new buckets a few old buckets
+ * at a time, on each later put and remove, so no single put pays for moving them all;
+ * until they are all moved a lookup checks the old bucket of a key or its new one.
  */
 public class SimpleHashMap<K, V> {
 
+    // Old buckets moved to the new ones on each put and remove while growing
+    private static final int REHASH_STEP = 4;
+
     // Inner class for storing key-value pairs
     private static class Entry<K, V> {
+        final int hash;
         K key;
         V value;
 
-        Entry(K key, V value) {
+        Entry(int hash, K key, V value) {
+            this.hash = hash;
             this.key = key;
             this.value = value;
         }
@@ -32,153 +43,167 @@ public class SimpleHashMap<K, V> {
         }
     }
 
+    // Buckets are created on their first entry; null is an empty bucket
     private ArrayList<Entry<K, V>>[] buckets;
-    private final int size;
+    private int size;
+    private final HashFunction hashFunction;
+    private final double maxLoadFactor;
+    private final boolean incrementalRehash;
     private int collisions;
     private int itemCount;
-    private static String hashFunctionType = "String Length";
+
+    // While growing: the buckets being emptied into the new ones, and the first of
+    // them that has not been moved yet
+    private ArrayList<Entry<K, V>>[] oldBuckets;
+    private int rehashIndex;
+
+    // Hash function of the maps created without one
+    private static volatile HashFunction defaultHashFunction = HashFunctions.STRING_LENGTH;
 
     /**
      * Constructor with default size of 16
      */
-    @SuppressWarnings("unchecked")
     public SimpleHashMap() {
         this(16);
     }
 
     /**
-     * Constructor with specified size
+     * Constructor with specified size, using the default hash function
      */
-    @SuppressWarnings("unchecked")
     public SimpleHashMap(int size) {
-        this.size = size;
-        this.buckets = new ArrayList[size];
-        this.collisions = 0;
-        this.itemCount = 0;
+        this(size, defaultHashFunction);
+    }
 
-        // Initialize buckets
-        for (int i = 0; i < size; i++) {
-            buckets[i] = new ArrayList<>();
-        }
+    /**
+     * Constructor with specified size and hash function. Maps with different hash
+     * functions can be used side by side, from different threads.
+     */
+    public SimpleHashMap(int size, HashFunction hashFunction) {
+        this(size, hashFunction, 0, false);
     }
 
     /**
-     * Set the hash function type
+     * Constructor for a map that grows, moving its entries incrementally
+     *
+     * @param size Initial number of buckets
+     * @param hashFunction Hash function of the keys
+     * @param maxLoadFactor Items per bucket past which the buckets double
      */
-    public static void setHashFunctionType(String type) {
-        hashFunctionType = type;
+    public SimpleHashMap(int size, HashFunction hashFunction, double maxLoadFactor) {
+        this(size, hashFunction, maxLoadFactor, true);
     }
 
     /**
-     * Dumb hash function - intentionally simplified and inefficient
-     * This function is designed to demonstrate collision behaviors
+     * Constructor with every option
+     *
+     * @param size Initial number of buckets
+     * @param hashFunction Hash function of the keys
+     * @param maxLoadFactor Items per bucket past which the buckets double, or 0 to keep
+     *                      the number of buckets fixed
+     * @param incrementalRehash Whether to move the entries to the doubled buckets a few
+     *                          buckets per operation, rather than all in the put that
+     *                          made the map grow
      */
-    private int dumbHash(K key) {
-        if (key == null) {
-            return 0;
+    public SimpleHashMap(int size, HashFunction hashFunction, double maxLoadFactor, boolean incrementalRehash) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Size must be positive: " + size);
         }
-
-        // For strings
-        if (key instanceof String) {
-            String str = (String) key;
-            if (str.isEmpty()) {
-                return 0;
-            }
-
-            // Use different hash functions based on selection
-            switch (hashFunctionType) {
-                case "String Length":
-                    return str.length() % size;
-
-                case "First Character":
-                    return str.charAt(0) % size;
-
-                case "First + Last Character":
-                    if (str.length() > 1) {
-                        return (str.charAt(0) + str.charAt(str.length() - 1)) % size;
-                    } else {
-                        return str.charAt(0) % size;
-                    }
-
-                case "Character Sum":
-                    int sum = 0;
-                    for (char c : str.toCharArray()) {
-                        sum += c;
-                    }
-                    return sum % size;
-
-                case "Random":
-                    // Pseudo-random but deterministic based on first and last chars
-                    if (str.length() > 1) {
-                        return ((str.charAt(0) * 31) ^ str.charAt(str.length() - 1)) % size;
-                    } else {
-                        return str.charAt(0) % size;
-                    }
-
-                default:
-                    return str.length() % size;
-            }
-        }
-
-        // For integers
-        if (key instanceof Integer) {
-            Integer num = (Integer) key;
-            return Math.abs(num) % size;
+        if (!(maxLoadFactor >= 0)) {
+            throw new IllegalArgumentException("Maximum load factor must be 0 or more: " + maxLoadFactor);
         }
+        this.size = size;
+        this.hashFunction = Objects.requireNonNull(hashFunction, "hashFunction");
+        this.maxLoadFactor = maxLoadFactor;
+        this.incrementalRehash = incrementalRehash;
+        this.buckets = newBuckets(size);
+        this.collisions = 0;
+        this.itemCount = 0;
+    }
 
-        // For other types, use a very basic approach
-        String keyString = key.toString();
-        if (keyString.isEmpty()) {
-            return 0;
-        }
+    /**
+     * Set the default hash function type by name, for the maps created afterwards
+     * without a hash function. Unknown names select "String Length".
+     */
+    public static void setHashFunctionType(String type) {
+        defaultHashFunction = HashFunctions.forName(type, HashFunctions.STRING_LENGTH);
+    }
 
-        // Just use first and last character
-        int hash = keyString.charAt(0);
-        if (keyString.length() > 1) {
-            hash += keyString.charAt(keyString.length() - 1);
-        }
+    /**
+     * Get the name of the default hash function type
+     */
+    public static String getHashFunctionType() {
+        return defaultHashFunction.getName();
+    }
 
-        return Math.abs(hash) % size;
+    /**
+     * Get the hash function of this map
+     */
+    public HashFunction getHashFunction() {
+        return hashFunction;
     }
 
     /**
-     * Hash function wrapper - uses dumbHash for this implementation
+     * Find the bucket that holds, or would hold, an existing key with this hash:
+     * its old bucket if that has not been moved yet, otherwise its bucket
      */
-    private int hash(K key) {
-        return dumbHash(key);
+    private ArrayList<Entry<K, V>> bucketFor(int hash) {
+        if (oldBuckets != null) {
+            int oldIndex = Math.floorMod(hash, oldBuckets.length);
+            if (oldIndex >= rehashIndex) {
+                return oldBuckets[oldIndex];
+            }
+        }
+        return buckets[Math.floorMod(hash, size)];
     }
 
     /**
      * Insert or update a key-value pair
      */
     public void put(K key, V value) {
-        int index = hash(key);
-        ArrayList<Entry<K, V>> bucket = buckets[index];
+        rehashStep();
+        int hash = hashFunction.hash(key);
+        ArrayList<Entry<K, V>> bucket = bucketFor(hash);
 
         // Check if key already exists
-        for (int i = 0; i < bucket.size(); i++) {
-            if (Objects.equals(bucket.get(i).key, key)) {
-                bucket.get(i).value = value; // Update existing value
-                return;
+        if (bucket != null) {
+            for (int i = 0; i < bucket.size(); i++) {
+                if (Objects.equals(bucket.get(i).key, key)) {
+                    bucket.get(i).value = value; // Update existing value
+                    return;
+                }
             }
         }
 
         // New entry - check for collision
-        if (!bucket.isEmpty()) {
+        if (bucket != null && !bucket.isEmpty()) {
             collisions++;
         }
 
-        // Add new entry
-        bucket.add(new Entry<>(key, value));
+        // Add new entry, to the bucket a lookup searches
+        if (bucket == null) {
+            bucket = new ArrayList<>(2);
+            if (oldBuckets != null && Math.floorMod(hash, oldBuckets.length) >= rehashIndex) {
+                oldBuckets[Math.floorMod(hash, oldBuckets.length)] = bucket;
+            } else {
+                buckets[Math.floorMod(hash, size)] = bucket;
+            }
+        }
+        bucket.add(new Entry<>(hash, key, value));
         itemCount++;
+
+        if (maxLoadFactor > 0 && itemCount > maxLoadFactor * size) {
+            grow();
+        }
     }
 
     /**
      * Get a value by key
      */
     public V get(K key) {
-        int index = hash(key);
-        ArrayList<Entry<K, V>> bucket = buckets[index];
+        ArrayList<Entry<K, V>> bucket = bucketFor(hashFunction.hash(key));
+        if (bucket == null) {
+            return null;
+        }
 
         // Search for key in bucket
         for (Entry<K, V> entry : bucket) {
@@ -194,8 +219,11 @@ public class SimpleHashMap<K, V> {
      * Remove a key-value pair
      */
     public boolean remove(K key) {
-        int index = hash(key);
-        ArrayList<Entry<K, V>> bucket = buckets[index];
+        rehashStep();
+        ArrayList<Entry<K, V>> bucket = bucketFor(hashFunction.hash(key));
+        if (bucket == null) {
+            return false;
+        }
 
         // Find and remove entry
         for (int i = 0; i < bucket.size(); i++) {
@@ -213,8 +241,10 @@ public class SimpleHashMap<K, V> {
      * Check if key exists
      */
     public boolean containsKey(K key) {
-        int index = hash(key);
-        ArrayList<Entry<K, V>> bucket = buckets[index];
+        ArrayList<Entry<K, V>> bucket = bucketFor(hashFunction.hash(key));
+        if (bucket == null) {
+            return false;
+        }
 
         for (Entry<K, V> entry : bucket) {
             if (Objects.equals(entry.key, key)) {
@@ -231,15 +261,24 @@ public class SimpleHashMap<K, V> {
     public List<K> keys() {
         List<K> allKeys = new ArrayList<>();
 
-        for (ArrayList<Entry<K, V>> bucket : buckets) {
-            for (Entry<K, V> entry : bucket) {
-                allKeys.add(entry.key);
-            }
+        addKeys(buckets, 0, allKeys);
+        if (oldBuckets != null) {
+            addKeys(oldBuckets, rehashIndex, allKeys);
         }
 
         return allKeys;
     }
 
+    private void addKeys(ArrayList<Entry<K, V>>[] table, int from, List<K> allKeys) {
+        for (int i = from; i < table.length; i++) {
+            if (table[i] != null) {
+                for (Entry<K, V> entry : table[i]) {
+                    allKeys.add(entry.key);
+                }
+            }
+        }
+    }
+
     /**
      * Get number of items in the HashMap
      */
@@ -247,6 +286,20 @@ public class SimpleHashMap<K, V> {
         return itemCount;
     }
 
+    /**
+     * Get number of buckets
+     */
+    public int getBucketCount() {
+        return size;
+    }
+
+    /**
+     * Check whether entries are still being moved to grown buckets
+     */
+    public boolean isRehashing() {
+        return oldBuckets != null;
+    }
+
     /**
      * Get number of collisions that occurred
      */
@@ -262,15 +315,90 @@ public class SimpleHashMap<K, V> {
     }
 
     /**
-     * Get distribution of items across buckets
+     * Get distribution of items across buckets. While growing, entries that have not
+     * been moved yet are counted in the bucket they will be moved to.
      */
     public int[] getBucketDistribution() {
         int[] distribution = new int[size];
 
         for (int i = 0; i < size; i++) {
-            distribution[i] = buckets[i].size();
+            distribution[i] = buckets[i] == null ? 0 : buckets[i].size();
+        }
+        if (oldBuckets != null) {
+            for (int i = rehashIndex; i < oldBuckets.length; i++) {
+                if (oldBuckets[i] != null) {
+                    for (Entry<K, V> entry : oldBuckets[i]) {
+                        distribution[Math.floorMod(entry.hash, size)]++;
+                    }
+                }
+            }
         }
 
         return distribution;
     }
-}
\ No newline at end of file
+
+    /**
+     * Add a moved entry to its new bucket
+     */
+    private void addEntry(Entry<K, V> entry) {
+        int index = Math.floorMod(entry.hash, size);
+        if (buckets[index] == null) {
+            buckets[index] = new ArrayList<>(2);
+        }
+        buckets[index].add(entry);
+    }
+
+    /**
+     * Double the buckets. The entries move on later puts and removes, or right away
+     * if the map does not rehash incrementally.
+     */
+    private void grow() {
+        // A map that grows again before it has moved everything finishes the move first
+        finishRehash();
+
+        oldBuckets = buckets;
+        rehashIndex = 0;
+        size = Math.max(size, (int) Math.min(Integer.MAX_VALUE - 8, 2L * size));
+        buckets = newBuckets(size);
+
+        if (!incrementalRehash) {
+            finishRehash();
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <K, V> ArrayList<Entry<K, V>>[] newBuckets(int size) {
+        return new ArrayList[size];
+    }
+
+    /**
+     * Move the next few old buckets to the new ones, if growing
+     */
+    private void rehashStep() {
+        if (oldBuckets != null) {
+            moveOldBuckets(REHASH_STEP);
+        }
+    }
+
+    private void finishRehash() {
+        if (oldBuckets != null) {
+            moveOldBuckets(oldBuckets.length);
+        }
+    }
+
+    private void moveOldBuckets(int count) {
+        int end = Math.min(oldBuckets.length, rehashIndex + count);
+        for (; rehashIndex < end; rehashIndex++) {
+            ArrayList<Entry<K, V>> bucket = oldBuckets[rehashIndex];
+            if (bucket != null) {
+                for (Entry<K, V> entry : bucket) {
+                    addEntry(entry);
+                }
+                oldBuckets[rehashIndex] = null;
+            }
+        }
+        if (rehashIndex == oldBuckets.length) {
+            oldBuckets = null;
+        }
+    }
+}
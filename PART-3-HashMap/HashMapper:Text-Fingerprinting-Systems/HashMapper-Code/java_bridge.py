@@ -6,6 +6,16 @@ import time
 from PIL import Image
 import io
 import base64
+import atexit
+
+from java_service import JavaService, JavaServiceError
+
+# Resident Java service shared by every call, started on first use
+_service = JavaService('java', os.pathsep.join([os.path.join(os.getcwd(), 'java'), os.path.join('lib', '*')]))
+atexit.register(_service.close)
+
+# Experiment names used by the web page, as HashMapExperimentRunner spells them
+_EXPERIMENT_TYPES = {'hashFunction': 'hash_function', 'textFingerprint': 'text_fingerprint'}
 
 def generate_fingerprint(text, size, hash_function, salt_level, smooth_radius):
     """
@@ -35,46 +45,12 @@ def generate_fingerprint(text, size, hash_function, salt_level, smooth_radius):
         print(f"Text file: {text_path}")
         print(f"Output files: {raw_output}, {enhanced_output}, {stats_output}")
         
-        # Get the path to the java directory
-        java_dir = os.path.join(os.getcwd(), 'java')
-        
-        # Build the command
-        cmd = [
-            "java",
-            "-Djava.awt.headless=true",  # Enable headless mode for server environments
-            "-cp", f"{java_dir}:lib/*",  # Include java directory and all JARs in lib
-            "HashMapVisualizer",  # The main class
-            "generateTextFingerprint",  # The method to call
-            text_path,
-            str(size),
-            hash_function,
-            str(salt_level),
-            str(smooth_radius),
-            raw_output,
-            enhanced_output,
-            stats_output
-        ]
-        
-        # For Windows, use semicolons instead of colons in classpath
-        if os.name == 'nt':
-            cmd[3] = f"{java_dir};lib/*"
-        
-        print(f"Executing command: {' '.join(cmd)}")
-        
-        # Run the Java process
-        result = subprocess.run(
-            cmd,
-            capture_output=True,
-            text=True,
-            timeout=30
-        )
-        
-        print(f"Java process completed with return code: {result.returncode}")
-        print(f"stdout: {result.stdout}")
-        print(f"stderr: {result.stderr}")
-        
-        if result.returncode != 0:
-            raise Exception(f"Java process failed: {result.stderr}")
+        # Run on the resident Java service
+        try:
+            _service.generate_fingerprint(text_path, size, hash_function, salt_level, smooth_radius,
+                                          raw_output, enhanced_output, stats_output)
+        except JavaServiceError as e:
+            raise Exception(f"Java process failed: {e}")
         
         # Check if output files exist
         for file_path in [raw_output, enhanced_output, stats_output]:
@@ -129,86 +105,15 @@ def run_experiment(experiment_type):
         temp_dir = tempfile.mkdtemp()
         output_file = os.path.join(temp_dir, f"{experiment_type}_output.png")
         
-        # Get the path to the java directory
-        java_dir = os.path.join(os.getcwd(), 'java')
-        
-        # First run the experiment to generate data
-        experiment_cmd = [
-            "java",
-            "-Djava.awt.headless=true",
-            "-cp", f"{java_dir}:lib/*",
-            "HashMapExperiment",
-            f"run{experiment_type.capitalize()}Experiment"
-        ]
-        
-        # For Windows, use semicolons instead of colons in classpath
-        if os.name == 'nt':
-            experiment_cmd[3] = f"{java_dir};lib/*"
-        
-        print(f"Running experiment: {' '.join(experiment_cmd)}")
-        exp_result = subprocess.run(
-            experiment_cmd,
-            capture_output=True,
-            text=True,
-            timeout=30
-        )
-        
-        if exp_result.returncode != 0:
-            raise Exception(f"Experiment failed: {exp_result.stderr}")
-        
-        print(f"Experiment completed: {exp_result.stdout}")
-        
-        # Then run the visualization
-        csv_file = f"{experiment_type.lower()}_data.csv"
-        if not os.path.exists(csv_file):
-            # Use the appropriate CSV file based on experiment type
-            if experiment_type == "hashFunction":
-                csv_file = "hash_function_comparison.csv"
-            elif experiment_type == "collision":
-                csv_file = "string_collisions.csv"
-            elif experiment_type == "lookup":
-                csv_file = "lookup_performance.csv"
-            elif experiment_type == "distribution":
-                csv_file = "bucket_distribution.csv"
-            elif experiment_type == "comparison":
-                csv_file = "hashmap_comparison.csv"
-            elif experiment_type == "textFingerprint":
-                csv_file = "text_fingerprint_analysis.csv"
-                
-        # Check if CSV file exists
-        if not os.path.exists(csv_file):
-            raise FileNotFoundError(f"CSV file not found: {csv_file}")
-            
-        print(f"Using CSV file: {csv_file}")
-        
-        # Run visualization
-        viz_cmd = [
-            "java",
-            "-Djava.awt.headless=true",
-            "-cp", f"{java_dir}:lib/*",
-            "HashMapVisualizer",
-            f"visualize{experiment_type.capitalize()}",
-            csv_file,
-            "Experiment Results",
-            output_file
-        ]
-        
-        # For Windows, use semicolons instead of colons in classpath
-        if os.name == 'nt':
-            viz_cmd[3] = f"{java_dir};lib/*"
-        
-        print(f"Running visualization: {' '.join(viz_cmd)}")
-        viz_result = subprocess.run(
-            viz_cmd,
-            capture_output=True,
-            text=True,
-            timeout=30
-        )
-        
-        if viz_result.returncode != 0:
-            raise Exception(f"Visualization failed: {viz_result.stderr}")
+        # Run the experiment and its visualization on the resident Java service
+        try:
+            _service.run_experiment(_EXPERIMENT_TYPES.get(experiment_type, experiment_type), output_file)
+        except JavaServiceError as e:
+            raise Exception(f"Experiment failed: {e}")
         
-        print(f"Visualization completed: {viz_result.stdout}")
+        # The collision experiment draws string and integer keys separately
+        if experiment_type == "collision":
+            output_file = output_file.replace(".png", "_string.png")
         
         # Check if output file exists
         if not os.path.exists(output_file):
@@ -0,0 +1,127 @@
+"""Client for the resident Java HashMapper service (java/HashMapperServer.java).
+
+The service is started once and keeps the fingerprint and experiment code loaded and
+warmed up in a single JVM, so a request no longer pays for JVM startup and JIT warm-up
+the way a new `java HashMapExperimentRunner` process does. Experiment images are
+cached by the service, so only the first request for each experiment type runs it.
+"""
+import logging
+import socket
+import subprocess
+import threading
+
+logger = logging.getLogger(__name__)
+
+# Seconds to wait for the service to warm up and report its port
+STARTUP_TIMEOUT = 60
+
+# Seconds to wait for the answer to one request
+REQUEST_TIMEOUT = 300
+
+
+class JavaServiceError(Exception):
+    """A request reached the service and failed there."""
+
+
+class JavaService:
+    """Starts the HashMapper service on first use and sends requests to it.
+
+    Safe to use from several request threads at once: every request uses its own
+    connection, and the service works on up to --jobs of them at the same time.
+    Raises OSError or RuntimeError if the service cannot be reached, and
+    JavaServiceError if the request itself fails.
+    """
+
+    def __init__(self, java_bin, classpath, jobs=None, cwd=None):
+        self.java_bin = java_bin
+        self.classpath = classpath
+        self.jobs = jobs
+        self.cwd = cwd
+        self._process = None
+        self._port = None
+        self._lock = threading.Lock()
+
+    def start(self):
+        """Start the service if it is not running, and return its port."""
+        with self._lock:
+            if self._process is not None and self._process.poll() is None:
+                return self._port
+
+            cmd = [self.java_bin, '-Djava.awt.headless=true', '-cp', self.classpath,
+                   'HashMapperServer', '--exit-on-stdin-close']
+            if self.jobs:
+                cmd += ['--jobs', str(self.jobs)]
+            logger.info(f"Starting Java HashMapper service: {' '.join(cmd)}")
+
+            # stdin stays open for the service's lifetime; when this process exits it is
+            # closed and the service shuts itself down
+            process = subprocess.Popen(cmd, cwd=self.cwd, stdin=subprocess.PIPE,
+                                       stdout=subprocess.PIPE, text=True)
+            ready = {}
+
+            def read_port():
+                line = process.stdout.readline()
+                if line.startswith('LISTENING '):
+                    ready['port'] = int(line.split()[1])
+
+            reader = threading.Thread(target=read_port, daemon=True)
+            reader.start()
+            reader.join(STARTUP_TIMEOUT)
+            if 'port' not in ready:
+                process.kill()
+                raise RuntimeError('Java HashMapper service did not start')
+
+            self._process = process
+            self._port = ready['port']
+            logger.info(f"Java HashMapper service listening on port {self._port}")
+            return self._port
+
+    def generate_fingerprint(self, text_path, size, hash_function, salt_level, smooth_radius,
+                             raw_output, enhanced_output, stats_output):
+        """Write the raw and enhanced fingerprint images and the stats JSON of a text file."""
+        answer = self._request(['FINGERPRINT', text_path, str(size), hash_function, str(salt_level),
+                                str(smooth_radius), raw_output, enhanced_output, stats_output])
+        logger.info(f"Java fingerprint finished in {answer[0]} ms")
+
+    def run_experiment(self, experiment_type, output):
+        """Write the images of an experiment (e.g. 'collision') and return whether they were cached."""
+        answer = self._request(['EXPERIMENT', experiment_type, output])
+        cached = len(answer) > 1 and answer[1] == 'cached'
+        logger.info(f"Java experiment {experiment_type} finished in {answer[0]} ms"
+                    f"{' (cached)' if cached else ''}")
+        return cached
+
+    def clear_experiments(self):
+        """Forget the cached experiment images, so the next requests run the experiments again."""
+        self._request(['CLEAR'])
+
+    def _request(self, fields):
+        """Send one request and return the fields of its OK answer."""
+        for field in fields:
+            if '\t' in field or '\n' in field or '\r' in field:
+                raise ValueError(f"Argument cannot be sent to the Java service: {field!r}")
+
+        port = self.start()
+        with socket.create_connection(('127.0.0.1', port)) as connection:
+            connection.settimeout(REQUEST_TIMEOUT)
+            connection.sendall(('\t'.join(fields) + '\n').encode('utf-8'))
+            with connection.makefile('r', encoding='utf-8', newline='\n') as response:
+                line = response.readline()
+
+        tag, _, rest = line.rstrip('\n').partition('\t')
+        if tag == 'OK':
+            return rest.split('\t')
+        if tag == 'ERROR':
+            raise JavaServiceError(rest)
+        raise RuntimeError('Java HashMapper service closed the connection before answering')
+
+    def close(self):
+        """Stop the service."""
+        with self._lock:
+            if self._process is not None and self._process.poll() is None:
+                self._process.stdin.close()
+                try:
+                    self._process.wait(10)
+                except subprocess.TimeoutExpired:
+                    self._process.kill()
+            self._process = None
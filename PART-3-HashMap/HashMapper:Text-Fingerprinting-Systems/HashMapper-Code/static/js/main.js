@@ -306,6 +306,8 @@ experimentButtons.forEach(button => {
             case 'hashFunction': return 'Hash Function Comparison';
             case 'comparison': return 'HashMap Comparison';
             case 'textFingerprint': return 'Text Fingerprint Analysis';
+            case 'probing': return 'Chaining vs Probing';
+            case 'resize': return 'Put Latency While Growing';
             default: return 'Experiment Results';
         }
     }
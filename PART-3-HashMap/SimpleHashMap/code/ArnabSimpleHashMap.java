@@ -1,66 +1,118 @@
-import java.util.LinkedList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.TreeMap;
 
 /**
  * A simple HashMap implementation with a naive hashing function.
- * This implementation uses an array of LinkedLists to handle collisions.
+ * This implementation chains the entries of a bucket through their next field,
+ * so a bucket is just the first entry of its chain and needs no list object.
+ *
+ * The dumb hash puts every string of one length in the same bucket, so buckets get
+ * long. A chain that reaches TREEIFY_THRESHOLD entries whose keys are all of one
+ * Comparable class is turned into a tree bucket, a balanced tree ordered by compareTo,
+ * so that finding a key in it takes O(log n) comparisons rather than O(n). Such keys
+ * must compare as 0 only when they are equal, as for a TreeMap; String and Integer do.
+ *
+ * When the load factor threshold is reached the capacity doubles and the entries are
+ * moved to their new buckets as they are, without being put again. An incremental map
+ * moves them a few old buckets at a time, on each later put and remove, so that no
+ * single put stalls for the whole move.
  * @param <K> The type of keys in this map
  * @param <V> The type of values in this map
  */
 public class ArnabSimpleHashMap<K, V> {
     
-    // Data structure: Array of LinkedLists
-    private LinkedList<Entry<K, V>>[] data;
+    // Data structure: Array of entry chains, null for an empty bucket
+    private Entry<K, V>[] data;
     private int size; // Number of key-value pairs in the map
+    private final boolean incrementalResize;
     private static final int DEFAULT_CAPACITY = 16;
     private static final double LOAD_FACTOR_THRESHOLD = 0.75;
     
+    // A chain this long becomes a tree bucket, and a tree bucket this short a chain again
+    private static final int TREEIFY_THRESHOLD = 8;
+    private static final int UNTREEIFY_THRESHOLD = 6;
+    
+    // Old buckets moved on each put and remove during an incremental resize
+    private static final int BUCKETS_MOVED_PER_OPERATION = 4;
+    
+    // During an incremental resize: the buckets before it, and the first of them
+    // whose entries have not been moved yet
+    private Entry<K, V>[] oldData;
+    private int moveIndex;
+    
     /**
      * Internal class to store key-value pairs
      */
     private static class Entry<K, V> {
+        final int hash; // dumbHash of the key, before it is reduced to a bucket index
         K key;
         V value;
+        Entry<K, V> next; // Next entry in the chain of the bucket
         
-        Entry(K key, V value) {
+        Entry(int hash, K key, V value) {
+            this.hash = hash;
             this.key = key;
             this.value = value;
         }
     }
     
     /**
-     * Constructor that initializes with default capacity
+     * A bucket kept as a tree. It takes the place of the first entry of the chain, and
+     * holds the entries in a red-black tree keyed by their keys, all of keyClass.
      */
-    @SuppressWarnings("unchecked")
-    public ArnabSimpleHashMap() {
-        data = new LinkedList[DEFAULT_CAPACITY];
-        size = 0;
+    private static class TreeBucket<K, V> extends Entry<K, V> {
+        final Class<?> keyClass;
+        final TreeMap<K, Entry<K, V>> entries = new TreeMap<>();
+        
+        TreeBucket(Class<?> keyClass) {
+            super(0, null, null);
+            this.keyClass = keyClass;
+        }
         
-        // Initialize each bucket with an empty LinkedList
-        for (int i = 0; i < data.length; i++) {
-            data[i] = new LinkedList<>();
+        /**
+         * Checks whether the tree can order a key
+         */
+        boolean canHold(Object key) {
+            return key != null && key.getClass() == keyClass;
         }
     }
     
+    /**
+     * Constructor that initializes with default capacity
+     */
+    public ArnabSimpleHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+    
     /**
      * Constructor that initializes with specified capacity
      */
-    @SuppressWarnings("unchecked")
     public ArnabSimpleHashMap(int capacity) {
-        data = new LinkedList[capacity];
+        this(capacity, false);
+    }
+    
+    /**
+     * Constructor that initializes with specified capacity and chooses how to resize
+     * @param capacity Initial number of buckets
+     * @param incrementalResize Whether to move the entries to the doubled buckets a few
+     *                          buckets per operation, rather than all in the put that
+     *                          reaches the load factor threshold
+     */
+    @SuppressWarnings("unchecked")
+    public ArnabSimpleHashMap(int capacity, boolean incrementalResize) {
+        data = new Entry[capacity];
         size = 0;
-        
-        // Initialize each bucket with an empty LinkedList
-        for (int i = 0; i < data.length; i++) {
-            data[i] = new LinkedList<>();
-        }
+        this.incrementalResize = incrementalResize;
     }
     
     /**
      * Dumb hash function that counts the number of letters in a string
-     * For non-string keys, we use the hashCode() and take absolute value
+     * For non-string keys, we use the hashCode()
      */
     private int dumbHash(K key) {
         if (key == null) {
@@ -69,76 +121,145 @@ public class ArnabSimpleHashMap<K, V> {
         
         if (key instanceof String) {
             String str = (String) key;
-            return str.length() % data.length;
+            return str.length();
         } else {
             // For non-string keys, use their hashCode
-            return Math.abs(key.hashCode() % data.length);
+            return key.hashCode();
+        }
+    }
+    
+    /**
+     * Reduces a hash to a bucket index, taking the absolute value
+     */
+    private static int indexFor(int hash, int capacity) {
+        return Math.abs(hash % capacity);
+    }
+    
+    /**
+     * Finds the array holding the bucket of a key with this hash: the old one if its
+     * old bucket has not been moved yet, otherwise data
+     */
+    private Entry<K, V>[] tableFor(int hash) {
+        if (oldData != null && indexFor(hash, oldData.length) >= moveIndex) {
+            return oldData;
         }
+        return data;
     }
     
     /**
      * Puts a key-value pair into the map
      */
+    @SuppressWarnings("unchecked")
     public void put(K key, V value) {
+        moveOldBuckets(BUCKETS_MOVED_PER_OPERATION);
+        
         // Check if we need to resize
         if ((double) size / data.length >= LOAD_FACTOR_THRESHOLD) {
-            resize();
+            if (incrementalResize) {
+                startResize();
+            } else {
+                resize();
+            }
         }
         
-        int index = dumbHash(key);
-        LinkedList<Entry<K, V>> bucket = data[index];
+        int hash = dumbHash(key);
+        Entry<K, V>[] table = tableFor(hash);
+        int index = indexFor(hash, table.length);
+        
+        if (table[index] instanceof TreeBucket) {
+            TreeBucket<K, V> tree = (TreeBucket<K, V>) table[index];
+            if (tree.canHold(key)) {
+                Entry<K, V> entry = tree.entries.get(key);
+                if (entry != null) {
+                    entry.value = value; // Update the value
+                } else {
+                    tree.entries.put(key, new Entry<>(hash, key, value));
+                    size++;
+                }
+                return;
+            }
+            
+            // A key of another class cannot be ordered with the others
+            table[index] = untreeify(tree);
+        }
         
         // Check if key already exists
-        for (Entry<K, V> entry : bucket) {
-            if (entry.key.equals(key)) {
+        Entry<K, V> last = null;
+        int chainLength = 0;
+        for (Entry<K, V> entry = table[index]; entry != null; entry = entry.next) {
+            if (entry.hash == hash && Objects.equals(entry.key, key)) {
                 entry.value = value; // Update the value
                 return;
             }
+            last = entry;
+            chainLength++;
         }
         
-        // Key doesn't exist, add a new entry
-        bucket.add(new Entry<>(key, value));
+        // Key doesn't exist, add a new entry at the end of the chain
+        Entry<K, V> entry = new Entry<>(hash, key, value);
+        if (last == null) {
+            table[index] = entry;
+        } else {
+            last.next = entry;
+        }
         size++;
+        
+        if (chainLength + 1 >= TREEIFY_THRESHOLD) {
+            table[index] = treeify(table[index]);
+        }
     }
     
     /**
-     * Gets a value by key
+     * Finds the entry of a key, or null if the key is not in the map
      */
-    public V get(K key) {
-        int index = dumbHash(key);
-        LinkedList<Entry<K, V>> bucket = data[index];
+    @SuppressWarnings("unchecked")
+    private Entry<K, V> findEntry(K key) {
+        int hash = dumbHash(key);
+        Entry<K, V>[] table = tableFor(hash);
+        Entry<K, V> bucket = table[indexFor(hash, table.length)];
         
-        for (Entry<K, V> entry : bucket) {
-            if (entry.key.equals(key)) {
-                return entry.value;
+        if (bucket instanceof TreeBucket) {
+            TreeBucket<K, V> tree = (TreeBucket<K, V>) bucket;
+            return tree.canHold(key) ? tree.entries.get(key) : null;
+        }
+        
+        for (Entry<K, V> entry = bucket; entry != null; entry = entry.next) {
+            if (entry.hash == hash && Objects.equals(entry.key, key)) {
+                return entry;
             }
         }
         
         return null; // Key not found
     }
     
+    /**
+     * Gets a value by key
+     */
+    public V get(K key) {
+        Entry<K, V> entry = findEntry(key);
+        return entry == null ? null : entry.value;
+    }
+    
     /**
      * Checks if the map contains a key
      */
     public boolean containsKey(K key) {
-        int index = dumbHash(key);
-        LinkedList<Entry<K, V>> bucket = data[index];
-        
-        for (Entry<K, V> entry : bucket) {
-            if (entry.key.equals(key)) {
-                return true;
-            }
-        }
-        
-        return false;
+        return findEntry(key) != null;
     }
     
     /**
      * Checks if the map contains a value
      */
     public boolean containsValue(V value) {
-        for (LinkedList<Entry<K, V>> bucket : data) {
-            for (Entry<K, V> entry : bucket) {
+        if (containsValue(data, 0, value)) {
+            return true;
+        }
+        return oldData != null && containsValue(oldData, moveIndex, value);
+    }
+    
+    private boolean containsValue(Entry<K, V>[] buckets, int from, V value) {
+        for (int i = from; i < buckets.length; i++) {
+            for (Entry<K, V> entry : entriesOf(buckets[i])) {
                 if (entry.value == null) {
                     if (value == null) {
                         return true;
@@ -155,43 +276,210 @@ public class ArnabSimpleHashMap<K, V> {
     /**
      * Removes a key-value pair by key
      */
+    @SuppressWarnings("unchecked")
     public V remove(K key) {
-        int index = dumbHash(key);
-        LinkedList<Entry<K, V>> bucket = data[index];
+        moveOldBuckets(BUCKETS_MOVED_PER_OPERATION);
+        
+        int hash = dumbHash(key);
+        Entry<K, V>[] table = tableFor(hash);
+        int index = indexFor(hash, table.length);
+        
+        if (table[index] instanceof TreeBucket) {
+            TreeBucket<K, V> tree = (TreeBucket<K, V>) table[index];
+            Entry<K, V> removed = tree.canHold(key) ? tree.entries.remove(key) : null;
+            if (removed == null) {
+                return null; // Key not found
+            }
+            size--;
+            if (tree.entries.size() <= UNTREEIFY_THRESHOLD) {
+                table[index] = untreeify(tree);
+            }
+            return removed.value;
+        }
         
-        for (int i = 0; i < bucket.size(); i++) {
-            Entry<K, V> entry = bucket.get(i);
-            if (entry.key.equals(key)) {
-                bucket.remove(i);
+        // Unlink the entry from the chain
+        Entry<K, V> previous = null;
+        for (Entry<K, V> entry = table[index]; entry != null; entry = entry.next) {
+            if (entry.hash == hash && Objects.equals(entry.key, key)) {
+                if (previous == null) {
+                    table[index] = entry.next;
+                } else {
+                    previous.next = entry.next;
+                }
+                entry.next = null;
                 size--;
                 return entry.value;
             }
+            previous = entry;
         }
         
         return null; // Key not found
     }
     
     /**
-     * Dynamically resizes the array when load factor threshold is exceeded
+     * Turns a chain into a tree bucket, if its keys are all of one Comparable class
+     * @return The tree bucket, or the chain if it cannot be a tree
      */
-    @SuppressWarnings("unchecked")
-    public void resize() {
-        int newCapacity = data.length * 2;
-        LinkedList<Entry<K, V>>[] oldData = data;
+    private Entry<K, V> treeify(Entry<K, V> chain) {
+        Class<?> keyClass = chain.key == null ? null : chain.key.getClass();
+        if (keyClass == null || !Comparable.class.isAssignableFrom(keyClass)) {
+            return chain;
+        }
+        for (Entry<K, V> entry = chain.next; entry != null; entry = entry.next) {
+            if (entry.key == null || entry.key.getClass() != keyClass) {
+                return chain;
+            }
+        }
         
-        // Create new array with double capacity
-        data = new LinkedList[newCapacity];
-        for (int i = 0; i < data.length; i++) {
-            data[i] = new LinkedList<>();
+        TreeBucket<K, V> tree = new TreeBucket<>(keyClass);
+        Entry<K, V> entry = chain;
+        while (entry != null) {
+            Entry<K, V> next = entry.next;
+            entry.next = null;
+            tree.entries.put(entry.key, entry);
+            entry = next;
+        }
+        return tree;
+    }
+    
+    /**
+     * Turns a tree bucket back into a chain, in key order
+     * @return The first entry of the chain, or null if the tree is empty
+     */
+    private Entry<K, V> untreeify(TreeBucket<K, V> tree) {
+        Entry<K, V> first = null;
+        Entry<K, V> last = null;
+        for (Entry<K, V> entry : tree.entries.values()) {
+            if (last == null) {
+                first = entry;
+            } else {
+                last.next = entry;
+            }
+            last = entry;
+        }
+        return first;
+    }
+    
+    /**
+     * The entries of a bucket: a tree bucket's, or those of the chain starting at it.
+     * The chain iterator reads the next entry before returning one, so the returned
+     * entry can be linked elsewhere.
+     */
+    private static <K, V> Iterable<Entry<K, V>> entriesOf(Entry<K, V> bucket) {
+        if (bucket instanceof TreeBucket) {
+            return ((TreeBucket<K, V>) bucket).entries.values();
         }
         
-        size = 0; // Reset size as we'll reinsert all entries
+        return () -> new Iterator<Entry<K, V>>() {
+            private Entry<K, V> next = bucket;
+            
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+            
+            @Override
+            public Entry<K, V> next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                Entry<K, V> entry = next;
+                next = entry.next;
+                return entry;
+            }
+        };
+    }
+    
+    /**
+     * Counts the entries of a bucket
+     */
+    private static <K, V> int bucketSize(Entry<K, V> bucket) {
+        if (bucket instanceof TreeBucket) {
+            return ((TreeBucket<K, V>) bucket).entries.size();
+        }
         
-        // Reinsert all entries
-        for (LinkedList<Entry<K, V>> bucket : oldData) {
-            for (Entry<K, V> entry : bucket) {
-                put(entry.key, entry.value);
+        int count = 0;
+        for (Entry<K, V> entry = bucket; entry != null; entry = entry.next) {
+            count++;
+        }
+        return count;
+    }
+    
+    /**
+     * Dynamically resizes the array when load factor threshold is exceeded,
+     * moving every entry to its new bucket at once
+     */
+    public void resize() {
+        startResize();
+        moveOldBuckets(oldData.length);
+    }
+    
+    /**
+     * Doubles the capacity, leaving the entries in the old buckets to be moved
+     */
+    @SuppressWarnings("unchecked")
+    private void startResize() {
+        // Finish moving the entries of the previous resize first
+        if (oldData != null) {
+            moveOldBuckets(oldData.length);
+        }
+        
+        oldData = data;
+        moveIndex = 0;
+        data = new Entry[data.length * 2];
+    }
+    
+    /**
+     * Moves the entries of the next old buckets, if resizing. Doubling the capacity
+     * splits old bucket i between buckets i and i + old capacity, which are still empty,
+     * so the entries are relinked into two new chains without checking for duplicates.
+     */
+    private void moveOldBuckets(int count) {
+        if (oldData == null) {
+            return;
+        }
+        
+        int end = Math.min(oldData.length, moveIndex + count);
+        for (; moveIndex < end; moveIndex++) {
+            Entry<K, V> bucket = oldData[moveIndex];
+            if (bucket == null) {
+                continue;
+            }
+            oldData[moveIndex] = null;
+            
+            Entry<K, V> lowFirst = null, lowLast = null, highFirst = null, highLast = null;
+            int lowCount = 0, highCount = 0;
+            for (Entry<K, V> entry : entriesOf(bucket)) {
+                entry.next = null;
+                if (indexFor(entry.hash, data.length) == moveIndex) {
+                    if (lowLast == null) {
+                        lowFirst = entry;
+                    } else {
+                        lowLast.next = entry;
+                    }
+                    lowLast = entry;
+                    lowCount++;
+                } else {
+                    if (highLast == null) {
+                        highFirst = entry;
+                    } else {
+                        highLast.next = entry;
+                    }
+                    highLast = entry;
+                    highCount++;
+                }
+            }
+            
+            if (lowFirst != null) {
+                data[moveIndex] = lowCount >= TREEIFY_THRESHOLD ? treeify(lowFirst) : lowFirst;
             }
+            if (highFirst != null) {
+                data[moveIndex + oldData.length] = highCount >= TREEIFY_THRESHOLD ? treeify(highFirst) : highFirst;
+            }
+        }
+        
+        if (moveIndex == oldData.length) {
+            oldData = null;
         }
     }
     
@@ -221,9 +509,19 @@ public class ArnabSimpleHashMap<K, V> {
      */
     public List<Integer> getBucketSizes() {
         List<Integer> bucketSizes = new ArrayList<>();
-        for (LinkedList<Entry<K, V>> bucket : data) {
-            bucketSizes.add(bucket.size());
+        for (Entry<K, V> bucket : data) {
+            bucketSizes.add(bucketSize(bucket));
+        }
+        
+        // Entries not moved yet count in the bucket they will be moved to
+        if (oldData != null) {
+            for (int i = moveIndex; i < oldData.length; i++) {
+                for (Entry<K, V> entry : entriesOf(oldData[i])) {
+                    int index = indexFor(entry.hash, data.length);
+                    bucketSizes.set(index, bucketSizes.get(index) + 1);
+                }
+            }
         }
         return bucketSizes;
     }
-}
\ No newline at end of file
+}
@@ -2,6 +2,7 @@ import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -17,6 +18,7 @@ public class HashMapTester {
     private static final int LOOKUP_OPERATIONS = 10000;
     private static final int RANDOM_STRING_LENGTH = 10;
     private static final String ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+    private static final int WARMUP_PUTS = 10000;
     private static final Random RANDOM = new Random();
     
     public static void main(String[] args) {
@@ -27,6 +29,7 @@ public class HashMapTester {
         testLookup();
         testBucketDistribution();
         testResizing();
+        testPutLatency();
         
         System.out.println("Tests completed. Check the CSV files for results.");
     }
@@ -196,6 +199,79 @@ public class HashMapTester {
         }
     }
     
+    /**
+     * Test the latency of single puts while the map grows, resizing all at once or
+     * incrementally. Times are in nanoseconds; ResizePutMaxTime is the longest put
+     * that doubled the capacity.
+     */
+    private static void testPutLatency() {
+        System.out.println("\nTesting Put Latency...");
+        
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter("put_latency.csv"))) {
+            // Write header
+            writer.write("Resize,P50Time,P90Time,P99Time,P999Time,P9999Time,ResizePutMaxTime,MaxTime,TotalTime\n");
+            
+            // Use the largest data size
+            int dataSize = DATA_SIZES[DATA_SIZES.length - 1];
+            List<String> randomStrings = generateRandomStrings(dataSize);
+            long[] putTimes = new long[dataSize];
+            
+            for (boolean incremental : new boolean[] {false, true}) {
+                System.out.println("Testing " + (incremental ? "incremental" : "all at once") + " resizing");
+                
+                // Warm up, so compiling put does not show up in the times
+                timePuts(new ArnabSimpleHashMap<>(16, incremental), randomStrings.subList(0, WARMUP_PUTS),
+                        new long[WARMUP_PUTS]);
+                System.gc();
+                
+                long resizePutMax = timePuts(new ArnabSimpleHashMap<>(16, incremental), randomStrings, putTimes);
+                long totalTime = 0;
+                for (long putTime : putTimes) {
+                    totalTime += putTime;
+                }
+                Arrays.sort(putTimes);
+                
+                // Write results
+                writer.write((incremental ? "Incremental" : "All At Once") + ","
+                        + percentile(putTimes, 0.50) + "," + percentile(putTimes, 0.90) + ","
+                        + percentile(putTimes, 0.99) + "," + percentile(putTimes, 0.999) + ","
+                        + percentile(putTimes, 0.9999) + "," + resizePutMax + ","
+                        + putTimes[putTimes.length - 1] + "," + totalTime + "\n");
+            }
+        } catch (IOException e) {
+            System.err.println("Error writing to file: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Put each key, recording the time of every put
+     * @return The longest time of a put that changed the capacity
+     */
+    private static long timePuts(ArnabSimpleHashMap<String, Integer> map, List<String> keys, long[] putTimes) {
+        long resizePutMax = 0;
+        
+        for (int i = 0; i < keys.size(); i++) {
+            int capacity = map.capacity();
+            long startTime = System.nanoTime();
+            map.put(keys.get(i), i);
+            putTimes[i] = System.nanoTime() - startTime;
+            
+            if (map.capacity() != capacity) {
+                resizePutMax = Math.max(resizePutMax, putTimes[i]);
+            }
+        }
+        
+        return resizePutMax;
+    }
+    
+    /**
+     * Nearest-rank percentile of sorted times
+     */
+    private static long percentile(long[] sortedTimes, double fraction) {
+        int rank = (int) Math.ceil(fraction * sortedTimes.length);
+        return sortedTimes[Math.max(0, rank - 1)];
+    }
+    
     /**
      * Generate random strings
      */
@@ -8,7 +8,10 @@ import javax.swing.SwingUtilities;
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.ChartPanel;
 import org.jfree.chart.JFreeChart;
+import org.jfree.chart.axis.LogAxis;
+import org.jfree.chart.axis.NumberAxis;
 import org.jfree.chart.plot.PlotOrientation;
+import org.jfree.chart.renderer.category.BarRenderer;
 import org.jfree.data.category.DefaultCategoryDataset;
 import org.jfree.data.xy.XYSeries;
 import org.jfree.data.xy.XYSeriesCollection;
@@ -39,6 +42,7 @@ public class HashMapVisualizer {
             tabbedPane.addTab("Lookup Performance", createLookupChart());
             tabbedPane.addTab("Bucket Distribution", createBucketDistributionChart());
             tabbedPane.addTab("Resizing Behavior", createResizingChart());
+            tabbedPane.addTab("Put Latency", createPutLatencyChart());
         } catch (IOException e) {
             System.err.println("Error creating charts: " + e.getMessage());
         }
@@ -207,4 +211,42 @@ public class HashMapVisualizer {
         
         return new ChartPanel(chart);
     }
+    
+    private static ChartPanel createPutLatencyChart() throws IOException {
+        DefaultCategoryDataset dataset = new DefaultCategoryDataset();
+        String[] columns = {"p50", "p90", "p99", "p99.9", "p99.99", "Resize Put", "Max"};
+        
+        try (BufferedReader reader = new BufferedReader(new FileReader("put_latency.csv"))) {
+            // Skip header
+            reader.readLine();
+            
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] values = line.split(",");
+                for (int i = 0; i < columns.length; i++) {
+                    double time = Double.parseDouble(values[i + 1]) / 1_000.0; // Convert to us
+                    dataset.addValue(time, values[0], columns[i]);
+                }
+            }
+        }
+        
+        JFreeChart chart = ChartFactory.createBarChart(
+            "Put Latency While Resizing",
+            "Percentile",
+            "Time (us)",
+            dataset,
+            PlotOrientation.VERTICAL,
+            true,
+            true,
+            false
+        );
+        
+        // The longest puts take thousands of times longer than the typical one
+        LogAxis rangeAxis = new LogAxis("Time (us, log scale)");
+        rangeAxis.setStandardTickUnits(NumberAxis.createIntegerTickUnits());
+        chart.getCategoryPlot().setRangeAxis(rangeAxis);
+        ((BarRenderer) chart.getCategoryPlot().getRenderer()).setIncludeBaseInRange(false);
+        
+        return new ChartPanel(chart);
+    }
 }
\ No newline at end of file
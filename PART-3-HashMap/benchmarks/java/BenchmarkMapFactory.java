@@ -0,0 +1,90 @@
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import benchmarks.BenchmarkMap;
+
+/**
+ * Creates the maps the benchmarks in the benchmarks package time. It is in the default
+ * package, with the maps, so it can use HashMapper.DumbHashMap.
+ */
+public class BenchmarkMapFactory implements BenchmarkMap.Factory {
+
+    @Override
+    public BenchmarkMap create(String map, int mapSize) {
+        int slash = map.indexOf('/');
+        String implementation = slash < 0 ? map : map.substring(0, slash);
+        String hashFunction = slash < 0 ? null : map.substring(slash + 1);
+
+        switch (implementation) {
+            case "SimpleHashMap": {
+                SimpleHashMap<Object, Integer> target =
+                        new SimpleHashMap<>(mapSize, HashFunctions.forName(hashFunction));
+                return new BenchmarkMap() {
+                    public void put(Object key, Integer value) { target.put(key, value); }
+                    public Integer get(Object key) { return target.get(key); }
+                    public boolean containsKey(Object key) { return target.containsKey(key); }
+                    public boolean remove(Object key) { return target.remove(key); }
+                };
+            }
+            case "DumbHashMap": {
+                HashMapper.DumbHashMap<Object, Integer> target =
+                        new HashMapper.DumbHashMap<>(mapSize, HashFunctions.forName(hashFunction));
+                return new BenchmarkMap() {
+                    public void put(Object key, Integer value) { target.put(key, value); }
+                    public Integer get(Object key) { return target.get(key); }
+                    public boolean containsKey(Object key) { return target.get(key) != null; }
+                    public boolean remove(Object key) { throw new UnsupportedOperationException("DumbHashMap.remove"); }
+                };
+            }
+            case "OpenAddressingHashMap": {
+                OpenAddressingHashMap<Object, Integer> target = new OpenAddressingHashMap<>(mapSize,
+                        hashFunction == null ? HashFunctions.MURMUR3 : HashFunctions.forName(hashFunction));
+                return new BenchmarkMap() {
+                    public void put(Object key, Integer value) { target.put(key, value); }
+                    public Integer get(Object key) { return target.get(key); }
+                    public boolean containsKey(Object key) { return target.containsKey(key); }
+                    public boolean remove(Object key) { return target.remove(key); }
+                };
+            }
+            case "ConcurrentSimpleHashMap": {
+                ConcurrentSimpleHashMap<Object, Integer> target = new ConcurrentSimpleHashMap<>(mapSize,
+                        hashFunction == null ? HashFunctions.MURMUR3 : HashFunctions.forName(hashFunction));
+                return new BenchmarkMap() {
+                    public void put(Object key, Integer value) { target.put(key, value); }
+                    public Integer get(Object key) { return target.get(key); }
+                    public boolean containsKey(Object key) { return target.containsKey(key); }
+                    public boolean remove(Object key) { return target.remove(key); }
+                };
+            }
+            case "ArnabSimpleHashMap": {
+                ArnabSimpleHashMap<Object, Integer> target = new ArnabSimpleHashMap<>(mapSize);
+                return new BenchmarkMap() {
+                    public void put(Object key, Integer value) { target.put(key, value); }
+                    public Integer get(Object key) { return target.get(key); }
+                    public boolean containsKey(Object key) { return target.containsKey(key); }
+                    public boolean remove(Object key) { return target.remove(key) != null; }
+                };
+            }
+            case "JavaHashMap": {
+                HashMap<Object, Integer> target = new HashMap<>(mapSize);
+                return new BenchmarkMap() {
+                    public void put(Object key, Integer value) { target.put(key, value); }
+                    public Integer get(Object key) { return target.get(key); }
+                    public boolean containsKey(Object key) { return target.containsKey(key); }
+                    public boolean remove(Object key) { return target.remove(key) != null; }
+                };
+            }
+            case "ConcurrentHashMap": {
+                ConcurrentHashMap<Object, Integer> target = new ConcurrentHashMap<>(mapSize);
+                return new BenchmarkMap() {
+                    public void put(Object key, Integer value) { target.put(key, value); }
+                    public Integer get(Object key) { return target.get(key); }
+                    public boolean containsKey(Object key) { return target.containsKey(key); }
+                    public boolean remove(Object key) { return target.remove(key) != null; }
+                };
+            }
+            default:
+                throw new IllegalArgumentException("Unknown map: " + map);
+        }
+    }
+}
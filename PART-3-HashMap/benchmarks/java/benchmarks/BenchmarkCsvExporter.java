@@ -0,0 +1,318 @@
+package benchmarks;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Turns the CSV results of the JMH benchmarks (java -jar ... -rf csv) into the CSV
+ * files the visualizers read, with the same columns as the experiments write:
+ *   lookup_performance.csv   (HashMapExperiment.runLookupExperiment)
+ *   hashmap_comparison.csv   (HashMapExperiment.compareWithJavaHashMap)
+ *   insertion_results.csv    (HashMapTester.testInsertion)
+ *   lookup_results.csv       (HashMapTester.testLookup)
+ * and map_benchmarks.csv with every result. The experiments time 10,000 lookups (or
+ * all keys, for fewer), so lookup times are the JMH time per lookup times that count.
+ * concurrent_throughput.csv has the operations per second of MapConcurrencyBenchmark
+ * for each number of threads.
+ *
+ * Usage: java BenchmarkCsvExporter output-directory jmh-results.csv [more-results.csv ...]
+ * A file is written only if the results hold the benchmarks it needs.
+ */
+public class BenchmarkCsvExporter {
+
+    // Number of lookups the experiments time
+    private static final int LOOKUP_COUNT = 10000;
+
+    // The map the HashMapper experiments measure, with its default hash function
+    private static final String SIMPLE_MAP = "SimpleHashMap/String Length";
+
+    // Initial capacity of the maps in HashMapTester
+    private static final int TESTER_MAP_SIZE = 16;
+
+    /**
+     * One benchmark score
+     */
+    static class Result {
+        final String benchmark;
+        final int threads;
+        final String map;
+        final String keyType;
+        final int dataSize;
+        final int mapSize;
+        final double score;
+        final double error;
+        final String unit;
+
+        Result(String benchmark, int threads, String map, String keyType, int dataSize, int mapSize,
+               double score, double error, String unit) {
+            this.benchmark = benchmark;
+            this.threads = threads;
+            this.map = map;
+            this.keyType = keyType;
+            this.dataSize = dataSize;
+            this.mapSize = mapSize;
+            this.score = score;
+            this.error = error;
+            this.unit = unit;
+        }
+
+        // Score in nanoseconds
+        double nanos() {
+            switch (unit) {
+                case "ns/op":
+                    return score;
+                case "us/op":
+                    return score * 1e3;
+                case "ms/op":
+                    return score * 1e6;
+                case "s/op":
+                    return score * 1e9;
+                default:
+                    throw new IllegalArgumentException("Unsupported unit: " + unit);
+            }
+        }
+    }
+
+    /**
+     * Read the results of a JMH run
+     *
+     * @param file CSV file written with -rf csv
+     * @return The results
+     */
+    public static List<Result> read(File file) throws IOException {
+        List<Result> results = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line = reader.readLine();
+            if (line == null) {
+                return results;
+            }
+            List<String> header = splitLine(line);
+            Map<String, Integer> column = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                column.put(header.get(i), i);
+            }
+
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                List<String> fields = splitLine(line);
+                String benchmark = fields.get(column.get("Benchmark"));
+                results.add(new Result(
+                        benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1),
+                        Integer.parseInt(fields.get(column.get("Threads"))),
+                        fields.get(column.get("Param: map")),
+                        fields.get(column.get("Param: keyType")),
+                        Integer.parseInt(fields.get(column.get("Param: dataSize"))),
+                        Integer.parseInt(fields.get(column.get("Param: mapSize"))),
+                        parseNumber(fields.get(column.get("Score"))),
+                        parseNumber(fields.get(column.get("Score Error (99.9%)"))),
+                        fields.get(column.get("Unit"))));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Write every CSV file the results have the benchmarks for
+     *
+     * @param results Results of one or more JMH runs
+     * @param directory Directory to write to
+     */
+    public static void export(List<Result> results, File directory) throws IOException {
+        directory.mkdirs();
+        writeAll(results, new File(directory, "map_benchmarks.csv"));
+
+        // HashMapExperiment.runLookupExperiment: 10,000 lookups per data and map size
+        List<Result> simpleLookups = select(results, "MapLookupBenchmark.getHit", SIMPLE_MAP, -1);
+        if (!simpleLookups.isEmpty()) {
+            try (Writer writer = new FileWriter(new File(directory, "lookup_performance.csv"))) {
+                writer.write("DataSize,MapSize,LoadFactor,LookupTimeMs\n");
+                for (Result result : simpleLookups) {
+                    writer.write(String.format("%d,%d,%.4f,%.4f\n", result.dataSize, result.mapSize,
+                            (double) result.dataSize / result.mapSize, lookupNanos(result) / 1e6));
+                }
+            }
+        }
+
+        // HashMapExperiment.compareWithJavaHashMap: SimpleHashMap of 1024 buckets against HashMap
+        List<Result[]> comparison = pair(
+                select(results, "MapLookupBenchmark.getHit", SIMPLE_MAP, 1024),
+                select(results, "MapLookupBenchmark.getHit", "JavaHashMap", 1024));
+        if (!comparison.isEmpty()) {
+            try (Writer writer = new FileWriter(new File(directory, "hashmap_comparison.csv"))) {
+                writer.write("DataSize,SimpleHashMapTimeMs,JavaHashMapTimeMs\n");
+                for (Result[] row : comparison) {
+                    writer.write(String.format("%d,%.4f,%.4f\n", row[0].dataSize,
+                            lookupNanos(row[0]) / 1e6, lookupNanos(row[1]) / 1e6));
+                }
+            }
+        }
+
+        // HashMapTester.testInsertion: nanoseconds to put every key, starting from 16 buckets
+        List<Result[]> insertion = pair(
+                select(results, "MapUpdateBenchmark.fill", "ArnabSimpleHashMap", TESTER_MAP_SIZE),
+                select(results, "MapUpdateBenchmark.fill", "JavaHashMap", TESTER_MAP_SIZE));
+        if (!insertion.isEmpty()) {
+            try (Writer writer = new FileWriter(new File(directory, "insertion_results.csv"))) {
+                writer.write("DataSize,CustomHashMapTime,JavaHashMapTime\n");
+                for (Result[] row : insertion) {
+                    writer.write(row[0].dataSize + "," + Math.round(row[0].nanos()) + ","
+                            + Math.round(row[1].nanos()) + "\n");
+                }
+            }
+        }
+
+        // HashMapTester.testLookup: nanoseconds for 10,000 lookups
+        List<Result[]> testerLookups = pair(
+                select(results, "MapLookupBenchmark.getHit", "ArnabSimpleHashMap", TESTER_MAP_SIZE),
+                select(results, "MapLookupBenchmark.getHit", "JavaHashMap", TESTER_MAP_SIZE));
+        if (!testerLookups.isEmpty()) {
+            try (Writer writer = new FileWriter(new File(directory, "lookup_results.csv"))) {
+                writer.write("DataSize,CustomHashMapTime,JavaHashMapTime\n");
+                for (Result[] row : testerLookups) {
+                    writer.write(row[0].dataSize + "," + Math.round(lookupNanos(row[0])) + ","
+                            + Math.round(lookupNanos(row[1])) + "\n");
+                }
+            }
+        }
+
+        // MapConcurrencyBenchmark: each thread's time per operation, as the map's throughput
+        List<Result> concurrent = new ArrayList<>();
+        for (Result result : results) {
+            if (result.benchmark.startsWith("MapConcurrencyBenchmark.")) {
+                concurrent.add(result);
+            }
+        }
+        if (!concurrent.isEmpty()) {
+            concurrent.sort(Comparator.comparing((Result r) -> r.benchmark).thenComparing(r -> r.map)
+                    .thenComparingInt(r -> r.threads));
+            try (Writer writer = new FileWriter(new File(directory, "concurrent_throughput.csv"))) {
+                writer.write("Benchmark,Map,HashFunction,Threads,OpsPerSecond\n");
+                for (Result result : concurrent) {
+                    int slash = result.map.indexOf('/');
+                    String map = slash < 0 ? result.map : result.map.substring(0, slash);
+                    String hashFunction = slash < 0 ? "" : result.map.substring(slash + 1);
+                    writer.write(String.format("%s,%s,%s,%d,%.0f\n", result.benchmark, map, hashFunction,
+                            result.threads, result.threads * 1e9 / result.nanos()));
+                }
+            }
+        }
+    }
+
+    // Every result, one per line, with the load factor and the score in nanoseconds
+    private static void writeAll(List<Result> results, File file) throws IOException {
+        try (Writer writer = new FileWriter(file)) {
+            writer.write("Benchmark,Map,HashFunction,KeyType,DataSize,MapSize,LoadFactor,TimeNs,ErrorNs,Threads\n");
+            for (Result result : results) {
+                int slash = result.map.indexOf('/');
+                String map = slash < 0 ? result.map : result.map.substring(0, slash);
+                String hashFunction = slash < 0 ? "" : result.map.substring(slash + 1);
+                double scale = result.nanos() / result.score;
+                writer.write(String.format("%s,%s,%s,%s,%d,%d,%.4f,%.3f,%.3f,%d\n", result.benchmark, map,
+                        hashFunction, result.keyType, result.dataSize, result.mapSize,
+                        (double) result.dataSize / result.mapSize, result.nanos(), result.error * scale,
+                        result.threads));
+            }
+        }
+    }
+
+    // Time the experiments would report for their lookups, in nanoseconds
+    private static double lookupNanos(Result result) {
+        return result.nanos() * Math.min(LOOKUP_COUNT, result.dataSize);
+    }
+
+    // String-key results of one benchmark and map, for one map size or any (-1),
+    // ordered by data size then map size
+    private static List<Result> select(List<Result> results, String benchmark, String map, int mapSize) {
+        List<Result> selected = new ArrayList<>();
+        for (Result result : results) {
+            if (result.benchmark.equals(benchmark) && result.map.equals(map) && result.keyType.equals("String")
+                    && (mapSize < 0 || result.mapSize == mapSize)) {
+                selected.add(result);
+            }
+        }
+        selected.sort(Comparator.comparingInt((Result r) -> r.dataSize).thenComparingInt(r -> r.mapSize));
+        return selected;
+    }
+
+    // Pair up two maps' results by data size, keeping the sizes both have
+    private static List<Result[]> pair(List<Result> first, List<Result> second) {
+        Map<Integer, Result> byDataSize = new HashMap<>();
+        for (Result result : second) {
+            byDataSize.put(result.dataSize, result);
+        }
+
+        List<Result[]> pairs = new ArrayList<>();
+        TreeSet<Integer> seen = new TreeSet<>();
+        for (Result result : first) {
+            Result other = byDataSize.get(result.dataSize);
+            if (other != null && seen.add(result.dataSize)) {
+                pairs.add(new Result[] {result, other});
+            }
+        }
+        return pairs;
+    }
+
+    // Split a CSV line, removing the quotes JMH puts around text fields
+    private static List<String> splitLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                if (quoted && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = !quoted;
+                }
+            } else if (c == ',' && !quoted) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    // JMH writes NaN for the error of a single measurement
+    private static double parseNumber(String text) {
+        return text.isEmpty() ? Double.NaN : Double.parseDouble(text);
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: java BenchmarkCsvExporter output-directory jmh-results.csv [more-results.csv ...]");
+            System.exit(1);
+        }
+
+        try {
+            List<Result> results = new ArrayList<>();
+            for (int i = 1; i < args.length; i++) {
+                File file = new File(args[i]);
+                if (file.exists()) {
+                    results.addAll(read(file));
+                }
+            }
+            export(results, new File(args[0]));
+            System.out.println("Wrote " + results.size() + " results to " + args[0]);
+        } catch (IOException e) {
+            System.err.println("Error exporting benchmark results: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package benchmarks;
+
+import java.util.LinkedHashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Keys for the benchmarks: random strings like the ones HashMapExperiment generates
+ * (5 to 15 letters and digits), or random non-negative integers. The keys are distinct
+ * and the same for every run, so results can be compared between runs and maps.
+ */
+public class BenchmarkKeys {
+
+    private static final String CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+
+    private BenchmarkKeys() {
+    }
+
+    /**
+     * Generate distinct keys
+     *
+     * @param keyType "String" or "Integer"
+     * @param count Number of keys
+     * @param seed Seed of the random generator
+     * @return The keys, in generation order
+     */
+    public static Object[] generate(String keyType, int count, long seed) {
+        Random random = new Random(seed);
+        Set<Object> keys = new LinkedHashSet<>(count * 2);
+
+        while (keys.size() < count) {
+            switch (keyType) {
+                case "String":
+                    int length = 5 + random.nextInt(11);
+                    StringBuilder sb = new StringBuilder(length);
+                    for (int j = 0; j < length; j++) {
+                        sb.append(CHARS.charAt(random.nextInt(CHARS.length())));
+                    }
+                    keys.add(sb.toString());
+                    break;
+                case "Integer":
+                    keys.add(random.nextInt(Integer.MAX_VALUE));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown key type: " + keyType);
+            }
+        }
+
+        return keys.toArray();
+    }
+
+    /**
+     * Split generated keys into the ones put in the map and the ones that are not
+     *
+     * @param keys Keys from generate, at least twice the number present
+     * @param present Number of keys put in the map
+     * @return The keys in the map, then the same number of keys not in it
+     */
+    public static Object[][] split(Object[] keys, int present) {
+        Object[] hits = new Object[present];
+        Object[] misses = new Object[present];
+        System.arraycopy(keys, 0, hits, 0, present);
+        System.arraycopy(keys, present, misses, 0, present);
+        return new Object[][] {hits, misses};
+    }
+}
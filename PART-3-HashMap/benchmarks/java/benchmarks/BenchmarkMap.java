@@ -0,0 +1,58 @@
+package benchmarks;
+
+/**
+ * The operations the benchmarks time, over each hash map in the project and
+ * java.util.HashMap, so one benchmark method covers all of them. Only the maps of
+ * ConcurrentSimpleHashMap and ConcurrentHashMap can be shared between threads.
+ *
+ * The maps are in the default package, which JMH benchmarks cannot be in and classes
+ * in a package cannot refer to, so the maps are created by BenchmarkMapFactory in the
+ * default package, which is looked up once by name.
+ */
+public interface BenchmarkMap {
+
+    void put(Object key, Integer value);
+
+    Integer get(Object key);
+
+    boolean containsKey(Object key);
+
+    /**
+     * Remove a key
+     *
+     * @return true if the key was in the map
+     * @throws UnsupportedOperationException For HashMapper.DumbHashMap, which has no remove
+     */
+    boolean remove(Object key);
+
+    /**
+     * Creates the maps under test
+     */
+    interface Factory {
+
+        /**
+         * Create an empty map
+         *
+         * @param map "SimpleHashMap/<hash function>", "DumbHashMap/<hash function>",
+         *            "OpenAddressingHashMap[/<hash function>]", "ArnabSimpleHashMap",
+         *            "ConcurrentSimpleHashMap[/<hash function>]", "JavaHashMap" or
+         *            "ConcurrentHashMap", where the hash function is the name of one of
+         *            HashFunctions', e.g. "Character Sum" or "Murmur3" (the default)
+         * @param mapSize Number of buckets. SimpleHashMap, DumbHashMap and
+         *                ConcurrentSimpleHashMap keep this size; the other maps start
+         *                with it and grow.
+         */
+        BenchmarkMap create(String map, int mapSize);
+    }
+
+    /**
+     * Get the factory of the maps
+     */
+    static Factory factory() {
+        try {
+            return (Factory) Class.forName("BenchmarkMapFactory").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("BenchmarkMapFactory is not on the classpath", e);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+/**
+ * Time of operations on one map holding dataSize keys, shared by all the benchmark
+ * threads; run it with -t for the number of threads. The score is the average time of
+ * an operation in one thread, so the throughput of the map is threads / score, which
+ * BenchmarkCsvExporter writes to concurrent_throughput.csv.
+ *
+ * Each thread cycles through the keys from its own starting point. getHit looks a key
+ * up, putExisting replaces the value of a key, and readMostly does a put for every
+ * ninth get, so the map keeps its size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapConcurrencyBenchmark {
+
+    // One put for this many operations in readMostly
+    private static final int OPERATIONS_PER_PUT = 10;
+
+    @Param({"ConcurrentSimpleHashMap/Murmur3", "ConcurrentSimpleHashMap/String Length", "ConcurrentHashMap"})
+    public String map;
+
+    @Param({"String"})
+    public String keyType;
+
+    @Param({"10000"})
+    public int dataSize;
+
+    @Param({"16384"})
+    public int mapSize;
+
+    private BenchmarkMap target;
+    private Object[] keys;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        keys = BenchmarkKeys.generate(keyType, dataSize, 42);
+        target = BenchmarkMap.factory().create(map, mapSize);
+        for (int i = 0; i < keys.length; i++) {
+            target.put(keys[i], i);
+        }
+    }
+
+    /**
+     * The position of one thread in the keys
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+        private int operations;
+
+        @Setup(Level.Trial)
+        public void setUp(MapConcurrencyBenchmark benchmark, ThreadParams threads) {
+            // Spread the threads over the keys
+            next = (int) ((long) benchmark.dataSize * threads.getThreadIndex() / threads.getThreadCount());
+            operations = 0;
+        }
+
+        // Index of the next key, cycling through the keys
+        int nextIndex(int dataSize) {
+            int index = next;
+            next = index + 1 == dataSize ? 0 : index + 1;
+            return index;
+        }
+    }
+
+    @Benchmark
+    public Integer getHit(Cursor cursor) {
+        return target.get(keys[cursor.nextIndex(dataSize)]);
+    }
+
+    @Benchmark
+    public void putExisting(Cursor cursor) {
+        int index = cursor.nextIndex(dataSize);
+        target.put(keys[index], index);
+    }
+
+    @Benchmark
+    public Integer readMostly(Cursor cursor) {
+        int index = cursor.nextIndex(dataSize);
+        if (++cursor.operations == OPERATIONS_PER_PUT) {
+            cursor.operations = 0;
+            target.put(keys[index], index);
+            return null;
+        }
+        return target.get(keys[index]);
+    }
+}
@@ -0,0 +1,97 @@
+package benchmarks;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time of one get or containsKey on a map holding dataSize keys in mapSize buckets
+ * (a load factor of dataSize / mapSize), for a key that is in the map (hit) and one
+ * that is not (miss). Each call looks up the next key of a shuffled list, so the
+ * score is the average over all the keys.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapLookupBenchmark {
+
+    @Param({"SimpleHashMap/String Length", "SimpleHashMap/Character Sum", "SimpleHashMap/Murmur3",
+            "DumbHashMap/String Length", "ArnabSimpleHashMap", "JavaHashMap"})
+    public String map;
+
+    @Param({"String", "Integer"})
+    public String keyType;
+
+    @Param({"10000"})
+    public int dataSize;
+
+    @Param({"1024"})
+    public int mapSize;
+
+    private BenchmarkMap target;
+    private Object[] hits;
+    private Object[] misses;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Object[][] keys = BenchmarkKeys.split(BenchmarkKeys.generate(keyType, 2 * dataSize, 42), dataSize);
+        hits = keys[0];
+        misses = keys[1];
+
+        target = BenchmarkMap.factory().create(map, mapSize);
+        for (int i = 0; i < hits.length; i++) {
+            target.put(hits[i], i);
+        }
+
+        // Look keys up in a different order than they were put in
+        List<Object> order = Arrays.asList(hits);
+        Collections.shuffle(order, new Random(7));
+        next = 0;
+    }
+
+    @Benchmark
+    public Integer getHit() {
+        return target.get(hits[nextIndex()]);
+    }
+
+    @Benchmark
+    public Integer getMiss() {
+        return target.get(misses[nextIndex()]);
+    }
+
+    @Benchmark
+    public boolean containsKeyHit() {
+        return target.containsKey(hits[nextIndex()]);
+    }
+
+    @Benchmark
+    public boolean containsKeyMiss() {
+        return target.containsKey(misses[nextIndex()]);
+    }
+
+    // Index of the next key to look up, cycling through the keys
+    private int nextIndex() {
+        int index = next;
+        next = index + 1 == dataSize ? 0 : index + 1;
+        return index;
+    }
+}
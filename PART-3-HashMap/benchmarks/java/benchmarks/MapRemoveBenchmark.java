@@ -0,0 +1,82 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time of remove on a map holding dataSize keys. A removed key is put back in the same
+ * call so the map keeps its size, making the hit score the cost of a remove and a put;
+ * the miss score is a remove of a key that is not in the map. HashMapper.DumbHashMap
+ * has no remove and is not measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapRemoveBenchmark {
+
+    @Param({"SimpleHashMap/String Length", "SimpleHashMap/Character Sum", "SimpleHashMap/Murmur3",
+            "ArnabSimpleHashMap", "JavaHashMap"})
+    public String map;
+
+    @Param({"String", "Integer"})
+    public String keyType;
+
+    @Param({"10000"})
+    public int dataSize;
+
+    @Param({"1024"})
+    public int mapSize;
+
+    private BenchmarkMap target;
+    private Object[] hits;
+    private Object[] misses;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Object[][] keys = BenchmarkKeys.split(BenchmarkKeys.generate(keyType, 2 * dataSize, 42), dataSize);
+        hits = keys[0];
+        misses = keys[1];
+
+        target = BenchmarkMap.factory().create(map, mapSize);
+        for (int i = 0; i < hits.length; i++) {
+            target.put(hits[i], i);
+        }
+        next = 0;
+    }
+
+    @Benchmark
+    public boolean removeHitAndPutBack() {
+        int index = nextIndex();
+        boolean removed = target.remove(hits[index]);
+        target.put(hits[index], index);
+        return removed;
+    }
+
+    @Benchmark
+    public boolean removeMiss() {
+        return target.remove(misses[nextIndex()]);
+    }
+
+    // Index of the next key, cycling through the keys
+    private int nextIndex() {
+        int index = next;
+        next = index + 1 == dataSize ? 0 : index + 1;
+        return index;
+    }
+}
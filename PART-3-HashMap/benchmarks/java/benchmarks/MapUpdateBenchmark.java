@@ -0,0 +1,75 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to fill an empty map with dataSize keys, and of one put that replaces the
+ * value of a key already in a full map.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapUpdateBenchmark {
+
+    @Param({"SimpleHashMap/String Length", "SimpleHashMap/Character Sum", "SimpleHashMap/Murmur3",
+            "DumbHashMap/String Length", "ArnabSimpleHashMap", "JavaHashMap"})
+    public String map;
+
+    @Param({"String", "Integer"})
+    public String keyType;
+
+    @Param({"10000"})
+    public int dataSize;
+
+    @Param({"1024"})
+    public int mapSize;
+
+    private BenchmarkMap.Factory factory;
+    private BenchmarkMap full;
+    private Object[] keys;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        factory = BenchmarkMap.factory();
+        keys = BenchmarkKeys.generate(keyType, dataSize, 42);
+        full = fill();
+        next = 0;
+    }
+
+    /**
+     * Put every key into a new map; the score is the time for all dataSize puts
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public BenchmarkMap fill() {
+        BenchmarkMap target = factory.create(map, mapSize);
+        for (int i = 0; i < keys.length; i++) {
+            target.put(keys[i], i);
+        }
+        return target;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void putExisting() {
+        int index = next;
+        next = index + 1 == dataSize ? 0 : index + 1;
+        full.put(keys[index], index);
+    }
+}
@@ -0,0 +1,158 @@
+#!/bin/bash
+
+# Script to build and run the JMH benchmarks of the hash maps, headless, and turn the
+# results into the CSV files the visualizers read.
+#
+# Usage: ./run_benchmarks.sh [lookup|comparison|tester|matrix|concurrency|all] [--quick]
+#   lookup      SimpleHashMap lookups by data and map size   -> lookup_performance.csv
+#   comparison  SimpleHashMap against java.util.HashMap      -> hashmap_comparison.csv
+#   tester      ArnabSimpleHashMap against java.util.HashMap -> insertion_results.csv, lookup_results.csv
+#   matrix      every operation, map, hash function (weak and production-grade) and key type
+#               at three load factors
+#   concurrency ConcurrentSimpleHashMap against ConcurrentHashMap, shared by 1 to 32 threads
+#                                                             -> concurrent_throughput.csv
+#   all         all of the above (the default)
+#   --quick     short warm-up and measurement, for checking the setup rather than for numbers
+# Results go to results/; map_benchmarks.csv there has every score.
+
+# Colors for output
+GREEN='\033[0;32m'
+YELLOW='\033[1;33m'
+RED='\033[0;31m'
+NC='\033[0m' # No Color
+
+# Function to print section headers
+print_header() {
+    echo -e "\n${YELLOW}=== $1 ===${NC}\n"
+}
+
+BENCH_DIR="$(cd "$(dirname "$0")" && pwd)"
+HASHMAPPER_DIR="${BENCH_DIR}/../HashMapper:Text-Fingerprinting-Systems/HashMapper-Code"
+SIMPLE_DIR="${BENCH_DIR}/../SimpleHashMap/code"
+LIB_DIR="${BENCH_DIR}/lib"
+BUILD_DIR="${BENCH_DIR}/build"
+RESULTS_DIR="${BENCH_DIR}/results"
+
+JMH_VERSION="1.37"
+MAVEN="https://repo1.maven.org/maven2"
+
+# Determine the classpath separator based on OS
+if [[ "$OSTYPE" == "msys" || "$OSTYPE" == "win32" || "$OSTYPE" == "cygwin" ]]; then
+    CP_SEP=";"
+else
+    CP_SEP=":"
+fi
+
+SUITE="all"
+JMH_OPTIONS=()
+for ARG in "$@"; do
+    case "$ARG" in
+        --quick) JMH_OPTIONS=(-wi 1 -w 200ms -i 2 -r 200ms -f 1) ;;
+        lookup|comparison|tester|matrix|concurrency|all) SUITE="$ARG" ;;
+        *) echo -e "${RED}Unknown argument: $ARG${NC}"; exit 1 ;;
+    esac
+done
+
+print_header "Checking JMH libraries"
+
+mkdir -p "$LIB_DIR"
+download() {
+    if [ ! -f "$LIB_DIR/$2" ]; then
+        echo "Downloading $2..."
+        if ! curl -fsSL "$MAVEN/$1/$2" -o "$LIB_DIR/$2"; then
+            echo -e "${RED}Error: Failed to download $MAVEN/$1/$2${NC}"
+            rm -f "$LIB_DIR/$2"
+            exit 1
+        fi
+    fi
+}
+download "org/openjdk/jmh/jmh-core/$JMH_VERSION" "jmh-core-$JMH_VERSION.jar"
+download "org/openjdk/jmh/jmh-generator-annprocess/$JMH_VERSION" "jmh-generator-annprocess-$JMH_VERSION.jar"
+download "net/sf/jopt-simple/jopt-simple/5.0.4" "jopt-simple-5.0.4.jar"
+download "org/apache/commons/commons-math3/3.6.1" "commons-math3-3.6.1.jar"
+# JFreeChart is needed by HashMapper.java. It is copied because the HashMapper directory
+# name contains a colon, which cannot appear in a classpath
+cp -n "$HASHMAPPER_DIR"/lib/*.jar "$LIB_DIR"/
+echo -e "${GREEN}✓ JMH libraries ready${NC}"
+
+print_header "Compiling benchmarks"
+
+# The maps under test are compiled from their own projects
+CLASSPATH="${LIB_DIR}/*"
+rm -rf "$BUILD_DIR"
+mkdir -p "$BUILD_DIR"
+if ! javac -nowarn -cp "$CLASSPATH" -d "$BUILD_DIR" \
+        -processor org.openjdk.jmh.generators.BenchmarkProcessor \
+        "$HASHMAPPER_DIR/java/SimpleHashMap.java" "$HASHMAPPER_DIR/java/HashMapper.java" \
+        "$HASHMAPPER_DIR/java/HashFunction.java" "$HASHMAPPER_DIR/java/HashFunctions.java" \
+        "$HASHMAPPER_DIR/java/OpenAddressingHashMap.java" "$HASHMAPPER_DIR/java/ConcurrentSimpleHashMap.java" \
+        "$SIMPLE_DIR/ArnabSimpleHashMap.java" "$BENCH_DIR"/java/*.java "$BENCH_DIR"/java/benchmarks/*.java; then
+    echo -e "${RED}Error: Failed to compile the benchmarks.${NC}"
+    exit 1
+fi
+echo -e "${GREEN}✓ Benchmarks compiled${NC}"
+
+mkdir -p "$RESULTS_DIR"
+RUN_CP="${BUILD_DIR}${CP_SEP}${CLASSPATH}"
+RESULT_FILES=()
+
+# Run benchmarks matching a pattern with the given parameters, saving results to a CSV file
+run_jmh() {
+    local NAME="$1"
+    shift
+    print_header "Running $NAME benchmarks"
+    if ! java -Djava.awt.headless=true -cp "$RUN_CP" org.openjdk.jmh.Main "$@" "${JMH_OPTIONS[@]}" \
+            -rf csv -rff "$RESULTS_DIR/jmh_$NAME.csv"; then
+        echo -e "${RED}Error: $NAME benchmarks failed.${NC}"
+        exit 1
+    fi
+    RESULT_FILES+=("$RESULTS_DIR/jmh_$NAME.csv")
+}
+
+if [[ "$SUITE" == "lookup" || "$SUITE" == "all" ]]; then
+    run_jmh lookup 'MapLookupBenchmark.getHit$' -p "map=SimpleHashMap/String Length" -p keyType=String \
+        -p dataSize=10000,50000,100000 -p mapSize=16,64,256,1024,4096
+fi
+
+if [[ "$SUITE" == "comparison" || "$SUITE" == "all" ]]; then
+    run_jmh comparison 'MapLookupBenchmark.getHit$' -p "map=SimpleHashMap/String Length,JavaHashMap" \
+        -p keyType=String -p dataSize=10000,50000,100000 -p mapSize=1024
+fi
+
+if [[ "$SUITE" == "tester" || "$SUITE" == "all" ]]; then
+    run_jmh tester 'MapLookupBenchmark.getHit$|MapUpdateBenchmark.fill$' -p "map=ArnabSimpleHashMap,JavaHashMap" \
+        -p keyType=String -p dataSize=1000,5000,10000,50000,100000 -p mapSize=16
+fi
+
+if [[ "$SUITE" == "matrix" || "$SUITE" == "all" ]]; then
+    # 10,000 keys at load factors 0.5, 2 and 8 for the fixed-size maps; DumbHashMap has no remove
+    HASH_FUNCTIONS=("String Length" "First Character" "First + Last Character" "Character Sum" "Random"
+                    "FNV-1a" "Murmur3" "xxHash" "wyhash")
+    REMOVABLE_MAPS="OpenAddressingHashMap,ArnabSimpleHashMap,JavaHashMap"
+    DUMB_MAPS=""
+    for HASH in "${HASH_FUNCTIONS[@]}"; do
+        REMOVABLE_MAPS="SimpleHashMap/$HASH,$REMOVABLE_MAPS"
+        DUMB_MAPS="$DUMB_MAPS,DumbHashMap/$HASH"
+    done
+    run_jmh matrix 'MapLookupBenchmark|MapUpdateBenchmark' -p "map=$REMOVABLE_MAPS$DUMB_MAPS" \
+        -p keyType=String,Integer -p dataSize=10000 -p mapSize=20000,5000,1250
+    run_jmh matrix_remove 'MapRemoveBenchmark' -p "map=$REMOVABLE_MAPS" \
+        -p keyType=String,Integer -p dataSize=10000 -p mapSize=20000,5000,1250
+fi
+
+if [[ "$SUITE" == "concurrency" || "$SUITE" == "all" ]]; then
+    # JMH takes one thread count per run
+    for THREADS in 1 2 4 8 16 32; do
+        run_jmh "concurrency_t$THREADS" 'MapConcurrencyBenchmark' -t "$THREADS"
+    done
+fi
+
+print_header "Writing CSV files"
+
+if ! java -cp "$BUILD_DIR" benchmarks.BenchmarkCsvExporter "$RESULTS_DIR" "${RESULT_FILES[@]}"; then
+    echo -e "${RED}Error: Failed to write the CSV files.${NC}"
+    exit 1
+fi
+echo -e "${GREEN}✓ Results written to $RESULTS_DIR${NC}"
+echo "Copy lookup_performance.csv and hashmap_comparison.csv to HashMapper-Code, or"
+echo "insertion_results.csv and lookup_results.csv to SimpleHashMap, to plot them."